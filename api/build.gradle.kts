@@ -7,6 +7,7 @@ dependencies {
   compileOnly("net.kyori:adventure-key:4.25.0")
   compileOnly("org.jspecify:jspecify:1.0.0")
   compileOnly("org.jetbrains:annotations:24.1.0")
+  annotationProcessor(project(":processor"))
 
   testImplementation("net.kyori:adventure-key:4.25.0")
 }
@@ -0,0 +1,125 @@
+package dev.lunaplugins.economy.api;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.util.List;
+import java.util.UUID;
+
+/// The accounts of a currency with a non-zero balance, ordered from the highest to the
+/// lowest balance, as returned by [LunaCurrency#ranking()]. Equal balances are ordered
+/// by UUID.
+///
+/// The ranking is maintained incrementally, so ranks, pages and ranges of balances are
+/// found in logarithmic time. It is not updated atomically with the balances: changes
+/// are applied by the next query, so every query reflects all changes which completed
+/// before it started, but may or may not contain changes which are being made
+/// concurrently. While a [range iteration][#forEachBetween(long, long, long, long, EntryConsumer)]
+/// is in progress, changes are deferred until it finishes.
+///
+/// The values are the `long` values the currency stores internally: the balance of
+/// integer currencies and the amount of units of a
+/// [FixedPointCurrency][dev.lunaplugins.economy.api.currencies.FixedPointCurrency].
+@NullMarked
+public interface BalanceRanking {
+
+  /// The amount of ranked accounts.
+  ///
+  /// @return amount of accounts with a non-zero balance
+  int size();
+
+  /// The accounts with the highest balances.
+  ///
+  /// @param count maximum amount of accounts to return
+  /// @return the entries of the accounts, from the highest to the lowest balance
+  default List<Entry> top(final int count) {
+    return this.range(0, count);
+  }
+
+  /// A page of the ranking.
+  ///
+  /// @param page index of the page, starting at `0`
+  /// @param pageSize amount of accounts per page
+  /// @return the entries of the page, from the highest to the lowest balance
+  /// @throws IllegalArgumentException if the page is negative or the page size is not positive
+  default List<Entry> page(final int page, final int pageSize) {
+    if (page < 0 || pageSize < 1) {
+      throw new IllegalArgumentException("Invalid page " + page + " of size " + pageSize);
+    }
+    return this.range((long) page * pageSize, pageSize);
+  }
+
+  /// Consecutive entries of the ranking.
+  ///
+  /// @param offset amount of accounts to skip, starting from the highest balance
+  /// @param limit maximum amount of accounts to return
+  /// @return the entries of the accounts, from the highest to the lowest balance
+  /// @throws IllegalArgumentException if the offset or limit is negative
+  List<Entry> range(long offset, int limit);
+
+  /// The amount of ranked accounts with a balance between two bounds.
+  ///
+  /// @param min lowest balance, inclusive
+  /// @param max highest balance, inclusive
+  /// @return amount of accounts
+  long countBetween(long min, long max);
+
+  /// A page of the accounts with a balance between two bounds.
+  ///
+  /// @param min lowest balance, inclusive
+  /// @param max highest balance, inclusive
+  /// @param page index of the page, starting at `0`
+  /// @param pageSize amount of accounts per page
+  /// @return the entries of the page, from the highest to the lowest balance
+  /// @throws IllegalArgumentException if the page is negative or the page size is not positive
+  List<Entry> pageBetween(long min, long max, int page, int pageSize);
+
+  /// Iterates over all accounts with a balance between two bounds.
+  ///
+  /// @param min lowest balance, inclusive
+  /// @param max highest balance, inclusive
+  /// @param consumer consumer receiving every account and its balance
+  /// @return amount of visited accounts
+  /// @see #forEachBetween(long, long, long, long, EntryConsumer)
+  default long forEachBetween(final long min, final long max, final EntryConsumer consumer) {
+    return this.forEachBetween(min, max, 0, Long.MAX_VALUE, consumer);
+  }
+
+  /// Iterates over consecutive accounts with a balance between two bounds, from the
+  /// highest to the lowest balance, such as all accounts with a balance of at least `X`.
+  ///
+  /// The accounts are streamed in small batches without collecting all of them first,
+  /// and the consumer is never called while the ranking is locked. It may therefore
+  /// query the ranking or change balances of the currency, e.g. to tax every visited
+  /// account. Changes are not applied to the ranking until the iteration finishes, so
+  /// every account is visited at most once, with the balance it had when the iteration
+  /// started. Until then, other queries see the ranking as of that point in time.
+  ///
+  /// @param min lowest balance, inclusive
+  /// @param max highest balance, inclusive
+  /// @param offset amount of matching accounts to skip
+  /// @param limit maximum amount of accounts to visit
+  /// @param consumer consumer receiving every account and its balance
+  /// @return amount of visited accounts
+  /// @throws IllegalArgumentException if the offset or limit is negative
+  long forEachBetween(long min, long max, long offset, long limit, EntryConsumer consumer);
+
+  /// The rank of an account, which is `1` for the highest balance.
+  ///
+  /// @param uuid UUID of the player
+  /// @return the rank of the account, or `-1` if its balance is `0`
+  long rankOf(UUID uuid);
+
+  /// An entry of the ranking.
+  ///
+  /// @param uuid UUID of the player
+  /// @param balance balance of the player
+  /// @param rank rank of the player, which is `1` for the highest balance
+  record Entry(UUID uuid, long balance, long rank) {
+  }
+
+  /// A consumer of the accounts of a ranking, keyed by the halves of their [UUID].
+  @FunctionalInterface
+  interface EntryConsumer {
+    void accept(long mostSigBits, long leastSigBits, long balance);
+  }
+}
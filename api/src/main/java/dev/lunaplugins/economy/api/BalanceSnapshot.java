@@ -0,0 +1,43 @@
+package dev.lunaplugins.economy.api;
+
+import org.jspecify.annotations.NullMarked;
+
+/// An immutable view of the balances of every account of a currency at a single point
+/// in time, as returned by [LunaCurrency#snapshot()].
+///
+/// Taking a snapshot does not copy any balances and writers are not blocked while it is
+/// open. Instead, the currency keeps a copy of every part of its storage which is changed
+/// afterwards, so the memory overhead is limited to the parts changed while the snapshot
+/// is open. Snapshots therefore have to be [closed][#close()] as soon as they are no
+/// longer needed.
+///
+/// The values are the `long` values the currency stores internally: the balance of
+/// integer currencies and the amount of units of a
+/// [FixedPointCurrency][dev.lunaplugins.economy.api.currencies.FixedPointCurrency].
+@NullMarked
+public interface BalanceSnapshot extends AutoCloseable {
+
+  /// The logical timestamp of this snapshot. Snapshots of the same currency taken later
+  /// on have a higher epoch.
+  ///
+  /// @return epoch of this snapshot
+  long epoch();
+
+  /// Iterates over every account which had a non-zero balance when this snapshot was
+  /// taken, in no particular order. This can be done any number of times while the
+  /// snapshot is open, always producing the same entries.
+  ///
+  /// @param consumer consumer receiving every account and its balance
+  /// @throws IllegalStateException if this snapshot has been closed
+  void forEach(EntryConsumer consumer);
+
+  /// Releases the copies kept for this snapshot. Closing a snapshot more than once has no effect.
+  @Override
+  void close();
+
+  /// A consumer of the entries of a snapshot.
+  @FunctionalInterface
+  interface EntryConsumer {
+    void accept(long mostSigBits, long leastSigBits, long value);
+  }
+}
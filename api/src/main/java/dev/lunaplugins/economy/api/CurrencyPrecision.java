@@ -6,4 +6,19 @@ public interface CurrencyPrecision {
   default boolean isDecimal() {
     return !this.isInteger();
   }
+
+  /// Whether every value is stored exactly in base ten, meaning no rounding
+  /// errors of binary floating point numbers can occur.
+  ///
+  /// @return whether values are exact
+  default boolean isExact() {
+    return true;
+  }
+
+  /// The fixed amount of fractional decimal digits stored by this currency.
+  ///
+  /// @return amount of fractional digits, `0` for integer currencies or `-1` if not fixed
+  default int scale() {
+    return this.isInteger() ? 0 : -1;
+  }
 }
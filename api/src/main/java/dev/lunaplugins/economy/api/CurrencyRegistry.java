@@ -0,0 +1,55 @@
+package dev.lunaplugins.economy.api;
+
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collection;
+
+/// The registry of all available currencies, looked up by their [Key].
+///
+/// The registry is provided through Paper's `ServicesManager`, so other plugins can
+/// retrieve it using `Bukkit.getServicesManager().load(CurrencyRegistry.class)`.
+///
+/// Lookups are lock-free and are expected to be called for every transaction, so
+/// there is no need to cache the returned currencies. Registering or unregistering a
+/// currency is comparatively expensive and never blocks concurrent lookups.
+@NullMarked
+public interface CurrencyRegistry {
+
+  /// Looks up a currency.
+  ///
+  /// @param key key of the currency
+  /// @return the currency, or `null` if none is registered with that key
+  @Nullable LunaCurrency get(Key key);
+
+  /// Looks up a currency that is expected to be registered.
+  ///
+  /// @param key key of the currency
+  /// @return the currency
+  /// @throws IllegalArgumentException if no currency is registered with that key
+  default LunaCurrency require(final Key key) {
+    final @Nullable LunaCurrency currency = this.get(key);
+    if (currency == null) {
+      throw new IllegalArgumentException("Unknown currency " + key.asString());
+    }
+    return currency;
+  }
+
+  /// All registered currencies, as an immutable point-in-time view.
+  ///
+  /// @return registered currencies
+  Collection<LunaCurrency> currencies();
+
+  /// Registers a currency under its [key][LunaCurrency#key()].
+  ///
+  /// @param currency currency to register
+  /// @throws IllegalStateException if another currency has already been registered with the same key
+  void register(LunaCurrency currency);
+
+  /// Removes a currency from this registry.
+  ///
+  /// @param key key of the currency
+  /// @return the removed currency, or `null` if none was registered with that key
+  @Nullable LunaCurrency unregister(Key key);
+}
@@ -1,5 +1,6 @@
 package dev.lunaplugins.economy.api;
 
+import dev.lunaplugins.economy.api.metrics.BalanceStatistics;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.key.Keyed;
 import org.jspecify.annotations.NullMarked;
@@ -7,8 +8,14 @@ import org.jspecify.annotations.Nullable;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Supplier;
 
 /// A general representation of a single currency type.
@@ -30,6 +37,11 @@ import java.util.function.Supplier;
 ///
 /// All methods **have to be thread-safe**. If you require their completion inside a [CompletableFuture],
 /// it is safe to run them inside a [CompletableFuture#supplyAsync(Supplier)] for later use.
+///
+/// Some default implementations synchronize on the currency instance itself, since an
+/// interface cannot hold a private lock. Callers must therefore never synchronize on
+/// currency instances, which could block or deadlock these operations. The bundled
+/// backends override all of them with lock-free or internally locked implementations.
 @NullMarked
 public interface LunaCurrency extends CurrencyPrecision, Keyed {
   /// The key of this currency. It has to be unique and is used
@@ -205,6 +217,80 @@ public interface LunaCurrency extends CurrencyPrecision, Keyed {
   }
   //</editor-fold>
 
+  //<editor-fold desc="Bulk getters">
+
+  /// A getter for the balances of many users at once.
+  ///
+  /// This variant provides `long`s, following the same rules as [#longValue(UUID)].
+  /// The sink is called exactly once for every provided [UUID], in the iteration order of
+  /// the collection. Backends are encouraged to override this method to retrieve all
+  /// balances in a single round trip.
+  ///
+  /// @param uuids UUIDs of the players to check
+  /// @param sink consumer receiving each UUID together with its balance
+  default void longValues(final Collection<UUID> uuids, final ObjLongConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.longValue(uuid));
+    }
+  }
+
+  /// A getter for the balances of many users at once.
+  ///
+  /// This variant returns `long`s, following the same rules as [#longValue(UUID)].
+  ///
+  /// @param uuids UUIDs of the players to check
+  /// @return balances of the provided users, at the same indices as their UUIDs
+  default long[] longValues(final List<UUID> uuids) {
+    final long[] values = new long[uuids.size()];
+    final int[] index = {0};
+    this.longValues(uuids, (uuid, value) -> values[index[0]++] = value);
+    return values;
+  }
+
+  /// A getter for the balances of many users at once.
+  ///
+  /// This variant provides `double`s, following the same rules as [#doubleValue(UUID)].
+  /// The sink is called exactly once for every provided [UUID], in the iteration order of
+  /// the collection. Backends are encouraged to override this method to retrieve all
+  /// balances in a single round trip.
+  ///
+  /// @param uuids UUIDs of the players to check
+  /// @param sink consumer receiving each UUID together with its balance
+  default void doubleValues(final Collection<UUID> uuids, final ObjDoubleConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.doubleValue(uuid));
+    }
+  }
+
+  /// A getter for the balances of many users at once.
+  ///
+  /// This variant returns `double`s, following the same rules as [#doubleValue(UUID)].
+  ///
+  /// @param uuids UUIDs of the players to check
+  /// @return balances of the provided users, at the same indices as their UUIDs
+  default double[] doubleValues(final List<UUID> uuids) {
+    final double[] values = new double[uuids.size()];
+    final int[] index = {0};
+    this.doubleValues(uuids, (uuid, value) -> values[index[0]++] = value);
+    return values;
+  }
+
+  /// A getter for the balances of many users at once.
+  ///
+  /// This variant provides [BigDecimal]s, following the same rules as [#bigDecimalValue(UUID)].
+  /// The sink is called exactly once for every provided [UUID], in the iteration order of
+  /// the collection. Backends are encouraged to override this method to retrieve all
+  /// balances in a single round trip.
+  ///
+  /// @param uuids UUIDs of the players to check
+  /// @param sink consumer receiving each UUID together with its balance
+  default void bigDecimalValues(final Collection<UUID> uuids, final BiConsumer<UUID, BigDecimal> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.bigDecimalValue(uuid));
+    }
+  }
+  //</editor-fold>
+
   //<editor-fold desc="A bunch of numerical setters">
 
   /// A setter for a user's balance.
@@ -575,5 +661,424 @@ public interface LunaCurrency extends CurrencyPrecision, Keyed {
       return BigDecimal.ZERO;
     }
   }
+
+  /// Add (or subtract, if given a negative amount) from a user's balance, without
+  /// returning the old value.
+  ///
+  /// This variant follows the same rules as [#addLongValue(UUID,long)]. Currencies
+  /// receiving many small changes may coalesce increments and apply them later on, which
+  /// is much cheaper under contention. Coalesced increments are always included in
+  /// subsequent reads and writes of the same balance, but not necessarily in
+  /// [BalanceChangeStream][dev.lunaplugins.economy.api.events.BalanceChangeStream]
+  /// events until they have been applied.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param value value to add (or subtract if negative) to the player's balance
+  default void increment(final UUID uuid, final long value) {
+    this.addLongValue(uuid, value);
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="Multi-user operations">
+
+  /// Moves an amount from one user's balance to another one's as a single atomic operation.
+  ///
+  /// The transfer fails without any modification if the sender's balance is lower than the
+  /// amount, or if the receiver's balance cannot hold the amount without saturating. Money
+  /// is therefore never lost: either the full amount is moved, or nothing is.
+  ///
+  /// The default implementation synchronizes on this currency and is only atomic in
+  /// regard to other callers of the default multi-user operations. Backends are
+  /// expected to override it.
+  ///
+  /// @param from UUID of the player to take the amount from
+  /// @param to UUID of the player to give the amount to
+  /// @param amount non-negative amount to transfer
+  /// @return whether the amount has been transferred
+  /// @throws IllegalArgumentException if the amount is negative
+  default boolean transfer(final UUID from, final UUID to, final long amount) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Cannot transfer a negative amount: " + amount);
+    }
+    // Balances are compared at the precision of the currency, since truncating fractional ones to longs
+    // would make transfers fail spuriously and the rollback overwrite the fraction of the receiver
+    final BigDecimal exactAmount = BigDecimal.valueOf(amount);
+    synchronized (this) {
+      if (this.bigDecimalValue(from).compareTo(exactAmount) < 0) {
+        return false;
+      }
+      final BigDecimal toValue = this.bigDecimalValue(to);
+      this.addLongValue(to, amount);
+      if (this.bigDecimalValue(to).subtract(toValue).compareTo(exactAmount) != 0) {
+        // The receiver saturated or could not represent its new balance, so the transfer is rolled back
+        this.bigDecimalValue(to, toValue);
+        return false;
+      }
+      this.addLongValue(from, -amount);
+      return true;
+    }
+  }
+
+  /// Applies all operations of a [WriteBatch] as a single atomic unit.
+  ///
+  /// The default implementation synchronizes on this currency and is only atomic in
+  /// regard to other callers of the default multi-user operations. Backends are
+  /// expected to override it.
+  ///
+  /// @param batch batch to apply
+  default void apply(final WriteBatch batch) {
+    synchronized (this) {
+      for (int i = 0; i < batch.size(); i++) {
+        if (batch.isSet(i)) {
+          this.longValue(batch.uuid(i), batch.value(i));
+        } else {
+          this.addLongValue(batch.uuid(i), batch.value(i));
+        }
+      }
+    }
+  }
+
+  /// Takes a consistent snapshot of the balances of all accounts.
+  ///
+  /// All balances of the snapshot are those at a single point in time: every
+  /// operation on this currency either happened before the snapshot has been taken
+  /// and is fully contained in it, or happened afterwards and is not contained at all.
+  /// This makes snapshots suitable for backups, exports and statistics like the total
+  /// money supply, while writers continue concurrently.
+  ///
+  /// Not every backend can enumerate its accounts, so this is an optional operation.
+  ///
+  /// @return the snapshot, which has to be closed after use
+  /// @throws UnsupportedOperationException if this currency does not support snapshots
+  default BalanceSnapshot snapshot() {
+    throw new UnsupportedOperationException(this.key().asString() + " does not support snapshots");
+  }
+
+  /// The aggregate statistics of the balances of all accounts.
+  ///
+  /// Backends supporting this maintain the statistics incrementally with every change,
+  /// so reading them takes constant time no matter how many accounts exist. Unlike a
+  /// [snapshot][#snapshot()], concurrent changes may be partially contained.
+  ///
+  /// @return the current statistics
+  /// @throws UnsupportedOperationException if this currency does not maintain statistics
+  default BalanceStatistics statistics() {
+    throw new UnsupportedOperationException(this.key().asString() + " does not maintain statistics");
+  }
+
+  /// The accounts with a non-zero balance, ordered from the highest to the lowest balance.
+  ///
+  /// Backends supporting this maintain the ranking incrementally, so it can back
+  /// leaderboards and similar features without enumerating all accounts.
+  ///
+  /// @return the ranking of this currency
+  /// @throws UnsupportedOperationException if this currency does not maintain a ranking
+  default BalanceRanking ranking() {
+    throw new UnsupportedOperationException(this.key().asString() + " does not maintain a ranking");
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="Atomic primitives">
+
+  /// Atomically sets a user's balance to `value` if it currently equals `expected`.
+  ///
+  /// This is the primitive all read-modify-write operations are built upon. Values
+  /// outside the range of the backing implementation are clamped.
+  ///
+  /// The default implementation synchronizes on this currency and is only atomic in
+  /// regard to other callers of the default compare-and-set methods. A concurrent
+  /// setter bypasses the lock, so unless a backend overrides this method with a real
+  /// compare-and-set operation, every writer has to go through these primitives.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param expected the value the player's balance is expected to have
+  /// @param value new value of the player's balance
+  /// @return whether the balance has been updated
+  default boolean compareAndSetLong(final UUID uuid, final long expected, final long value) {
+    synchronized (this) {
+      if (this.longValue(uuid) != expected) {
+        return false;
+      }
+      this.longValue(uuid, value);
+      return true;
+    }
+  }
+
+  /// Atomically updates a user's balance using the provided operator.
+  ///
+  /// The operator may be called multiple times under contention, so it should be
+  /// free of side effects. Results outside the range of the backing implementation
+  /// are clamped instead of overflowing. This method returns the value that was set
+  /// *before* this operation has been run.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param operator function computing the new balance from the current one
+  /// @return old value of the player's balance
+  default long updateLong(final UUID uuid, final LongUnaryOperator operator) {
+    long prev;
+    do {
+      prev = this.longValue(uuid);
+    } while (!this.compareAndSetLong(uuid, prev, operator.applyAsLong(prev)));
+    return prev;
+  }
+  //</editor-fold>
+
+  //<editor-fold desc="Overloads keyed by UUID halves">
+
+  /// A getter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant returns an `int`, see [#intValue(UUID)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @return balance of the provided user
+  default int intValue(final long mostSigBits, final long leastSigBits) {
+    return this.intValue(new UUID(mostSigBits, leastSigBits));
+  }
+
+  /// A getter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant returns a `long`, see [#longValue(UUID)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @return balance of the provided user
+  default long longValue(final long mostSigBits, final long leastSigBits) {
+    return this.longValue(new UUID(mostSigBits, leastSigBits));
+  }
+
+  /// A getter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant returns a `float`, see [#floatValue(UUID)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @return balance of the provided user
+  default float floatValue(final long mostSigBits, final long leastSigBits) {
+    return this.floatValue(new UUID(mostSigBits, leastSigBits));
+  }
+
+  /// A getter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant returns a `double`, see [#doubleValue(UUID)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @return balance of the provided user
+  default double doubleValue(final long mostSigBits, final long leastSigBits) {
+    return this.doubleValue(new UUID(mostSigBits, leastSigBits));
+  }
+
+  /// A getter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant returns a [BigInteger], see [#bigIntValue(UUID)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @return balance of the provided user
+  default BigInteger bigIntValue(final long mostSigBits, final long leastSigBits) {
+    return this.bigIntValue(new UUID(mostSigBits, leastSigBits));
+  }
+
+  /// A getter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant returns a [BigDecimal], see [#bigDecimalValue(UUID)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @return balance of the provided user
+  default BigDecimal bigDecimalValue(final long mostSigBits, final long leastSigBits) {
+    return this.bigDecimalValue(new UUID(mostSigBits, leastSigBits));
+  }
+
+  /// A setter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant uses an `int`, see [#intValue(UUID, int)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value new value of the player's balance
+  /// @return old value of the player's balance
+  default int intValue(final long mostSigBits, final long leastSigBits, final int value) {
+    return this.intValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// A setter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant uses a `long`, see [#longValue(UUID, long)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value new value of the player's balance
+  /// @return old value of the player's balance
+  default long longValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.longValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// A setter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant uses a `float`, see [#floatValue(UUID, float)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value new value of the player's balance
+  /// @return old value of the player's balance
+  default float floatValue(final long mostSigBits, final long leastSigBits, final float value) {
+    return this.floatValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// A setter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant uses a `double`, see [#doubleValue(UUID, double)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value new value of the player's balance
+  /// @return old value of the player's balance
+  default double doubleValue(final long mostSigBits, final long leastSigBits, final double value) {
+    return this.doubleValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// A setter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant uses a [BigInteger], see [#bigIntValue(UUID, BigInteger)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value new value of the player's balance
+  /// @return old value of the player's balance
+  default BigInteger bigIntValue(final long mostSigBits, final long leastSigBits, final BigInteger value) {
+    return this.bigIntValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// A setter for a user's balance, keyed by the two halves of their [UUID].
+  ///
+  /// This variant uses a [BigDecimal], see [#bigDecimalValue(UUID, BigDecimal)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value new value of the player's balance
+  /// @return old value of the player's balance
+  default BigDecimal bigDecimalValue(final long mostSigBits, final long leastSigBits, final BigDecimal value) {
+    return this.bigDecimalValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// Adds to (or subtracts from, if given a negative amount) a user's balance, keyed by
+  /// the two halves of their [UUID].
+  ///
+  /// This variant uses an `int`, see [#addIntValue(UUID, int)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value amount to add (or subtract if negative) to the player's balance
+  /// @return old value of the player's balance
+  default int addIntValue(final long mostSigBits, final long leastSigBits, final int value) {
+    return this.addIntValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// Adds to (or subtracts from, if given a negative amount) a user's balance, keyed by
+  /// the two halves of their [UUID].
+  ///
+  /// This variant uses a `long`, see [#addLongValue(UUID, long)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value amount to add (or subtract if negative) to the player's balance
+  /// @return old value of the player's balance
+  default long addLongValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.addLongValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// Adds to (or subtracts from, if given a negative amount) a user's balance, keyed by
+  /// the two halves of their [UUID].
+  ///
+  /// This variant uses a `float`, see [#addFloatValue(UUID, float)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value amount to add (or subtract if negative) to the player's balance
+  /// @return old value of the player's balance
+  default float addFloatValue(final long mostSigBits, final long leastSigBits, final float value) {
+    return this.addFloatValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// Adds to (or subtracts from, if given a negative amount) a user's balance, keyed by
+  /// the two halves of their [UUID].
+  ///
+  /// This variant uses a `double`, see [#addDoubleValue(UUID, double)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value amount to add (or subtract if negative) to the player's balance
+  /// @return old value of the player's balance
+  default double addDoubleValue(final long mostSigBits, final long leastSigBits, final double value) {
+    return this.addDoubleValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// Adds to (or subtracts from, if given a negative amount) a user's balance, keyed by
+  /// the two halves of their [UUID].
+  ///
+  /// This variant uses a [BigInteger], see [#addBigIntValue(UUID, BigInteger)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value amount to add (or subtract if negative) to the player's balance
+  /// @return old value of the player's balance
+  default BigInteger addBigIntValue(final long mostSigBits, final long leastSigBits, final BigInteger value) {
+    return this.addBigIntValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// Adds to (or subtracts from, if given a negative amount) a user's balance, keyed by
+  /// the two halves of their [UUID].
+  ///
+  /// This variant uses a [BigDecimal], see [#addBigDecimalValue(UUID, BigDecimal)]. Backends override it to avoid
+  /// creating a [UUID] instance for every call.
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value amount to add (or subtract if negative) to the player's balance
+  /// @return old value of the player's balance
+  default BigDecimal addBigDecimalValue(final long mostSigBits, final long leastSigBits, final BigDecimal value) {
+    return this.addBigDecimalValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// Atomically sets a user's balance to `value` if it currently equals `expected`, keyed by
+  /// the two halves of their [UUID]. See [#compareAndSetLong(UUID, long, long)].
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param expected the value the player's balance is expected to have
+  /// @param value new value of the player's balance
+  /// @return whether the balance has been updated
+  default boolean compareAndSetLong(final long mostSigBits, final long leastSigBits, final long expected, final long value) {
+    return this.compareAndSetLong(new UUID(mostSigBits, leastSigBits), expected, value);
+  }
+
+  /// Adds to (or subtracts from, if given a negative amount) a user's balance without
+  /// returning the old value, keyed by the two halves of their [UUID]. See [#increment(UUID, long)].
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value amount to add (or subtract if negative) to the player's balance
+  default void increment(final long mostSigBits, final long leastSigBits, final long value) {
+    this.increment(new UUID(mostSigBits, leastSigBits), value);
+  }
   //</editor-fold>
 }
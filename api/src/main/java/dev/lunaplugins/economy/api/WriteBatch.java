@@ -0,0 +1,137 @@
+package dev.lunaplugins.economy.api;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/// A list of balance modifications which are applied as a single unit
+/// using [LunaCurrency#apply(WriteBatch)].
+///
+/// Operations are applied in the order they have been added. Each of them follows
+/// the same rules as its single-user counterpart, [LunaCurrency#longValue(UUID,long)]
+/// and [LunaCurrency#addLongValue(UUID,long)] respectively.
+///
+/// The operations are recorded in primitive arrays, so a batch can be cleared and
+/// reused without producing any garbage. Instances of this class are **not** thread-safe.
+public final class WriteBatch {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private long[] mostSigBits;
+  private long[] leastSigBits;
+  private long[] values;
+  private boolean[] sets;
+  private int size;
+
+  /// Creates a new, empty batch.
+  public WriteBatch() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /// Creates a new, empty batch.
+  ///
+  /// @param capacity amount of operations this batch can hold before it has to grow
+  public WriteBatch(final int capacity) {
+    final int initial = Math.max(capacity, 1);
+    this.mostSigBits = new long[initial];
+    this.leastSigBits = new long[initial];
+    this.values = new long[initial];
+    this.sets = new boolean[initial];
+  }
+
+  /// Adds an operation setting a user's balance.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param value new value of the player's balance
+  /// @return this batch
+  public WriteBatch set(final UUID uuid, final long value) {
+    return this.append(uuid, value, true);
+  }
+
+  /// Adds an operation adding to (or subtracting from, if given a negative amount) a user's balance.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param value value to add (or subtract if negative) to the player's balance
+  /// @return this batch
+  public WriteBatch add(final UUID uuid, final long value) {
+    return this.append(uuid, value, false);
+  }
+
+  private WriteBatch append(final UUID uuid, final long value, final boolean set) {
+    if (this.size == this.values.length) {
+      final int capacity = this.size * 2;
+      this.mostSigBits = Arrays.copyOf(this.mostSigBits, capacity);
+      this.leastSigBits = Arrays.copyOf(this.leastSigBits, capacity);
+      this.values = Arrays.copyOf(this.values, capacity);
+      this.sets = Arrays.copyOf(this.sets, capacity);
+    }
+    this.mostSigBits[this.size] = uuid.getMostSignificantBits();
+    this.leastSigBits[this.size] = uuid.getLeastSignificantBits();
+    this.values[this.size] = value;
+    this.sets[this.size] = set;
+    this.size++;
+    return this;
+  }
+
+  /// Removes all operations from this batch, keeping its capacity.
+  public void clear() {
+    this.size = 0;
+  }
+
+  /// The amount of operations in this batch.
+  ///
+  /// @return amount of operations
+  public int size() {
+    return this.size;
+  }
+
+  /// Whether this batch contains no operations.
+  ///
+  /// @return whether this batch is empty
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /// The most significant bits of the UUID targeted by an operation.
+  ///
+  /// @param index index of the operation
+  /// @return most significant bits of the UUID
+  public long mostSignificantBits(final int index) {
+    return this.mostSigBits[this.checkIndex(index)];
+  }
+
+  /// The least significant bits of the UUID targeted by an operation.
+  ///
+  /// @param index index of the operation
+  /// @return least significant bits of the UUID
+  public long leastSignificantBits(final int index) {
+    return this.leastSigBits[this.checkIndex(index)];
+  }
+
+  /// The UUID targeted by an operation.
+  ///
+  /// @param index index of the operation
+  /// @return UUID of the player
+  public UUID uuid(final int index) {
+    return new UUID(this.mostSignificantBits(index), this.leastSignificantBits(index));
+  }
+
+  /// The value of an operation; either the new balance or the amount to add.
+  ///
+  /// @param index index of the operation
+  /// @return value of the operation
+  public long value(final int index) {
+    return this.values[this.checkIndex(index)];
+  }
+
+  /// Whether an operation sets the balance, rather than adding to it.
+  ///
+  /// @param index index of the operation
+  /// @return whether the operation is a set operation
+  public boolean isSet(final int index) {
+    return this.sets[this.checkIndex(index)];
+  }
+
+  private int checkIndex(final int index) {
+    return Objects.checkIndex(index, this.size);
+  }
+}
@@ -6,6 +6,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.UUID;
 
+@GenerateAdapter
 public interface BigDecimalCurrency extends LunaCurrency {
 
   @Override
@@ -35,22 +36,22 @@ public interface BigDecimalCurrency extends LunaCurrency {
 
   @Override
   default int intValue(final UUID uuid, final int value) {
-    return ConversionUtils.downSampleToInt(this.bigDecimalValue(uuid, BigDecimal.valueOf(value)).toBigInteger());
+    return ConversionUtils.downSampleToInt(this.bigDecimalValue(uuid, BigDecimal.valueOf(value)));
   }
 
   @Override
   default long longValue(final UUID uuid, final long value) {
-    return ConversionUtils.downSampleToLong(this.bigDecimalValue(uuid, BigDecimal.valueOf(value)).toBigInteger());
+    return ConversionUtils.downSampleToLong(this.bigDecimalValue(uuid, BigDecimal.valueOf(value)));
   }
 
   @Override
   default float floatValue(final UUID uuid, final float value) {
-    return this.bigDecimalValue(uuid, BigDecimal.valueOf(value)).floatValue();
+    return this.bigDecimalValue(uuid, ConversionUtils.toBigDecimal(value)).floatValue();
   }
 
   @Override
   default double doubleValue(final UUID uuid, final double value) {
-    return this.bigDecimalValue(uuid, BigDecimal.valueOf(value)).doubleValue();
+    return this.bigDecimalValue(uuid, ConversionUtils.toBigDecimal(value)).doubleValue();
   }
 
   @Override
@@ -60,22 +61,22 @@ public interface BigDecimalCurrency extends LunaCurrency {
 
   @Override
   default int addIntValue(final UUID uuid, final int value) {
-    return ConversionUtils.downSampleToInt(this.addBigDecimalValue(uuid, BigDecimal.valueOf(value)).toBigInteger());
+    return ConversionUtils.downSampleToInt(this.addBigDecimalValue(uuid, BigDecimal.valueOf(value)));
   }
 
   @Override
   default long addLongValue(final UUID uuid, final long value) {
-    return ConversionUtils.downSampleToLong(this.addBigDecimalValue(uuid, BigDecimal.valueOf(value)).toBigInteger());
+    return ConversionUtils.downSampleToLong(this.addBigDecimalValue(uuid, BigDecimal.valueOf(value)));
   }
 
   @Override
   default float addFloatValue(final UUID uuid, final float value) {
-    return this.addBigDecimalValue(uuid, BigDecimal.valueOf(value)).floatValue();
+    return this.addBigDecimalValue(uuid, ConversionUtils.toBigDecimal(value)).floatValue();
   }
 
   @Override
   default double addDoubleValue(final UUID uuid, final double value) {
-    return this.addBigDecimalValue(uuid, BigDecimal.valueOf(value)).doubleValue();
+    return this.addBigDecimalValue(uuid, ConversionUtils.toBigDecimal(value)).doubleValue();
   }
 
   @Override
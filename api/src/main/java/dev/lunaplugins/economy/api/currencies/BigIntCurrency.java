@@ -4,8 +4,12 @@ import dev.lunaplugins.economy.api.LunaCurrency;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.ObjLongConsumer;
 
+@GenerateAdapter
 public interface BigIntCurrency extends LunaCurrency {
 
   @Override
@@ -45,12 +49,12 @@ public interface BigIntCurrency extends LunaCurrency {
 
   @Override
   default float floatValue(final UUID uuid, final float value) {
-    return this.bigIntValue(uuid, BigDecimal.valueOf(value).toBigInteger()).floatValue();
+    return this.bigIntValue(uuid, ConversionUtils.toBigInteger(value)).floatValue();
   }
 
   @Override
   default double doubleValue(final UUID uuid, final double value) {
-    return this.bigIntValue(uuid, BigDecimal.valueOf(value).toBigInteger()).doubleValue();
+    return this.bigIntValue(uuid, ConversionUtils.toBigInteger(value)).doubleValue();
   }
 
   @Override
@@ -70,12 +74,12 @@ public interface BigIntCurrency extends LunaCurrency {
 
   @Override
   default float addFloatValue(final UUID uuid, final float value) {
-    return this.addBigIntValue(uuid, BigDecimal.valueOf(value).toBigInteger()).floatValue();
+    return this.addBigIntValue(uuid, ConversionUtils.toBigInteger(value)).floatValue();
   }
 
   @Override
   default double addDoubleValue(final UUID uuid, final double value) {
-    return this.addBigIntValue(uuid, BigDecimal.valueOf(value).toBigInteger()).doubleValue();
+    return this.addBigIntValue(uuid, ConversionUtils.toBigInteger(value)).doubleValue();
   }
 
   @Override
@@ -83,6 +87,20 @@ public interface BigIntCurrency extends LunaCurrency {
     return new BigDecimal(this.addBigIntValue(uuid, value.toBigInteger()));
   }
 
+  @Override
+  default void longValues(final Collection<UUID> uuids, final ObjLongConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, ConversionUtils.downSampleToLong(this.bigIntValue(uuid)));
+    }
+  }
+
+  @Override
+  default void bigDecimalValues(final Collection<UUID> uuids, final BiConsumer<UUID, BigDecimal> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, new BigDecimal(this.bigIntValue(uuid)));
+    }
+  }
+
   @Override
   default boolean isInteger() {
     return true;
@@ -1,27 +1,198 @@
 package dev.lunaplugins.economy.api.currencies;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.RoundingMode;
 
-class ConversionUtils {
+/// The conversions between the number types of the precision interfaces.
+///
+/// Every conversion has a primitive fast path for the common magnitudes and only
+/// allocates intermediate [BigInteger]s or [BigDecimal]s when a value actually needs
+/// arbitrary precision. The results are identical to those of the straightforward
+/// conversion through [BigDecimal], which each method names as its reference.
+///
+/// The unit conversions of fixed-point currencies are public, so that backends
+/// scale their values exactly like the defaults of [FixedPointCurrency].
+public final class ConversionUtils {
+  /// Integral doubles below this magnitude are printed as `N.0` by [Double#toString(double)].
+  private static final long PLAIN_DOUBLE_LIMIT = 10_000_000L;
+  /// Doubles below this magnitude have no more than a single integer within their rounding interval.
+  private static final double EXACT_INTEGER_LIMIT = 0x1p53;
+  private static final long[] POWERS_OF_TEN = {
+    1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+    10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+    1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+  };
+
+  /// The power of ten which fits into a `long`.
+  ///
+  /// @param exponent exponent between `0` and `18`
+  /// @return `10^exponent`
+  /// @throws IllegalArgumentException if the exponent is out of range
+  public static long powerOfTen(final int exponent) {
+    if (exponent < 0 || exponent >= POWERS_OF_TEN.length) {
+      throw new IllegalArgumentException("Exponent has to be between 0 and " + (POWERS_OF_TEN.length - 1) + ": " + exponent);
+    }
+    return POWERS_OF_TEN[exponent];
+  }
 
   static long downSampleToLong(final BigInteger value) {
-    if (value.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) >= 0) {
-      return Long.MAX_VALUE;
-    } else if (value.compareTo(BigInteger.valueOf(Long.MIN_VALUE)) <= 0) {
-      return Long.MIN_VALUE;
-    } else {
-      return value.longValueExact();
+    if (value.bitLength() < Long.SIZE) {
+      return value.longValue();
     }
+    Saturations.record();
+    return value.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
   }
 
   static int downSampleToInt(final BigInteger value) {
-    if (value.compareTo(BigInteger.valueOf(Integer.MAX_VALUE)) >= 0) {
-      return Integer.MAX_VALUE;
-    } else if (value.compareTo(BigInteger.valueOf(Integer.MIN_VALUE)) <= 0) {
-      return Integer.MIN_VALUE;
-    } else {
-      return value.intValueExact();
+    if (value.bitLength() < Integer.SIZE) {
+      return value.intValue();
+    }
+    Saturations.record();
+    return value.signum() > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+  }
+
+  /// Converts the integer part of a decimal to a `long`, saturating at its bounds.
+  /// Identical to `downSampleToLong(value.toBigInteger())`.
+  ///
+  /// @param value decimal to convert
+  /// @return the truncated value
+  static long downSampleToLong(final BigDecimal value) {
+    if (value.precision() <= value.scale()) {
+      // Only a fraction
+      return 0;
+    } else if (value.scale() == 0 && value.precision() < 19) {
+      return value.longValue();
+    }
+    return downSampleToLong(value.toBigInteger());
+  }
+
+  /// Converts the integer part of a decimal to an `int`, saturating at its bounds.
+  /// Identical to `downSampleToInt(value.toBigInteger())`.
+  ///
+  /// @param value decimal to convert
+  /// @return the truncated value
+  static int downSampleToInt(final BigDecimal value) {
+    if (value.precision() <= value.scale()) {
+      return 0;
+    } else if (value.scale() == 0 && value.precision() < 10) {
+      return value.intValue();
+    }
+    return downSampleToInt(value.toBigInteger());
+  }
+
+  /// Converts a double to a decimal. Identical to [BigDecimal#valueOf(double)].
+  ///
+  /// @param value double to convert
+  /// @return the decimal representation of the canonical string of the double
+  /// @throws NumberFormatException if the value is infinite or NaN
+  static BigDecimal toBigDecimal(final double value) {
+    final long whole = (long) value;
+    if (whole == value && whole > -PLAIN_DOUBLE_LIMIT && whole < PLAIN_DOUBLE_LIMIT) {
+      // The canonical string has exactly one fractional digit
+      return BigDecimal.valueOf(whole * 10, 1);
+    }
+    return BigDecimal.valueOf(value);
+  }
+
+  /// Converts the integer part of a double to an integer. Identical to
+  /// `BigDecimal.valueOf(value).toBigInteger()`.
+  ///
+  /// @param value double to convert
+  /// @return the truncated value
+  /// @throws NumberFormatException if the value is infinite or NaN
+  static BigInteger toBigInteger(final double value) {
+    if (Math.abs(value) < EXACT_INTEGER_LIMIT) {
+      // The canonical string rounds to the double, so it cannot cross the neighbouring integers
+      return BigInteger.valueOf((long) value);
+    }
+    return BigDecimal.valueOf(value).toBigInteger();
+  }
+
+  /// Adds an arbitrarily large delta to a `long`, saturating at its bounds. Identical to
+  /// `downSampleToLong(delta.add(BigInteger.valueOf(value)))`.
+  ///
+  /// @param value value to add to
+  /// @param delta value to add
+  /// @return the saturated sum
+  static long saturatedAdd(final long value, final BigInteger delta) {
+    final int bitLength = delta.bitLength();
+    if (bitLength < Long.SIZE) {
+      return saturatedAdd(value, delta.longValue());
+    } else if (bitLength == Long.SIZE) {
+      // The low word is off by 2^64 towards zero, so the sum only fits if adding it overflows
+      final long low = delta.longValue();
+      final long result = value + low;
+      if (((value ^ result) & (low ^ result)) < 0) {
+        return result;
+      }
+    }
+    Saturations.record();
+    return delta.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+  }
+
+  static long saturatedAdd(final long value, final long delta) {
+    final long result = value + delta;
+    if (((value ^ result) & (delta ^ result)) < 0) {
+      Saturations.record();
+      return delta < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+    return result;
+  }
+
+  /// Multiplies two `long`s, saturating at their bounds, for example to convert a whole
+  /// value to units.
+  ///
+  /// @param value value to multiply
+  /// @param factor factor to multiply with
+  /// @return the saturated product
+  public static long saturatedMultiply(final long value, final long factor) {
+    final long result = value * factor;
+    if (Math.multiplyHigh(value, factor) != result >> 63) {
+      Saturations.record();
+      return (value ^ factor) < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+    return result;
+  }
+
+  static long toUnits(final double value, final long unitsPerWhole) {
+    final double scaled = value * unitsPerWhole;
+    // Math.round saturates on overflow and maps NaN to zero
+    if (Math.abs(scaled) >= 0x1p63) {
+      Saturations.record();
+    }
+    return Math.round(scaled);
+  }
+
+  static long toUnits(final BigDecimal value, final int scale) {
+    return downSampleToLong(value.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue());
+  }
+
+  static int saturatedAddToInt(final int value, final long delta) {
+    final long result = saturatedAdd(value, delta);
+    if (result != (int) result) {
+      Saturations.record();
+      return result < 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    }
+    return (int) result;
+  }
+
+  static float saturatedAdd(final float value, final float delta) {
+    final float result = value + delta;
+    if (Float.isInfinite(result) && Float.isFinite(value) && Float.isFinite(delta)) {
+      Saturations.record();
+      return result > 0 ? Float.MAX_VALUE : -Float.MAX_VALUE;
+    }
+    return result;
+  }
+
+  static double saturatedAdd(final double value, final double delta) {
+    final double result = value + delta;
+    if (Double.isInfinite(result) && Double.isFinite(value) && Double.isFinite(delta)) {
+      Saturations.record();
+      return result > 0 ? Double.MAX_VALUE : -Double.MAX_VALUE;
     }
+    return result;
   }
 
   private ConversionUtils() {
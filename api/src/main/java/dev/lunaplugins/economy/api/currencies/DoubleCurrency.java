@@ -4,8 +4,11 @@ import dev.lunaplugins.economy.api.LunaCurrency;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.UUID;
+import java.util.function.ObjLongConsumer;
 
+@GenerateAdapter
 public interface DoubleCurrency extends LunaCurrency {
 
   @Override
@@ -25,12 +28,12 @@ public interface DoubleCurrency extends LunaCurrency {
 
   @Override
   default BigInteger bigIntValue(final UUID uuid) {
-    return this.bigDecimalValue(uuid).toBigInteger();
+    return ConversionUtils.toBigInteger(this.doubleValue(uuid));
   }
 
   @Override
   default BigDecimal bigDecimalValue(final UUID uuid) {
-    return BigDecimal.valueOf(this.doubleValue(uuid));
+    return ConversionUtils.toBigDecimal(this.doubleValue(uuid));
   }
 
   @Override
@@ -50,12 +53,46 @@ public interface DoubleCurrency extends LunaCurrency {
 
   @Override
   default BigInteger bigIntValue(final UUID uuid, final BigInteger value) {
-    return this.bigDecimalValue(uuid, new BigDecimal(value)).toBigInteger();
+    return ConversionUtils.toBigInteger(this.doubleValue(uuid, value.doubleValue()));
   }
 
   @Override
   default BigDecimal bigDecimalValue(final UUID uuid, final BigDecimal value) {
-    return BigDecimal.valueOf(this.doubleValue(uuid, value.doubleValue()));
+    return ConversionUtils.toBigDecimal(this.doubleValue(uuid, value.doubleValue()));
+  }
+
+  /// Atomically sets a user's balance to `value` if it currently equals `expected`.
+  ///
+  /// Values are compared like [Double#compare(double, double)] does, so every `NaN`
+  /// matches any other `NaN`, but `0.0` and `-0.0` are different. Backends storing a
+  /// normalized `NaN` therefore still accept the value a caller has read before.
+  ///
+  /// The default implementation synchronizes on this currency and is only atomic in
+  /// regard to other callers of the default compare-and-set methods. A concurrent
+  /// setter bypasses the lock, so unless a backend overrides this method with a real
+  /// compare-and-set operation, every writer has to go through these primitives.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param expected the value the player's balance is expected to have
+  /// @param value new value of the player's balance
+  /// @return whether the balance has been updated
+  default boolean compareAndSetDouble(final UUID uuid, final double expected, final double value) {
+    synchronized (this) {
+      if (Double.compare(this.doubleValue(uuid), expected) != 0) {
+        return false;
+      }
+      this.doubleValue(uuid, value);
+      return true;
+    }
+  }
+
+  @Override
+  default double addDoubleValue(final UUID uuid, final double value) {
+    double prev;
+    do {
+      prev = this.doubleValue(uuid);
+    } while (!this.compareAndSetDouble(uuid, prev, ConversionUtils.saturatedAdd(prev, value)));
+    return prev;
   }
 
   @Override
@@ -75,16 +112,43 @@ public interface DoubleCurrency extends LunaCurrency {
 
   @Override
   default BigInteger addBigIntValue(final UUID uuid, final BigInteger value) {
-    return this.addBigDecimalValue(uuid, new BigDecimal(value)).toBigInteger();
+    return ConversionUtils.toBigInteger(this.addDoubleValue(uuid, value.doubleValue()));
   }
 
   @Override
   default BigDecimal addBigDecimalValue(final UUID uuid, final BigDecimal value) {
-    return BigDecimal.valueOf(this.addDoubleValue(uuid, value.doubleValue()));
+    return ConversionUtils.toBigDecimal(this.addDoubleValue(uuid, value.doubleValue()));
+  }
+
+  @Override
+  default void longValues(final Collection<UUID> uuids, final ObjLongConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, (long) this.doubleValue(uuid));
+    }
+  }
+
+  @Override
+  default int intValue(final long mostSigBits, final long leastSigBits) {
+    return (int) this.doubleValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default long longValue(final long mostSigBits, final long leastSigBits) {
+    return (long) this.doubleValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default float floatValue(final long mostSigBits, final long leastSigBits) {
+    return (float) this.doubleValue(mostSigBits, leastSigBits);
   }
 
   @Override
   default boolean isInteger() {
     return false;
   }
+
+  @Override
+  default boolean isExact() {
+    return false;
+  }
 }
@@ -0,0 +1,302 @@
+package dev.lunaplugins.economy.api.currencies;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjLongConsumer;
+
+/// A decimal currency storing every balance as a `long` amount of units, where one unit
+/// is `10^-scale` of the currency. A cents-based currency, for example, has a scale of `2`
+/// and stores `12.34` as `1234` units.
+///
+/// All arithmetic is done on the units, so it is exact and does not allocate. Whole-number
+/// getters round towards zero, just like [BigDecimal#toBigInteger()]. Values with more
+/// fractional digits than the scale are rounded to the nearest unit when set or added.
+/// Overflowing values are clamped to the range of a `long` amount of units.
+@GenerateAdapter
+public interface FixedPointCurrency extends LunaCurrency {
+
+  /// The amount of fractional decimal digits of this currency, between `0` and `18`.
+  ///
+  /// @return scale of this currency
+  @Override
+  int scale();
+
+  /// The amount of units making up a whole value, which is `10^scale`.
+  ///
+  /// @return units per whole value
+  /// @throws IllegalArgumentException if the scale is not between `0` and `18`
+  default long unitsPerWhole() {
+    return ConversionUtils.powerOfTen(this.scale());
+  }
+
+  /// A getter for a user's balance in units.
+  ///
+  /// @param uuid UUID of the player to check
+  /// @return balance of the provided user in units
+  long unitValue(UUID uuid);
+
+  /// A setter for a user's balance in units.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param value new balance of the player in units
+  /// @return previous balance of the player in units
+  long unitValue(UUID uuid, long value);
+
+  /// Adds to (or subtracts from, if given a negative amount) a user's balance in units.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param value units to add (or subtract if negative) to the player's balance
+  /// @return previous balance of the player in units
+  default long addUnitValue(final UUID uuid, final long value) {
+    long prev;
+    do {
+      prev = this.unitValue(uuid);
+    } while (!this.compareAndSetUnits(uuid, prev, ConversionUtils.saturatedAdd(prev, value)));
+    return prev;
+  }
+
+  /// Atomically sets a user's balance in units to `value` if it currently equals `expected`.
+  ///
+  /// The default implementation synchronizes on this currency and is only atomic in
+  /// regard to other callers of this default implementation. Backends are expected
+  /// to override it with a real compare-and-set operation.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param expected the units the player's balance is expected to have
+  /// @param value new balance of the player in units
+  /// @return whether the balance has been updated
+  default boolean compareAndSetUnits(final UUID uuid, final long expected, final long value) {
+    synchronized (this) {
+      if (this.unitValue(uuid) != expected) {
+        return false;
+      }
+      this.unitValue(uuid, value);
+      return true;
+    }
+  }
+
+  /// Compares the balance in units, so it fails if the balance has a fractional part
+  /// besides the expected whole value.
+  @Override
+  default boolean compareAndSetLong(final UUID uuid, final long expected, final long value) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    return this.compareAndSetUnits(uuid, ConversionUtils.saturatedMultiply(expected, unitsPerWhole), ConversionUtils.saturatedMultiply(value, unitsPerWhole));
+  }
+
+  /// The operator is given the whole part of the balance, and its result replaces the
+  /// balance including its fractional part.
+  @Override
+  default long updateLong(final UUID uuid, final LongUnaryOperator operator) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    long prev;
+    do {
+      prev = this.unitValue(uuid);
+    } while (!this.compareAndSetUnits(uuid, prev, ConversionUtils.saturatedMultiply(operator.applyAsLong(prev / unitsPerWhole), unitsPerWhole)));
+    return prev / unitsPerWhole;
+  }
+
+  @Override
+  default int intValue(final UUID uuid) {
+    return Math.clamp(this.longValue(uuid), Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  default long longValue(final UUID uuid) {
+    return this.unitValue(uuid) / this.unitsPerWhole();
+  }
+
+  @Override
+  default float floatValue(final UUID uuid) {
+    return (float) this.doubleValue(uuid);
+  }
+
+  @Override
+  default double doubleValue(final UUID uuid) {
+    return this.unitValue(uuid) / (double) this.unitsPerWhole();
+  }
+
+  @Override
+  default BigInteger bigIntValue(final UUID uuid) {
+    return BigInteger.valueOf(this.longValue(uuid));
+  }
+
+  @Override
+  default BigDecimal bigDecimalValue(final UUID uuid) {
+    return BigDecimal.valueOf(this.unitValue(uuid), this.scale());
+  }
+
+  @Override
+  default int intValue(final UUID uuid, final int value) {
+    return Math.clamp(this.longValue(uuid, value), Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  default long longValue(final UUID uuid, final long value) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    return this.unitValue(uuid, ConversionUtils.saturatedMultiply(value, unitsPerWhole)) / unitsPerWhole;
+  }
+
+  @Override
+  default float floatValue(final UUID uuid, final float value) {
+    return (float) this.doubleValue(uuid, value);
+  }
+
+  @Override
+  default double doubleValue(final UUID uuid, final double value) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    return this.unitValue(uuid, ConversionUtils.toUnits(value, unitsPerWhole)) / (double) unitsPerWhole;
+  }
+
+  @Override
+  default BigInteger bigIntValue(final UUID uuid, final BigInteger value) {
+    return BigInteger.valueOf(this.longValue(uuid, ConversionUtils.downSampleToLong(value)));
+  }
+
+  @Override
+  default BigDecimal bigDecimalValue(final UUID uuid, final BigDecimal value) {
+    return BigDecimal.valueOf(this.unitValue(uuid, ConversionUtils.toUnits(value, this.scale())), this.scale());
+  }
+
+  @Override
+  default int addIntValue(final UUID uuid, final int value) {
+    return Math.clamp(this.addLongValue(uuid, value), Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  default long addLongValue(final UUID uuid, final long value) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    return this.addUnitValue(uuid, ConversionUtils.saturatedMultiply(value, unitsPerWhole)) / unitsPerWhole;
+  }
+
+  @Override
+  default float addFloatValue(final UUID uuid, final float value) {
+    return (float) this.addDoubleValue(uuid, value);
+  }
+
+  @Override
+  default double addDoubleValue(final UUID uuid, final double value) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    return this.addUnitValue(uuid, ConversionUtils.toUnits(value, unitsPerWhole)) / (double) unitsPerWhole;
+  }
+
+  @Override
+  default BigInteger addBigIntValue(final UUID uuid, final BigInteger value) {
+    return BigInteger.valueOf(this.addLongValue(uuid, ConversionUtils.downSampleToLong(value)));
+  }
+
+  @Override
+  default BigDecimal addBigDecimalValue(final UUID uuid, final BigDecimal value) {
+    return BigDecimal.valueOf(this.addUnitValue(uuid, ConversionUtils.toUnits(value, this.scale())), this.scale());
+  }
+
+  @Override
+  default void longValues(final Collection<UUID> uuids, final ObjLongConsumer<UUID> sink) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.unitValue(uuid) / unitsPerWhole);
+    }
+  }
+
+  @Override
+  default void doubleValues(final Collection<UUID> uuids, final ObjDoubleConsumer<UUID> sink) {
+    final double unitsPerWhole = this.unitsPerWhole();
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.unitValue(uuid) / unitsPerWhole);
+    }
+  }
+
+  /// A getter for a user's balance in units, keyed by the two halves of their [UUID].
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @return balance of the provided user in units
+  default long unitValue(final long mostSigBits, final long leastSigBits) {
+    return this.unitValue(new UUID(mostSigBits, leastSigBits));
+  }
+
+  /// A setter for a user's balance in units, keyed by the two halves of their [UUID].
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value new balance of the player in units
+  /// @return previous balance of the player in units
+  default long unitValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.unitValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  /// Adds to (or subtracts from, if given a negative amount) a user's balance in units,
+  /// keyed by the two halves of their [UUID].
+  ///
+  /// @param mostSigBits most significant bits of the player's UUID
+  /// @param leastSigBits least significant bits of the player's UUID
+  /// @param value units to add (or subtract if negative) to the player's balance
+  /// @return previous balance of the player in units
+  default long addUnitValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.addUnitValue(new UUID(mostSigBits, leastSigBits), value);
+  }
+
+  @Override
+  default int intValue(final long mostSigBits, final long leastSigBits) {
+    return Math.clamp(this.longValue(mostSigBits, leastSigBits), Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  default long longValue(final long mostSigBits, final long leastSigBits) {
+    return this.unitValue(mostSigBits, leastSigBits) / this.unitsPerWhole();
+  }
+
+  @Override
+  default float floatValue(final long mostSigBits, final long leastSigBits) {
+    return (float) this.doubleValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default double doubleValue(final long mostSigBits, final long leastSigBits) {
+    return this.unitValue(mostSigBits, leastSigBits) / (double) this.unitsPerWhole();
+  }
+
+  @Override
+  default int intValue(final long mostSigBits, final long leastSigBits, final int value) {
+    return Math.clamp(this.longValue(mostSigBits, leastSigBits, value), Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  default long longValue(final long mostSigBits, final long leastSigBits, final long value) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    return this.unitValue(mostSigBits, leastSigBits, ConversionUtils.saturatedMultiply(value, unitsPerWhole)) / unitsPerWhole;
+  }
+
+  @Override
+  default double doubleValue(final long mostSigBits, final long leastSigBits, final double value) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    return this.unitValue(mostSigBits, leastSigBits, ConversionUtils.toUnits(value, unitsPerWhole)) / (double) unitsPerWhole;
+  }
+
+  @Override
+  default int addIntValue(final long mostSigBits, final long leastSigBits, final int value) {
+    return Math.clamp(this.addLongValue(mostSigBits, leastSigBits, value), Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  default long addLongValue(final long mostSigBits, final long leastSigBits, final long value) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    return this.addUnitValue(mostSigBits, leastSigBits, ConversionUtils.saturatedMultiply(value, unitsPerWhole)) / unitsPerWhole;
+  }
+
+  @Override
+  default double addDoubleValue(final long mostSigBits, final long leastSigBits, final double value) {
+    final long unitsPerWhole = this.unitsPerWhole();
+    return this.addUnitValue(mostSigBits, leastSigBits, ConversionUtils.toUnits(value, unitsPerWhole)) / (double) unitsPerWhole;
+  }
+
+  @Override
+  default boolean isInteger() {
+    return false;
+  }
+}
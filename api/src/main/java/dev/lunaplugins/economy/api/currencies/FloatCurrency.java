@@ -4,8 +4,12 @@ import dev.lunaplugins.economy.api.LunaCurrency;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.UUID;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjLongConsumer;
 
+@GenerateAdapter
 public interface FloatCurrency extends LunaCurrency {
 
   @Override
@@ -25,12 +29,12 @@ public interface FloatCurrency extends LunaCurrency {
 
   @Override
   default BigInteger bigIntValue(final UUID uuid) {
-    return this.bigDecimalValue(uuid).toBigInteger();
+    return ConversionUtils.toBigInteger(this.floatValue(uuid));
   }
 
   @Override
   default BigDecimal bigDecimalValue(final UUID uuid) {
-    return BigDecimal.valueOf(this.floatValue(uuid));
+    return ConversionUtils.toBigDecimal(this.floatValue(uuid));
   }
 
   @Override
@@ -50,12 +54,46 @@ public interface FloatCurrency extends LunaCurrency {
 
   @Override
   default BigInteger bigIntValue(final UUID uuid, final BigInteger value) {
-    return this.bigDecimalValue(uuid, new BigDecimal(value)).toBigInteger();
+    return ConversionUtils.toBigInteger(this.floatValue(uuid, value.floatValue()));
   }
 
   @Override
   default BigDecimal bigDecimalValue(final UUID uuid, final BigDecimal value) {
-    return BigDecimal.valueOf(this.floatValue(uuid, value.floatValue()));
+    return ConversionUtils.toBigDecimal(this.floatValue(uuid, value.floatValue()));
+  }
+
+  /// Atomically sets a user's balance to `value` if it currently equals `expected`.
+  ///
+  /// Values are compared like [Float#compare(float, float)] does, so every `NaN`
+  /// matches any other `NaN`, but `0.0` and `-0.0` are different. Backends storing a
+  /// normalized `NaN` therefore still accept the value a caller has read before.
+  ///
+  /// The default implementation synchronizes on this currency and is only atomic in
+  /// regard to other callers of the default compare-and-set methods. A concurrent
+  /// setter bypasses the lock, so unless a backend overrides this method with a real
+  /// compare-and-set operation, every writer has to go through these primitives.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param expected the value the player's balance is expected to have
+  /// @param value new value of the player's balance
+  /// @return whether the balance has been updated
+  default boolean compareAndSetFloat(final UUID uuid, final float expected, final float value) {
+    synchronized (this) {
+      if (Float.compare(this.floatValue(uuid), expected) != 0) {
+        return false;
+      }
+      this.floatValue(uuid, value);
+      return true;
+    }
+  }
+
+  @Override
+  default float addFloatValue(final UUID uuid, final float value) {
+    float prev;
+    do {
+      prev = this.floatValue(uuid);
+    } while (!this.compareAndSetFloat(uuid, prev, ConversionUtils.saturatedAdd(prev, value)));
+    return prev;
   }
 
   @Override
@@ -75,16 +113,50 @@ public interface FloatCurrency extends LunaCurrency {
 
   @Override
   default BigInteger addBigIntValue(final UUID uuid, final BigInteger value) {
-    return this.addBigDecimalValue(uuid, new BigDecimal(value)).toBigInteger();
+    return ConversionUtils.toBigInteger(this.addFloatValue(uuid, value.floatValue()));
   }
 
   @Override
   default BigDecimal addBigDecimalValue(final UUID uuid, final BigDecimal value) {
-    return BigDecimal.valueOf(this.addFloatValue(uuid, value.floatValue()));
+    return ConversionUtils.toBigDecimal(this.addFloatValue(uuid, value.floatValue()));
+  }
+
+  @Override
+  default void longValues(final Collection<UUID> uuids, final ObjLongConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, (long) this.floatValue(uuid));
+    }
+  }
+
+  @Override
+  default void doubleValues(final Collection<UUID> uuids, final ObjDoubleConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.floatValue(uuid));
+    }
+  }
+
+  @Override
+  default int intValue(final long mostSigBits, final long leastSigBits) {
+    return (int) this.floatValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default long longValue(final long mostSigBits, final long leastSigBits) {
+    return (long) this.floatValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default double doubleValue(final long mostSigBits, final long leastSigBits) {
+    return this.floatValue(mostSigBits, leastSigBits);
   }
 
   @Override
   default boolean isInteger() {
     return false;
   }
+
+  @Override
+  default boolean isExact() {
+    return false;
+  }
 }
@@ -0,0 +1,31 @@
+package dev.lunaplugins.economy.api.currencies;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/// Generates a final, flattened adapter class for a precision interface at build time.
+///
+/// The adapter of `IntCurrency` is `IntCurrencyAdapter`. It wraps an implementation of
+/// the interface and forwards the abstract methods and the compare-and-set primitives to
+/// it, while every other conversion is a copy of the interface's default method on the
+/// final adapter class. A call like `doubleValue(uuid, value)` on an [IntCurrency] then
+/// passes through final methods of a single class instead of a chain of default methods,
+/// which stays inlineable no matter how many currency implementations are loaded.
+///
+/// Default methods the class of the backend overrides are forwarded to the backend
+/// instead, so wrapping a backend never changes its behavior: its own `increment`,
+/// `updateLong` or overloads keyed by the halves of a UUID keep being used.
+///
+/// Backends should register the adapter instead of themselves:
+///
+/// ```java
+/// registry.register(new IntCurrencyAdapter(new MyIntCurrency()));
+/// ```
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateAdapter {
+}
@@ -4,8 +4,12 @@ import dev.lunaplugins.economy.api.LunaCurrency;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.UUID;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjLongConsumer;
 
+@GenerateAdapter
 public interface IntCurrency extends LunaCurrency {
 
   @Override
@@ -55,12 +59,49 @@ public interface IntCurrency extends LunaCurrency {
 
   @Override
   default BigDecimal bigDecimalValue(final UUID uuid, final BigDecimal value) {
-    return BigDecimal.valueOf(this.doubleValue(uuid, value.doubleValue()));
+    return ConversionUtils.toBigDecimal(this.doubleValue(uuid, value.doubleValue()));
+  }
+
+  /// Atomically sets a user's balance to `value` if it currently equals `expected`.
+  ///
+  /// The default implementation synchronizes on this currency and is only atomic in
+  /// regard to other callers of this default implementation. Backends are expected
+  /// to override it with a real compare-and-set operation.
+  ///
+  /// @param uuid UUID of the player to use
+  /// @param expected the value the player's balance is expected to have
+  /// @param value new value of the player's balance
+  /// @return whether the balance has been updated
+  default boolean compareAndSetInt(final UUID uuid, final int expected, final int value) {
+    synchronized (this) {
+      if (this.intValue(uuid) != expected) {
+        return false;
+      }
+      this.intValue(uuid, value);
+      return true;
+    }
+  }
+
+  @Override
+  default boolean compareAndSetLong(final UUID uuid, final long expected, final long value) {
+    if (expected < Integer.MIN_VALUE || expected > Integer.MAX_VALUE) {
+      return false;
+    }
+    return this.compareAndSetInt(uuid, (int) expected, Math.clamp(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+  }
+
+  @Override
+  default int addIntValue(final UUID uuid, final int value) {
+    return (int) this.addLongValue(uuid, value);
   }
 
   @Override
   default long addLongValue(final UUID uuid, final long value) {
-    return ConversionUtils.downSampleToLong(this.addBigIntValue(uuid, BigInteger.valueOf(value)));
+    int prev;
+    do {
+      prev = this.intValue(uuid);
+    } while (!this.compareAndSetInt(uuid, prev, ConversionUtils.saturatedAddToInt(prev, value)));
+    return prev;
   }
 
   @Override
@@ -75,13 +116,55 @@ public interface IntCurrency extends LunaCurrency {
 
   @Override
   default BigInteger addBigIntValue(final UUID uuid, final BigInteger value) {
-    final BigInteger curr = this.bigIntValue(uuid);
-    return this.bigIntValue(uuid, curr.add(value));
+    if (value.bitLength() < Long.SIZE) {
+      return BigInteger.valueOf(this.addLongValue(uuid, value.longValue()));
+    }
+    // Any value outside the long range saturates an int balance, no matter its current value
+    return BigInteger.valueOf(this.intValue(uuid, value.signum() > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE));
   }
 
   @Override
   default BigDecimal addBigDecimalValue(final UUID uuid, final BigDecimal value) {
-    return BigDecimal.valueOf(this.addDoubleValue(uuid, value.doubleValue()));
+    return ConversionUtils.toBigDecimal(this.addDoubleValue(uuid, value.doubleValue()));
+  }
+
+  @Override
+  default void longValues(final Collection<UUID> uuids, final ObjLongConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.intValue(uuid));
+    }
+  }
+
+  @Override
+  default void doubleValues(final Collection<UUID> uuids, final ObjDoubleConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.intValue(uuid));
+    }
+  }
+
+  @Override
+  default long longValue(final long mostSigBits, final long leastSigBits) {
+    return this.intValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default float floatValue(final long mostSigBits, final long leastSigBits) {
+    return this.intValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default double doubleValue(final long mostSigBits, final long leastSigBits) {
+    return this.intValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default long longValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.intValue(mostSigBits, leastSigBits, Math.clamp(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+  }
+
+  @Override
+  default int addIntValue(final long mostSigBits, final long leastSigBits, final int value) {
+    return (int) this.addLongValue(mostSigBits, leastSigBits, value);
   }
 
   @Override
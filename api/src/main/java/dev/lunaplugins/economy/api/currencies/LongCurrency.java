@@ -4,8 +4,11 @@ import dev.lunaplugins.economy.api.LunaCurrency;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collection;
 import java.util.UUID;
+import java.util.function.ObjDoubleConsumer;
 
+@GenerateAdapter
 public interface LongCurrency extends LunaCurrency {
 
   @Override
@@ -55,12 +58,21 @@ public interface LongCurrency extends LunaCurrency {
 
   @Override
   default BigDecimal bigDecimalValue(final UUID uuid, final BigDecimal value) {
-    return BigDecimal.valueOf(this.doubleValue(uuid, value.doubleValue()));
+    return ConversionUtils.toBigDecimal(this.doubleValue(uuid, value.doubleValue()));
+  }
+
+  @Override
+  default int addIntValue(final UUID uuid, final int value) {
+    return Math.clamp(this.addLongValue(uuid, value), Integer.MIN_VALUE, Integer.MAX_VALUE);
   }
 
   @Override
   default long addLongValue(final UUID uuid, final long value) {
-    return this.addIntValue(uuid, Math.clamp(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    long prev;
+    do {
+      prev = this.longValue(uuid);
+    } while (!this.compareAndSetLong(uuid, prev, ConversionUtils.saturatedAdd(prev, value)));
+    return prev;
   }
 
   @Override
@@ -75,12 +87,51 @@ public interface LongCurrency extends LunaCurrency {
 
   @Override
   default BigInteger addBigIntValue(final UUID uuid, final BigInteger value) {
-    return BigInteger.valueOf(this.addLongValue(uuid, ConversionUtils.downSampleToLong(value)));
+    if (value.bitLength() < Long.SIZE) {
+      return BigInteger.valueOf(this.addLongValue(uuid, value.longValue()));
+    }
+    long prev;
+    do {
+      prev = this.longValue(uuid);
+    } while (!this.compareAndSetLong(uuid, prev, ConversionUtils.saturatedAdd(prev, value)));
+    return BigInteger.valueOf(prev);
   }
 
   @Override
   default BigDecimal addBigDecimalValue(final UUID uuid, final BigDecimal value) {
-    return BigDecimal.valueOf(this.addDoubleValue(uuid, value.doubleValue()));
+    return ConversionUtils.toBigDecimal(this.addDoubleValue(uuid, value.doubleValue()));
+  }
+
+  @Override
+  default void doubleValues(final Collection<UUID> uuids, final ObjDoubleConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.longValue(uuid));
+    }
+  }
+
+  @Override
+  default int intValue(final long mostSigBits, final long leastSigBits) {
+    return Math.clamp(this.longValue(mostSigBits, leastSigBits), Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  default float floatValue(final long mostSigBits, final long leastSigBits) {
+    return this.longValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default double doubleValue(final long mostSigBits, final long leastSigBits) {
+    return this.longValue(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  default int intValue(final long mostSigBits, final long leastSigBits, final int value) {
+    return Math.clamp(this.longValue(mostSigBits, leastSigBits, value), Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  default int addIntValue(final long mostSigBits, final long leastSigBits, final int value) {
+    return Math.clamp(this.addLongValue(mostSigBits, leastSigBits, value), Integer.MIN_VALUE, Integer.MAX_VALUE);
   }
 
   @Override
@@ -0,0 +1,30 @@
+package dev.lunaplugins.economy.api.currencies;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/// Counts how often a value had to be clamped to the bounds of its number type instead
+/// of overflowing, for example when adding to a balance which is already close to
+/// [Long#MAX_VALUE].
+///
+/// The count covers the conversions of all currencies in this JVM. Recording only
+/// happens on the (rare) saturating path, so it costs nothing for regular values.
+/// Values clamped by the backend of a currency are counted per currency instead,
+/// see [dev.lunaplugins.economy.api.metrics.MetricsSnapshot#saturations()].
+public final class Saturations {
+  private static final LongAdder COUNT = new LongAdder();
+
+  /// The amount of clamped values since startup.
+  ///
+  /// @return amount of clamped values
+  public static long count() {
+    return COUNT.sum();
+  }
+
+  static void record() {
+    COUNT.increment();
+  }
+
+  private Saturations() {
+    // Utility class
+  }
+}
@@ -0,0 +1,16 @@
+package dev.lunaplugins.economy.api.events;
+
+/// A consumer of balance changes, subscribed using [BalanceChangeStream#subscribe(String, int, OverflowPolicy, BalanceChangeConsumer)].
+///
+/// Consumers are called on a dedicated thread of their subscription, never on the thread
+/// making the change, so they may do blocking work. They should not change balances
+/// themselves when subscribed with [OverflowPolicy#BLOCK], as a full buffer would then
+/// wait for the consumer forever.
+@FunctionalInterface
+public interface BalanceChangeConsumer {
+
+  /// Handles a batch of changes, in the order they have been published.
+  ///
+  /// @param changes the changes, only valid until this method returns
+  void accept(BalanceChanges changes);
+}
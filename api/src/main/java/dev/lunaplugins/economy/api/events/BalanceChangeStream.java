@@ -0,0 +1,47 @@
+package dev.lunaplugins.economy.api.events;
+
+/// A stream of all balance changes of all currencies.
+///
+/// The stream is provided through Paper's `ServicesManager`, so other plugins can
+/// retrieve it using `Bukkit.getServicesManager().load(BalanceChangeStream.class)`.
+///
+/// Every subscription has its own preallocated ring buffer and consumer thread.
+/// Publishing a change only copies a few primitive values into the buffers of all
+/// subscriptions, so consumers never add latency to the change itself, unless they
+/// fall behind with [OverflowPolicy#BLOCK].
+///
+/// Changes are published by the threads making them, after they have been made. Changes
+/// made concurrently by different threads can therefore arrive out of order, even for
+/// the balance of a single player. Consumers needing the latest balance should compare
+/// the old and new values of a change, or read the balance from the currency.
+public interface BalanceChangeStream {
+
+  /// Subscribes to all changes made from now on.
+  ///
+  /// @param name name of the subscription, used for its thread and in diagnostics
+  /// @param capacity amount of changes the buffer can hold, a power of two
+  /// @param policy what happens if the buffer is full
+  /// @param consumer consumer of the changes
+  /// @return the subscription, which has to be closed once it is no longer needed
+  /// @throws IllegalArgumentException if the capacity is not a power of two
+  Subscription subscribe(String name, int capacity, OverflowPolicy policy, BalanceChangeConsumer consumer);
+
+  /// A subscription to a [BalanceChangeStream].
+  interface Subscription extends AutoCloseable {
+
+    /// The amount of changes dropped because the buffer was full.
+    ///
+    /// @return amount of dropped changes
+    long dropped();
+
+    /// The amount of changes which have been published, but not yet consumed.
+    ///
+    /// @return amount of pending changes
+    long pending();
+
+    /// Stops the subscription. Changes which have already been published are still
+    /// handed to the consumer before this method returns.
+    @Override
+    void close();
+  }
+}
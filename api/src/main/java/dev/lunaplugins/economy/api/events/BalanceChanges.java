@@ -0,0 +1,63 @@
+package dev.lunaplugins.economy.api.events;
+
+import net.kyori.adventure.key.Key;
+
+import java.util.UUID;
+
+/// A batch of balance changes, as handed to a [BalanceChangeConsumer].
+///
+/// The batch is a view of the internal buffer of the stream and is only valid until
+/// the consumer returns. Its contents must be copied if they are needed afterwards.
+///
+/// Values are given as stored by the currency, which are units for fixed-point
+/// currencies. Changes which happened concurrently may be delivered in any order, even
+/// if they changed the balance of the same player, but each change carries both the
+/// old and the new balance, so consumers can always tell what has happened.
+public interface BalanceChanges {
+
+  /// The amount of changes in this batch.
+  ///
+  /// @return amount of changes
+  int size();
+
+  /// The key of the currency of a change.
+  ///
+  /// @param index index of the change
+  /// @return key of the currency
+  Key currency(int index);
+
+  /// The most significant bits of the UUID of the player whose balance has changed.
+  ///
+  /// @param index index of the change
+  /// @return most significant bits of the player's UUID
+  long mostSignificantBits(int index);
+
+  /// The least significant bits of the UUID of the player whose balance has changed.
+  ///
+  /// @param index index of the change
+  /// @return least significant bits of the player's UUID
+  long leastSignificantBits(int index);
+
+  /// The UUID of the player whose balance has changed.
+  ///
+  /// Prefer [#mostSignificantBits(int)] and [#leastSignificantBits(int)] if the UUID
+  /// is only needed for a lookup, as this method allocates.
+  ///
+  /// @param index index of the change
+  /// @return UUID of the player
+  default UUID uuid(final int index) {
+    return new UUID(this.mostSignificantBits(index), this.leastSignificantBits(index));
+  }
+
+  /// The balance before a change.
+  ///
+  /// @param index index of the change
+  /// @return old balance
+  long oldValue(int index);
+
+  /// The balance after a change.
+  ///
+  /// @param index index of the change
+  /// @return new balance
+  long newValue(int index);
+}
@@ -0,0 +1,16 @@
+package dev.lunaplugins.economy.api.events;
+
+/// What happens to a change published while the buffer of a subscription is full,
+/// because its consumer cannot keep up.
+public enum OverflowPolicy {
+  /// The thread making the change waits until the consumer has made room.
+  /// No change is lost, but a slow consumer slows down all balance changes.
+  ///
+  /// The only exception are changes made by the consumer itself: it cannot make room
+  /// while it waits, so they are dropped and counted like with [#DROP] if the buffer
+  /// is full.
+  BLOCK,
+  /// The change is dropped for this subscription and counted in [BalanceChangeStream.Subscription#dropped()].
+  /// Balance changes are never slowed down.
+  DROP
+}
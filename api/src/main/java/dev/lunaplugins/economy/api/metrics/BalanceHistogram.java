@@ -0,0 +1,107 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/// A concurrent histogram of balances with log-linear buckets, which supports removing
+/// values as well, so it can follow the balances of all accounts as they change.
+///
+/// Every power of two is split into [#SUB_BUCKETS] buckets of equal width, so a bucket
+/// spans at most `1/16` of its lower bound and every value is known with a relative
+/// error of less than 7%. Values below `16` have exact buckets. Negative values are
+/// mirrored, and the buckets are ordered from the lowest to the highest value. Recording
+/// is a single [LongAdder] update, so it does not contend between threads.
+public final class BalanceHistogram {
+  /// The amount of buckets every power of two is split into.
+  public static final int SUB_BUCKETS = 16;
+  private static final int SUB_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+  /// Buckets of each sign, including the bucket of `0`.
+  private static final int MAGNITUDES = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BITS) * SUB_BUCKETS;
+  private static final int ZERO = MAGNITUDES - 1;
+  /// The amount of buckets, covering all `long` values.
+  public static final int BUCKETS = 2 * MAGNITUDES - 1;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+  public BalanceHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.buckets[i] = new LongAdder();
+    }
+  }
+
+  /// The bucket counting a value.
+  ///
+  /// @param value the value
+  /// @return index of the bucket
+  public static int bucketOf(final long value) {
+    if (value >= 0) {
+      return ZERO + magnitudeBucket(value);
+    }
+    return ZERO - magnitudeBucket(value == Long.MIN_VALUE ? Long.MAX_VALUE : -value);
+  }
+
+  /// The lowest value counted by a bucket.
+  ///
+  /// @param bucket index of the bucket
+  /// @return lower bound of the bucket
+  public static long lowerBound(final int bucket) {
+    return bucket >= ZERO ? lowerMagnitude(bucket - ZERO) : -upperMagnitude(ZERO - bucket);
+  }
+
+  /// The highest value counted by a bucket.
+  ///
+  /// @param bucket index of the bucket
+  /// @return upper bound of the bucket
+  public static long upperBound(final int bucket) {
+    return bucket >= ZERO ? upperMagnitude(bucket - ZERO) : -lowerMagnitude(ZERO - bucket);
+  }
+
+  private static int magnitudeBucket(final long magnitude) {
+    if (magnitude < SUB_BUCKETS) {
+      return (int) magnitude;
+    }
+    final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(magnitude);
+    final int sub = (int) (magnitude >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+  }
+
+  private static long lowerMagnitude(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    return (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << exponent;
+  }
+
+  private static long upperMagnitude(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    return lowerMagnitude(bucket) + (1L << exponent) - 1;
+  }
+
+  /// Records a value.
+  ///
+  /// @param value the value
+  public void add(final long value) {
+    this.buckets[bucketOf(value)].increment();
+  }
+
+  /// Removes a previously recorded value.
+  ///
+  /// @param value the value
+  public void remove(final long value) {
+    this.buckets[bucketOf(value)].decrement();
+  }
+
+  /// Copies the current bucket counts.
+  ///
+  /// @return counts of all buckets
+  public long[] counts() {
+    final long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = this.buckets[i].sum();
+    }
+    return counts;
+  }
+}
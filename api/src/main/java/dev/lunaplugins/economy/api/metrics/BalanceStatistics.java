@@ -0,0 +1,71 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import net.kyori.adventure.key.Key;
+
+import java.math.BigInteger;
+
+/// The aggregate statistics of the balances of a currency, as returned by
+/// [LunaCurrency#statistics()][dev.lunaplugins.economy.api.LunaCurrency#statistics()].
+///
+/// Only accounts with a non-zero balance are counted. All values are the `long` values
+/// the currency stores internally: the balance of integer currencies and the amount of
+/// units of a [FixedPointCurrency][dev.lunaplugins.economy.api.currencies.FixedPointCurrency].
+///
+/// @param currency key of the currency
+/// @param total exact sum of all balances
+/// @param accounts amount of accounts with a non-zero balance
+/// @param distribution account counts per [BalanceHistogram] bucket
+public record BalanceStatistics(Key currency, BigInteger total, long accounts, long[] distribution) {
+
+  public BalanceStatistics {
+    distribution = distribution.clone();
+  }
+
+  @Override
+  public long[] distribution() {
+    return this.distribution.clone();
+  }
+
+  /// The average balance of an account.
+  ///
+  /// @return mean balance, or `0` if there are no accounts
+  public double mean() {
+    return this.accounts == 0 ? 0 : this.total.doubleValue() / this.accounts;
+  }
+
+  /// An estimate of the balance the given fraction of all accounts stays at or below.
+  ///
+  /// The result is the middle of the histogram bucket containing the quantile, so it is
+  /// off by at most 1/32 of the real value.
+  ///
+  /// @param quantile fraction of accounts, between `0` and `1`
+  /// @return estimated balance, or `0` if there are no accounts
+  public long quantile(final double quantile) {
+    long total = 0;
+    for (final long bucket : this.distribution) {
+      total += bucket;
+    }
+    if (total <= 0) {
+      return 0;
+    }
+    final long threshold = Math.max(1, (long) Math.ceil(total * quantile));
+    long seen = 0;
+    int bucket = this.distribution.length - 1;
+    for (int i = 0; i < this.distribution.length; i++) {
+      seen += this.distribution[i];
+      if (seen >= threshold) {
+        bucket = i;
+        break;
+      }
+    }
+    final long lower = BalanceHistogram.lowerBound(bucket);
+    return lower + (BalanceHistogram.upperBound(bucket) - lower) / 2;
+  }
+
+  /// An estimate of the median balance.
+  ///
+  /// @return estimated median, or `0` if there are no accounts
+  public long median() {
+    return this.quantile(0.5);
+  }
+}
@@ -0,0 +1,135 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/// Records how a single currency is used: how often each operation is called, how long
+/// the calls take and how often concurrent changes forced an update to be retried.
+///
+/// All counters are [LongAdder]s, so recording never contends between threads and costs
+/// about as much as an uncontended increment. Reading the counters is comparatively
+/// expensive and should only be done occasionally through [#snapshot()].
+///
+/// Calls taking longer than the [slow operation threshold][#slowOperationThreshold(Duration)]
+/// are additionally reported to Java Flight Recorder, if the `dev.lunaplugins.economy.SlowOperation`
+/// event has been enabled in the recording.
+public final class CurrencyMetrics {
+  private static final int TYPES = NumberType.values().length;
+  private static final long DEFAULT_SLOW_OPERATION_THRESHOLD = Duration.ofMillis(1).toNanos();
+
+  private final Key currency;
+  private final String currencyName;
+  private final LongSupplier backendRetries;
+  private final LongSupplier backendSaturations;
+  private final LongAdder[] counts = new LongAdder[Operation.values().length * TYPES];
+  private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+  private final LongAdder compareAndSetFailures = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private volatile long slowOperationThresholdNanos = DEFAULT_SLOW_OPERATION_THRESHOLD;
+  /// Value of the backend saturation count at the last [#reset()].
+  private volatile long saturationsBaseline;
+
+  /// Creates metrics for a currency.
+  ///
+  /// @param currency key of the currency
+  /// @param backendRetries source of the retries done inside the backend, included in [MetricsSnapshot#retries()]
+  /// @param backendSaturations source of the values clamped inside the backend, reported as [MetricsSnapshot#saturations()]
+  public CurrencyMetrics(final Key currency, final LongSupplier backendRetries, final LongSupplier backendSaturations) {
+    this.currency = currency;
+    this.currencyName = currency.asString();
+    this.backendRetries = backendRetries;
+    this.backendSaturations = backendSaturations;
+    for (int i = 0; i < this.counts.length; i++) {
+      this.counts[i] = new LongAdder();
+    }
+    for (int i = 0; i < this.latencies.length; i++) {
+      this.latencies[i] = new LatencyHistogram();
+    }
+  }
+
+  /// The key of the recorded currency.
+  ///
+  /// @return key of the currency
+  public Key currency() {
+    return this.currency;
+  }
+
+  /// Records a completed call.
+  ///
+  /// @param operation kind of the call
+  /// @param type number type of the call, or `null` if the operation is not typed
+  /// @param startNanos value of [System#nanoTime()] when the call started
+  public void record(final Operation operation, final @Nullable NumberType type, final long startNanos) {
+    final long nanos = System.nanoTime() - startNanos;
+    this.counts[operation.ordinal() * TYPES + (type == null ? 0 : type.ordinal())].increment();
+    this.latencies[operation.ordinal()].record(nanos);
+    if (nanos >= this.slowOperationThresholdNanos) {
+      SlowOperationEvent.emit(this.currencyName, operation, type, nanos);
+    }
+  }
+
+  /// Sets the minimum duration of a call to be reported as a slow operation to Java Flight Recorder.
+  ///
+  /// @param threshold minimum duration, one millisecond by default
+  public void slowOperationThreshold(final Duration threshold) {
+    this.slowOperationThresholdNanos = threshold.toNanos();
+  }
+
+  /// Records a failed compare-and-set call.
+  public void recordCompareAndSetFailure() {
+    this.compareAndSetFailures.increment();
+  }
+
+  /// Records an update which had to be retried because of a concurrent change.
+  public void recordRetry() {
+    this.retries.increment();
+  }
+
+  /// Copies the current values of all counters.
+  ///
+  /// @return the snapshot
+  public MetricsSnapshot snapshot() {
+    final Map<Operation, OperationStats> operations = new EnumMap<>(Operation.class);
+    for (final Operation operation : Operation.values()) {
+      final Map<NumberType, Long> countsByType = new EnumMap<>(NumberType.class);
+      long count = 0;
+      for (final NumberType type : NumberType.values()) {
+        final long typeCount = this.counts[operation.ordinal() * TYPES + type.ordinal()].sum();
+        count += typeCount;
+        if (operation.isTyped() && typeCount != 0) {
+          countsByType.put(type, typeCount);
+        }
+      }
+      final LatencyHistogram histogram = this.latencies[operation.ordinal()];
+      operations.put(operation, new OperationStats(operation, count, countsByType, histogram.totalNanos(), histogram.counts()));
+    }
+    return new MetricsSnapshot(
+      this.currency,
+      operations,
+      this.compareAndSetFailures.sum(),
+      this.retries.sum() + this.backendRetries.getAsLong(),
+      this.backendSaturations.getAsLong() - this.saturationsBaseline
+    );
+  }
+
+  /// Clears all counters recorded by this instance and the saturation count.
+  ///
+  /// Retries counted by the backend are not affected.
+  public void reset() {
+    this.saturationsBaseline = this.backendSaturations.getAsLong();
+    for (final LongAdder count : this.counts) {
+      count.reset();
+    }
+    for (final LatencyHistogram histogram : this.latencies) {
+      histogram.reset();
+    }
+    this.compareAndSetFailures.reset();
+    this.retries.reset();
+  }
+}
@@ -0,0 +1,26 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import dev.lunaplugins.economy.api.currencies.BigDecimalCurrency;
+
+import java.util.function.LongSupplier;
+
+/// An [InstrumentedCurrency] of a [BigDecimalCurrency], which keeps the precision of the wrapped
+/// currency visible to callers checking for it.
+public final class InstrumentedBigDecimalCurrency extends InstrumentedCurrency implements BigDecimalCurrency {
+  private final BigDecimalCurrency delegate;
+
+  /// Wraps a currency.
+  ///
+  /// @param delegate currency to forward all calls to
+  /// @param backendRetries source of the retries done inside the wrapped currency
+  /// @param backendSaturations source of the values clamped inside the wrapped currency
+  public InstrumentedBigDecimalCurrency(final BigDecimalCurrency delegate, final LongSupplier backendRetries, final LongSupplier backendSaturations) {
+    super(delegate, backendRetries, backendSaturations);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public BigDecimalCurrency delegate() {
+    return this.delegate;
+  }
+}
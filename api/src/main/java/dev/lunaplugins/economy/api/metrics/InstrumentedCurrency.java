@@ -0,0 +1,548 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import dev.lunaplugins.economy.api.BalanceRanking;
+import dev.lunaplugins.economy.api.BalanceSnapshot;
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.api.WriteBatch;
+import dev.lunaplugins.economy.api.currencies.BigDecimalCurrency;
+import dev.lunaplugins.economy.api.currencies.BigIntCurrency;
+import dev.lunaplugins.economy.api.currencies.DoubleCurrency;
+import dev.lunaplugins.economy.api.currencies.FixedPointCurrency;
+import dev.lunaplugins.economy.api.currencies.FloatCurrency;
+import dev.lunaplugins.economy.api.currencies.IntCurrency;
+import dev.lunaplugins.economy.api.currencies.LongCurrency;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjLongConsumer;
+
+/// A [LunaCurrency] recording every call to another currency in a [CurrencyMetrics] instance.
+///
+/// Every operation is forwarded to the wrapped currency as-is, so its atomicity and
+/// clamping rules are unchanged. The `String` overloads resolve the name through the
+/// wrapped currency as well, which is recorded as a separate [Operation#NAME_LOOKUP].
+///
+/// This class only implements [LunaCurrency]. Use [#wrap(LunaCurrency, LongSupplier, LongSupplier)] to
+/// get a subclass implementing the precision interface of the wrapped currency as well,
+/// such as [InstrumentedIntCurrency].
+public sealed class InstrumentedCurrency implements LunaCurrency permits
+  InstrumentedIntCurrency,
+  InstrumentedLongCurrency,
+  InstrumentedFloatCurrency,
+  InstrumentedDoubleCurrency,
+  InstrumentedBigIntCurrency,
+  InstrumentedBigDecimalCurrency,
+  InstrumentedFixedPointCurrency {
+  private final LunaCurrency delegate;
+  private final CurrencyMetrics metrics;
+
+  /// Wraps a currency.
+  ///
+  /// @param delegate currency to forward all calls to
+  public InstrumentedCurrency(final LunaCurrency delegate) {
+    this(delegate, () -> 0, () -> 0);
+  }
+
+  /// Wraps a currency.
+  ///
+  /// @param delegate currency to forward all calls to
+  /// @param backendRetries source of the retries done inside the wrapped currency
+  /// @param backendSaturations source of the values clamped inside the wrapped currency
+  public InstrumentedCurrency(final LunaCurrency delegate, final LongSupplier backendRetries, final LongSupplier backendSaturations) {
+    this.delegate = delegate;
+    this.metrics = new CurrencyMetrics(delegate.key(), backendRetries, backendSaturations);
+  }
+
+  /// Wraps a currency, keeping the precision interface it implements.
+  ///
+  /// @param delegate currency to forward all calls to
+  /// @param backendRetries source of the retries done inside the wrapped currency
+  /// @param backendSaturations source of the values clamped inside the wrapped currency
+  /// @return the instrumented currency
+  public static InstrumentedCurrency wrap(final LunaCurrency delegate, final LongSupplier backendRetries, final LongSupplier backendSaturations) {
+    if (delegate instanceof final FixedPointCurrency fixedPoint) {
+      return new InstrumentedFixedPointCurrency(fixedPoint, backendRetries, backendSaturations);
+    } else if (delegate instanceof final IntCurrency intCurrency) {
+      return new InstrumentedIntCurrency(intCurrency, backendRetries, backendSaturations);
+    } else if (delegate instanceof final LongCurrency longCurrency) {
+      return new InstrumentedLongCurrency(longCurrency, backendRetries, backendSaturations);
+    } else if (delegate instanceof final FloatCurrency floatCurrency) {
+      return new InstrumentedFloatCurrency(floatCurrency, backendRetries, backendSaturations);
+    } else if (delegate instanceof final DoubleCurrency doubleCurrency) {
+      return new InstrumentedDoubleCurrency(doubleCurrency, backendRetries, backendSaturations);
+    } else if (delegate instanceof final BigIntCurrency bigIntCurrency) {
+      return new InstrumentedBigIntCurrency(bigIntCurrency, backendRetries, backendSaturations);
+    } else if (delegate instanceof final BigDecimalCurrency bigDecimalCurrency) {
+      return new InstrumentedBigDecimalCurrency(bigDecimalCurrency, backendRetries, backendSaturations);
+    }
+    return new InstrumentedCurrency(delegate, backendRetries, backendSaturations);
+  }
+
+  /// The wrapped currency.
+  ///
+  /// @return the wrapped currency
+  public LunaCurrency delegate() {
+    return this.delegate;
+  }
+
+  /// The metrics recorded for the wrapped currency.
+  ///
+  /// @return the metrics
+  public CurrencyMetrics metrics() {
+    return this.metrics;
+  }
+
+  @Override
+  public Key key() {
+    return this.delegate.key();
+  }
+
+  @Override
+  public @Nullable UUID uuidForName(final String name) {
+    final long start = System.nanoTime();
+    final @Nullable UUID uuid = this.delegate.uuidForName(name);
+    this.metrics.record(Operation.NAME_LOOKUP, null, start);
+    return uuid;
+  }
+
+  @Override
+  public int intValue(final UUID uuid) {
+    final long start = System.nanoTime();
+    final int value = this.delegate.intValue(uuid);
+    this.metrics.record(Operation.GET, NumberType.INT, start);
+    return value;
+  }
+
+  @Override
+  public long longValue(final UUID uuid) {
+    final long start = System.nanoTime();
+    final long value = this.delegate.longValue(uuid);
+    this.metrics.record(Operation.GET, NumberType.LONG, start);
+    return value;
+  }
+
+  @Override
+  public float floatValue(final UUID uuid) {
+    final long start = System.nanoTime();
+    final float value = this.delegate.floatValue(uuid);
+    this.metrics.record(Operation.GET, NumberType.FLOAT, start);
+    return value;
+  }
+
+  @Override
+  public double doubleValue(final UUID uuid) {
+    final long start = System.nanoTime();
+    final double value = this.delegate.doubleValue(uuid);
+    this.metrics.record(Operation.GET, NumberType.DOUBLE, start);
+    return value;
+  }
+
+  @Override
+  public BigInteger bigIntValue(final UUID uuid) {
+    final long start = System.nanoTime();
+    final BigInteger value = this.delegate.bigIntValue(uuid);
+    this.metrics.record(Operation.GET, NumberType.BIG_INTEGER, start);
+    return value;
+  }
+
+  @Override
+  public BigDecimal bigDecimalValue(final UUID uuid) {
+    final long start = System.nanoTime();
+    final BigDecimal value = this.delegate.bigDecimalValue(uuid);
+    this.metrics.record(Operation.GET, NumberType.BIG_DECIMAL, start);
+    return value;
+  }
+
+  @Override
+  public void longValues(final Collection<UUID> uuids, final ObjLongConsumer<UUID> sink) {
+    final long start = System.nanoTime();
+    this.delegate.longValues(uuids, sink);
+    this.metrics.record(Operation.BULK_GET, NumberType.LONG, start);
+  }
+
+  @Override
+  public long[] longValues(final List<UUID> uuids) {
+    final long start = System.nanoTime();
+    final long[] values = this.delegate.longValues(uuids);
+    this.metrics.record(Operation.BULK_GET, NumberType.LONG, start);
+    return values;
+  }
+
+  @Override
+  public void doubleValues(final Collection<UUID> uuids, final ObjDoubleConsumer<UUID> sink) {
+    final long start = System.nanoTime();
+    this.delegate.doubleValues(uuids, sink);
+    this.metrics.record(Operation.BULK_GET, NumberType.DOUBLE, start);
+  }
+
+  @Override
+  public double[] doubleValues(final List<UUID> uuids) {
+    final long start = System.nanoTime();
+    final double[] values = this.delegate.doubleValues(uuids);
+    this.metrics.record(Operation.BULK_GET, NumberType.DOUBLE, start);
+    return values;
+  }
+
+  @Override
+  public void bigDecimalValues(final Collection<UUID> uuids, final BiConsumer<UUID, BigDecimal> sink) {
+    final long start = System.nanoTime();
+    this.delegate.bigDecimalValues(uuids, sink);
+    this.metrics.record(Operation.BULK_GET, NumberType.BIG_DECIMAL, start);
+  }
+
+  @Override
+  public int intValue(final UUID uuid, final int value) {
+    final long start = System.nanoTime();
+    final int prev = this.delegate.intValue(uuid, value);
+    this.metrics.record(Operation.SET, NumberType.INT, start);
+    return prev;
+  }
+
+  @Override
+  public long longValue(final UUID uuid, final long value) {
+    final long start = System.nanoTime();
+    final long prev = this.delegate.longValue(uuid, value);
+    this.metrics.record(Operation.SET, NumberType.LONG, start);
+    return prev;
+  }
+
+  @Override
+  public float floatValue(final UUID uuid, final float value) {
+    final long start = System.nanoTime();
+    final float prev = this.delegate.floatValue(uuid, value);
+    this.metrics.record(Operation.SET, NumberType.FLOAT, start);
+    return prev;
+  }
+
+  @Override
+  public double doubleValue(final UUID uuid, final double value) {
+    final long start = System.nanoTime();
+    final double prev = this.delegate.doubleValue(uuid, value);
+    this.metrics.record(Operation.SET, NumberType.DOUBLE, start);
+    return prev;
+  }
+
+  @Override
+  public BigInteger bigIntValue(final UUID uuid, final BigInteger value) {
+    final long start = System.nanoTime();
+    final BigInteger prev = this.delegate.bigIntValue(uuid, value);
+    this.metrics.record(Operation.SET, NumberType.BIG_INTEGER, start);
+    return prev;
+  }
+
+  @Override
+  public BigDecimal bigDecimalValue(final UUID uuid, final BigDecimal value) {
+    final long start = System.nanoTime();
+    final BigDecimal prev = this.delegate.bigDecimalValue(uuid, value);
+    this.metrics.record(Operation.SET, NumberType.BIG_DECIMAL, start);
+    return prev;
+  }
+
+  @Override
+  public int addIntValue(final UUID uuid, final int value) {
+    final long start = System.nanoTime();
+    final int prev = this.delegate.addIntValue(uuid, value);
+    this.metrics.record(Operation.ADD, NumberType.INT, start);
+    return prev;
+  }
+
+  @Override
+  public long addLongValue(final UUID uuid, final long value) {
+    final long start = System.nanoTime();
+    final long prev = this.delegate.addLongValue(uuid, value);
+    this.metrics.record(Operation.ADD, NumberType.LONG, start);
+    return prev;
+  }
+
+  @Override
+  public void increment(final UUID uuid, final long value) {
+    final long start = System.nanoTime();
+    this.delegate.increment(uuid, value);
+    this.metrics.record(Operation.ADD, NumberType.LONG, start);
+  }
+
+  @Override
+  public float addFloatValue(final UUID uuid, final float value) {
+    final long start = System.nanoTime();
+    final float prev = this.delegate.addFloatValue(uuid, value);
+    this.metrics.record(Operation.ADD, NumberType.FLOAT, start);
+    return prev;
+  }
+
+  @Override
+  public double addDoubleValue(final UUID uuid, final double value) {
+    final long start = System.nanoTime();
+    final double prev = this.delegate.addDoubleValue(uuid, value);
+    this.metrics.record(Operation.ADD, NumberType.DOUBLE, start);
+    return prev;
+  }
+
+  @Override
+  public BigInteger addBigIntValue(final UUID uuid, final BigInteger value) {
+    final long start = System.nanoTime();
+    final BigInteger prev = this.delegate.addBigIntValue(uuid, value);
+    this.metrics.record(Operation.ADD, NumberType.BIG_INTEGER, start);
+    return prev;
+  }
+
+  @Override
+  public BigDecimal addBigDecimalValue(final UUID uuid, final BigDecimal value) {
+    final long start = System.nanoTime();
+    final BigDecimal prev = this.delegate.addBigDecimalValue(uuid, value);
+    this.metrics.record(Operation.ADD, NumberType.BIG_DECIMAL, start);
+    return prev;
+  }
+
+  @Override
+  public boolean transfer(final UUID from, final UUID to, final long amount) {
+    final long start = System.nanoTime();
+    final boolean transferred = this.delegate.transfer(from, to, amount);
+    this.metrics.record(Operation.TRANSFER, null, start);
+    return transferred;
+  }
+
+  @Override
+  public void apply(final WriteBatch batch) {
+    final long start = System.nanoTime();
+    this.delegate.apply(batch);
+    this.metrics.record(Operation.APPLY, null, start);
+  }
+
+  @Override
+  public BalanceSnapshot snapshot() {
+    return this.delegate.snapshot();
+  }
+
+  @Override
+  public BalanceStatistics statistics() {
+    return this.delegate.statistics();
+  }
+
+  @Override
+  public BalanceRanking ranking() {
+    return this.delegate.ranking();
+  }
+
+  @Override
+  public boolean compareAndSetLong(final UUID uuid, final long expected, final long value) {
+    final long start = System.nanoTime();
+    final boolean success = this.delegate.compareAndSetLong(uuid, expected, value);
+    this.metrics.record(Operation.COMPARE_AND_SET, null, start);
+    if (!success) {
+      this.metrics.recordCompareAndSetFailure();
+    }
+    return success;
+  }
+
+  @Override
+  public long updateLong(final UUID uuid, final LongUnaryOperator operator) {
+    final long start = System.nanoTime();
+    final boolean[] called = {false};
+    final long prev = this.delegate.updateLong(uuid, value -> {
+      // Every call after the first one is a retry caused by a concurrent change
+      if (called[0]) {
+        this.metrics.recordRetry();
+      }
+      called[0] = true;
+      return operator.applyAsLong(value);
+    });
+    this.metrics.record(Operation.UPDATE, null, start);
+    return prev;
+  }
+
+  @Override
+  public int intValue(final long mostSigBits, final long leastSigBits) {
+    final long start = System.nanoTime();
+    final int value = this.delegate.intValue(mostSigBits, leastSigBits);
+    this.metrics.record(Operation.GET, NumberType.INT, start);
+    return value;
+  }
+
+  @Override
+  public long longValue(final long mostSigBits, final long leastSigBits) {
+    final long start = System.nanoTime();
+    final long value = this.delegate.longValue(mostSigBits, leastSigBits);
+    this.metrics.record(Operation.GET, NumberType.LONG, start);
+    return value;
+  }
+
+  @Override
+  public float floatValue(final long mostSigBits, final long leastSigBits) {
+    final long start = System.nanoTime();
+    final float value = this.delegate.floatValue(mostSigBits, leastSigBits);
+    this.metrics.record(Operation.GET, NumberType.FLOAT, start);
+    return value;
+  }
+
+  @Override
+  public double doubleValue(final long mostSigBits, final long leastSigBits) {
+    final long start = System.nanoTime();
+    final double value = this.delegate.doubleValue(mostSigBits, leastSigBits);
+    this.metrics.record(Operation.GET, NumberType.DOUBLE, start);
+    return value;
+  }
+
+  @Override
+  public BigInteger bigIntValue(final long mostSigBits, final long leastSigBits) {
+    final long start = System.nanoTime();
+    final BigInteger value = this.delegate.bigIntValue(mostSigBits, leastSigBits);
+    this.metrics.record(Operation.GET, NumberType.BIG_INTEGER, start);
+    return value;
+  }
+
+  @Override
+  public BigDecimal bigDecimalValue(final long mostSigBits, final long leastSigBits) {
+    final long start = System.nanoTime();
+    final BigDecimal value = this.delegate.bigDecimalValue(mostSigBits, leastSigBits);
+    this.metrics.record(Operation.GET, NumberType.BIG_DECIMAL, start);
+    return value;
+  }
+
+  @Override
+  public int intValue(final long mostSigBits, final long leastSigBits, final int value) {
+    final long start = System.nanoTime();
+    final int prev = this.delegate.intValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.SET, NumberType.INT, start);
+    return prev;
+  }
+
+  @Override
+  public long longValue(final long mostSigBits, final long leastSigBits, final long value) {
+    final long start = System.nanoTime();
+    final long prev = this.delegate.longValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.SET, NumberType.LONG, start);
+    return prev;
+  }
+
+  @Override
+  public float floatValue(final long mostSigBits, final long leastSigBits, final float value) {
+    final long start = System.nanoTime();
+    final float prev = this.delegate.floatValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.SET, NumberType.FLOAT, start);
+    return prev;
+  }
+
+  @Override
+  public double doubleValue(final long mostSigBits, final long leastSigBits, final double value) {
+    final long start = System.nanoTime();
+    final double prev = this.delegate.doubleValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.SET, NumberType.DOUBLE, start);
+    return prev;
+  }
+
+  @Override
+  public BigInteger bigIntValue(final long mostSigBits, final long leastSigBits, final BigInteger value) {
+    final long start = System.nanoTime();
+    final BigInteger prev = this.delegate.bigIntValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.SET, NumberType.BIG_INTEGER, start);
+    return prev;
+  }
+
+  @Override
+  public BigDecimal bigDecimalValue(final long mostSigBits, final long leastSigBits, final BigDecimal value) {
+    final long start = System.nanoTime();
+    final BigDecimal prev = this.delegate.bigDecimalValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.SET, NumberType.BIG_DECIMAL, start);
+    return prev;
+  }
+
+  @Override
+  public int addIntValue(final long mostSigBits, final long leastSigBits, final int value) {
+    final long start = System.nanoTime();
+    final int prev = this.delegate.addIntValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.ADD, NumberType.INT, start);
+    return prev;
+  }
+
+  @Override
+  public long addLongValue(final long mostSigBits, final long leastSigBits, final long value) {
+    final long start = System.nanoTime();
+    final long prev = this.delegate.addLongValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.ADD, NumberType.LONG, start);
+    return prev;
+  }
+
+  @Override
+  public void increment(final long mostSigBits, final long leastSigBits, final long value) {
+    final long start = System.nanoTime();
+    this.delegate.increment(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.ADD, NumberType.LONG, start);
+  }
+
+  @Override
+  public float addFloatValue(final long mostSigBits, final long leastSigBits, final float value) {
+    final long start = System.nanoTime();
+    final float prev = this.delegate.addFloatValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.ADD, NumberType.FLOAT, start);
+    return prev;
+  }
+
+  @Override
+  public double addDoubleValue(final long mostSigBits, final long leastSigBits, final double value) {
+    final long start = System.nanoTime();
+    final double prev = this.delegate.addDoubleValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.ADD, NumberType.DOUBLE, start);
+    return prev;
+  }
+
+  @Override
+  public BigInteger addBigIntValue(final long mostSigBits, final long leastSigBits, final BigInteger value) {
+    final long start = System.nanoTime();
+    final BigInteger prev = this.delegate.addBigIntValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.ADD, NumberType.BIG_INTEGER, start);
+    return prev;
+  }
+
+  @Override
+  public BigDecimal addBigDecimalValue(final long mostSigBits, final long leastSigBits, final BigDecimal value) {
+    final long start = System.nanoTime();
+    final BigDecimal prev = this.delegate.addBigDecimalValue(mostSigBits, leastSigBits, value);
+    this.metrics.record(Operation.ADD, NumberType.BIG_DECIMAL, start);
+    return prev;
+  }
+
+  @Override
+  public boolean compareAndSetLong(final long mostSigBits, final long leastSigBits, final long expected, final long value) {
+    final long start = System.nanoTime();
+    final boolean success = this.delegate.compareAndSetLong(mostSigBits, leastSigBits, expected, value);
+    this.metrics.record(Operation.COMPARE_AND_SET, null, start);
+    if (!success) {
+      this.metrics.recordCompareAndSetFailure();
+    }
+    return success;
+  }
+
+  @Override
+  public boolean isInteger() {
+    return this.delegate.isInteger();
+  }
+
+  @Override
+  public boolean isDecimal() {
+    return this.delegate.isDecimal();
+  }
+
+  @Override
+  public boolean isExact() {
+    return this.delegate.isExact();
+  }
+
+  @Override
+  public int scale() {
+    return this.delegate.scale();
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + "[delegate=" + this.delegate + "]";
+  }
+}
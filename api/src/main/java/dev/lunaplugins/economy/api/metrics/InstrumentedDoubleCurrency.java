@@ -0,0 +1,38 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import dev.lunaplugins.economy.api.currencies.DoubleCurrency;
+
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/// An [InstrumentedCurrency] of a [DoubleCurrency], which keeps the precision of the wrapped
+/// currency visible to callers checking for it and forwarding [DoubleCurrency#compareAndSetDouble(UUID, double, double)].
+public final class InstrumentedDoubleCurrency extends InstrumentedCurrency implements DoubleCurrency {
+  private final DoubleCurrency delegate;
+
+  /// Wraps a currency.
+  ///
+  /// @param delegate currency to forward all calls to
+  /// @param backendRetries source of the retries done inside the wrapped currency
+  /// @param backendSaturations source of the values clamped inside the wrapped currency
+  public InstrumentedDoubleCurrency(final DoubleCurrency delegate, final LongSupplier backendRetries, final LongSupplier backendSaturations) {
+    super(delegate, backendRetries, backendSaturations);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public DoubleCurrency delegate() {
+    return this.delegate;
+  }
+
+  @Override
+  public boolean compareAndSetDouble(final UUID uuid, final double expected, final double value) {
+    final long start = System.nanoTime();
+    final boolean success = this.delegate.compareAndSetDouble(uuid, expected, value);
+    this.metrics().record(Operation.COMPARE_AND_SET, null, start);
+    if (!success) {
+      this.metrics().recordCompareAndSetFailure();
+    }
+    return success;
+  }
+}
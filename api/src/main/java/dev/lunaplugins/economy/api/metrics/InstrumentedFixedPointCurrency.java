@@ -0,0 +1,91 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import dev.lunaplugins.economy.api.currencies.FixedPointCurrency;
+
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/// An [InstrumentedCurrency] of a [FixedPointCurrency], which keeps the precision of the wrapped
+/// currency visible to callers checking for it and forwarding the operations on units.
+public final class InstrumentedFixedPointCurrency extends InstrumentedCurrency implements FixedPointCurrency {
+  private final FixedPointCurrency delegate;
+
+  /// Wraps a currency.
+  ///
+  /// @param delegate currency to forward all calls to
+  /// @param backendRetries source of the retries done inside the wrapped currency
+  /// @param backendSaturations source of the values clamped inside the wrapped currency
+  public InstrumentedFixedPointCurrency(final FixedPointCurrency delegate, final LongSupplier backendRetries, final LongSupplier backendSaturations) {
+    super(delegate, backendRetries, backendSaturations);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public FixedPointCurrency delegate() {
+    return this.delegate;
+  }
+
+  @Override
+  public long unitsPerWhole() {
+    return this.delegate.unitsPerWhole();
+  }
+
+  @Override
+  public long unitValue(final UUID uuid) {
+    final long start = System.nanoTime();
+    final long value = this.delegate.unitValue(uuid);
+    this.metrics().record(Operation.GET, NumberType.UNITS, start);
+    return value;
+  }
+
+  @Override
+  public long unitValue(final UUID uuid, final long value) {
+    final long start = System.nanoTime();
+    final long prev = this.delegate.unitValue(uuid, value);
+    this.metrics().record(Operation.SET, NumberType.UNITS, start);
+    return prev;
+  }
+
+  @Override
+  public long addUnitValue(final UUID uuid, final long value) {
+    final long start = System.nanoTime();
+    final long prev = this.delegate.addUnitValue(uuid, value);
+    this.metrics().record(Operation.ADD, NumberType.UNITS, start);
+    return prev;
+  }
+
+  @Override
+  public boolean compareAndSetUnits(final UUID uuid, final long expected, final long value) {
+    final long start = System.nanoTime();
+    final boolean success = this.delegate.compareAndSetUnits(uuid, expected, value);
+    this.metrics().record(Operation.COMPARE_AND_SET, null, start);
+    if (!success) {
+      this.metrics().recordCompareAndSetFailure();
+    }
+    return success;
+  }
+
+  @Override
+  public long unitValue(final long mostSigBits, final long leastSigBits) {
+    final long start = System.nanoTime();
+    final long value = this.delegate.unitValue(mostSigBits, leastSigBits);
+    this.metrics().record(Operation.GET, NumberType.UNITS, start);
+    return value;
+  }
+
+  @Override
+  public long unitValue(final long mostSigBits, final long leastSigBits, final long value) {
+    final long start = System.nanoTime();
+    final long prev = this.delegate.unitValue(mostSigBits, leastSigBits, value);
+    this.metrics().record(Operation.SET, NumberType.UNITS, start);
+    return prev;
+  }
+
+  @Override
+  public long addUnitValue(final long mostSigBits, final long leastSigBits, final long value) {
+    final long start = System.nanoTime();
+    final long prev = this.delegate.addUnitValue(mostSigBits, leastSigBits, value);
+    this.metrics().record(Operation.ADD, NumberType.UNITS, start);
+    return prev;
+  }
+}
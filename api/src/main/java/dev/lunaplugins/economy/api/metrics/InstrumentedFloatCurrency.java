@@ -0,0 +1,38 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import dev.lunaplugins.economy.api.currencies.FloatCurrency;
+
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/// An [InstrumentedCurrency] of a [FloatCurrency], which keeps the precision of the wrapped
+/// currency visible to callers checking for it and forwarding [FloatCurrency#compareAndSetFloat(UUID, float, float)].
+public final class InstrumentedFloatCurrency extends InstrumentedCurrency implements FloatCurrency {
+  private final FloatCurrency delegate;
+
+  /// Wraps a currency.
+  ///
+  /// @param delegate currency to forward all calls to
+  /// @param backendRetries source of the retries done inside the wrapped currency
+  /// @param backendSaturations source of the values clamped inside the wrapped currency
+  public InstrumentedFloatCurrency(final FloatCurrency delegate, final LongSupplier backendRetries, final LongSupplier backendSaturations) {
+    super(delegate, backendRetries, backendSaturations);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public FloatCurrency delegate() {
+    return this.delegate;
+  }
+
+  @Override
+  public boolean compareAndSetFloat(final UUID uuid, final float expected, final float value) {
+    final long start = System.nanoTime();
+    final boolean success = this.delegate.compareAndSetFloat(uuid, expected, value);
+    this.metrics().record(Operation.COMPARE_AND_SET, null, start);
+    if (!success) {
+      this.metrics().recordCompareAndSetFailure();
+    }
+    return success;
+  }
+}
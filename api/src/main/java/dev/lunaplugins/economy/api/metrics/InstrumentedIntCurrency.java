@@ -0,0 +1,38 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import dev.lunaplugins.economy.api.currencies.IntCurrency;
+
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/// An [InstrumentedCurrency] of a [IntCurrency], which keeps the precision of the wrapped
+/// currency visible to callers checking for it and forwarding [IntCurrency#compareAndSetInt(UUID, int, int)].
+public final class InstrumentedIntCurrency extends InstrumentedCurrency implements IntCurrency {
+  private final IntCurrency delegate;
+
+  /// Wraps a currency.
+  ///
+  /// @param delegate currency to forward all calls to
+  /// @param backendRetries source of the retries done inside the wrapped currency
+  /// @param backendSaturations source of the values clamped inside the wrapped currency
+  public InstrumentedIntCurrency(final IntCurrency delegate, final LongSupplier backendRetries, final LongSupplier backendSaturations) {
+    super(delegate, backendRetries, backendSaturations);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public IntCurrency delegate() {
+    return this.delegate;
+  }
+
+  @Override
+  public boolean compareAndSetInt(final UUID uuid, final int expected, final int value) {
+    final long start = System.nanoTime();
+    final boolean success = this.delegate.compareAndSetInt(uuid, expected, value);
+    this.metrics().record(Operation.COMPARE_AND_SET, null, start);
+    if (!success) {
+      this.metrics().recordCompareAndSetFailure();
+    }
+    return success;
+  }
+}
@@ -0,0 +1,26 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import dev.lunaplugins.economy.api.currencies.LongCurrency;
+
+import java.util.function.LongSupplier;
+
+/// An [InstrumentedCurrency] of a [LongCurrency], which keeps the precision of the wrapped
+/// currency visible to callers checking for it.
+public final class InstrumentedLongCurrency extends InstrumentedCurrency implements LongCurrency {
+  private final LongCurrency delegate;
+
+  /// Wraps a currency.
+  ///
+  /// @param delegate currency to forward all calls to
+  /// @param backendRetries source of the retries done inside the wrapped currency
+  /// @param backendSaturations source of the values clamped inside the wrapped currency
+  public InstrumentedLongCurrency(final LongCurrency delegate, final LongSupplier backendRetries, final LongSupplier backendSaturations) {
+    super(delegate, backendRetries, backendSaturations);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public LongCurrency delegate() {
+    return this.delegate;
+  }
+}
@@ -0,0 +1,72 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/// A concurrent histogram of durations in nanoseconds with power-of-two buckets.
+///
+/// Bucket `0` counts durations of `0`, and bucket `i` counts durations between `2^(i-1)`
+/// and `2^i - 1` nanoseconds. The last bucket also counts all longer durations. Recording
+/// is a single [LongAdder] increment, so it does not contend between threads.
+public final class LatencyHistogram {
+  /// The amount of buckets, covering durations up to about nine minutes.
+  public static final int BUCKETS = 40;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAdder totalNanos = new LongAdder();
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.buckets[i] = new LongAdder();
+    }
+  }
+
+  /// The bucket counting a duration.
+  ///
+  /// @param nanos duration in nanoseconds
+  /// @return index of the bucket
+  public static int bucketOf(final long nanos) {
+    return Math.min(Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0)), BUCKETS - 1);
+  }
+
+  /// The longest duration counted by a bucket, except for the last one which is unbounded.
+  ///
+  /// @param bucket index of the bucket
+  /// @return upper bound of the bucket in nanoseconds
+  public static long upperBound(final int bucket) {
+    return (1L << bucket) - 1;
+  }
+
+  /// Records a duration.
+  ///
+  /// @param nanos duration in nanoseconds
+  public void record(final long nanos) {
+    this.buckets[bucketOf(nanos)].increment();
+    this.totalNanos.add(nanos);
+  }
+
+  /// Copies the current bucket counts.
+  ///
+  /// @return counts of all buckets
+  public long[] counts() {
+    final long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = this.buckets[i].sum();
+    }
+    return counts;
+  }
+
+  /// The sum of all recorded durations.
+  ///
+  /// @return total duration in nanoseconds
+  public long totalNanos() {
+    return this.totalNanos.sum();
+  }
+
+  /// Clears all recorded durations.
+  public void reset() {
+    for (final LongAdder bucket : this.buckets) {
+      bucket.reset();
+    }
+    this.totalNanos.reset();
+  }
+}
@@ -0,0 +1,51 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import net.kyori.adventure.key.Key;
+
+import java.util.Map;
+
+/// A point-in-time copy of the [CurrencyMetrics] of a currency.
+///
+/// Counters are read one after another while other threads keep recording, so the
+/// values of a snapshot may be off by the few operations that completed in between.
+///
+/// @param currency key of the currency
+/// @param operations statistics of every operation
+/// @param compareAndSetFailures amount of failed compare-and-set calls
+/// @param retries amount of retried updates because of concurrent changes
+/// @param saturations amount of values the backend of the currency clamped to its bounds since the last reset
+public record MetricsSnapshot(
+  Key currency,
+  Map<Operation, OperationStats> operations,
+  long compareAndSetFailures,
+  long retries,
+  long saturations
+) {
+
+  public MetricsSnapshot {
+    operations = Map.copyOf(operations);
+  }
+
+  /// The statistics of a single operation.
+  ///
+  /// @param operation the operation
+  /// @return its statistics
+  public OperationStats operation(final Operation operation) {
+    final OperationStats stats = this.operations.get(operation);
+    if (stats == null) {
+      throw new IllegalArgumentException("Missing operation " + operation);
+    }
+    return stats;
+  }
+
+  /// The total amount of recorded calls.
+  ///
+  /// @return amount of calls
+  public long totalCount() {
+    long total = 0;
+    for (final OperationStats stats : this.operations.values()) {
+      total += stats.count();
+    }
+    return total;
+  }
+}
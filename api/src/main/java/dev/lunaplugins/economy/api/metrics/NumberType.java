@@ -0,0 +1,13 @@
+package dev.lunaplugins.economy.api.metrics;
+
+/// The number types of the [dev.lunaplugins.economy.api.LunaCurrency] getters, setters and adders.
+public enum NumberType {
+  INT,
+  LONG,
+  FLOAT,
+  DOUBLE,
+  BIG_INTEGER,
+  BIG_DECIMAL,
+  /// The `long` units of a [dev.lunaplugins.economy.api.currencies.FixedPointCurrency].
+  UNITS
+}
@@ -0,0 +1,38 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+
+/// The kinds of [LunaCurrency] operations recorded by [CurrencyMetrics].
+public enum Operation {
+  /// Single balance getters, such as [LunaCurrency#longValue(java.util.UUID)].
+  GET(true),
+  /// Single balance setters, such as [LunaCurrency#longValue(java.util.UUID, long)].
+  SET(true),
+  /// Single balance adders, such as [LunaCurrency#addLongValue(java.util.UUID, long)].
+  ADD(true),
+  /// Bulk getters, such as [LunaCurrency#longValues(java.util.List)].
+  BULK_GET(true),
+  /// [LunaCurrency#transfer(java.util.UUID, java.util.UUID, long)].
+  TRANSFER(false),
+  /// [LunaCurrency#apply(dev.lunaplugins.economy.api.WriteBatch)].
+  APPLY(false),
+  /// [LunaCurrency#compareAndSetLong(java.util.UUID, long, long)].
+  COMPARE_AND_SET(false),
+  /// [LunaCurrency#updateLong(java.util.UUID, java.util.function.LongUnaryOperator)].
+  UPDATE(false),
+  /// [LunaCurrency#uuidForName(String)].
+  NAME_LOOKUP(false);
+
+  private final boolean typed;
+
+  Operation(final boolean typed) {
+    this.typed = typed;
+  }
+
+  /// Whether this operation is counted per [NumberType].
+  ///
+  /// @return whether this operation is typed
+  public boolean isTyped() {
+    return this.typed;
+  }
+}
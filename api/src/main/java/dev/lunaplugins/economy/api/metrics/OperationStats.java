@@ -0,0 +1,56 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import java.util.Map;
+
+/// The recorded statistics of a single [Operation].
+///
+/// @param operation the operation
+/// @param count amount of completed calls
+/// @param countsByType amount of calls per number type, empty if the operation is not [typed][Operation#isTyped()]
+/// @param totalNanos sum of the durations of all calls
+/// @param latencies call counts per [LatencyHistogram] bucket
+public record OperationStats(Operation operation, long count, Map<NumberType, Long> countsByType, long totalNanos, long[] latencies) {
+
+  public OperationStats {
+    countsByType = Map.copyOf(countsByType);
+    latencies = latencies.clone();
+  }
+
+  @Override
+  public long[] latencies() {
+    return this.latencies.clone();
+  }
+
+  /// The average duration of a call.
+  ///
+  /// @return mean duration in nanoseconds, or `0` if there were no calls
+  public double meanNanos() {
+    return this.count == 0 ? 0 : (double) this.totalNanos / this.count;
+  }
+
+  /// An upper bound of the duration the given fraction of all calls stayed below.
+  ///
+  /// The result is the upper bound of the histogram bucket containing the percentile,
+  /// so it overestimates the real value by less than a factor of two.
+  ///
+  /// @param percentile fraction of calls, between `0` and `1`
+  /// @return duration in nanoseconds, or `0` if there were no calls
+  public long percentileNanos(final double percentile) {
+    long total = 0;
+    for (final long bucket : this.latencies) {
+      total += bucket;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    final long threshold = Math.max(1, (long) Math.ceil(total * percentile));
+    long seen = 0;
+    for (int i = 0; i < this.latencies.length; i++) {
+      seen += this.latencies[i];
+      if (seen >= threshold) {
+        return LatencyHistogram.upperBound(i);
+      }
+    }
+    return LatencyHistogram.upperBound(this.latencies.length - 1);
+  }
+}
@@ -0,0 +1,49 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jspecify.annotations.Nullable;
+
+/// A Java Flight Recorder event for a currency operation which took longer than the
+/// [threshold][CurrencyMetrics#slowOperationThreshold(java.time.Duration)] of its [CurrencyMetrics].
+///
+/// The event is disabled by default and has to be enabled in the recording settings,
+/// for example with `jfr configure +dev.lunaplugins.economy.SlowOperation#enabled=true`.
+@Name("dev.lunaplugins.economy.SlowOperation")
+@Label("Slow Currency Operation")
+@Description("A currency operation took longer than its threshold")
+@Category({"LunaEconomy", "Currency"})
+@Enabled(false)
+@StackTrace(false)
+final class SlowOperationEvent extends Event {
+  @Label("Currency")
+  String currency = "";
+
+  @Label("Operation")
+  String operation = "";
+
+  @Label("Number Type")
+  @Nullable String numberType;
+
+  @Label("Operation Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  long operationDuration;
+
+  static void emit(final String currency, final Operation operation, final @Nullable NumberType type, final long nanos) {
+    final SlowOperationEvent event = new SlowOperationEvent();
+    if (!event.isEnabled()) {
+      return;
+    }
+    event.currency = currency;
+    event.operation = operation.name();
+    event.numberType = type == null ? null : type.name();
+    event.operationDuration = nanos;
+    event.commit();
+  }
+}
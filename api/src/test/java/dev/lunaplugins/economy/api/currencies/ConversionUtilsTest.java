@@ -0,0 +1,105 @@
+package dev.lunaplugins.economy.api.currencies;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/// Compares every fast path with the conversion through [BigDecimal] it replaces.
+@NullMarked
+class ConversionUtilsTest {
+  private static final int SAMPLES = 100_000;
+
+  @Test
+  void testToBigDecimal() {
+    for (final double value : doubles()) {
+      assertEquals(BigDecimal.valueOf(value), ConversionUtils.toBigDecimal(value), Double.toString(value));
+    }
+    assertThrows(NumberFormatException.class, () -> ConversionUtils.toBigDecimal(Double.NaN));
+    assertThrows(NumberFormatException.class, () -> ConversionUtils.toBigDecimal(Double.POSITIVE_INFINITY));
+  }
+
+  @Test
+  void testToBigInteger() {
+    for (final double value : doubles()) {
+      assertEquals(BigDecimal.valueOf(value).toBigInteger(), ConversionUtils.toBigInteger(value), Double.toString(value));
+    }
+    assertThrows(NumberFormatException.class, () -> ConversionUtils.toBigInteger(Double.NaN));
+    assertThrows(NumberFormatException.class, () -> ConversionUtils.toBigInteger(Double.NEGATIVE_INFINITY));
+  }
+
+  @Test
+  void testSaturatedAddBigInteger() {
+    final Random random = new Random(42);
+    final List<BigInteger> deltas = new ArrayList<>(bigIntegers(random));
+    final long[] values = {0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE / 2, Long.MIN_VALUE / 2};
+    for (final BigInteger delta : deltas) {
+      for (final long value : values) {
+        assertSaturatedAdd(value, delta);
+      }
+      assertSaturatedAdd(random.nextLong(), delta);
+    }
+  }
+
+  @Test
+  void testDownSampleBigDecimal() {
+    final Random random = new Random(42);
+    for (final BigInteger unscaled : bigIntegers(random)) {
+      for (int scale = -3; scale <= 25; scale += 2) {
+        final BigDecimal value = new BigDecimal(unscaled, scale);
+        assertEquals(ConversionUtils.downSampleToLong(value.toBigInteger()), ConversionUtils.downSampleToLong(value), value.toString());
+        assertEquals(ConversionUtils.downSampleToInt(value.toBigInteger()), ConversionUtils.downSampleToInt(value), value.toString());
+      }
+    }
+  }
+
+  private static void assertSaturatedAdd(final long value, final BigInteger delta) {
+    final long expected = ConversionUtils.downSampleToLong(delta.add(BigInteger.valueOf(value)));
+    assertEquals(expected, ConversionUtils.saturatedAdd(value, delta), value + " + " + delta);
+  }
+
+  private static List<Double> doubles() {
+    final Random random = new Random(42);
+    final List<Double> doubles = new ArrayList<>(List.of(
+      0.0, -0.0, 1.0, -1.0, 0.5, 9_999_999.0, 10_000_000.0, -9_999_999.0, -10_000_000.0,
+      0x1p53, -0x1p53, Math.nextDown(0x1p53), Math.nextUp(0x1p53), 0x1p63, 1e23,
+      Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, 0.001, 0.0009999
+    ));
+    for (int i = 0; i < SAMPLES; i++) {
+      doubles.add((double) random.nextInt());
+      doubles.add(random.nextInt(20_000_000) - 10_000_000.0);
+      doubles.add(random.nextDouble() * Math.pow(10, random.nextInt(40) - 10));
+      doubles.add(Double.longBitsToDouble(random.nextLong()));
+      doubles.add((double) random.nextFloat() * random.nextInt(1 << 24));
+    }
+    doubles.removeIf(value -> !Double.isFinite(value));
+    return doubles;
+  }
+
+  private static List<BigInteger> bigIntegers(final Random random) {
+    final List<BigInteger> values = new ArrayList<>(List.of(
+      BigInteger.ZERO,
+      BigInteger.valueOf(Long.MAX_VALUE),
+      BigInteger.valueOf(Long.MIN_VALUE),
+      BigInteger.TWO.pow(63),
+      BigInteger.TWO.pow(64),
+      BigInteger.TWO.pow(64).subtract(BigInteger.ONE),
+      BigInteger.TWO.pow(64).negate(),
+      BigInteger.TWO.pow(64).negate().subtract(BigInteger.ONE),
+      BigInteger.valueOf(Integer.MAX_VALUE).add(BigInteger.ONE),
+      BigInteger.TWO.pow(80)
+    ));
+    for (int i = 0; i < SAMPLES / 10; i++) {
+      final BigInteger value = new BigInteger(random.nextInt(90), random);
+      values.add(random.nextBoolean() ? value : value.negate());
+    }
+    return values;
+  }
+}
@@ -0,0 +1,54 @@
+package dev.lunaplugins.economy.api.currencies;
+
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class DoubleCurrencyTest {
+
+  @Test
+  void testCompareAndSetNormalizedNaN() {
+    final DoubleCurrency impl = new NormalizingImpl();
+    final UUID uuid = UUID.randomUUID();
+    final double nan = Double.longBitsToDouble(0x7ff8_0000_0000_0001L);
+
+    impl.doubleValue(uuid, nan);
+    assertTrue(impl.compareAndSetDouble(uuid, nan, 5.0));
+    assertEquals(5.0, impl.addDoubleValue(uuid, 1.0));
+    assertEquals(6.0, impl.doubleValue(uuid));
+  }
+
+  /// Stores every `NaN` as the canonical one and `-0.0` as `0.0`, like a database column might.
+  static final class NormalizingImpl implements DoubleCurrency {
+    private double value;
+
+    @Override
+    public Key key() {
+      return Key.key("dummy:double");
+    }
+
+    @Override
+    public @Nullable UUID uuidForName(final String name) {
+      return UUID.randomUUID();
+    }
+
+    @Override
+    public double doubleValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public double doubleValue(final UUID uuid, final double value) {
+      final double prevValue = this.value;
+      this.value = Double.isNaN(value) ? Double.NaN : value + 0.0;
+      return prevValue;
+    }
+  }
+}
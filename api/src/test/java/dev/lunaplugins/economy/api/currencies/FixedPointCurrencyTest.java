@@ -0,0 +1,189 @@
+package dev.lunaplugins.economy.api.currencies;
+
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class FixedPointCurrencyTest {
+
+  @Test
+  void testBasicOperations() {
+    final FixedPointCurrency impl = new DummyImpl(2);
+
+    assertEquals(0, impl.longValue("dummy", 24));
+    assertEquals(2_400, impl.unitValue(UUID.randomUUID()));
+    assertEquals(24, impl.addLongValue("dummy", 5));
+    assertEquals(29, impl.intValue("dummy"));
+    assertEquals(2_900, impl.addUnitValue(UUID.randomUUID(), -1));
+    assertEquals(28, impl.longValue("dummy"));
+    assertEquals(28.99, impl.doubleValue("dummy"));
+  }
+
+  @Test
+  void testExactDecimals() {
+    final FixedPointCurrency impl = new DummyImpl(2);
+
+    for (int i = 0; i < 10; i++) {
+      impl.addDoubleValue("dummy", 0.1);
+    }
+    assertEquals(100, impl.unitValue(UUID.randomUUID()));
+    assertEquals(1.0, impl.doubleValue("dummy", 0.29));
+    assertEquals(29, impl.unitValue(UUID.randomUUID()));
+    assertEquals(new BigDecimal("0.29"), impl.addBigDecimalValue("dummy", new BigDecimal("-1.005")));
+    assertEquals(new BigDecimal("-0.71"), impl.bigDecimalValue("dummy"));
+    // Whole-number getters round towards zero
+    assertEquals(0, impl.longValue("dummy"));
+    assertEquals(BigInteger.ZERO, impl.bigIntValue("dummy"));
+  }
+
+  @Test
+  void testOverflow() {
+    final FixedPointCurrency impl = new DummyImpl(4);
+
+    assertEquals(0, impl.longValue("dummy", Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, impl.unitValue(UUID.randomUUID()));
+    assertEquals(Long.MAX_VALUE / 10_000, impl.longValue("dummy"));
+    assertEquals(Long.MAX_VALUE / 10_000, impl.addLongValue("dummy", 1));
+    assertEquals(Integer.MAX_VALUE, impl.intValue("dummy"));
+    impl.unitValue(UUID.randomUUID(), 0);
+    impl.addBigIntValue("dummy", BigInteger.TWO.pow(80).negate());
+    assertEquals(Long.MIN_VALUE, impl.unitValue(UUID.randomUUID()));
+    impl.doubleValue("dummy", Double.POSITIVE_INFINITY);
+    assertEquals(Long.MAX_VALUE, impl.unitValue(UUID.randomUUID()));
+    impl.doubleValue("dummy", Double.NaN);
+    assertEquals(0, impl.unitValue(UUID.randomUUID()));
+  }
+
+  @Test
+  void testAtomicPrimitives() {
+    final FixedPointCurrency impl = new DummyImpl(2);
+    final UUID uuid = UUID.randomUUID();
+    impl.unitValue(uuid, 150);
+
+    assertFalse(impl.compareAndSetLong(uuid, 1, 3));
+    assertEquals(150, impl.unitValue(uuid));
+    impl.unitValue(uuid, 100);
+    assertTrue(impl.compareAndSetLong(uuid, 1, 3));
+    assertEquals(300, impl.unitValue(uuid));
+    assertFalse(impl.compareAndSetUnits(uuid, 150, 0));
+    assertEquals(3, impl.updateLong(uuid, value -> value * 2));
+    assertEquals(600, impl.unitValue(uuid));
+    impl.unitValue(uuid, 650);
+    assertEquals(6, impl.updateLong(uuid, value -> value + 1));
+    assertEquals(700, impl.unitValue(uuid));
+  }
+
+  @Test
+  void testPrecision() {
+    final FixedPointCurrency impl = new DummyImpl(3);
+
+    assertTrue(impl.isDecimal());
+    assertTrue(impl.isExact());
+    assertEquals(3, impl.scale());
+    assertEquals(1_000, impl.unitsPerWhole());
+    assertThrows(IllegalArgumentException.class, () -> new DummyImpl(19).unitsPerWhole());
+    assertFalse(new IntCurrencyTest.DummyImpl().isDecimal());
+    assertEquals(0, new IntCurrencyTest.DummyImpl().scale());
+  }
+
+  @Test
+  void testBulkValues() {
+    final FixedPointCurrency impl = new DummyImpl(2);
+    final List<UUID> uuids = List.of(UUID.randomUUID(), UUID.randomUUID());
+    impl.bigDecimalValue("dummy", new BigDecimal("42.5"));
+
+    assertArrayEquals(new long[]{42, 42}, impl.longValues(uuids));
+    assertArrayEquals(new double[]{42.5, 42.5}, impl.doubleValues(uuids));
+  }
+
+  @Test
+  void testFractionalTransfer() {
+    final AccountsImpl impl = new AccountsImpl(2);
+    final UUID from = new UUID(1, 1);
+    final UUID to = new UUID(2, 2);
+    impl.unitValue(from, 300);
+    impl.unitValue(to, -50);
+
+    assertTrue(impl.transfer(from, to, 1));
+    assertEquals(200, impl.unitValue(from));
+    assertEquals(50, impl.unitValue(to));
+    assertFalse(impl.transfer(from, to, 3));
+    assertEquals(200, impl.unitValue(from));
+
+    // The receiver cannot hold the amount, so its exact balance is restored
+    impl.unitValue(to, Long.MAX_VALUE - 50);
+    assertFalse(impl.transfer(from, to, 1));
+    assertEquals(Long.MAX_VALUE - 50, impl.unitValue(to));
+    assertEquals(200, impl.unitValue(from));
+  }
+
+  static class DummyImpl implements FixedPointCurrency {
+    private final int scale;
+    private long units = 0;
+
+    DummyImpl(final int scale) {
+      this.scale = scale;
+    }
+
+    @Override
+    public Key key() {
+      return Key.key("dummy:fixed");
+    }
+
+    @Override
+    public @Nullable UUID uuidForName(final String name) {
+      return UUID.randomUUID();
+    }
+
+    @Override
+    public int scale() {
+      return this.scale;
+    }
+
+    @Override
+    public long unitValue(final UUID uuid) {
+      return this.units;
+    }
+
+    @Override
+    public long unitValue(final UUID uuid, final long value) {
+      final long prevValue = this.units;
+      this.units = value;
+      return prevValue;
+    }
+  }
+
+  static final class AccountsImpl extends DummyImpl {
+    private final Map<UUID, Long> units = new HashMap<>();
+
+    AccountsImpl(final int scale) {
+      super(scale);
+    }
+
+    @Override
+    public long unitValue(final UUID uuid) {
+      return this.units.getOrDefault(uuid, 0L);
+    }
+
+    @Override
+    public long unitValue(final UUID uuid, final long value) {
+      final @Nullable Long prevValue = this.units.put(uuid, value);
+      return prevValue == null ? 0 : prevValue;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package dev.lunaplugins.economy.api.currencies;
+
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class FloatCurrencyTest {
+
+  @Test
+  void testCompareAndSetNormalizedNaN() {
+    final FloatCurrency impl = new NormalizingImpl();
+    final UUID uuid = UUID.randomUUID();
+    final float nan = Float.intBitsToFloat(0x7fc0_0001);
+
+    impl.floatValue(uuid, nan);
+    assertTrue(impl.compareAndSetFloat(uuid, nan, 5.0f));
+    assertEquals(5.0f, impl.floatValue(uuid));
+    assertFalse(impl.compareAndSetFloat(uuid, nan, 6.0f));
+  }
+
+  @Test
+  void testCompareAndSetSignedZero() {
+    final FloatCurrency impl = new NormalizingImpl();
+    final UUID uuid = UUID.randomUUID();
+
+    impl.floatValue(uuid, -0.0f);
+    assertFalse(impl.compareAndSetFloat(uuid, -0.0f, 1.0f));
+    assertTrue(impl.compareAndSetFloat(uuid, 0.0f, 1.0f));
+    assertEquals(1.0f, impl.addFloatValue(uuid, -1.0f));
+    assertEquals(0.0f, impl.floatValue(uuid));
+  }
+
+  /// Stores every `NaN` as the canonical one and `-0.0` as `0.0`, like a database column might.
+  static final class NormalizingImpl implements FloatCurrency {
+    private float value;
+
+    @Override
+    public Key key() {
+      return Key.key("dummy:float");
+    }
+
+    @Override
+    public @Nullable UUID uuidForName(final String name) {
+      return UUID.randomUUID();
+    }
+
+    @Override
+    public float floatValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public float floatValue(final UUID uuid, final float value) {
+      final float prevValue = this.value;
+      this.value = Float.isNaN(value) ? Float.NaN : value + 0.0f;
+      return prevValue;
+    }
+  }
+}
@@ -7,9 +7,14 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @NullMarked
 class IntCurrencyTest {
@@ -93,6 +98,96 @@ class IntCurrencyTest {
     assertEquals(Integer.MAX_VALUE, impl.intValue("dummy"));
   }
 
+  @Test
+  void testAtomicPrimitives() {
+    final IntCurrency impl = new DummyImpl();
+    final UUID uuid = UUID.randomUUID();
+
+    assertTrue(impl.compareAndSetLong(uuid, 0, 10));
+    assertFalse(impl.compareAndSetLong(uuid, 0, 20));
+    assertFalse(impl.compareAndSetLong(uuid, Long.MAX_VALUE, 20));
+    assertEquals(10, impl.updateLong(uuid, value -> value * 3));
+    assertEquals(30, impl.updateLong(uuid, value -> Long.MAX_VALUE));
+    assertEquals(Integer.MAX_VALUE, impl.intValue(uuid));
+    assertEquals(Integer.MAX_VALUE, impl.addLongValue(uuid, 1));
+    assertEquals(Integer.MAX_VALUE, impl.intValue(uuid));
+  }
+
+  @Test
+  void testHugeBigIntAdd() {
+    final IntCurrency impl = new DummyImpl();
+
+    assertEquals(BigInteger.ZERO, impl.addBigIntValue("dummy", BigInteger.TWO.pow(80).negate()));
+    assertEquals(Integer.MIN_VALUE, impl.intValue("dummy"));
+  }
+
+  @Test
+  void testBulkValues() {
+    final IntCurrency impl = new DummyImpl();
+    final List<UUID> uuids = List.of(UUID.randomUUID(), UUID.randomUUID());
+    impl.intValue("dummy", 42);
+
+    assertArrayEquals(new long[]{42, 42}, impl.longValues(uuids));
+    assertArrayEquals(new double[]{42.0, 42.0}, impl.doubleValues(uuids));
+    final List<BigDecimal> decimals = new ArrayList<>();
+    impl.bigDecimalValues(uuids, (uuid, value) -> decimals.add(value));
+    assertEquals(List.of(BigDecimal.valueOf(42), BigDecimal.valueOf(42)), decimals);
+  }
+
+  @Test
+  void testGeneratedAdapter() {
+    final DummyImpl backend = new DummyImpl();
+    final IntCurrencyAdapter impl = new IntCurrencyAdapter(backend);
+
+    assertEquals(0, impl.doubleValue("dummy", 240.2));
+    assertEquals(240.0, impl.addDoubleValue("dummy", 0.8));
+    assertEquals(241, backend.intValue("dummy"));
+    assertEquals(backend.bigDecimalValue("dummy"), impl.bigDecimalValue("dummy"));
+    assertEquals(241, impl.addLongValue("dummy", Long.MAX_VALUE));
+    assertEquals(Integer.MAX_VALUE, backend.intValue("dummy"));
+    assertTrue(impl.isExact());
+    assertEquals(0, impl.scale());
+    assertEquals(backend.key(), impl.key());
+  }
+
+  @Test
+  void testAdapterForwardsOverrides() {
+    final CountingImpl backend = new CountingImpl();
+    final IntCurrencyAdapter impl = new IntCurrencyAdapter(backend);
+
+    impl.increment(UUID.randomUUID(), 5);
+    impl.increment(1, 2, 5);
+    assertEquals(2, backend.increments);
+    assertEquals(10, backend.intValue("dummy"));
+    assertEquals(10, impl.intValue(1, 2));
+    assertEquals(1, backend.halves);
+    // Not overridden, so the copy in the adapter is used
+    assertEquals(10.0, impl.doubleValue(UUID.randomUUID()));
+  }
+
+  static final class CountingImpl extends DummyImpl {
+    private int increments;
+    private int halves;
+
+    @Override
+    public void increment(final UUID uuid, final long value) {
+      this.increments++;
+      this.addIntValue(uuid, (int) value);
+    }
+
+    @Override
+    public void increment(final long mostSigBits, final long leastSigBits, final long value) {
+      this.increments++;
+      this.addIntValue(new UUID(mostSigBits, leastSigBits), (int) value);
+    }
+
+    @Override
+    public int intValue(final long mostSigBits, final long leastSigBits) {
+      this.halves++;
+      return this.intValue(new UUID(mostSigBits, leastSigBits));
+    }
+  }
+
   static class DummyImpl implements IntCurrency {
     private int value = 0;
 
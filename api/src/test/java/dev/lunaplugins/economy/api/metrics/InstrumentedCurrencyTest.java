@@ -0,0 +1,224 @@
+package dev.lunaplugins.economy.api.metrics;
+
+import dev.lunaplugins.economy.api.currencies.FixedPointCurrency;
+import dev.lunaplugins.economy.api.currencies.LongCurrency;
+import dev.lunaplugins.economy.api.currencies.Saturations;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class InstrumentedCurrencyTest {
+
+  @Test
+  void testOperationCounts() {
+    final InstrumentedCurrency currency = new InstrumentedCurrency(new DummyImpl(), () -> 7, () -> 0);
+    final UUID uuid = UUID.randomUUID();
+
+    currency.longValue(uuid, 5);
+    currency.addIntValue(uuid, 3);
+    currency.addLongValue("dummy", 2);
+    currency.intValue(uuid);
+    currency.doubleValue(uuid);
+    currency.longValues(List.of(uuid, uuid));
+    assertEquals(10, currency.longValue(uuid));
+
+    final MetricsSnapshot snapshot = currency.metrics().snapshot();
+    assertEquals(Key.key("dummy:long"), snapshot.currency());
+    assertEquals(8, snapshot.totalCount());
+    assertEquals(Map.of(NumberType.LONG, 1L), snapshot.operation(Operation.SET).countsByType());
+    assertEquals(Map.of(NumberType.INT, 1L, NumberType.LONG, 1L), snapshot.operation(Operation.ADD).countsByType());
+    assertEquals(3, snapshot.operation(Operation.GET).count());
+    assertEquals(1, snapshot.operation(Operation.BULK_GET).count());
+    assertEquals(1, snapshot.operation(Operation.NAME_LOOKUP).count());
+    assertEquals(Map.of(), snapshot.operation(Operation.NAME_LOOKUP).countsByType());
+    assertEquals(7, snapshot.retries());
+    assertTrue(snapshot.operation(Operation.GET).percentileNanos(1) >= snapshot.operation(Operation.GET).percentileNanos(0.5));
+
+    currency.metrics().reset();
+    assertEquals(0, currency.metrics().snapshot().totalCount());
+  }
+
+  @Test
+  void testContention() {
+    final DummyImpl delegate = new DummyImpl();
+    final InstrumentedCurrency currency = new InstrumentedCurrency(delegate);
+    final UUID uuid = UUID.randomUUID();
+
+    currency.compareAndSetLong(uuid, 1, 2);
+    delegate.failures = 3;
+    assertEquals(0, currency.updateLong(uuid, value -> value + 1));
+    assertEquals(1, currency.longValue(uuid));
+
+    final MetricsSnapshot snapshot = currency.metrics().snapshot();
+    assertEquals(1, snapshot.compareAndSetFailures());
+    assertEquals(3, snapshot.retries());
+  }
+
+  @Test
+  void testPrecisionInterfaces() {
+    final InstrumentedCurrency longCurrency = InstrumentedCurrency.wrap(new DummyImpl(), () -> 0, () -> 0);
+    assertTrue(longCurrency instanceof LongCurrency);
+    assertFalse(longCurrency instanceof FixedPointCurrency);
+
+    final InstrumentedCurrency currency = InstrumentedCurrency.wrap(new UnitsImpl(), () -> 0, () -> 0);
+    assertTrue(currency instanceof FixedPointCurrency);
+    final FixedPointCurrency fixedPoint = (FixedPointCurrency) currency;
+    final UUID uuid = UUID.randomUUID();
+    fixedPoint.unitValue(uuid, 150);
+    assertEquals(1, fixedPoint.longValue(uuid));
+    assertFalse(fixedPoint.compareAndSetUnits(uuid, 100, 200));
+    assertEquals(150, fixedPoint.addUnitValue(uuid, 1));
+
+    final MetricsSnapshot snapshot = currency.metrics().snapshot();
+    assertEquals(Map.of(NumberType.UNITS, 1L), snapshot.operation(Operation.SET).countsByType());
+    assertEquals(Map.of(NumberType.UNITS, 1L), snapshot.operation(Operation.ADD).countsByType());
+    assertEquals(Map.of(NumberType.LONG, 1L), snapshot.operation(Operation.GET).countsByType());
+    assertEquals(1, snapshot.compareAndSetFailures());
+  }
+
+  @Test
+  void testSaturations() {
+    final AtomicLong backend = new AtomicLong(3);
+    final InstrumentedCurrency currency = new InstrumentedCurrency(new DummyImpl(), () -> 0, backend::get);
+    final InstrumentedCurrency other = new InstrumentedCurrency(new DummyImpl());
+    final UUID uuid = UUID.randomUUID();
+    final long before = Saturations.count();
+
+    currency.longValue(uuid, Long.MAX_VALUE);
+    currency.addLongValue(uuid, 1);
+    assertEquals(Long.MAX_VALUE, currency.longValue(uuid));
+    assertTrue(Saturations.count() > before);
+    assertEquals(3, currency.metrics().snapshot().saturations());
+    assertEquals(0, other.metrics().snapshot().saturations());
+
+    currency.metrics().reset();
+    backend.addAndGet(2);
+    assertEquals(2, currency.metrics().snapshot().saturations());
+  }
+
+  @Test
+  void testSlowOperationEvents(@TempDir final Path directory) throws IOException {
+    final InstrumentedCurrency currency = new InstrumentedCurrency(new DummyImpl());
+    final UUID uuid = UUID.randomUUID();
+    final Path file = directory.resolve("recording.jfr");
+    try (final Recording recording = new Recording()) {
+      recording.enable("dev.lunaplugins.economy.SlowOperation");
+      recording.start();
+      currency.addLongValue(uuid, 1);
+      currency.metrics().slowOperationThreshold(Duration.ZERO);
+      currency.addLongValue(uuid, 1);
+      recording.stop();
+      recording.dump(file);
+    }
+
+    final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    assertEquals(1, events.size());
+    assertEquals("dummy:long", events.getFirst().getString("currency"));
+    assertEquals("ADD", events.getFirst().getString("operation"));
+    assertEquals("LONG", events.getFirst().getString("numberType"));
+  }
+
+  @Test
+  void testHistogram() {
+    assertEquals(0, LatencyHistogram.bucketOf(0));
+    assertEquals(1, LatencyHistogram.bucketOf(1));
+    assertEquals(11, LatencyHistogram.bucketOf(1_500));
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 99; i++) {
+      histogram.record(100);
+    }
+    histogram.record(1_000_000);
+    final OperationStats stats = new OperationStats(Operation.GET, 100, Map.of(), histogram.totalNanos(), histogram.counts());
+    assertEquals(127, stats.percentileNanos(0.5));
+    assertEquals(127, stats.percentileNanos(0.99));
+    assertEquals((1L << 20) - 1, stats.percentileNanos(1));
+    assertEquals(10_099, stats.meanNanos());
+  }
+
+  static class DummyImpl implements LongCurrency {
+    private long value = 0;
+    private int failures = 0;
+
+    @Override
+    public Key key() {
+      return Key.key("dummy:long");
+    }
+
+    @Override
+    public @Nullable UUID uuidForName(final String name) {
+      return UUID.randomUUID();
+    }
+
+    @Override
+    public long longValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public long longValue(final UUID uuid, final long value) {
+      final long prevValue = this.value;
+      this.value = value;
+      return prevValue;
+    }
+
+    @Override
+    public boolean compareAndSetLong(final UUID uuid, final long expected, final long value) {
+      if (this.failures > 0) {
+        this.failures--;
+        return false;
+      }
+      return LongCurrency.super.compareAndSetLong(uuid, expected, value);
+    }
+  }
+
+  static class UnitsImpl implements FixedPointCurrency {
+    private long units = 0;
+
+    @Override
+    public Key key() {
+      return Key.key("dummy:units");
+    }
+
+    @Override
+    public @Nullable UUID uuidForName(final String name) {
+      return UUID.randomUUID();
+    }
+
+    @Override
+    public int scale() {
+      return 2;
+    }
+
+    @Override
+    public long unitValue(final UUID uuid) {
+      return this.units;
+    }
+
+    @Override
+    public long unitValue(final UUID uuid, final long value) {
+      final long prev = this.units;
+      this.units = value;
+      return prev;
+    }
+  }
+}
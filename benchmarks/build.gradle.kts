@@ -0,0 +1,20 @@
+plugins {
+  id("luna.java-conventions")
+  id("me.champeau.jmh") version "0.7.3"
+}
+
+dependencies {
+  jmh(project(":api"))
+  jmh(project(":plugin"))
+  jmh("net.kyori:adventure-key:4.25.0")
+  jmh("org.jspecify:jspecify:1.0.0")
+}
+
+jmh {
+  jmhVersion = "1.37"
+  // Makes allocation regressions of the conversion chains visible as gc.alloc.rate.norm
+  profilers = listOf("gc")
+  fork = 2
+  warmupIterations = 3
+  iterations = 5
+}
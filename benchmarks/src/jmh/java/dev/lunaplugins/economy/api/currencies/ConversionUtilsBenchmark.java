@@ -0,0 +1,64 @@
+package dev.lunaplugins.economy.api.currencies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/// The down-sampling helpers, which every [BigIntCurrency] and [BigDecimalCurrency]
+/// conversion to a primitive goes through, and the conversions of doubles used by the
+/// primitive precisions. Lives in the same package to access them.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ConversionUtilsBenchmark {
+  @Param({"small", "int-overflow", "long-overflow"})
+  public String magnitude = "small";
+
+  public BigInteger value = BigInteger.ZERO;
+  public double doubleValue;
+
+  @Setup
+  public void setUp() {
+    this.value = switch (this.magnitude) {
+      case "small" -> BigInteger.valueOf(42);
+      case "int-overflow" -> BigInteger.valueOf(Integer.MAX_VALUE).shiftLeft(4);
+      case "long-overflow" -> BigInteger.TWO.pow(80);
+      default -> throw new IllegalArgumentException("Unknown magnitude: " + this.magnitude);
+    };
+    this.doubleValue = this.value.doubleValue();
+  }
+
+  @Benchmark
+  public int downSampleToInt() {
+    return ConversionUtils.downSampleToInt(this.value);
+  }
+
+  @Benchmark
+  public long downSampleToLong() {
+    return ConversionUtils.downSampleToLong(this.value);
+  }
+
+  @Benchmark
+  public long saturatedAdd() {
+    return ConversionUtils.saturatedAdd(-1, this.value);
+  }
+
+  @Benchmark
+  public BigDecimal toBigDecimal() {
+    return ConversionUtils.toBigDecimal(this.doubleValue);
+  }
+
+  @Benchmark
+  public BigInteger toBigInteger() {
+    return ConversionUtils.toBigInteger(this.doubleValue);
+  }
+}
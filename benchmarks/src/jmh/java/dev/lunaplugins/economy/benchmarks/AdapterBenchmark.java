@@ -0,0 +1,174 @@
+package dev.lunaplugins.economy.benchmarks;
+
+import dev.lunaplugins.economy.api.currencies.IntCurrency;
+import dev.lunaplugins.economy.api.currencies.IntCurrencyAdapter;
+import dev.lunaplugins.economy.plugin.storage.MemoryIntCurrency;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// The default method chains of [IntCurrency] against its generated [IntCurrencyAdapter].
+///
+/// Every invocation goes through four implementations of [IntCurrency], so the calls
+/// between the default methods become megamorphic like on a server with several
+/// currency plugins. The adapters only leave a single megamorphic call to the backend.
+/// One of them is the plugin's [MemoryIntCurrency], whose own `increment` and overloads
+/// keyed by the halves of a UUID have to keep being used behind an adapter.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class AdapterBenchmark {
+  @Param({"defaults", "adapter"})
+  public String mode = "defaults";
+
+  public IntCurrency[] currencies = {};
+  public UUID uuid = Precision.PLAYER;
+  public long mostSigBits = Precision.PLAYER.getMostSignificantBits();
+  public long leastSigBits = Precision.PLAYER.getLeastSignificantBits();
+  public String name = Precision.PLAYER_NAME;
+  public double doubleInput = 42.5;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    this.currencies = new IntCurrency[] {new FieldImpl(), new AtomicImpl(), new MapImpl(), new MemoryIntCurrency(Impl.KEY, Impl::resolve)};
+    for (int i = 0; i < this.currencies.length; i++) {
+      if (this.mode.equals("adapter")) {
+        this.currencies[i] = new IntCurrencyAdapter(this.currencies[i]);
+      }
+      this.currencies[i].intValue(this.uuid, 1_000);
+    }
+  }
+
+  @Benchmark
+  public double doubleValue() {
+    double sum = 0;
+    for (final IntCurrency currency : this.currencies) {
+      sum += currency.doubleValue(this.uuid);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long longValueByName() {
+    long sum = 0;
+    for (final IntCurrency currency : this.currencies) {
+      sum += currency.longValue(this.name);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double addDoubleValue() {
+    double sum = 0;
+    for (final IntCurrency currency : this.currencies) {
+      sum += currency.addDoubleValue(this.uuid, this.doubleInput);
+      currency.intValue(this.uuid, 1_000);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public void increment() {
+    for (final IntCurrency currency : this.currencies) {
+      currency.increment(this.uuid, 1);
+      currency.increment(this.uuid, -1);
+    }
+  }
+
+  @Benchmark
+  public long intValueByHalves() {
+    long sum = 0;
+    for (final IntCurrency currency : this.currencies) {
+      sum += currency.intValue(this.mostSigBits, this.leastSigBits);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int bigDecimalValue() {
+    int sum = 0;
+    for (final IntCurrency currency : this.currencies) {
+      final BigDecimal value = currency.bigDecimalValue(this.uuid);
+      sum += value.signum();
+    }
+    return sum;
+  }
+
+  private abstract static class Impl implements IntCurrency {
+    static final Key KEY = Key.key("benchmark", "currency");
+
+    static @Nullable UUID resolve(final String name) {
+      return Precision.PLAYER_NAME.equals(name) ? Precision.PLAYER : null;
+    }
+
+    @Override
+    public Key key() {
+      return KEY;
+    }
+
+    @Override
+    public @Nullable UUID uuidForName(final String name) {
+      return resolve(name);
+    }
+  }
+
+  private static final class FieldImpl extends Impl {
+    private int value;
+
+    @Override
+    public int intValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public int intValue(final UUID uuid, final int value) {
+      final int prev = this.value;
+      this.value = value;
+      return prev;
+    }
+  }
+
+  private static final class AtomicImpl extends Impl {
+    private final AtomicInteger value = new AtomicInteger();
+
+    @Override
+    public int intValue(final UUID uuid) {
+      return this.value.get();
+    }
+
+    @Override
+    public int intValue(final UUID uuid, final int value) {
+      return this.value.getAndSet(value);
+    }
+  }
+
+  private static final class MapImpl extends Impl {
+    private final Map<UUID, Integer> values = new HashMap<>();
+
+    @Override
+    public int intValue(final UUID uuid) {
+      return this.values.getOrDefault(uuid, 0);
+    }
+
+    @Override
+    public int intValue(final UUID uuid, final int value) {
+      final @Nullable Integer prev = this.values.put(uuid, value);
+      return prev == null ? 0 : prev;
+    }
+  }
+}
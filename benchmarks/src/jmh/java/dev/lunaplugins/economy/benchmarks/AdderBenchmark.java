@@ -0,0 +1,46 @@
+package dev.lunaplugins.economy.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/// Every adder of every precision, alternately adding and subtracting the same delta.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AdderBenchmark {
+
+  @Benchmark
+  public int addIntValue(final CurrencyState state) {
+    return state.currency.addIntValue(state.uuid, state.intDeltas[state.nextDelta()]);
+  }
+
+  @Benchmark
+  public long addLongValue(final CurrencyState state) {
+    return state.currency.addLongValue(state.uuid, state.longDeltas[state.nextDelta()]);
+  }
+
+  @Benchmark
+  public float addFloatValue(final CurrencyState state) {
+    return state.currency.addFloatValue(state.uuid, state.floatDeltas[state.nextDelta()]);
+  }
+
+  @Benchmark
+  public double addDoubleValue(final CurrencyState state) {
+    return state.currency.addDoubleValue(state.uuid, state.doubleDeltas[state.nextDelta()]);
+  }
+
+  @Benchmark
+  public BigInteger addBigIntValue(final CurrencyState state) {
+    return state.currency.addBigIntValue(state.uuid, state.bigIntDeltas[state.nextDelta()]);
+  }
+
+  @Benchmark
+  public BigDecimal addBigDecimalValue(final CurrencyState state) {
+    return state.currency.addBigDecimalValue(state.uuid, state.bigDecimalDeltas[state.nextDelta()]);
+  }
+}
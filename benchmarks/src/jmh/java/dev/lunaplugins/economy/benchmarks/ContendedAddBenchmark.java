@@ -0,0 +1,111 @@
+package dev.lunaplugins.economy.benchmarks;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.api.currencies.LongCurrency;
+import dev.lunaplugins.economy.plugin.storage.CoalescingBalanceMap;
+import dev.lunaplugins.economy.plugin.storage.MemoryLongCurrency;
+import dev.lunaplugins.economy.plugin.storage.UuidLongMap;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/// Concurrent adds from multiple threads, either all to the same player or
+/// spread over many players.
+///
+/// `memory` is the lock-free in-memory backend of the plugin, while `default` only
+/// implements the getter and setter and relies on the default compare-and-set loop.
+/// `coalescing` is the in-memory backend in hot counter mode, which only differs for
+/// [LunaCurrency#increment(UUID, long)].
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class ContendedAddBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Accounts {
+    @Param({"memory", "coalescing", "default"})
+    public String backend = "memory";
+
+    @Param({"1", "4096"})
+    public int players = 1;
+
+    public LunaCurrency currency = new MemoryLongCurrency(Key.key("benchmark", "memory"), name -> null);
+    public UUID[] uuids = new UUID[0];
+
+    @Setup
+    public void setUp() {
+      this.currency = switch (this.backend) {
+        case "memory" -> new MemoryLongCurrency(Key.key("benchmark", "memory"), name -> null);
+        case "coalescing" -> new MemoryLongCurrency(
+          Key.key("benchmark", "coalescing"),
+          name -> null,
+          new CoalescingBalanceMap(new UuidLongMap(), Long.MIN_VALUE, Long.MAX_VALUE)
+        );
+        case "default" -> new MapLongCurrency();
+        default -> throw new IllegalArgumentException("Unknown backend: " + this.backend);
+      };
+      this.uuids = new UUID[this.players];
+      for (int i = 0; i < this.players; i++) {
+        this.uuids[i] = new UUID(ThreadLocalRandom.current().nextLong(), ThreadLocalRandom.current().nextLong());
+        this.currency.longValue(this.uuids[i], 0);
+      }
+    }
+  }
+
+  @Benchmark
+  public long addLongValue(final Accounts accounts) {
+    final UUID uuid = accounts.uuids[ThreadLocalRandom.current().nextInt(accounts.uuids.length)];
+    return accounts.currency.addLongValue(uuid, 1);
+  }
+
+  @Benchmark
+  public int addIntValue(final Accounts accounts) {
+    final UUID uuid = accounts.uuids[ThreadLocalRandom.current().nextInt(accounts.uuids.length)];
+    return accounts.currency.addIntValue(uuid, 1);
+  }
+
+  @Benchmark
+  public void increment(final Accounts accounts) {
+    final UUID uuid = accounts.uuids[ThreadLocalRandom.current().nextInt(accounts.uuids.length)];
+    accounts.currency.increment(uuid, 1);
+  }
+
+  private static final class MapLongCurrency implements LongCurrency {
+    private final Map<UUID, Long> balances = new ConcurrentHashMap<>();
+
+    @Override
+    public Key key() {
+      return Key.key("benchmark", "default");
+    }
+
+    @Override
+    public @Nullable UUID uuidForName(final String name) {
+      return null;
+    }
+
+    @Override
+    public long longValue(final UUID uuid) {
+      return this.balances.getOrDefault(uuid, 0L);
+    }
+
+    @Override
+    public long longValue(final UUID uuid, final long value) {
+      final Long prev = this.balances.put(uuid, value);
+      return prev == null ? 0 : prev;
+    }
+  }
+}
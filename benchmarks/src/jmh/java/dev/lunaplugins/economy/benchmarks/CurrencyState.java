@@ -0,0 +1,57 @@
+package dev.lunaplugins.economy.benchmarks;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.UUID;
+
+/// A currency of every precision, together with non-constant inputs of every number type.
+@State(Scope.Thread)
+public class CurrencyState {
+  @Param({"INT", "LONG", "FLOAT", "DOUBLE", "BIG_INT", "BIG_DECIMAL"})
+  public Precision precision = Precision.INT;
+
+  public LunaCurrency currency = Precision.INT.create();
+  public UUID uuid = Precision.PLAYER;
+  public long mostSigBits = Precision.PLAYER.getMostSignificantBits();
+  public long leastSigBits = Precision.PLAYER.getLeastSignificantBits();
+  public String name = Precision.PLAYER_NAME;
+  public int intInput = 42;
+  public long longInput = 42L;
+  public float floatInput = 42.5f;
+  public double doubleInput = 42.5;
+  public BigInteger bigIntInput = BigInteger.valueOf(42);
+  public BigDecimal bigDecimalInput = new BigDecimal("42.5");
+  /// The inputs of the adders, a positive delta followed by its negation.
+  public int[] intDeltas = {42, -42};
+  public long[] longDeltas = {42L, -42L};
+  public float[] floatDeltas = {42.5f, -42.5f};
+  public double[] doubleDeltas = {42.5, -42.5};
+  public BigInteger[] bigIntDeltas = {BigInteger.valueOf(42), BigInteger.valueOf(-42)};
+  public BigDecimal[] bigDecimalDeltas = {new BigDecimal("42.5"), new BigDecimal("-42.5")};
+  private int delta;
+
+  /// Alternates between the positive and the negative delta of the adders, so the
+  /// balance oscillates around its initial value. Adding the same delta over and over
+  /// would saturate an `int` balance early in the first iteration, and lose the
+  /// precision of a `float` balance even earlier, so the saturation paths would be
+  /// measured instead.
+  ///
+  /// @return index of the next delta
+  public int nextDelta() {
+    return this.delta ^= 1;
+  }
+
+  /// Recreates the currency, so every iteration starts from the same balance.
+  @Setup(Level.Iteration)
+  public void setUp() {
+    this.currency = this.precision.create();
+    this.currency.longValue(this.uuid, 1_000);
+  }
+}
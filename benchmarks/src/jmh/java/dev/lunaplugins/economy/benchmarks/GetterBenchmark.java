@@ -0,0 +1,56 @@
+package dev.lunaplugins.economy.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/// Every getter of every precision, plus the primitive getters keyed by the halves of a UUID.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GetterBenchmark {
+
+  @Benchmark
+  public int intValue(final CurrencyState state) {
+    return state.currency.intValue(state.uuid);
+  }
+
+  @Benchmark
+  public long longValue(final CurrencyState state) {
+    return state.currency.longValue(state.uuid);
+  }
+
+  @Benchmark
+  public float floatValue(final CurrencyState state) {
+    return state.currency.floatValue(state.uuid);
+  }
+
+  @Benchmark
+  public double doubleValue(final CurrencyState state) {
+    return state.currency.doubleValue(state.uuid);
+  }
+
+  @Benchmark
+  public BigInteger bigIntValue(final CurrencyState state) {
+    return state.currency.bigIntValue(state.uuid);
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimalValue(final CurrencyState state) {
+    return state.currency.bigDecimalValue(state.uuid);
+  }
+
+  @Benchmark
+  public long longValueByHalves(final CurrencyState state) {
+    return state.currency.longValue(state.mostSigBits, state.leastSigBits);
+  }
+
+  @Benchmark
+  public double doubleValueByHalves(final CurrencyState state) {
+    return state.currency.doubleValue(state.mostSigBits, state.leastSigBits);
+  }
+}
@@ -0,0 +1,41 @@
+package dev.lunaplugins.economy.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/// The [String] overloads, which resolve the name on every call before
+/// delegating to the [java.util.UUID] variants.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NameOverloadBenchmark {
+
+  @Benchmark
+  public long longValue(final CurrencyState state) {
+    return state.currency.longValue(state.name);
+  }
+
+  @Benchmark
+  public long setLongValue(final CurrencyState state) {
+    return state.currency.longValue(state.name, state.longInput);
+  }
+
+  @Benchmark
+  public long addLongValue(final CurrencyState state) {
+    return state.currency.addLongValue(state.name, state.longDeltas[state.nextDelta()]);
+  }
+
+  @Benchmark
+  public double addDoubleValue(final CurrencyState state) {
+    return state.currency.addDoubleValue(state.name, state.doubleDeltas[state.nextDelta()]);
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimalValue(final CurrencyState state) {
+    return state.currency.bigDecimalValue(state.name);
+  }
+}
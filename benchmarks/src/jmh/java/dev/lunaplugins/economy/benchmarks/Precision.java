@@ -0,0 +1,184 @@
+package dev.lunaplugins.economy.benchmarks;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.api.currencies.BigDecimalCurrency;
+import dev.lunaplugins.economy.api.currencies.BigIntCurrency;
+import dev.lunaplugins.economy.api.currencies.DoubleCurrency;
+import dev.lunaplugins.economy.api.currencies.FloatCurrency;
+import dev.lunaplugins.economy.api.currencies.IntCurrency;
+import dev.lunaplugins.economy.api.currencies.LongCurrency;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.UUID;
+
+/// The precision interfaces, each with a minimal implementation that only stores a
+/// single value of its own type. Everything else goes through the default methods,
+/// so the benchmarks measure the conversion chains rather than a storage backend.
+public enum Precision {
+  INT {
+    @Override
+    LunaCurrency create() {
+      return new IntImpl();
+    }
+  },
+  LONG {
+    @Override
+    LunaCurrency create() {
+      return new LongImpl();
+    }
+  },
+  FLOAT {
+    @Override
+    LunaCurrency create() {
+      return new FloatImpl();
+    }
+  },
+  DOUBLE {
+    @Override
+    LunaCurrency create() {
+      return new DoubleImpl();
+    }
+  },
+  BIG_INT {
+    @Override
+    LunaCurrency create() {
+      return new BigIntImpl();
+    }
+  },
+  BIG_DECIMAL {
+    @Override
+    LunaCurrency create() {
+      return new BigDecimalImpl();
+    }
+  };
+
+  static final UUID PLAYER = new UUID(0x0123456789ABCDEFL, 0xFEDCBA9876543210L);
+  static final String PLAYER_NAME = "Notch";
+
+  abstract LunaCurrency create();
+
+  private abstract static class Impl implements LunaCurrency {
+    @Override
+    public Key key() {
+      return Key.key("benchmark", "currency");
+    }
+
+    @Override
+    public @Nullable UUID uuidForName(final String name) {
+      return PLAYER_NAME.equals(name) ? PLAYER : null;
+    }
+  }
+
+  private static final class IntImpl extends Impl implements IntCurrency {
+    private int value;
+
+    @Override
+    public int intValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public int intValue(final UUID uuid, final int value) {
+      final int prev = this.value;
+      this.value = value;
+      return prev;
+    }
+  }
+
+  private static final class LongImpl extends Impl implements LongCurrency {
+    private long value;
+
+    @Override
+    public long longValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public long longValue(final UUID uuid, final long value) {
+      final long prev = this.value;
+      this.value = value;
+      return prev;
+    }
+  }
+
+  private static final class FloatImpl extends Impl implements FloatCurrency {
+    private float value;
+
+    @Override
+    public float floatValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public float floatValue(final UUID uuid, final float value) {
+      final float prev = this.value;
+      this.value = value;
+      return prev;
+    }
+  }
+
+  private static final class DoubleImpl extends Impl implements DoubleCurrency {
+    private double value;
+
+    @Override
+    public double doubleValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public double doubleValue(final UUID uuid, final double value) {
+      final double prev = this.value;
+      this.value = value;
+      return prev;
+    }
+  }
+
+  private static final class BigIntImpl extends Impl implements BigIntCurrency {
+    private BigInteger value = BigInteger.ZERO;
+
+    @Override
+    public BigInteger bigIntValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public BigInteger bigIntValue(final UUID uuid, final BigInteger value) {
+      final BigInteger prev = this.value;
+      this.value = value;
+      return prev;
+    }
+
+    @Override
+    public BigInteger addBigIntValue(final UUID uuid, final BigInteger value) {
+      final BigInteger prev = this.value;
+      this.value = prev.add(value);
+      return prev;
+    }
+  }
+
+  private static final class BigDecimalImpl extends Impl implements BigDecimalCurrency {
+    private BigDecimal value = BigDecimal.ZERO;
+
+    @Override
+    public BigDecimal bigDecimalValue(final UUID uuid) {
+      return this.value;
+    }
+
+    @Override
+    public BigDecimal bigDecimalValue(final UUID uuid, final BigDecimal value) {
+      final BigDecimal prev = this.value;
+      this.value = value;
+      return prev;
+    }
+
+    @Override
+    public BigDecimal addBigDecimalValue(final UUID uuid, final BigDecimal value) {
+      final BigDecimal prev = this.value;
+      this.value = prev.add(value);
+      return prev;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package dev.lunaplugins.economy.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/// Every setter of every precision.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SetterBenchmark {
+
+  @Benchmark
+  public int intValue(final CurrencyState state) {
+    return state.currency.intValue(state.uuid, state.intInput);
+  }
+
+  @Benchmark
+  public long longValue(final CurrencyState state) {
+    return state.currency.longValue(state.uuid, state.longInput);
+  }
+
+  @Benchmark
+  public float floatValue(final CurrencyState state) {
+    return state.currency.floatValue(state.uuid, state.floatInput);
+  }
+
+  @Benchmark
+  public double doubleValue(final CurrencyState state) {
+    return state.currency.doubleValue(state.uuid, state.doubleInput);
+  }
+
+  @Benchmark
+  public BigInteger bigIntValue(final CurrencyState state) {
+    return state.currency.bigIntValue(state.uuid, state.bigIntInput);
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimalValue(final CurrencyState state) {
+    return state.currency.bigDecimalValue(state.uuid, state.bigDecimalInput);
+  }
+}
@@ -1,11 +1,15 @@
 plugins {
   id("luna.java-conventions")
+  id("luna.test-conventions")
   id("xyz.jpenilla.run-paper") version "3.0.2"
 }
 
 dependencies {
   compileOnly("io.papermc.paper:paper-api:1.21.10-R0.1-SNAPSHOT")
   api(project(":api"))
+
+  testImplementation("net.kyori:adventure-key:4.25.0")
+  testRuntimeOnly("com.h2database:h2:2.3.232")
 }
 
 tasks {
@@ -0,0 +1,244 @@
+package dev.lunaplugins.economy.plugin;
+
+import dev.lunaplugins.economy.api.BalanceRanking;
+import dev.lunaplugins.economy.api.CurrencyRegistry;
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.api.currencies.Saturations;
+import dev.lunaplugins.economy.api.metrics.BalanceStatistics;
+import dev.lunaplugins.economy.api.metrics.InstrumentedCurrency;
+import dev.lunaplugins.economy.api.metrics.MetricsSnapshot;
+import dev.lunaplugins.economy.api.metrics.NumberType;
+import dev.lunaplugins.economy.api.metrics.OperationStats;
+import io.papermc.paper.command.brigadier.BasicCommand;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.jspecify.annotations.NullMarked;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/// The `/lunaeconomy` admin command.
+@NullMarked
+final class EconomyCommand implements BasicCommand {
+  static final String PERMISSION = "lunaeconomy.admin";
+
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+  private static final int PAGE_SIZE = 10;
+
+  private final List<InstrumentedCurrency> currencies;
+  private final CurrencyRegistry registry;
+
+  EconomyCommand(final List<InstrumentedCurrency> currencies, final CurrencyRegistry registry) {
+    this.currencies = currencies;
+    this.registry = registry;
+  }
+
+  @Override
+  public void execute(final CommandSourceStack source, final String[] args) {
+    final CommandSender sender = source.getSender();
+    if (args.length > 0 && args[0].equalsIgnoreCase("metrics")) {
+      this.executeMetrics(sender, args);
+    } else if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+      this.executeStats(sender, args);
+    } else if (args.length > 1 && args[0].equalsIgnoreCase("top")) {
+      this.executeTop(sender, args);
+    } else {
+      sender.sendMessage("Usage: /lunaeconomy metrics [reset|<currency>] | stats [<currency>] | top <currency> [<page>]");
+    }
+  }
+
+  private void executeMetrics(final CommandSender sender, final String[] args) {
+    if (this.currencies.isEmpty()) {
+      sender.sendMessage("Metrics are disabled.");
+      return;
+    }
+    if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+      for (final InstrumentedCurrency currency : this.currencies) {
+        currency.metrics().reset();
+      }
+      sender.sendMessage("Metrics have been reset.");
+      return;
+    }
+    boolean found = false;
+    for (final InstrumentedCurrency currency : this.currencies) {
+      if (args.length > 1 && !currency.key().asString().equalsIgnoreCase(args[1])) {
+        continue;
+      }
+      found = true;
+      sendMetrics(sender, currency.metrics().snapshot());
+    }
+    if (!found) {
+      sender.sendMessage("Unknown currency " + args[1]);
+      return;
+    }
+    sender.sendMessage("Conversions clamped across all currencies: " + Saturations.count());
+  }
+
+  private void executeStats(final CommandSender sender, final String[] args) {
+    boolean found = false;
+    for (final LunaCurrency currency : this.registry.currencies()) {
+      if (args.length > 1 && !currency.key().asString().equalsIgnoreCase(args[1])) {
+        continue;
+      }
+      found = true;
+      final BalanceStatistics statistics;
+      try {
+        statistics = currency.statistics();
+      } catch (final UnsupportedOperationException e) {
+        sender.sendMessage(currency.key().asString() + ": no statistics available");
+        continue;
+      }
+      sendStatistics(sender, statistics, Math.max(currency.scale(), 0));
+    }
+    if (!found) {
+      sender.sendMessage(args.length > 1 ? "Unknown currency " + args[1] : "No currencies are registered.");
+    }
+  }
+
+  private void executeTop(final CommandSender sender, final String[] args) {
+    final int page;
+    try {
+      page = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+    } catch (final NumberFormatException e) {
+      sender.sendMessage("Invalid page " + args[2]);
+      return;
+    }
+    if (page < 1) {
+      sender.sendMessage("Invalid page " + args[2]);
+      return;
+    }
+    for (final LunaCurrency currency : this.registry.currencies()) {
+      if (!currency.key().asString().equalsIgnoreCase(args[1])) {
+        continue;
+      }
+      final BalanceRanking ranking;
+      try {
+        ranking = currency.ranking();
+      } catch (final UnsupportedOperationException e) {
+        sender.sendMessage(currency.key().asString() + ": no ranking available");
+        return;
+      }
+      final int scale = Math.max(currency.scale(), 0);
+      final int size = ranking.size();
+      sender.sendMessage(String.format(
+        Locale.ROOT,
+        "%s: page %d of %d, %d accounts",
+        currency.key().asString(),
+        page,
+        Math.max((size + PAGE_SIZE - 1) / PAGE_SIZE, 1),
+        size
+      ));
+      for (final BalanceRanking.Entry entry : ranking.page(page - 1, PAGE_SIZE)) {
+        final String name = Bukkit.getOfflinePlayer(entry.uuid()).getName();
+        sender.sendMessage(String.format(
+          Locale.ROOT,
+          "  #%d %s: %s",
+          entry.rank(),
+          name != null ? name : entry.uuid().toString(),
+          formatBalance(BigInteger.valueOf(entry.balance()), scale)
+        ));
+      }
+      return;
+    }
+    sender.sendMessage("Unknown currency " + args[1]);
+  }
+
+  private static void sendStatistics(final CommandSender sender, final BalanceStatistics statistics, final int scale) {
+    final StringBuilder quantiles = new StringBuilder();
+    for (final double quantile : QUANTILES) {
+      quantiles.append(String.format(Locale.ROOT, ", p%.0f ~", quantile * 100)).append(formatBalance(BigInteger.valueOf(statistics.quantile(quantile)), scale));
+    }
+    sender.sendMessage(String.format(
+      Locale.ROOT,
+      "%s: %d accounts, total %s, mean %s%s",
+      statistics.currency().asString(),
+      statistics.accounts(),
+      formatBalance(statistics.total(), scale),
+      BigDecimal.valueOf(statistics.mean()).movePointLeft(scale).setScale(scale, RoundingMode.HALF_EVEN).toPlainString(),
+      quantiles
+    ));
+  }
+
+  private static String formatBalance(final BigInteger units, final int scale) {
+    return new BigDecimal(units, scale).toPlainString();
+  }
+
+  private static void sendMetrics(final CommandSender sender, final MetricsSnapshot snapshot) {
+    sender.sendMessage(String.format(
+      Locale.ROOT,
+      "%s: %d calls, %d failed compare-and-sets, %d retries, %d saturations",
+      snapshot.currency().asString(),
+      snapshot.totalCount(),
+      snapshot.compareAndSetFailures(),
+      snapshot.retries(),
+      snapshot.saturations()
+    ));
+    for (final OperationStats stats : snapshot.operations().values()) {
+      if (stats.count() == 0) {
+        continue;
+      }
+      final StringBuilder types = new StringBuilder();
+      for (final Map.Entry<NumberType, Long> entry : stats.countsByType().entrySet()) {
+        types.append(types.isEmpty() ? " (" : ", ").append(entry.getKey().name().toLowerCase(Locale.ROOT)).append(' ').append(entry.getValue());
+      }
+      if (!types.isEmpty()) {
+        types.append(')');
+      }
+      sender.sendMessage(String.format(
+        Locale.ROOT,
+        "  %s: %d%s, mean %s, p50 %s, p99 %s",
+        stats.operation().name().toLowerCase(Locale.ROOT),
+        stats.count(),
+        types,
+        formatNanos(stats.meanNanos()),
+        formatNanos(stats.percentileNanos(0.5)),
+        formatNanos(stats.percentileNanos(0.99))
+      ));
+    }
+  }
+
+  private static String formatNanos(final double nanos) {
+    if (nanos < 1_000) {
+      return String.format(Locale.ROOT, "%.0fns", nanos);
+    } else if (nanos < 1_000_000) {
+      return String.format(Locale.ROOT, "%.1fµs", nanos / 1_000);
+    } else {
+      return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000);
+    }
+  }
+
+  @Override
+  public Collection<String> suggest(final CommandSourceStack source, final String[] args) {
+    if (args.length <= 1) {
+      return List.of("metrics", "stats", "top");
+    }
+    if (args.length == 2 && args[0].equalsIgnoreCase("metrics")) {
+      final List<String> suggestions = new ArrayList<>();
+      suggestions.add("reset");
+      for (final InstrumentedCurrency currency : this.currencies) {
+        suggestions.add(currency.key().asString());
+      }
+      return suggestions;
+    }
+    if (args.length == 2 && (args[0].equalsIgnoreCase("stats") || args[0].equalsIgnoreCase("top"))) {
+      final List<String> suggestions = new ArrayList<>();
+      for (final LunaCurrency currency : this.registry.currencies()) {
+        suggestions.add(currency.key().asString());
+      }
+      return suggestions;
+    }
+    return List.of();
+  }
+
+  @Override
+  public String permission() {
+    return PERMISSION;
+  }
+}
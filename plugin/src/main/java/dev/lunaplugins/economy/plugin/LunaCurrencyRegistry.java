@@ -0,0 +1,59 @@
+package dev.lunaplugins.economy.plugin;
+
+import dev.lunaplugins.economy.api.CurrencyRegistry;
+import dev.lunaplugins.economy.api.LunaCurrency;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/// A copy-on-write [CurrencyRegistry].
+///
+/// All currencies are kept in an immutable map which is replaced as a whole whenever a
+/// currency is registered or unregistered. A lookup is therefore a single volatile read
+/// followed by a lookup in an immutable map, without any locking.
+@NullMarked
+final class LunaCurrencyRegistry implements CurrencyRegistry {
+  private volatile Map<Key, LunaCurrency> currencies = Map.of();
+
+  @Override
+  public @Nullable LunaCurrency get(final Key key) {
+    return this.currencies.get(key);
+  }
+
+  @Override
+  public Collection<LunaCurrency> currencies() {
+    return this.currencies.values();
+  }
+
+  @Override
+  public synchronized void register(final LunaCurrency currency) {
+    final Key key = currency.key();
+    if (this.currencies.containsKey(key)) {
+      throw new IllegalStateException("A currency with the key " + key.asString() + " has already been registered");
+    }
+    final Map<Key, LunaCurrency> copy = new HashMap<>(this.currencies);
+    copy.put(key, currency);
+    this.currencies = Map.copyOf(copy);
+  }
+
+  @Override
+  public synchronized @Nullable LunaCurrency unregister(final Key key) {
+    final @Nullable LunaCurrency currency = this.currencies.get(key);
+    if (currency == null) {
+      return null;
+    }
+    final Map<Key, LunaCurrency> copy = new HashMap<>(this.currencies);
+    copy.remove(key);
+    this.currencies = Map.copyOf(copy);
+    return currency;
+  }
+
+  /// Removes all currencies.
+  synchronized void clear() {
+    this.currencies = Map.of();
+  }
+}
@@ -1,13 +1,269 @@
 package dev.lunaplugins.economy.plugin;
 
+import dev.lunaplugins.economy.api.CurrencyRegistry;
+import dev.lunaplugins.economy.api.events.BalanceChangeStream;
+import dev.lunaplugins.economy.api.metrics.InstrumentedCurrency;
+import dev.lunaplugins.economy.plugin.events.ChangePipeline;
+import dev.lunaplugins.economy.plugin.names.NameResolver;
+import dev.lunaplugins.economy.plugin.storage.AccountTable;
+import dev.lunaplugins.economy.plugin.storage.BalanceMap;
+import dev.lunaplugins.economy.plugin.storage.BalanceStorage;
+import dev.lunaplugins.economy.plugin.storage.CoalescingBalanceMap;
+import dev.lunaplugins.economy.plugin.storage.CurrencyStorage;
+import dev.lunaplugins.economy.plugin.storage.StoragePrecision;
+import dev.lunaplugins.economy.plugin.storage.UuidLongMap;
+import dev.lunaplugins.economy.plugin.storage.journal.JournalSettings;
+import dev.lunaplugins.economy.plugin.storage.sql.SqlSettings;
+import dev.lunaplugins.economy.plugin.storage.sql.SqlStorage;
+import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
+import net.kyori.adventure.key.Key;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.logging.Level;
 
 @NullMarked
 class LunaEconomyPlugin extends JavaPlugin {
+  // Read by the session listener off the main thread
+  private final List<BalanceStorage> storages = new CopyOnWriteArrayList<>();
+  private final List<InstrumentedCurrency> instrumented = new ArrayList<>();
+  private final List<CoalescingBalanceMap> counters = new CopyOnWriteArrayList<>();
+  private final LunaCurrencyRegistry registry = new LunaCurrencyRegistry();
+  private @Nullable ChangePipeline changes;
+  private @Nullable ScheduledExecutorService compactor;
+  private @Nullable ScheduledExecutorService sessions;
 
   @Override
   public void onEnable() {
-    // ...
+    this.saveDefaultConfig();
+    final JournalSettings journalSettings = new JournalSettings(
+      Duration.ofMillis(this.getConfig().getLong("journal.commit-interval", 50)),
+      this.getConfig().getInt("journal.buffer-size", 1 << 20),
+      this.getConfig().getInt("journal.max-backlog", 64 << 20)
+    );
+    final Path directory = this.getDataFolder().toPath().resolve("data");
+    final boolean sql = this.getConfig().getString("storage.type", "journal").equalsIgnoreCase("sql");
+    final @Nullable SqlSettings sqlSettings = sql ? new SqlSettings(
+      this.getConfig().getString("storage.sql.url", "jdbc:sqlite:" + this.getDataFolder().toPath().resolve("balances.db").toAbsolutePath()),
+      this.getConfig().getString("storage.sql.username", ""),
+      this.getConfig().getString("storage.sql.password", ""),
+      this.getConfig().getString("storage.sql.table", "luna_balances"),
+      Duration.ofMillis(this.getConfig().getLong("storage.sql.flush-interval", 1000)),
+      this.getConfig().getInt("storage.sql.batch-size", 1000)
+    ) : null;
+    final NameResolver names = new NameResolver(
+      LunaEconomyPlugin::resolveName,
+      this.getConfig().getInt("names.cache-size", 10_000),
+      Duration.ofSeconds(this.getConfig().getLong("names.negative-ttl", 60))
+    );
+    for (final Player player : Bukkit.getOnlinePlayers()) {
+      names.update(player.getUniqueId(), player.getName());
+    }
+    this.getServer().getPluginManager().registerEvents(new NameListener(names), this);
+    final ScheduledExecutorService sessions = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("LunaEconomy Sessions").daemon().factory());
+    this.sessions = sessions;
+    this.getServer().getPluginManager().registerEvents(new SessionListener(
+      this.storages,
+      sessions,
+      Duration.ofSeconds(this.getConfig().getLong("storage.tiered.quit-grace-period", 60))
+    ), this);
+    this.getLifecycleManager().registerEventHandler(LifecycleEvents.COMMANDS, event ->
+      event.registrar().register("lunaeconomy", "Administrates LunaEconomy", new EconomyCommand(this.instrumented, this.registry))
+    );
+    this.getServer().getServicesManager().register(CurrencyRegistry.class, this.registry, this, ServicePriority.Normal);
+    final ChangePipeline changes = new ChangePipeline(e -> this.getLogger().log(Level.SEVERE, "Could not handle balance changes", e));
+    this.changes = changes;
+    this.getServer().getServicesManager().register(BalanceChangeStream.class, changes, this, ServicePriority.Normal);
+    final boolean metrics = this.getConfig().getBoolean("metrics.enabled", true);
+    final Duration slowOperationThreshold = Duration.ofNanos(this.getConfig().getLong("metrics.slow-operation-threshold", 1_000_000));
+
+    final ConfigurationSection currencies = this.getConfig().getConfigurationSection("currencies");
+    if (currencies == null) {
+      return;
+    }
+    final String layout = this.getConfig().getString("storage.layout", "columns");
+    final LongFunction<BalanceMap> maps;
+    if (layout.equalsIgnoreCase("columns")) {
+      // All currencies share the same rows, so each additional currency only costs a word per account
+      final AccountTable accounts = new AccountTable(Math.max(1, currencies.getKeys(false).size()));
+      maps = expectedSize -> accounts.addColumn();
+    } else if (layout.equalsIgnoreCase("tiered")) {
+      maps = UuidLongMap::tiered;
+    } else {
+      maps = UuidLongMap::withExpectedSize;
+    }
+    final OnlinePlayers online = OnlinePlayers.capture();
+    for (final String name : currencies.getKeys(false)) {
+      final ConfigurationSection section = currencies.getConfigurationSection(name);
+      if (section == null) {
+        continue;
+      }
+      final Key key = Key.key(section.getString("key", "luna:" + name));
+      final StoragePrecision precision = StoragePrecision.parse(section.getString("precision", "long"));
+      final int scale = section.getInt("scale", 2);
+      if (precision == StoragePrecision.FIXED_POINT && (scale < 0 || scale > 18)) {
+        this.getLogger().log(Level.SEVERE, "Scale of currency " + key.asString() + " has to be between 0 and 18: " + scale);
+        this.getServer().getPluginManager().disablePlugin(this);
+        return;
+      }
+      final boolean ranked = section.getBoolean("ranking", false);
+      final LongFunction<BalanceMap> currencyMaps;
+      if (section.getBoolean("hot-counter", false)) {
+        currencyMaps = expectedSize -> {
+          final CoalescingBalanceMap counter = new CoalescingBalanceMap(maps.apply(expectedSize), precision.minValue(), precision.maxValue());
+          this.counters.add(counter);
+          return counter;
+        };
+      } else {
+        currencyMaps = maps;
+      }
+      try {
+        final BalanceStorage storage = sqlSettings != null
+          ? SqlStorage.open(
+            sqlSettings,
+            key,
+            precision,
+            scale,
+            ranked,
+            names,
+            currencyMaps,
+            e -> this.getLogger().log(Level.SEVERE, "Could not write balances of currency " + key.asString(), e)
+          )
+          : CurrencyStorage.open(
+            directory,
+            key,
+            precision,
+            scale,
+            ranked,
+            names,
+            currencyMaps,
+            journalSettings,
+            e -> this.getLogger().log(Level.SEVERE, "Could not write journal of currency " + key.asString(), e)
+          );
+        this.storages.add(storage);
+        // Loaded balances start out cold until their owner joins
+        storage.balances().demoteIf(online.offline());
+        changes.attach(key, storage.balances());
+        if (metrics) {
+          final InstrumentedCurrency instrumented = InstrumentedCurrency.wrap(
+            storage.currency(), storage.balances()::retries, storage.balances()::saturations
+          );
+          instrumented.metrics().slowOperationThreshold(slowOperationThreshold);
+          this.instrumented.add(instrumented);
+          this.registry.register(instrumented);
+        } else {
+          this.registry.register(storage.currency());
+        }
+      } catch (final IOException | SQLException e) {
+        this.getLogger().log(Level.SEVERE, "Could not load currency " + key.asString(), e);
+        this.getServer().getPluginManager().disablePlugin(this);
+        return;
+      }
+    }
+
+    final long snapshotInterval = this.getConfig().getLong("snapshot.interval", 10);
+    if (snapshotInterval > 0 && sqlSettings == null) {
+      this.compactor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("LunaEconomy Compactor").daemon().factory());
+      this.compactor.scheduleWithFixedDelay(this::compactAll, snapshotInterval, snapshotInterval, TimeUnit.MINUTES);
+    }
+    final long foldInterval = this.getConfig().getLong("hot-counters.fold-interval", 1000);
+    if (foldInterval > 0 && !this.counters.isEmpty()) {
+      sessions.scheduleWithFixedDelay(this::foldAll, foldInterval, foldInterval, TimeUnit.MILLISECONDS);
+    }
+    final long demoteInterval = this.getConfig().getLong("storage.tiered.demote-interval", 5);
+    if (demoteInterval > 0 && layout.equalsIgnoreCase("tiered")) {
+      final long demoteTicks = TimeUnit.MINUTES.toSeconds(demoteInterval) * 20;
+      // The player list may only be read on the main thread, but the scan runs on the sessions thread
+      this.getServer().getScheduler().runTaskTimer(this, () -> {
+        final OnlinePlayers players = OnlinePlayers.capture();
+        sessions.execute(() -> this.demoteAll(players));
+      }, demoteTicks, demoteTicks);
+    }
+  }
+
+  private void foldAll() {
+    for (final CoalescingBalanceMap counter : this.counters) {
+      counter.fold();
+    }
+  }
+
+  private void demoteAll(final OnlinePlayers online) {
+    for (final BalanceStorage storage : this.storages) {
+      storage.balances().demoteIf(online.offline());
+    }
+  }
+
+  private void compactAll() {
+    for (final BalanceStorage storage : this.storages) {
+      if (!(storage instanceof final CurrencyStorage journaled)) {
+        continue;
+      }
+      try {
+        journaled.compact();
+      } catch (final IOException e) {
+        this.getLogger().log(Level.SEVERE, "Could not write snapshot of currency " + storage.currency().key().asString(), e);
+      }
+    }
+  }
+
+  @Override
+  public void onDisable() {
+    this.getServer().getServicesManager().unregisterAll(this);
+    this.registry.clear();
+    // Pending increments have to reach the change stream, journal or database before they are closed
+    this.foldAll();
+    this.counters.clear();
+    if (this.changes != null) {
+      // Consumers receive every change made before the currencies are closed
+      this.changes.close();
+      this.changes = null;
+    }
+    if (this.sessions != null) {
+      this.sessions.shutdownNow();
+      this.sessions = null;
+    }
+    if (this.compactor != null) {
+      this.compactor.shutdownNow();
+      try {
+        this.compactor.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      this.compactor = null;
+    }
+    // Compacting once more keeps the next startup fast
+    this.compactAll();
+    for (final BalanceStorage storage : this.storages) {
+      try {
+        storage.close();
+      } catch (final IOException e) {
+        this.getLogger().log(Level.SEVERE, "Could not close currency " + storage.currency().key().asString(), e);
+      }
+    }
+    this.storages.clear();
+    this.instrumented.clear();
+  }
+
+  private static @Nullable UUID resolveName(final String name) {
+    final OfflinePlayer player = Bukkit.getOfflinePlayerIfCached(name);
+    return player == null ? null : player.getUniqueId();
   }
 }
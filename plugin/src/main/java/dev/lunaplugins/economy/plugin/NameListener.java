@@ -0,0 +1,30 @@
+package dev.lunaplugins.economy.plugin;
+
+import dev.lunaplugins.economy.plugin.names.NameResolver;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jspecify.annotations.NullMarked;
+
+/// Keeps the [NameResolver] up to date with the names of online players.
+@NullMarked
+final class NameListener implements Listener {
+  private final NameResolver resolver;
+
+  NameListener(final NameResolver resolver) {
+    this.resolver = resolver;
+  }
+
+  // Runs first, so other plugins can already look up the player by name when they handle the join
+  @EventHandler(priority = EventPriority.LOWEST)
+  public void onJoin(final PlayerJoinEvent event) {
+    this.resolver.update(event.getPlayer().getUniqueId(), event.getPlayer().getName());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onQuit(final PlayerQuitEvent event) {
+    this.resolver.remove(event.getPlayer().getUniqueId());
+  }
+}
@@ -0,0 +1,86 @@
+package dev.lunaplugins.economy.plugin;
+
+import dev.lunaplugins.economy.plugin.storage.BalanceMap;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/// An immutable snapshot of the players which were online at some point, which can be
+/// queried from any thread without allocating.
+///
+/// The UUIDs are stored as sorted pairs of their halves, so a lookup is a binary search
+/// over a single `long` array.
+@NullMarked
+final class OnlinePlayers {
+  private final long[] keys;
+
+  private OnlinePlayers(final long[] keys) {
+    this.keys = keys;
+  }
+
+  /// Captures the players which are online right now. Has to be called on the main
+  /// thread, like every other access to the player list.
+  ///
+  /// @return the online players
+  static OnlinePlayers capture() {
+    final List<UUID> uuids = new ArrayList<>();
+    for (final Player player : Bukkit.getOnlinePlayers()) {
+      uuids.add(player.getUniqueId());
+    }
+    return of(uuids);
+  }
+
+  /// Creates a snapshot of the given players.
+  ///
+  /// @param uuids UUIDs of the online players
+  /// @return the online players
+  static OnlinePlayers of(final Collection<UUID> uuids) {
+    // UUIDs compare their halves as signed values, just like the binary search below
+    final UUID[] sorted = uuids.toArray(new UUID[0]);
+    Arrays.sort(sorted);
+    final long[] keys = new long[sorted.length * 2];
+    for (int i = 0; i < sorted.length; i++) {
+      keys[2 * i] = sorted[i].getMostSignificantBits();
+      keys[2 * i + 1] = sorted[i].getLeastSignificantBits();
+    }
+    return new OnlinePlayers(keys);
+  }
+
+  /// Whether a player was online.
+  ///
+  /// @param msb most significant bits of the player's UUID
+  /// @param lsb least significant bits of the player's UUID
+  /// @return whether the player was online
+  boolean contains(final long msb, final long lsb) {
+    int low = 0;
+    int high = this.keys.length / 2 - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      int comparison = Long.compare(this.keys[2 * mid], msb);
+      if (comparison == 0) {
+        comparison = Long.compare(this.keys[2 * mid + 1], lsb);
+      }
+      if (comparison < 0) {
+        low = mid + 1;
+      } else if (comparison > 0) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /// A predicate matching every player which was offline.
+  ///
+  /// @return predicate matching offline players
+  BalanceMap.KeyPredicate offline() {
+    return (msb, lsb) -> !this.contains(msb, lsb);
+  }
+}
@@ -0,0 +1,98 @@
+package dev.lunaplugins.economy.plugin;
+
+import dev.lunaplugins.economy.plugin.storage.BalanceStorage;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/// Moves the balances of a player onto the heap before they join and back out some
+/// time after they quit, so the balances of online players are always hot.
+///
+/// A quit schedules an eviction, which a later login of the same player removes again.
+/// An eviction therefore only demotes the balances if it is still the pending eviction
+/// of its player when it runs, which does not require the player list.
+@NullMarked
+final class SessionListener implements Listener {
+  private final List<BalanceStorage> storages;
+  private final ScheduledExecutorService executor;
+  private final Duration gracePeriod;
+  private final Map<UUID, Eviction> evictions = new ConcurrentHashMap<>();
+
+  SessionListener(final List<BalanceStorage> storages, final ScheduledExecutorService executor, final Duration gracePeriod) {
+    this.storages = storages;
+    this.executor = executor;
+    this.gracePeriod = gracePeriod;
+  }
+
+  // Runs off the main thread, so the join itself never waits for the balances
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPreLogin(final AsyncPlayerPreLoginEvent event) {
+    if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+      return;
+    }
+    final UUID uuid = event.getUniqueId();
+    final @Nullable Eviction eviction = this.evictions.remove(uuid);
+    if (eviction != null) {
+      eviction.cancel();
+    }
+    final long msb = uuid.getMostSignificantBits();
+    final long lsb = uuid.getLeastSignificantBits();
+    for (final BalanceStorage storage : this.storages) {
+      storage.balances().promote(msb, lsb);
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onQuit(final PlayerQuitEvent event) {
+    final Eviction eviction = new Eviction(event.getPlayer().getUniqueId());
+    final @Nullable Eviction previous = this.evictions.put(eviction.uuid, eviction);
+    if (previous != null) {
+      previous.cancel();
+    }
+    eviction.future = this.executor.schedule(eviction, this.gracePeriod.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /// The demotion of a player's balances after they quit.
+  private final class Eviction implements Runnable {
+    private final UUID uuid;
+    private volatile @Nullable ScheduledFuture<?> future;
+
+    private Eviction(final UUID uuid) {
+      this.uuid = uuid;
+    }
+
+    private void cancel() {
+      final @Nullable ScheduledFuture<?> future = this.future;
+      if (future != null) {
+        future.cancel(false);
+      }
+    }
+
+    @Override
+    public void run() {
+      // A login or a later quit has replaced this eviction
+      if (!SessionListener.this.evictions.remove(this.uuid, this)) {
+        return;
+      }
+      final long msb = this.uuid.getMostSignificantBits();
+      final long lsb = this.uuid.getLeastSignificantBits();
+      // Pending changes are written by the write-behind of each storage, which reads cold balances as well
+      for (final BalanceStorage storage : SessionListener.this.storages) {
+        storage.balances().demote(msb, lsb);
+      }
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package dev.lunaplugins.economy.plugin.events;
+
+import dev.lunaplugins.economy.api.events.BalanceChangeConsumer;
+import dev.lunaplugins.economy.api.events.BalanceChangeStream;
+import dev.lunaplugins.economy.api.events.OverflowPolicy;
+import dev.lunaplugins.economy.plugin.storage.BalanceListener;
+import dev.lunaplugins.economy.plugin.storage.BalanceMap;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/// The [BalanceChangeStream] of all attached currencies.
+///
+/// Every attached currency gets a listener on its [BalanceMap], which copies each
+/// change into the [ring buffers][ChangeRing] of all subscriptions. Currencies are
+/// identified by a small integer inside the buffers, so no [Key] is ever copied.
+public final class ChangePipeline implements BalanceChangeStream, Closeable {
+  private final Consumer<RuntimeException> errorHandler;
+  private volatile Key[] keys = new Key[0];
+  private volatile ChangeRing[] rings = new ChangeRing[0];
+
+  // Guarded by this
+  private final Map<Key, Attachment> attachments = new HashMap<>();
+
+  /// Creates a pipeline.
+  ///
+  /// @param errorHandler handler of exceptions thrown by consumers
+  public ChangePipeline(final Consumer<RuntimeException> errorHandler) {
+    this.errorHandler = errorHandler;
+  }
+
+  /// Publishes all changes of a currency's balances.
+  ///
+  /// @param key key of the currency
+  /// @param balances balances of the currency
+  /// @throws IllegalStateException if a currency with that key is already attached
+  public synchronized void attach(final Key key, final BalanceMap balances) {
+    if (this.attachments.containsKey(key)) {
+      throw new IllegalStateException("A currency with the key " + key.asString() + " is already attached");
+    }
+    int id = Arrays.asList(this.keys).indexOf(key);
+    if (id < 0) {
+      id = this.keys.length;
+      final Key[] keys = Arrays.copyOf(this.keys, id + 1);
+      keys[id] = key;
+      this.keys = keys;
+    }
+    final Publisher publisher = new Publisher(id);
+    balances.addListener(publisher);
+    this.attachments.put(key, new Attachment(balances, publisher));
+  }
+
+  /// Stops publishing the changes of a currency.
+  ///
+  /// @param key key of the currency
+  public synchronized void detach(final Key key) {
+    final @Nullable Attachment attachment = this.attachments.remove(key);
+    if (attachment != null) {
+      attachment.balances().removeListener(attachment.publisher());
+    }
+  }
+
+  @Override
+  public Subscription subscribe(final String name, final int capacity, final OverflowPolicy policy, final BalanceChangeConsumer consumer) {
+    final ChangeRing ring = new ChangeRing(this, name, capacity, policy, consumer);
+    synchronized (this) {
+      final ChangeRing[] rings = Arrays.copyOf(this.rings, this.rings.length + 1);
+      rings[rings.length - 1] = ring;
+      this.rings = rings;
+    }
+    ring.start();
+    return ring;
+  }
+
+  synchronized void remove(final ChangeRing ring) {
+    final List<ChangeRing> rings = new ArrayList<>(Arrays.asList(this.rings));
+    if (rings.remove(ring)) {
+      this.rings = rings.toArray(new ChangeRing[0]);
+    }
+  }
+
+  Key key(final int id) {
+    return this.keys[id];
+  }
+
+  void handleError(final RuntimeException e) {
+    this.errorHandler.accept(e);
+  }
+
+  /// Detaches all currencies and closes all subscriptions, after their consumers
+  /// have received every published change.
+  @Override
+  public void close() {
+    final ChangeRing[] rings;
+    synchronized (this) {
+      for (final Key key : List.copyOf(this.attachments.keySet())) {
+        this.detach(key);
+      }
+      rings = this.rings;
+    }
+    for (final ChangeRing ring : rings) {
+      ring.close();
+    }
+  }
+
+  private record Attachment(BalanceMap balances, BalanceListener publisher) {
+  }
+
+  private final class Publisher implements BalanceListener {
+    private final int currency;
+
+    private Publisher(final int currency) {
+      this.currency = currency;
+    }
+
+    @Override
+    public void balanceChanged(final long msb, final long lsb, final long oldValue, final long newValue) {
+      for (final ChangeRing ring : ChangePipeline.this.rings) {
+        ring.publish(this.currency, msb, lsb, oldValue, newValue);
+      }
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package dev.lunaplugins.economy.plugin.events;
+
+import dev.lunaplugins.economy.api.events.BalanceChangeConsumer;
+import dev.lunaplugins.economy.api.events.BalanceChangeStream;
+import dev.lunaplugins.economy.api.events.BalanceChanges;
+import dev.lunaplugins.economy.api.events.OverflowPolicy;
+import net.kyori.adventure.key.Key;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/// The ring buffer and consumer thread of a single subscription.
+///
+/// Every slot consists of one element of each of the primitive arrays, which are all
+/// allocated upfront, so publishing a change never allocates. Producers claim a slot by
+/// incrementing the tail sequence, fill it, and then publish it by storing its sequence
+/// in the slot's entry of [#published]. The consumer hands all consecutively published
+/// slots to the consumer in a single batch and afterwards moves the head sequence forward,
+/// which makes the slots available to the producers again.
+///
+/// The consumer thread parks while the buffer is empty. Producers only unpark it if it
+/// announced that it is about to park, so publishing does not need a system call while
+/// the consumer is busy.
+///
+/// Producers blocked by [OverflowPolicy#BLOCK] spin briefly and then park with an
+/// exponential backoff of at most [#MAX_BACKOFF_NANOS], since they may be the server's
+/// main thread. Changes made by the consumer thread itself are dropped while the buffer
+/// is full, as the consumer cannot make room while it waits for room.
+final class ChangeRing implements BalanceChangeStream.Subscription, BalanceChanges {
+  private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final int MAX_BATCH_SIZE = 1024;
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final int MAX_SPINS = 64;
+  private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+  private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final ChangePipeline pipeline;
+  private final OverflowPolicy policy;
+  private final BalanceChangeConsumer consumer;
+  private final int capacity;
+  private final int mask;
+  private final int[] currencies;
+  private final long[] msb;
+  private final long[] lsb;
+  private final long[] oldValues;
+  private final long[] newValues;
+  private final long[] published;
+  private final AtomicLong tail = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+  private final Thread thread;
+  private volatile long head;
+  private volatile boolean waiting;
+  private volatile boolean closed;
+
+  // Only accessed by the consumer thread
+  private long batchStart;
+  private int batchSize;
+
+  ChangeRing(final ChangePipeline pipeline, final String name, final int capacity, final OverflowPolicy policy, final BalanceChangeConsumer consumer) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity has to be a power of two: " + capacity);
+    }
+    this.pipeline = pipeline;
+    this.policy = policy;
+    this.consumer = consumer;
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.currencies = new int[capacity];
+    this.msb = new long[capacity];
+    this.lsb = new long[capacity];
+    this.oldValues = new long[capacity];
+    this.newValues = new long[capacity];
+    this.published = new long[capacity];
+    Arrays.fill(this.published, -1);
+    this.thread = Thread.ofPlatform().name("LunaEconomy Changes - " + name).daemon().unstarted(this::run);
+  }
+
+  void start() {
+    this.thread.start();
+  }
+
+  /// Publishes a change, following the overflow policy if the buffer is full.
+  void publish(final int currency, final long msb, final long lsb, final long oldValue, final long newValue) {
+    long sequence;
+    int spins = 0;
+    long backoff = MIN_BACKOFF_NANOS;
+    while (true) {
+      sequence = this.tail.get();
+      if (sequence - this.head >= this.capacity) {
+        if (this.policy == OverflowPolicy.DROP || this.closed || Thread.currentThread() == this.thread) {
+          this.dropped.increment();
+          return;
+        }
+        if (this.waiting) {
+          LockSupport.unpark(this.thread);
+        }
+        if (spins < MAX_SPINS) {
+          spins++;
+          Thread.onSpinWait();
+        } else {
+          LockSupport.parkNanos(this, backoff);
+          backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+        continue;
+      }
+      if (this.tail.compareAndSet(sequence, sequence + 1)) {
+        break;
+      }
+    }
+    final int slot = (int) sequence & this.mask;
+    this.currencies[slot] = currency;
+    this.msb[slot] = msb;
+    this.lsb[slot] = lsb;
+    this.oldValues[slot] = oldValue;
+    this.newValues[slot] = newValue;
+    SEQUENCES.setVolatile(this.published, slot, sequence);
+    if (this.waiting) {
+      LockSupport.unpark(this.thread);
+    }
+  }
+
+  private boolean isPublished(final long sequence) {
+    return (long) SEQUENCES.getVolatile(this.published, (int) sequence & this.mask) == sequence;
+  }
+
+  private void run() {
+    long next = this.head;
+    while (true) {
+      long available = next;
+      while (available - next < MAX_BATCH_SIZE && this.isPublished(available)) {
+        available++;
+      }
+      if (available == next) {
+        // Slots claimed before closing are still published, so wait for them as well
+        if (this.closed && this.tail.get() == next) {
+          return;
+        }
+        this.waiting = true;
+        if (!this.isPublished(next) && !this.closed) {
+          LockSupport.parkNanos(this, MAX_PARK_NANOS);
+        }
+        this.waiting = false;
+        continue;
+      }
+
+      this.batchStart = next;
+      this.batchSize = (int) (available - next);
+      try {
+        this.consumer.accept(this);
+      } catch (final RuntimeException e) {
+        this.pipeline.handleError(e);
+      }
+      next = available;
+      this.head = next;
+    }
+  }
+
+  private int slot(final int index) {
+    return (int) (this.batchStart + Objects.checkIndex(index, this.batchSize)) & this.mask;
+  }
+
+  @Override
+  public int size() {
+    return this.batchSize;
+  }
+
+  @Override
+  public Key currency(final int index) {
+    return this.pipeline.key(this.currencies[this.slot(index)]);
+  }
+
+  @Override
+  public long mostSignificantBits(final int index) {
+    return this.msb[this.slot(index)];
+  }
+
+  @Override
+  public long leastSignificantBits(final int index) {
+    return this.lsb[this.slot(index)];
+  }
+
+  @Override
+  public long oldValue(final int index) {
+    return this.oldValues[this.slot(index)];
+  }
+
+  @Override
+  public long newValue(final int index) {
+    return this.newValues[this.slot(index)];
+  }
+
+  @Override
+  public long dropped() {
+    return this.dropped.sum();
+  }
+
+  @Override
+  public long pending() {
+    return Math.max(this.tail.get() - this.head, 0);
+  }
+
+  @Override
+  public void close() {
+    this.pipeline.remove(this);
+    this.closed = true;
+    LockSupport.unpark(this.thread);
+    if (Thread.currentThread() == this.thread) {
+      return;
+    }
+    boolean interrupted = false;
+    while (this.thread.isAlive()) {
+      try {
+        this.thread.join();
+      } catch (final InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package dev.lunaplugins.economy.plugin.names;
+
+/// A count-min sketch estimating how often a key has been seen recently.
+///
+/// Every key maps to four 4-bit counters and its frequency is the smallest of them. Once
+/// the amount of increments reaches ten times the tracked capacity, all counters are
+/// halved, so keys which were popular a while ago eventually make room for new ones.
+///
+/// Counters are updated without synchronization. Lost increments under contention only
+/// make the estimate slightly less accurate, which is fine for cache admission.
+final class FrequencySketch {
+  private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final int MAX_COUNT = 15;
+
+  private final byte[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  FrequencySketch(final int capacity) {
+    final int size = Integer.highestOneBit(Math.clamp(capacity, 128, 1 << 26) * 8 - 1) << 1;
+    this.table = new byte[size];
+    this.mask = size - 1;
+    this.sampleSize = Math.max(capacity, 16) * 10;
+  }
+
+  /// Records an occurrence of a key.
+  void increment(final Object key) {
+    final int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int i = 0; i < SEEDS.length; i++) {
+      final int index = this.indexOf(hash, i);
+      if (this.table[index] < MAX_COUNT) {
+        this.table[index]++;
+        added = true;
+      }
+    }
+    if (added && ++this.additions >= this.sampleSize) {
+      this.reset();
+    }
+  }
+
+  /// Estimates how often a key has been recorded.
+  int frequency(final Object key) {
+    final int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int i = 0; i < SEEDS.length; i++) {
+      frequency = Math.min(frequency, this.table[this.indexOf(hash, i)]);
+    }
+    return frequency;
+  }
+
+  private void reset() {
+    for (int i = 0; i < this.table.length; i++) {
+      this.table[i] >>= 1;
+    }
+    this.additions /= 2;
+  }
+
+  private int indexOf(final int hash, final int i) {
+    long value = (hash + SEEDS[i]) * SEEDS[i];
+    value += value >>> 32;
+    return (int) value & this.mask;
+  }
+
+  private static int spread(final int hash) {
+    final int value = hash * 0x9e3779b9;
+    return value ^ (value >>> 16);
+  }
+}
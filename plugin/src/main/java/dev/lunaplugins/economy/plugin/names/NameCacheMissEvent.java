@@ -0,0 +1,26 @@
+package dev.lunaplugins.economy.plugin.names;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/// A Java Flight Recorder event for a name which was neither online nor cached, and
+/// therefore had to be resolved by the backing lookup of a [NameResolver].
+@Name("dev.lunaplugins.economy.NameCacheMiss")
+@Label("Name Cache Miss")
+@Description("A player name had to be resolved without the cache")
+@Category({"LunaEconomy", "Names"})
+@Enabled(false)
+@Threshold("0 ms")
+final class NameCacheMissEvent extends Event {
+  @Label("Name")
+  String name = "";
+
+  @Label("Found")
+  boolean found;
+}
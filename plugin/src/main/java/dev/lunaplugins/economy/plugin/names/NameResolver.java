@@ -0,0 +1,241 @@
+package dev.lunaplugins.economy.plugin.names;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/// Resolves player names to UUIDs for the `String` overloads of the currencies.
+///
+/// Names are matched case-insensitively. A lookup first checks the index of online
+/// players, then a bounded cache of earlier lookups, and only falls back to the (slow)
+/// backing lookup if neither knows the name. Names the backing lookup does not know are
+/// cached as well, but only for a limited time, as a player with that name may join later.
+///
+/// The cache admits new names based on how often they have been looked up recently: once
+/// it is full, a name only replaces the least popular of a few sampled entries if it has
+/// been looked up more often. A burst of one-off lookups therefore cannot evict the names
+/// used by every payment command.
+///
+/// Since names can change, [#update(UUID, String)] has to be called whenever a player joins,
+/// which drops every cached entry for both the new and the previous name of that player.
+public final class NameResolver implements Function<String, @Nullable UUID> {
+  private static final int SAMPLE_SIZE = 8;
+
+  private final Function<String, @Nullable UUID> lookup;
+  private final long negativeTtl;
+  private final LongSupplier clock;
+  private final int capacity;
+  private final FrequencySketch sketch;
+  private final Map<String, UUID> online = new ConcurrentHashMap<>();
+  private final Map<UUID, String> onlineNames = new ConcurrentHashMap<>();
+  private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+  // Guarded by this
+  private final Map<UUID, String> cachedNames = new HashMap<>();
+  private final Entry[] slots;
+  private int size;
+  private volatile long generation;
+
+  /// Creates a resolver.
+  ///
+  /// @param lookup backing lookup of names which are neither online nor cached
+  /// @param capacity maximum amount of cached names
+  /// @param negativeTtl how long unknown names are remembered
+  public NameResolver(final Function<String, @Nullable UUID> lookup, final int capacity, final Duration negativeTtl) {
+    this(lookup, capacity, negativeTtl, System::nanoTime);
+  }
+
+  NameResolver(final Function<String, @Nullable UUID> lookup, final int capacity, final Duration negativeTtl, final LongSupplier clock) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity has to be positive: " + capacity);
+    }
+    this.lookup = lookup;
+    this.negativeTtl = negativeTtl.toNanos();
+    this.clock = clock;
+    this.capacity = capacity;
+    this.sketch = new FrequencySketch(capacity);
+    this.slots = new Entry[capacity];
+  }
+
+  private static String normalize(final String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  @Override
+  public @Nullable UUID apply(final String name) {
+    final String key = normalize(name);
+    final @Nullable UUID online = this.online.get(key);
+    if (online != null) {
+      return online;
+    }
+
+    this.sketch.increment(key);
+    final @Nullable Entry entry = this.cache.get(key);
+    if (entry != null) {
+      if (entry.uuid != null || this.clock.getAsLong() - entry.expiresAt < 0) {
+        return entry.uuid;
+      }
+      this.expire(entry);
+    }
+
+    final NameCacheMissEvent event = new NameCacheMissEvent();
+    event.begin();
+    final long generation = this.generation;
+    final @Nullable UUID uuid = this.lookup.apply(name);
+    this.store(key, uuid, generation);
+    if (event.shouldCommit()) {
+      event.name = name;
+      event.found = uuid != null;
+      event.commit();
+    }
+    return uuid;
+  }
+
+  /// Records the current name of a player who has joined.
+  ///
+  /// @param uuid UUID of the player
+  /// @param name current name of the player
+  public void update(final UUID uuid, final String name) {
+    final String key = normalize(name);
+    final @Nullable String previous = this.onlineNames.put(uuid, key);
+    if (previous != null && !previous.equals(key)) {
+      this.online.remove(previous, uuid);
+    }
+    this.online.put(key, uuid);
+
+    synchronized (this) {
+      this.generation++;
+      this.removeKey(key);
+      final @Nullable String cached = this.cachedNames.get(uuid);
+      if (cached != null) {
+        this.removeKey(cached);
+      }
+    }
+  }
+
+  /// Moves a player who has left from the index of online players into the cache.
+  ///
+  /// @param uuid UUID of the player
+  public void remove(final UUID uuid) {
+    final @Nullable String key = this.onlineNames.remove(uuid);
+    if (key != null && this.online.remove(key, uuid)) {
+      this.store(key, uuid, this.generation);
+    }
+  }
+
+  /// Drops the cached entry of a name, so the next lookup asks the backing lookup again.
+  ///
+  /// @param name name to forget
+  public synchronized void invalidate(final String name) {
+    this.generation++;
+    this.removeKey(normalize(name));
+  }
+
+  /// Drops all cached entries. Online players stay indexed.
+  public synchronized void invalidateAll() {
+    this.generation++;
+    this.cache.clear();
+    this.cachedNames.clear();
+    for (int i = 0; i < this.size; i++) {
+      this.slots[i] = null;
+    }
+    this.size = 0;
+  }
+
+  /// The amount of currently cached names, including unknown ones.
+  ///
+  /// @return amount of cached names
+  public synchronized int cachedCount() {
+    return this.size;
+  }
+
+  private synchronized void store(final String key, final @Nullable UUID uuid, final long generation) {
+    // A name change or invalidation raced with the backing lookup, so its result may be stale
+    if (generation != this.generation) {
+      return;
+    }
+    final Entry entry = new Entry(key, uuid, uuid == null ? this.clock.getAsLong() + this.negativeTtl : 0);
+    final @Nullable Entry existing = this.cache.get(key);
+    if (existing != null) {
+      this.unlink(existing);
+    } else if (this.size == this.capacity) {
+      final Entry victim = this.sampleVictim();
+      if (!victim.isExpired(this.clock.getAsLong()) && this.sketch.frequency(key) <= this.sketch.frequency(victim.key)) {
+        return;
+      }
+      this.unlink(victim);
+    }
+    entry.slot = this.size;
+    this.slots[this.size++] = entry;
+    this.cache.put(key, entry);
+    if (uuid != null) {
+      this.cachedNames.put(uuid, key);
+    }
+  }
+
+  private synchronized void expire(final Entry entry) {
+    if (this.cache.get(entry.key) == entry) {
+      this.unlink(entry);
+    }
+  }
+
+  private Entry sampleVictim() {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final long now = this.clock.getAsLong();
+    Entry victim = this.slots[random.nextInt(this.size)];
+    int frequency = this.sketch.frequency(victim.key);
+    for (int i = 1; i < SAMPLE_SIZE && !victim.isExpired(now); i++) {
+      final Entry candidate = this.slots[random.nextInt(this.size)];
+      final int candidateFrequency = this.sketch.frequency(candidate.key);
+      if (candidate.isExpired(now) || candidateFrequency < frequency) {
+        victim = candidate;
+        frequency = candidateFrequency;
+      }
+    }
+    return victim;
+  }
+
+  private void removeKey(final String key) {
+    final @Nullable Entry entry = this.cache.get(key);
+    if (entry != null) {
+      this.unlink(entry);
+    }
+  }
+
+  private void unlink(final Entry entry) {
+    this.cache.remove(entry.key, entry);
+    if (entry.uuid != null) {
+      this.cachedNames.remove(entry.uuid, entry.key);
+    }
+    final Entry last = this.slots[--this.size];
+    this.slots[entry.slot] = last;
+    last.slot = entry.slot;
+    this.slots[this.size] = null;
+  }
+
+  private static final class Entry {
+    private final String key;
+    private final @Nullable UUID uuid;
+    private final long expiresAt;
+    // Guarded by the resolver
+    private int slot;
+
+    private Entry(final String key, final @Nullable UUID uuid, final long expiresAt) {
+      this.key = key;
+      this.uuid = uuid;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(final long now) {
+      return this.uuid == null && now - this.expiresAt >= 0;
+    }
+  }
+}
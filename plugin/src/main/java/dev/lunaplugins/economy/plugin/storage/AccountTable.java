@@ -0,0 +1,716 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.BalanceSnapshot;
+import dev.lunaplugins.economy.api.WriteBatch;
+import dev.lunaplugins.economy.api.currencies.ConversionUtils;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongUnaryOperator;
+
+/// A column store holding the balances of several currencies, which interns the
+/// [java.util.UUID] of every account to a dense `int` ID only once.
+///
+/// Every account owns one row: its two UUID halves followed by one `long` word per
+/// [column][#addColumn()]. Rows are allocated in chunks of [#CHUNK_SIZE] accounts, so
+/// growing the table never copies existing rows, and the balances of a player in all
+/// currencies share the same one or two cache lines. The index from UUID to ID is a flat
+/// open-addressing `long[]` holding the upper half of the hash next to the ID, so a lookup
+/// only touches a row once the hash has matched.
+///
+/// Compared to one [UuidLongMap] per currency, every additional currency costs a single
+/// word per account instead of a whole hash table entry including the UUID.
+///
+/// Reads are lock-free. Value updates are done with a compare-and-set on the value word
+/// while holding the chunk's shared lock, so any number of threads can update the same
+/// chunk at once. Operations spanning multiple accounts take the exclusive locks of all
+/// affected chunks in ascending order. Since chunks are shared by all columns, these
+/// briefly block updates of the same chunk in other columns as well. Interning a new
+/// account is serialized on the table.
+///
+/// Accounts are never removed; an account that has been interned by any column is
+/// present in all of them, with a value of `0` in those it has never been written to.
+///
+/// [Snapshots][BalanceMap#snapshot()] of a column are copy-on-write per chunk: the first
+/// change of a chunk's column after a snapshot has been taken copies the column's words
+/// of that chunk for all open snapshots which have not got a copy yet.
+public final class AccountTable {
+  /// Amount of accounts per chunk of rows.
+  public static final int CHUNK_SIZE = 1 << 10;
+
+  private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+  private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int MSB = 0;
+  private static final int LSB = 1;
+  private static final int VALUES = 2;
+  private static final int INITIAL_INDEX_CAPACITY = 1 << 10;
+
+  private final int stride;
+  private final int columns;
+  private volatile Chunk[] chunks = new Chunk[0];
+  /// Upper half of the hash and `id + 1` of every account, or `0` for empty slots.
+  private volatile long[] index = new long[INITIAL_INDEX_CAPACITY];
+  private volatile int size;
+
+  // Guarded by this
+  private int columnCount;
+
+  /// Creates an empty table.
+  ///
+  /// @param columns maximum amount of columns, usually the amount of currencies
+  public AccountTable(final int columns) {
+    if (columns < 1 || columns > CHUNK_SIZE) {
+      throw new IllegalArgumentException("Amount of columns has to be between 1 and " + CHUNK_SIZE + ": " + columns);
+    }
+    this.stride = VALUES + columns;
+    this.columns = columns;
+  }
+
+  /// Adds a new column, which holds the balances of a single currency.
+  ///
+  /// @return the new column
+  /// @throws IllegalStateException if all columns have already been added
+  public synchronized BalanceMap addColumn() {
+    if (this.columnCount == this.columns) {
+      throw new IllegalStateException("All " + this.columns + " columns have already been added");
+    }
+    return new Column(VALUES + this.columnCount++);
+  }
+
+  /// The amount of interned accounts.
+  ///
+  /// @return amount of accounts
+  public int size() {
+    return this.size;
+  }
+
+  /// Looks up the ID of an account.
+  ///
+  /// @param msb most significant bits of the account's UUID
+  /// @param lsb least significant bits of the account's UUID
+  /// @return the ID, or `-1` if the account has not been interned
+  public int id(final long msb, final long lsb) {
+    return this.find(UuidLongMap.hash(msb, lsb), msb, lsb);
+  }
+
+  /// Looks up the ID of an account, interning it if absent.
+  ///
+  /// @param msb most significant bits of the account's UUID
+  /// @param lsb least significant bits of the account's UUID
+  /// @return the ID of the account
+  public int intern(final long msb, final long lsb) {
+    final long hash = UuidLongMap.hash(msb, lsb);
+    final int id = this.find(hash, msb, lsb);
+    return id >= 0 ? id : this.insert(hash, msb, lsb);
+  }
+
+  /// The most significant bits of the UUID of an interned account.
+  ///
+  /// @param id ID of the account
+  /// @return most significant bits
+  public long mostSignificantBits(final int id) {
+    return this.chunks[id >>> CHUNK_SHIFT].rows[this.row(id) + MSB];
+  }
+
+  /// The least significant bits of the UUID of an interned account.
+  ///
+  /// @param id ID of the account
+  /// @return least significant bits
+  public long leastSignificantBits(final int id) {
+    return this.chunks[id >>> CHUNK_SHIFT].rows[this.row(id) + LSB];
+  }
+
+  private int row(final int id) {
+    return (id & CHUNK_MASK) * this.stride;
+  }
+
+  private static long entry(final long hash, final int id) {
+    return (hash & 0xFFFFFFFF00000000L) | (id + 1L);
+  }
+
+  private int find(final long hash, final long msb, final long lsb) {
+    final long[] index = this.index;
+    final int mask = index.length - 1;
+    final long tag = hash & 0xFFFFFFFF00000000L;
+    int slot = (int) hash & mask;
+    // The index is at most half full, so every probe sequence ends at an empty slot
+    while (true) {
+      final long entry = (long) WORDS.getAcquire(index, slot);
+      if (entry == 0) {
+        return -1;
+      }
+      if ((entry & 0xFFFFFFFF00000000L) == tag) {
+        // Reading the chunks after the entry guarantees that the chunk holding the row is visible
+        final int id = (int) entry - 1;
+        final long[] rows = this.chunks[id >>> CHUNK_SHIFT].rows;
+        final int row = this.row(id);
+        if (rows[row + MSB] == msb && rows[row + LSB] == lsb) {
+          return id;
+        }
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private synchronized int insert(final long hash, final long msb, final long lsb) {
+    final int existing = this.find(hash, msb, lsb);
+    if (existing >= 0) {
+      return existing;
+    }
+    final int id = this.size;
+    if (id == Integer.MAX_VALUE - 1) {
+      throw new IllegalStateException("Too many accounts");
+    }
+    Chunk[] chunks = this.chunks;
+    final int chunk = id >>> CHUNK_SHIFT;
+    if (chunk == chunks.length) {
+      // Only the array of chunks is copied, existing rows stay where they are
+      chunks = Arrays.copyOf(chunks, Math.max(4, chunks.length * 2));
+    }
+    if (chunks[chunk] == null) {
+      chunks[chunk] = new Chunk(CHUNK_SIZE * this.stride, this.columns);
+      this.chunks = chunks;
+    }
+    final long[] rows = chunks[chunk].rows;
+    final int row = this.row(id);
+    rows[row + MSB] = msb;
+    rows[row + LSB] = lsb;
+
+    long[] index = this.index;
+    if ((id + 1L) * 2 > index.length) {
+      index = this.grow(index);
+      place(index, hash, id);
+      this.index = index;
+    } else {
+      place(index, hash, id);
+    }
+    this.size = id + 1;
+    return id;
+  }
+
+  private long[] grow(final long[] index) {
+    final long[] grown = new long[index.length * 2];
+    for (final long entry : index) {
+      if (entry != 0) {
+        final int id = (int) entry - 1;
+        place(grown, UuidLongMap.hash(this.mostSignificantBits(id), this.leastSignificantBits(id)), id);
+      }
+    }
+    return grown;
+  }
+
+  private static void place(final long[] index, final long hash, final int id) {
+    final int mask = index.length - 1;
+    int slot = (int) hash & mask;
+    while (index[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    WORDS.setRelease(index, slot, entry(hash, id));
+  }
+
+  private final class Column implements BalanceMap {
+    private final int offset;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder saturations = new LongAdder();
+    /// Amount of accounts with a non-zero value in this column.
+    private final LongAdder accounts = new LongAdder();
+    private volatile BalanceListener[] listeners = new BalanceListener[0];
+    /// Advanced for every snapshot, while holding the exclusive lock of every chunk.
+    private volatile long epoch;
+    private volatile Snapshot[] snapshots = new Snapshot[0];
+
+    private Column(final int offset) {
+      this.offset = offset;
+    }
+
+    @Override
+    public synchronized void addListener(final BalanceListener listener) {
+      final BalanceListener[] listeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+      listeners[listeners.length - 1] = listener;
+      this.listeners = listeners;
+    }
+
+    @Override
+    public synchronized void removeListener(final BalanceListener listener) {
+      final List<BalanceListener> listeners = new ArrayList<>(Arrays.asList(this.listeners));
+      listeners.remove(listener);
+      this.listeners = listeners.toArray(BalanceListener[]::new);
+    }
+
+    private void notifyListeners(final long msb, final long lsb, final long oldValue, final long newValue) {
+      if (oldValue == newValue) {
+        return;
+      }
+      for (final BalanceListener listener : this.listeners) {
+        listener.balanceChanged(msb, lsb, oldValue, newValue);
+      }
+    }
+
+    private void notifyListeners(final long[] mostSigBits, final long[] leastSigBits, final long[] oldValues, final long[] newValues) {
+      for (final BalanceListener listener : this.listeners) {
+        listener.balancesChanged(mostSigBits, leastSigBits, oldValues, newValues, mostSigBits.length);
+      }
+    }
+
+    /// Counts an account whose value in this column changed from or to zero.
+    private void countChange(final long oldValue, final long newValue) {
+      if ((oldValue == 0) != (newValue == 0)) {
+        this.accounts.add(newValue == 0 ? -1 : 1);
+      }
+    }
+
+    private Chunk chunk(final int id) {
+      return AccountTable.this.chunks[id >>> CHUNK_SHIFT];
+    }
+
+    private int word(final int id) {
+      return AccountTable.this.row(id) + this.offset;
+    }
+
+    /// Takes the shared lock of a chunk, after copying the chunk for open snapshots if needed.
+    private long lockForUpdate(final int id) {
+      final Chunk chunk = this.chunk(id);
+      while (true) {
+        final long stamp = chunk.lock.readLock();
+        if (chunk.epochs[this.offset - VALUES] == this.epoch) {
+          return stamp;
+        }
+        chunk.lock.unlockRead(stamp);
+        final long writeStamp = chunk.lock.writeLock();
+        try {
+          this.copyLocked(id >>> CHUNK_SHIFT);
+        } finally {
+          chunk.lock.unlockWrite(writeStamp);
+        }
+      }
+    }
+
+    /// Copies the column's words of a chunk for all open snapshots taken since their last
+    /// change. The caller has to hold the chunk's write lock.
+    private void copyLocked(final int index) {
+      final Chunk chunk = AccountTable.this.chunks[index];
+      final int column = this.offset - VALUES;
+      final long epoch = this.epoch;
+      if (chunk.epochs[column] == epoch) {
+        return;
+      }
+      long @Nullable [] copy = null;
+      for (final Snapshot snapshot : this.snapshots) {
+        // Chunks created after the snapshot do not contain any of its accounts
+        if (snapshot.epoch > chunk.epochs[column] && index < snapshot.values.length) {
+          if (copy == null) {
+            copy = new long[CHUNK_SIZE];
+            for (int row = 0; row < CHUNK_SIZE; row++) {
+              copy[row] = chunk.rows[row * AccountTable.this.stride + this.offset];
+            }
+          }
+          snapshot.values[index] = copy;
+        }
+      }
+      chunk.epochs[column] = epoch;
+    }
+
+    @Override
+    public long get(final long msb, final long lsb) {
+      final int id = AccountTable.this.id(msb, lsb);
+      return id < 0 ? 0 : (long) WORDS.getVolatile(this.chunk(id).rows, this.word(id));
+    }
+
+    @Override
+    public boolean contains(final long msb, final long lsb) {
+      return AccountTable.this.id(msb, lsb) >= 0;
+    }
+
+    @Override
+    public long getAndSet(final long msb, final long lsb, final long value) {
+      final int id = AccountTable.this.intern(msb, lsb);
+      final Chunk chunk = this.chunk(id);
+      final long prev;
+      final long stamp = this.lockForUpdate(id);
+      try {
+        prev = (long) WORDS.getAndSet(chunk.rows, this.word(id), value);
+      } finally {
+        chunk.lock.unlockRead(stamp);
+      }
+      this.countChange(prev, value);
+      this.notifyListeners(msb, lsb, prev, value);
+      return prev;
+    }
+
+    @Override
+    public boolean compareAndSet(final long msb, final long lsb, final long expected, final long value) {
+      // Only interning the account if it could succeed keeps failed calls from growing the table
+      final int id = expected == 0 ? AccountTable.this.intern(msb, lsb) : AccountTable.this.id(msb, lsb);
+      if (id < 0) {
+        return false;
+      }
+      final Chunk chunk = this.chunk(id);
+      final boolean success;
+      final long stamp = this.lockForUpdate(id);
+      try {
+        success = WORDS.compareAndSet(chunk.rows, this.word(id), expected, value);
+      } finally {
+        chunk.lock.unlockRead(stamp);
+      }
+      if (success) {
+        this.countChange(expected, value);
+        this.notifyListeners(msb, lsb, expected, value);
+      }
+      return success;
+    }
+
+    @Override
+    public long getAndAdd(final long msb, final long lsb, final long delta, final long min, final long max) {
+      final int id = AccountTable.this.intern(msb, lsb);
+      final Chunk chunk = this.chunk(id);
+      final long[] rows = chunk.rows;
+      final int word = this.word(id);
+      long prev;
+      long next;
+      final long stamp = this.lockForUpdate(id);
+      try {
+        while (true) {
+          prev = (long) WORDS.getVolatile(rows, word);
+          next = UuidLongMap.saturatedAdd(prev, delta, min, max);
+          if (WORDS.compareAndSet(rows, word, prev, next)) {
+            break;
+          }
+          this.retries.increment();
+        }
+        if (UuidLongMap.isSaturated(prev, delta, next)) {
+          this.saturations.increment();
+        }
+      } finally {
+        chunk.lock.unlockRead(stamp);
+      }
+      this.countChange(prev, next);
+      this.notifyListeners(msb, lsb, prev, next);
+      return prev;
+    }
+
+    @Override
+    public long getAndUpdate(final long msb, final long lsb, final LongUnaryOperator operator, final long min, final long max) {
+      final int id = AccountTable.this.intern(msb, lsb);
+      final Chunk chunk = this.chunk(id);
+      final long[] rows = chunk.rows;
+      final int word = this.word(id);
+      long prev;
+      long unclamped;
+      long next;
+      final long stamp = this.lockForUpdate(id);
+      try {
+        while (true) {
+          prev = (long) WORDS.getVolatile(rows, word);
+          unclamped = operator.applyAsLong(prev);
+          next = Math.clamp(unclamped, min, max);
+          if (WORDS.compareAndSet(rows, word, prev, next)) {
+            break;
+          }
+          this.retries.increment();
+        }
+        if (next != unclamped) {
+          this.saturations.increment();
+        }
+      } finally {
+        chunk.lock.unlockRead(stamp);
+      }
+      this.countChange(prev, next);
+      this.notifyListeners(msb, lsb, prev, next);
+      return prev;
+    }
+
+    @Override
+    public boolean transfer(final long fromMsb, final long fromLsb, final long toMsb, final long toLsb,
+                            final long amount, final long min, final long max) {
+      final int from = AccountTable.this.intern(fromMsb, fromLsb);
+      final int to = AccountTable.this.intern(toMsb, toLsb);
+      final Chunk fromChunk = this.chunk(from);
+      final Chunk toChunk = this.chunk(to);
+      final StampedLock first = from <= to ? fromChunk.lock : toChunk.lock;
+      final StampedLock second = from <= to ? toChunk.lock : fromChunk.lock;
+      final long[] fromRows = fromChunk.rows;
+      final long[] toRows = toChunk.rows;
+      final int fromWord = this.word(from);
+      final int toWord = this.word(to);
+      final long fromValue;
+      final long toValue;
+      final long toResult;
+      final long firstStamp = first.writeLock();
+      final long secondStamp = first == second ? 0 : second.writeLock();
+      try {
+        this.copyLocked(from >>> CHUNK_SHIFT);
+        this.copyLocked(to >>> CHUNK_SHIFT);
+        fromValue = (long) WORDS.getVolatile(fromRows, fromWord);
+        if (fromValue < amount) {
+          return false;
+        }
+        toValue = from == to ? fromValue - amount : (long) WORDS.getVolatile(toRows, toWord);
+        if (toValue > max - amount) {
+          return false;
+        }
+        toResult = toValue + amount;
+        WORDS.setVolatile(fromRows, fromWord, fromValue - amount);
+        WORDS.setVolatile(toRows, toWord, toResult);
+      } finally {
+        if (first != second) {
+          second.unlockWrite(secondStamp);
+        }
+        first.unlockWrite(firstStamp);
+      }
+      this.countChange(fromValue, fromValue - amount);
+      this.countChange(toValue, toResult);
+      if (this.listeners.length != 0) {
+        this.notifyListeners(
+          new long[]{fromMsb, toMsb}, new long[]{fromLsb, toLsb},
+          new long[]{fromValue, toValue}, new long[]{fromValue - amount, toResult}
+        );
+      }
+      return true;
+    }
+
+    @Override
+    public void apply(final WriteBatch batch, final long factor, final long min, final long max) {
+      if (batch.isEmpty()) {
+        return;
+      }
+      final int size = batch.size();
+      final int[] ids = new int[size];
+      for (int i = 0; i < size; i++) {
+        ids[i] = AccountTable.this.intern(batch.mostSignificantBits(i), batch.leastSignificantBits(i));
+      }
+      // Every interned account is contained in the chunks read afterwards
+      final Chunk[] chunks = AccountTable.this.chunks;
+      final long[] affected = new long[(chunks.length + 63) >>> 6];
+      for (final int id : ids) {
+        final int chunk = id >>> CHUNK_SHIFT;
+        affected[chunk >>> 6] |= 1L << chunk;
+      }
+      final boolean notify = this.listeners.length != 0;
+      final long[] oldValues = new long[notify ? size : 0];
+      final long[] newValues = new long[notify ? size : 0];
+      final long[] stamps = lockAll(chunks, affected);
+      try {
+        for (int word = 0; word < affected.length; word++) {
+          for (long bits = affected[word]; bits != 0; bits &= bits - 1) {
+            this.copyLocked((word << 6) + Long.numberOfTrailingZeros(bits));
+          }
+        }
+        for (int i = 0; i < size; i++) {
+          final long[] rows = chunks[ids[i] >>> CHUNK_SHIFT].rows;
+          final int word = this.word(ids[i]);
+          final long prev = (long) WORDS.getVolatile(rows, word);
+          final long operand = ConversionUtils.saturatedMultiply(batch.value(i), factor);
+          final long value = batch.isSet(i)
+            ? Math.clamp(operand, min, max)
+            : UuidLongMap.saturatedAdd(prev, operand, min, max);
+          if (UuidLongMap.isSaturated(batch, i, factor, prev, value)) {
+            this.saturations.increment();
+          }
+          WORDS.setVolatile(rows, word, value);
+          this.countChange(prev, value);
+          if (notify) {
+            oldValues[i] = prev;
+            newValues[i] = value;
+          }
+        }
+      } finally {
+        unlockAll(chunks, affected, stamps);
+      }
+      if (notify) {
+        final long[] mostSigBits = new long[size];
+        final long[] leastSigBits = new long[size];
+        for (int i = 0; i < size; i++) {
+          mostSigBits[i] = batch.mostSignificantBits(i);
+          leastSigBits[i] = batch.leastSignificantBits(i);
+        }
+        this.notifyListeners(mostSigBits, leastSigBits, oldValues, newValues);
+      }
+    }
+
+    @Override
+    public long retries() {
+      return this.retries.sum();
+    }
+
+    @Override
+    public long saturations() {
+      return this.saturations.sum();
+    }
+
+    /// The amount of accounts with a non-zero value in this column. Accounts which have
+    /// only been written to by other columns are not included.
+    @Override
+    public int size() {
+      return this.accounts.intValue();
+    }
+
+    /// Iterates over all accounts with a non-zero value in this column.
+    @Override
+    public void forEach(final EntryConsumer consumer) {
+      // Reading the size first guarantees that the chunks contain every account below it
+      final int size = AccountTable.this.size;
+      final Chunk[] chunks = AccountTable.this.chunks;
+      for (int id = 0; id < size; id++) {
+        final long[] rows = chunks[id >>> CHUNK_SHIFT].rows;
+        final int row = AccountTable.this.row(id);
+        final long value = (long) WORDS.getVolatile(rows, row + this.offset);
+        if (value != 0) {
+          consumer.accept(rows[row + MSB], rows[row + LSB], value);
+        }
+      }
+    }
+
+    /// Takes a consistent snapshot of all non-zero values of this column. Every chunk is
+    /// locked exclusively at the same time, which briefly blocks updates of the other columns
+    /// as well. Accounts interned while the snapshot is taken may be left out.
+    @Override
+    public synchronized BalanceSnapshot snapshot() {
+      long[] stamps = new long[16];
+      int locked = 0;
+      int size;
+      while (true) {
+        // Reading the size first guarantees that the chunks contain every account below it
+        size = AccountTable.this.size;
+        final Chunk[] chunks = AccountTable.this.chunks;
+        final int needed = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (needed <= locked) {
+          break;
+        }
+        if (needed > stamps.length) {
+          stamps = Arrays.copyOf(stamps, Math.max(needed, stamps.length * 2));
+        }
+        // New chunks always have a higher index, so they are still locked in ascending order
+        for (; locked < needed; locked++) {
+          stamps[locked] = chunks[locked].lock.writeLock();
+        }
+      }
+      final Chunk[] chunks = AccountTable.this.chunks;
+      try {
+        final Snapshot snapshot = new Snapshot(this.epoch + 1, size);
+        final Snapshot[] snapshots = Arrays.copyOf(this.snapshots, this.snapshots.length + 1);
+        snapshots[snapshots.length - 1] = snapshot;
+        this.snapshots = snapshots;
+        this.epoch = snapshot.epoch;
+        return snapshot;
+      } finally {
+        for (int i = 0; i < locked; i++) {
+          chunks[i].lock.unlockWrite(stamps[i]);
+        }
+      }
+    }
+
+    private synchronized void close(final Snapshot snapshot) {
+      final List<Snapshot> snapshots = new ArrayList<>(Arrays.asList(this.snapshots));
+      if (snapshots.remove(snapshot)) {
+        this.snapshots = snapshots.toArray(Snapshot[]::new);
+      }
+    }
+
+    private final class Snapshot implements BalanceSnapshot {
+      final long epoch;
+      final int size;
+      /// Copies of the column's words of every chunk changed since this snapshot has been
+      /// taken, guarded by the chunk's lock.
+      final long[] @Nullable [] values;
+      volatile boolean closed;
+
+      Snapshot(final long epoch, final int size) {
+        this.epoch = epoch;
+        this.size = size;
+        this.values = new long[(size + CHUNK_MASK) >>> CHUNK_SHIFT][];
+      }
+
+      @Override
+      public long epoch() {
+        return this.epoch;
+      }
+
+      @Override
+      public void forEach(final EntryConsumer consumer) {
+        final Chunk[] chunks = AccountTable.this.chunks;
+        final long[] scratch = new long[CHUNK_SIZE];
+        for (int index = 0; index < this.values.length; index++) {
+          final Chunk chunk = chunks[index];
+          final long[] values;
+          final long stamp = chunk.lock.readLock();
+          try {
+            if (this.closed) {
+              throw new IllegalStateException("Snapshot has been closed");
+            }
+            final long @Nullable [] copy = this.values[index];
+            if (copy != null) {
+              values = copy;
+            } else {
+              // The chunk has not changed since, but the consumer must not run while holding its lock
+              for (int row = 0; row < CHUNK_SIZE; row++) {
+                scratch[row] = chunk.rows[row * AccountTable.this.stride + Column.this.offset];
+              }
+              values = scratch;
+            }
+          } finally {
+            chunk.lock.unlockRead(stamp);
+          }
+          final int end = Math.min(CHUNK_SIZE, this.size - (index << CHUNK_SHIFT));
+          for (int row = 0; row < end; row++) {
+            if (values[row] != 0) {
+              final int word = row * AccountTable.this.stride;
+              consumer.accept(chunk.rows[word + MSB], chunk.rows[word + LSB], values[row]);
+            }
+          }
+        }
+      }
+
+      @Override
+      public void close() {
+        if (!this.closed) {
+          this.closed = true;
+          Column.this.close(this);
+          Arrays.fill(this.values, null);
+        }
+      }
+    }
+  }
+
+  private static long[] lockAll(final Chunk[] chunks, final long[] affected) {
+    int count = 0;
+    for (final long word : affected) {
+      count += Long.bitCount(word);
+    }
+    final long[] stamps = new long[count];
+    int lock = 0;
+    for (int word = 0; word < affected.length; word++) {
+      for (long bits = affected[word]; bits != 0; bits &= bits - 1) {
+        stamps[lock++] = chunks[(word << 6) + Long.numberOfTrailingZeros(bits)].lock.writeLock();
+      }
+    }
+    return stamps;
+  }
+
+  private static void unlockAll(final Chunk[] chunks, final long[] affected, final long[] stamps) {
+    int lock = 0;
+    for (int word = 0; word < affected.length; word++) {
+      for (long bits = affected[word]; bits != 0; bits &= bits - 1) {
+        chunks[(word << 6) + Long.numberOfTrailingZeros(bits)].lock.unlockWrite(stamps[lock++]);
+      }
+    }
+  }
+
+  private static final class Chunk {
+    final long[] rows;
+    final StampedLock lock = new StampedLock();
+    /// Epoch of every column at its last change. Guarded by lock.
+    final long[] epochs;
+
+    Chunk(final int words, final int columns) {
+      this.rows = new long[words];
+      this.epochs = new long[columns];
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.metrics.BalanceHistogram;
+import dev.lunaplugins.economy.api.metrics.BalanceStatistics;
+import net.kyori.adventure.key.Key;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/// Running aggregates of all balances of a [BalanceMap]: their sum, the amount of
+/// non-zero balances and their distribution.
+///
+/// The aggregates are kept up to date by listening for changes of the map, each of which
+/// only adds its difference, so reading them takes constant time. Since the differences
+/// of all changes of a key add up to its current balance regardless of their order, the
+/// aggregates converge to the map's contents once all notifications have been delivered.
+///
+/// The sum could overflow a `long`, so the upper and lower 32 bits of every balance are
+/// summed separately. Each part stays within `32` bits per balance, so neither sum can
+/// overflow for fewer than `2^31` accounts, and the exact total is combined on reading.
+public final class BalanceAggregates implements BalanceListener {
+  private static final long LOW_BITS = 0xFFFF_FFFFL;
+
+  private final BalanceMap balances;
+  private final LongAdder highs = new LongAdder();
+  private final LongAdder lows = new LongAdder();
+  private final LongAdder accounts = new LongAdder();
+  private final BalanceHistogram histogram = new BalanceHistogram();
+
+  private BalanceAggregates(final BalanceMap balances) {
+    this.balances = balances;
+  }
+
+  /// Creates the aggregates of a map, containing all of its current balances.
+  ///
+  /// The aggregates register themselves as a listener of the map to keep up with changes
+  /// until they are [detached][#detach()]. The map must not be changed while attaching,
+  /// since changes made meanwhile might be counted twice.
+  ///
+  /// @param balances map to aggregate
+  /// @return the aggregates of the map
+  public static BalanceAggregates attach(final BalanceMap balances) {
+    final BalanceAggregates aggregates = new BalanceAggregates(balances);
+    balances.forEach((msb, lsb, value) -> aggregates.balanceChanged(msb, lsb, 0, value));
+    balances.addListener(aggregates);
+    return aggregates;
+  }
+
+  /// Stops updating these aggregates.
+  public void detach() {
+    this.balances.removeListener(this);
+  }
+
+  @Override
+  public void balanceChanged(final long msb, final long lsb, final long oldValue, final long newValue) {
+    if (oldValue == newValue) {
+      return;
+    }
+    this.lows.add((newValue & LOW_BITS) - (oldValue & LOW_BITS));
+    this.highs.add((newValue >> Integer.SIZE) - (oldValue >> Integer.SIZE));
+    if (oldValue == 0) {
+      this.accounts.increment();
+    } else {
+      this.histogram.remove(oldValue);
+    }
+    if (newValue == 0) {
+      this.accounts.decrement();
+    } else {
+      this.histogram.add(newValue);
+    }
+  }
+
+  /// The exact sum of all balances.
+  ///
+  /// @return total of all balances
+  public BigInteger total() {
+    return BigInteger.valueOf(this.highs.sum()).shiftLeft(Integer.SIZE).add(BigInteger.valueOf(this.lows.sum()));
+  }
+
+  /// The amount of non-zero balances.
+  ///
+  /// @return amount of accounts
+  public long accounts() {
+    return this.accounts.sum();
+  }
+
+  /// Copies the current aggregates.
+  ///
+  /// @param currency key of the aggregated currency
+  /// @return the current statistics
+  public BalanceStatistics statistics(final Key currency) {
+    return new BalanceStatistics(currency, this.total(), this.accounts(), this.histogram.counts());
+  }
+}
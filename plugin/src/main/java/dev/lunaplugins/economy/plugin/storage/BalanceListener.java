@@ -0,0 +1,36 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+/// A listener for changes of the balances stored inside a [BalanceMap].
+///
+/// Listeners are called synchronously on the thread which made the change, right
+/// after it has been made, so implementations have to be thread-safe and fast.
+/// Notifications of concurrent changes to the same key may arrive in any order.
+@FunctionalInterface
+public interface BalanceListener {
+
+  /// Called after a single balance has been changed.
+  ///
+  /// @param msb most significant bits of the player's UUID
+  /// @param lsb least significant bits of the player's UUID
+  /// @param oldValue balance before the change
+  /// @param newValue balance after the change
+  void balanceChanged(long msb, long lsb, long oldValue, long newValue);
+
+  /// Called after multiple balances have been changed as a single atomic unit,
+  /// e.g. by a transfer or a batch.
+  ///
+  /// The arrays must not be modified or retained after this method returns.
+  ///
+  /// @param msb most significant bits of the players' UUIDs
+  /// @param lsb least significant bits of the players' UUIDs
+  /// @param oldValues balances before the changes
+  /// @param newValues balances after the changes
+  /// @param count amount of changes
+  default void balancesChanged(final long[] msb, final long[] lsb, final long[] oldValues, final long[] newValues, final int count) {
+    for (int i = 0; i < count; i++) {
+      if (oldValues[i] != newValues[i]) {
+        this.balanceChanged(msb[i], lsb[i], oldValues[i], newValues[i]);
+      }
+    }
+  }
+}
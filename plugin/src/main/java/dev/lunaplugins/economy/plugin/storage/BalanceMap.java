@@ -0,0 +1,203 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.BalanceSnapshot;
+import dev.lunaplugins.economy.api.WriteBatch;
+
+import java.util.function.LongUnaryOperator;
+
+/// A concurrent map from a [java.util.UUID] (given as its two `long` halves) to the
+/// primitive `long` balance of a single currency.
+///
+/// Absent keys are treated as having the value `0`. Every change of a value is
+/// reported to the registered [BalanceListener]s after the change has been made.
+///
+/// @see UuidLongMap
+/// @see AccountTable
+public interface BalanceMap {
+
+  /// Registers a listener which gets notified after every change of a value.
+  ///
+  /// @param listener listener to register
+  void addListener(BalanceListener listener);
+
+  /// Unregisters a previously registered listener.
+  ///
+  /// @param listener listener to unregister
+  void removeListener(BalanceListener listener);
+
+  /// Retrieves the value stored for a key.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @return the stored value, or `0` if absent
+  long get(long msb, long lsb);
+
+  /// Checks whether a key has ever been written to this map.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @return whether the key is present
+  boolean contains(long msb, long lsb);
+
+  /// Atomically replaces the value of a key.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param value new value
+  /// @return the previous value
+  long getAndSet(long msb, long lsb, long value);
+
+  /// Atomically sets the value of a key if it currently equals the expected value.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param expected expected current value
+  /// @param value new value
+  /// @return whether the value was replaced
+  boolean compareAndSet(long msb, long lsb, long expected, long value);
+
+  /// Atomically adds a delta to the value of a key. The result saturates at
+  /// the provided bounds instead of overflowing.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param delta value to add (or subtract if negative)
+  /// @param min lower bound of the result
+  /// @param max upper bound of the result
+  /// @return the previous value
+  long getAndAdd(long msb, long lsb, long delta, long min, long max);
+
+  /// Adds a delta to the value of a key without returning the previous value. Maps
+  /// may defer adding the delta, but have to include it in every later operation.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param delta value to add (or subtract if negative)
+  /// @param min lower bound of the result
+  /// @param max upper bound of the result
+  default void increment(final long msb, final long lsb, final long delta, final long min, final long max) {
+    this.getAndAdd(msb, lsb, delta, min, max);
+  }
+
+  /// Atomically updates the value of a key using the provided function. The function
+  /// may be called multiple times under contention and should therefore be side effect free.
+  /// Its result is clamped to the provided bounds.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param operator function computing the new value from the current one
+  /// @param min lower bound of the result
+  /// @param max upper bound of the result
+  /// @return the previous value
+  long getAndUpdate(long msb, long lsb, LongUnaryOperator operator, long min, long max);
+
+  /// Atomically moves an amount from one key to another. The transfer fails without
+  /// any modification if the value of the source key is lower than the amount, or if
+  /// the value of the target key would exceed the upper bound, so no amount is lost.
+  ///
+  /// @param fromMsb most significant bits of the source key
+  /// @param fromLsb least significant bits of the source key
+  /// @param toMsb most significant bits of the target key
+  /// @param toLsb least significant bits of the target key
+  /// @param amount non-negative amount to move
+  /// @param min lower bound of the result
+  /// @param max upper bound of the result
+  /// @return whether the amount has been moved
+  boolean transfer(long fromMsb, long fromLsb, long toMsb, long toLsb, long amount, long min, long max);
+
+  /// Atomically applies all operations of a batch. Results saturate at the
+  /// provided bounds instead of overflowing.
+  ///
+  /// @param batch batch to apply
+  /// @param min lower bound of the results
+  /// @param max upper bound of the results
+  default void apply(final WriteBatch batch, final long min, final long max) {
+    this.apply(batch, 1, min, max);
+  }
+
+  /// Atomically applies all operations of a batch, multiplying every value of the
+  /// batch with a factor first. Results saturate at the provided bounds instead of overflowing.
+  ///
+  /// @param batch batch to apply
+  /// @param factor factor to multiply the values of the batch with
+  /// @param min lower bound of the results
+  /// @param max upper bound of the results
+  void apply(WriteBatch batch, long factor, long min, long max);
+
+  /// The amount of compare-and-set loops which had to be retried because another
+  /// thread changed the same value concurrently.
+  ///
+  /// @return amount of retries since this map was created
+  long retries();
+
+  /// The amount of updates whose result had to be clamped to the provided bounds
+  /// instead of overflowing them.
+  ///
+  /// @return amount of clamped updates since this map was created
+  long saturations();
+
+  /// The amount of keys stored in this map.
+  ///
+  /// @return amount of keys
+  int size();
+
+  /// Iterates over all entries of this map. The iteration is weakly consistent:
+  /// concurrent value updates may or may not be observed.
+  ///
+  /// @param consumer consumer receiving every entry
+  void forEach(EntryConsumer consumer);
+
+  /// Takes a consistent snapshot of all non-zero values, without blocking writers for
+  /// longer than it takes to lock every part of the map once.
+  ///
+  /// @return the snapshot, which has to be closed after use
+  /// @see dev.lunaplugins.economy.api.LunaCurrency#snapshot()
+  BalanceSnapshot snapshot();
+
+  /// The map whose changes are passed to the listeners of this map, which is this map
+  /// itself unless it forwards its listeners to another map. Listeners which read
+  /// values instead of using the notified ones should read them from here, so they only
+  /// see values they have been (or are about to be) notified about.
+  ///
+  /// @return the map notifying the listeners
+  default BalanceMap source() {
+    return this;
+  }
+
+  /// Moves a key into the cold tier of this map, if it has one. Cold keys keep their
+  /// value and are moved back transparently once they are written to again.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @return whether the key has been moved
+  default boolean demote(final long msb, final long lsb) {
+    return false;
+  }
+
+  /// Moves all keys matching a predicate into the cold tier of this map, if it has one.
+  ///
+  /// @param predicate predicate selecting the keys to move
+  /// @return amount of moved keys
+  default int demoteIf(final KeyPredicate predicate) {
+    return 0;
+  }
+
+  /// Moves a key from the cold tier of this map back to the hot tier, if it has one.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  default void promote(final long msb, final long lsb) {
+  }
+
+  /// A predicate on keys.
+  @FunctionalInterface
+  interface KeyPredicate {
+    boolean test(long msb, long lsb);
+  }
+
+  /// A consumer of map entries.
+  @FunctionalInterface
+  interface EntryConsumer {
+    void accept(long msb, long lsb, long value);
+  }
+}
@@ -0,0 +1,18 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+
+import java.io.Closeable;
+
+/// A currency whose balances are kept in memory and persisted by some backend.
+public interface BalanceStorage extends Closeable {
+  /// The stored currency.
+  ///
+  /// @return currency
+  LunaCurrency currency();
+
+  /// The map holding the balances of the stored currency.
+  ///
+  /// @return backing map
+  BalanceMap balances();
+}
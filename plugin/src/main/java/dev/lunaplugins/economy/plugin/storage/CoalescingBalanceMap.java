@@ -0,0 +1,314 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.BalanceSnapshot;
+import dev.lunaplugins.economy.api.WriteBatch;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+/// A [BalanceMap] which coalesces [increments][#increment(long, long, long, long, long)]
+/// before passing them on to another map.
+///
+/// Increments are summed up in cells which are picked by the calling thread, so threads
+/// rarely contend with each other, and are only added to the backing map when they are
+/// folded. That happens when [#fold()] is called, when a cell runs full, and before any
+/// other operation touching a key with pending increments. Reads therefore stay exact,
+/// while each key produces a single change (and journal record) per fold instead of one
+/// per increment.
+///
+/// Every cell is an open-addressing table laid out like a stripe of [UuidLongMap], with
+/// the pending delta in place of the value. Folding a cell takes its deltas out while
+/// holding the cell's monitor, but adds them to the backing map (which notifies the
+/// listeners) only after releasing it, so no monitor is ever held while calling other
+/// code. Deltas which a concurrent fold has taken out of a cell become visible to reads
+/// as soon as that fold has added them to the backing map.
+///
+/// Listeners are registered on the backing map, which is the [source][#source()] they
+/// should read from.
+public final class CoalescingBalanceMap implements BalanceMap {
+  private static final int STRIDE = 4;
+  private static final int HASH = 0;
+  private static final int MSB = 1;
+  private static final int LSB = 2;
+  private static final int DELTA = 3;
+  private static final int CELL_CAPACITY = 256;
+  /// Cells are folded once they are half full, which keeps probe sequences short.
+  private static final int MAX_PENDING = CELL_CAPACITY / 2;
+
+  private final BalanceMap delegate;
+  private final long min;
+  private final long max;
+  private final Cell[] cells;
+
+  /// Creates a map coalescing the increments of another map.
+  ///
+  /// @param delegate map receiving the folded increments
+  /// @param min lower bound of the folded balances
+  /// @param max upper bound of the folded balances
+  public CoalescingBalanceMap(final BalanceMap delegate, final long min, final long max) {
+    this.delegate = delegate;
+    this.min = min;
+    this.max = max;
+    final int cellCount = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 2 - 1, 1)) << 1;
+    this.cells = new Cell[cellCount];
+    for (int i = 0; i < cellCount; i++) {
+      this.cells[i] = new Cell();
+    }
+  }
+
+  /// The map receiving the folded increments.
+  ///
+  /// @return backing map
+  public BalanceMap delegate() {
+    return this.delegate;
+  }
+
+  /// Adds a delta to the value of a key without returning the previous value. The delta
+  /// is added to the backing map later on, saturating at the bounds of this map.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param delta value to add (or subtract if negative)
+  /// @param min ignored, the bounds of this map are used instead
+  /// @param max ignored, the bounds of this map are used instead
+  @Override
+  public void increment(final long msb, final long lsb, final long delta, final long min, final long max) {
+    if (delta == 0) {
+      return;
+    }
+    final Cell cell = this.cells[(int) Thread.currentThread().threadId() & (this.cells.length - 1)];
+    long @Nullable [] overflow = null;
+    long @Nullable [] full = null;
+    synchronized (cell) {
+      if (!cell.add(msb, lsb, delta)) {
+        // The pending delta would overflow, so it is folded before starting over
+        overflow = cell.drain();
+        cell.add(msb, lsb, delta);
+      }
+      if (cell.size >= MAX_PENDING) {
+        full = cell.drain();
+      }
+    }
+    if (overflow != null) {
+      this.apply(overflow);
+    }
+    if (full != null) {
+      this.apply(full);
+    }
+  }
+
+  /// Adds all pending increments to the backing map.
+  public void fold() {
+    for (final Cell cell : this.cells) {
+      if (cell.size != 0) {
+        final long[] drained;
+        synchronized (cell) {
+          drained = cell.drain();
+        }
+        this.apply(drained);
+      }
+    }
+  }
+
+  /// Adds the pending increments of every cell containing a key to the backing map.
+  private void fold(final long msb, final long lsb) {
+    final long hash = UuidLongMap.hash(msb, lsb);
+    for (final Cell cell : this.cells) {
+      if (cell.size != 0) {
+        final long[] drained;
+        synchronized (cell) {
+          if (cell.find(hash, msb, lsb) < 0) {
+            continue;
+          }
+          drained = cell.drain();
+        }
+        this.apply(drained);
+      }
+    }
+  }
+
+  /// Adds drained deltas to the backing map. Must not be called while holding a cell's monitor.
+  private void apply(final long[] drained) {
+    for (int i = 0; i < drained.length; i += 3) {
+      this.delegate.getAndAdd(drained[i], drained[i + 1], drained[i + 2], this.min, this.max);
+    }
+  }
+
+  @Override
+  public void addListener(final BalanceListener listener) {
+    this.delegate.addListener(listener);
+  }
+
+  @Override
+  public void removeListener(final BalanceListener listener) {
+    this.delegate.removeListener(listener);
+  }
+
+  @Override
+  public long get(final long msb, final long lsb) {
+    this.fold(msb, lsb);
+    return this.delegate.get(msb, lsb);
+  }
+
+  @Override
+  public boolean contains(final long msb, final long lsb) {
+    this.fold(msb, lsb);
+    return this.delegate.contains(msb, lsb);
+  }
+
+  @Override
+  public long getAndSet(final long msb, final long lsb, final long value) {
+    this.fold(msb, lsb);
+    return this.delegate.getAndSet(msb, lsb, value);
+  }
+
+  @Override
+  public boolean compareAndSet(final long msb, final long lsb, final long expected, final long value) {
+    this.fold(msb, lsb);
+    return this.delegate.compareAndSet(msb, lsb, expected, value);
+  }
+
+  @Override
+  public long getAndAdd(final long msb, final long lsb, final long delta, final long min, final long max) {
+    this.fold(msb, lsb);
+    return this.delegate.getAndAdd(msb, lsb, delta, min, max);
+  }
+
+  @Override
+  public long getAndUpdate(final long msb, final long lsb, final LongUnaryOperator operator, final long min, final long max) {
+    this.fold(msb, lsb);
+    return this.delegate.getAndUpdate(msb, lsb, operator, min, max);
+  }
+
+  @Override
+  public boolean transfer(final long fromMsb, final long fromLsb, final long toMsb, final long toLsb, final long amount, final long min, final long max) {
+    this.fold(fromMsb, fromLsb);
+    this.fold(toMsb, toLsb);
+    return this.delegate.transfer(fromMsb, fromLsb, toMsb, toLsb, amount, min, max);
+  }
+
+  @Override
+  public void apply(final WriteBatch batch, final long factor, final long min, final long max) {
+    this.fold();
+    this.delegate.apply(batch, factor, min, max);
+  }
+
+  @Override
+  public BalanceMap source() {
+    return this.delegate.source();
+  }
+
+  @Override
+  public long retries() {
+    return this.delegate.retries();
+  }
+
+  @Override
+  public long saturations() {
+    return this.delegate.saturations();
+  }
+
+  @Override
+  public int size() {
+    this.fold();
+    return this.delegate.size();
+  }
+
+  @Override
+  public void forEach(final EntryConsumer consumer) {
+    this.fold();
+    this.delegate.forEach(consumer);
+  }
+
+  @Override
+  public BalanceSnapshot snapshot() {
+    this.fold();
+    return this.delegate.snapshot();
+  }
+
+  @Override
+  public boolean demote(final long msb, final long lsb) {
+    this.fold(msb, lsb);
+    return this.delegate.demote(msb, lsb);
+  }
+
+  @Override
+  public int demoteIf(final KeyPredicate predicate) {
+    return this.delegate.demoteIf(predicate);
+  }
+
+  @Override
+  public void promote(final long msb, final long lsb) {
+    this.delegate.promote(msb, lsb);
+  }
+
+  private static final class Cell {
+    // Guarded by this
+    final long[] table = new long[CELL_CAPACITY * STRIDE];
+    // Written while holding the monitor, but read without it to skip empty cells
+    volatile int size;
+
+    /// Takes all pending deltas out of this cell. The caller has to hold the monitor.
+    ///
+    /// @return the keys and deltas as consecutive triples of `msb`, `lsb` and delta
+    long[] drain() {
+      final long[] drained = new long[this.size * 3];
+      int index = 0;
+      for (int slot = 0; slot < this.table.length; slot += STRIDE) {
+        if (this.table[slot + HASH] != 0) {
+          drained[index++] = this.table[slot + MSB];
+          drained[index++] = this.table[slot + LSB];
+          drained[index++] = this.table[slot + DELTA];
+        }
+      }
+      Arrays.fill(this.table, 0);
+      this.size = 0;
+      return drained;
+    }
+
+    int find(final long hash, final long msb, final long lsb) {
+      final int mask = CELL_CAPACITY - 1;
+      int index = (int) hash & mask;
+      while (true) {
+        final int slot = index * STRIDE;
+        final long slotHash = this.table[slot + HASH];
+        if (slotHash == 0) {
+          return -1;
+        } else if (slotHash == hash && this.table[slot + MSB] == msb && this.table[slot + LSB] == lsb) {
+          return slot;
+        }
+        index = (index + 1) & mask;
+      }
+    }
+
+    /// Adds a delta to the pending delta of a key.
+    ///
+    /// @return whether the delta has been added, `false` if the sum would overflow
+    boolean add(final long msb, final long lsb, final long delta) {
+      final long hash = UuidLongMap.hash(msb, lsb);
+      final int existing = this.find(hash, msb, lsb);
+      if (existing >= 0) {
+        final long sum = this.table[existing + DELTA] + delta;
+        // Overflow iff both operands have the same sign, which differs from the sign of the sum
+        if (((this.table[existing + DELTA] ^ sum) & (delta ^ sum)) < 0) {
+          return false;
+        }
+        this.table[existing + DELTA] = sum;
+        return true;
+      }
+      final int mask = CELL_CAPACITY - 1;
+      int index = (int) hash & mask;
+      while (this.table[index * STRIDE + HASH] != 0) {
+        index = (index + 1) & mask;
+      }
+      final int slot = index * STRIDE;
+      this.table[slot + HASH] = hash;
+      this.table[slot + MSB] = msb;
+      this.table[slot + LSB] = lsb;
+      this.table[slot + DELTA] = delta;
+      this.size++;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.plugin.storage.journal.Journal;
+import dev.lunaplugins.economy.plugin.storage.journal.JournalSettings;
+import dev.lunaplugins.economy.plugin.storage.journal.Snapshots;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/// A durable currency: an in-memory currency whose changes are
+/// recorded in a [Journal].
+///
+/// Opening the storage loads the latest snapshot and replays the journal written
+/// since then, so the currency starts out with the balances it had when it was closed
+/// (or when the server crashed). [#compact()] folds the journal into a new snapshot,
+/// which keeps both the journal and the startup time bounded.
+public final class CurrencyStorage implements BalanceStorage {
+  /// The file recording the scale of the stored raw values.
+  private static final String SCALE_FILE = "scale";
+
+  private final LunaCurrency currency;
+  private final BalanceMap balances;
+  private final Journal journal;
+  private final Path journalDirectory;
+  private final Path snapshotDirectory;
+
+  private CurrencyStorage(
+    final LunaCurrency currency,
+    final BalanceMap balances,
+    final Journal journal,
+    final Path journalDirectory,
+    final Path snapshotDirectory
+  ) {
+    this.currency = currency;
+    this.balances = balances;
+    this.journal = journal;
+    this.journalDirectory = journalDirectory;
+    this.snapshotDirectory = snapshotDirectory;
+  }
+
+  /// Opens the storage of a currency, keeping its balances in a [UuidLongMap].
+  ///
+  /// @param directory base directory of all currency storages
+  /// @param key key of the currency
+  /// @param precision precision of the currency
+  /// @param scale amount of fractional digits of a fixed-point currency
+  /// @param nameResolver resolver used for [LunaCurrency#uuidForName(String)]
+  /// @param settings settings of the journal
+  /// @param errorHandler handler of errors happening while writing the journal
+  /// @return the opened storage
+  /// @throws IOException if the snapshot or journal could not be read or created
+  public static CurrencyStorage open(
+    final Path directory,
+    final Key key,
+    final StoragePrecision precision,
+    final int scale,
+    final Function<String, @Nullable UUID> nameResolver,
+    final JournalSettings settings,
+    final Consumer<IOException> errorHandler
+  ) throws IOException {
+    return open(directory, key, precision, scale, false, nameResolver, UuidLongMap::withExpectedSize, settings, errorHandler);
+  }
+
+  /// Opens the storage of a currency.
+  ///
+  /// @param directory base directory of all currency storages
+  /// @param key key of the currency
+  /// @param precision precision of the currency
+  /// @param scale amount of fractional digits of a fixed-point currency
+  /// @param ranked whether to maintain a [ranking][LunaCurrency#ranking()] of all balances
+  /// @param nameResolver resolver used for [LunaCurrency#uuidForName(String)]
+  /// @param maps creates the empty map holding the balances, given the expected amount of accounts
+  /// @param settings settings of the journal
+  /// @param errorHandler handler of errors happening while writing the journal
+  /// @return the opened storage
+  /// @throws IOException if the snapshot or journal could not be read or created, or if
+  ///   the stored balances have a different scale than the configured one
+  public static CurrencyStorage open(
+    final Path directory,
+    final Key key,
+    final StoragePrecision precision,
+    final int scale,
+    final boolean ranked,
+    final Function<String, @Nullable UUID> nameResolver,
+    final LongFunction<? extends BalanceMap> maps,
+    final JournalSettings settings,
+    final Consumer<IOException> errorHandler
+  ) throws IOException {
+    final Path currencyDirectory = directory.resolve(key.namespace()).resolve(key.value());
+    final Path journalDirectory = currencyDirectory.resolve("journal");
+    final Path snapshotDirectory = currencyDirectory.resolve("snapshots");
+
+    final Path snapshot = Snapshots.latest(snapshotDirectory);
+    final BalanceMap balances;
+    final long firstSegment;
+    if (snapshot == null) {
+      balances = maps.apply(0);
+      firstSegment = 0;
+    } else {
+      try (final Snapshots.Reader reader = Snapshots.open(snapshot)) {
+        balances = maps.apply(reader.count());
+        firstSegment = reader.baseSegment();
+        reader.forEach(balances::getAndSet);
+      }
+    }
+    // Differences have to be summed up with wrapping arithmetic to restore the exact balance
+    Journal.replay(journalDirectory, firstSegment, (msb, lsb, delta) -> balances.getAndUpdate(msb, lsb, value -> value + delta, Long.MIN_VALUE, Long.MAX_VALUE));
+    checkScale(currencyDirectory.resolve(SCALE_FILE), key, precision.unitScale(scale), balances.size() > 0);
+    final Journal journal = Journal.open(journalDirectory, key.asString(), firstSegment, settings, errorHandler);
+    balances.addListener(journal);
+    return new CurrencyStorage(precision.create(key, nameResolver, balances, scale, ranked), balances, journal, journalDirectory, snapshotDirectory);
+  }
+
+  /// Records the scale of the raw values, refusing to load existing balances with a
+  /// different scale. The scale may only be changed while there are no balances yet.
+  private static void checkScale(final Path file, final Key key, final int scale, final boolean hasBalances) throws IOException {
+    if (Files.exists(file)) {
+      final String content = Files.readString(file).trim();
+      final int stored;
+      try {
+        stored = Integer.parseInt(content);
+      } catch (final NumberFormatException e) {
+        throw new IOException("Invalid scale of currency " + key.asString() + ": " + content, e);
+      }
+      if (stored == scale) {
+        return;
+      } else if (hasBalances) {
+        throw new IOException("Balances of currency " + key.asString() + " are stored with scale " + stored + ", but scale " + scale + " is configured");
+      }
+    }
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, Integer.toString(scale));
+  }
+
+  /// Writes a new snapshot containing every change journaled so far and deletes
+  /// the journal segments it replaces.
+  ///
+  /// Writers are not paused while compacting; changes made in the meantime end up
+  /// in the live journal segment and are contained in the next snapshot.
+  ///
+  /// @throws IOException if the journal could not be rotated or the snapshot could not be written
+  public synchronized void compact() throws IOException {
+    final long firstLiveSegment = this.journal.rotate();
+    Snapshots.compact(this.snapshotDirectory, this.journalDirectory, firstLiveSegment);
+  }
+
+  @Override
+  public LunaCurrency currency() {
+    return this.currency;
+  }
+
+  @Override
+  public BalanceMap balances() {
+    return this.balances;
+  }
+
+  /// The journal recording all changes of the stored currency.
+  ///
+  /// @return journal
+  public Journal journal() {
+    return this.journal;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.balances.removeListener(this.journal);
+    this.journal.close();
+  }
+}
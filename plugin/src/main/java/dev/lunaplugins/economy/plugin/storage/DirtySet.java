@@ -0,0 +1,136 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import java.util.Arrays;
+
+/// The set of players whose balance has changed since the set has last been drained.
+///
+/// Only keys are recorded, never values: the consumer reads the current balance when
+/// draining, so any number of changes to the same balance collapse into a single entry.
+/// The set is an open-addressing table of (hash, most significant bits, least significant
+/// bits) triples, where a hash of `0` marks an empty slot. Draining swaps the table
+/// with an empty one, so recording changes never allocates in the steady state.
+public final class DirtySet implements BalanceListener {
+  private static final int STRIDE = 3;
+  private static final int HASH = 0;
+  private static final int MSB = 1;
+  private static final int LSB = 2;
+  private static final int INITIAL_CAPACITY = 512;
+  private static final long[] EMPTY = new long[0];
+
+  // Guarded by this
+  private long[] table;
+  private long[] spare;
+  private int size;
+
+  public DirtySet() {
+    this(INITIAL_CAPACITY);
+  }
+
+  /// Creates a set with room for the given amount of keys before growing.
+  ///
+  /// @param capacity initial capacity, which has to be a power of two
+  public DirtySet(final int capacity) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("The capacity has to be a power of two: " + capacity);
+    }
+    this.table = new long[capacity * 2 * STRIDE];
+    this.spare = new long[capacity * 2 * STRIDE];
+  }
+
+  @Override
+  public synchronized void balanceChanged(final long msb, final long lsb, final long oldValue, final long newValue) {
+    this.add(msb, lsb);
+  }
+
+  @Override
+  public synchronized void balancesChanged(final long[] msb, final long[] lsb, final long[] oldValues, final long[] newValues, final int count) {
+    for (int i = 0; i < count; i++) {
+      this.add(msb[i], lsb[i]);
+    }
+  }
+
+  /// Marks a key as dirty.
+  public synchronized void add(final long msb, final long lsb) {
+    if ((this.size + 1) * 2 > this.table.length / STRIDE) {
+      final long[] grown = new long[this.table.length * 2];
+      for (int slot = 0; slot < this.table.length; slot += STRIDE) {
+        if (this.table[slot + HASH] != 0) {
+          place(grown, this.table[slot + HASH], this.table[slot + MSB], this.table[slot + LSB]);
+        }
+      }
+      this.table = grown;
+    }
+    if (place(this.table, hash(msb, lsb), msb, lsb)) {
+      this.size++;
+    }
+  }
+
+  /// Removes all keys from this set.
+  ///
+  /// The returned table has to be handed back using [#recycle(long[])] once it has been processed.
+  ///
+  /// @return table containing the removed keys
+  public synchronized long[] drain() {
+    final long[] drained = this.table;
+    this.table = this.spare.length >= drained.length ? this.spare : new long[drained.length];
+    this.spare = EMPTY;
+    this.size = 0;
+    return drained;
+  }
+
+  /// Returns a drained table, so it can be reused.
+  public synchronized void recycle(final long[] drained) {
+    Arrays.fill(drained, 0);
+    if (drained.length > this.spare.length) {
+      this.spare = drained;
+    }
+  }
+
+  /// The amount of dirty keys.
+  ///
+  /// @return amount of keys
+  public synchronized int size() {
+    return this.size;
+  }
+
+  /// Calls a consumer for every key of a drained table.
+  public static <E extends Exception> void forEach(final long[] drained, final KeyConsumer<E> consumer) throws E {
+    for (int slot = 0; slot < drained.length; slot += STRIDE) {
+      if (drained[slot + HASH] != 0) {
+        consumer.accept(drained[slot + MSB], drained[slot + LSB]);
+      }
+    }
+  }
+
+  private static boolean place(final long[] table, final long hash, final long msb, final long lsb) {
+    final int mask = table.length / STRIDE - 1;
+    int index = (int) hash & mask;
+    while (true) {
+      final int slot = index * STRIDE;
+      if (table[slot + HASH] == 0) {
+        table[slot + HASH] = hash;
+        table[slot + MSB] = msb;
+        table[slot + LSB] = lsb;
+        return true;
+      }
+      if (table[slot + HASH] == hash && table[slot + MSB] == msb && table[slot + LSB] == lsb) {
+        return false;
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  private static long hash(final long msb, final long lsb) {
+    long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+    h ^= h >>> 32;
+    h *= 0xD6E8FEB86659FD93L;
+    h ^= h >>> 32;
+    return h == 0 ? 1 : h;
+  }
+
+  /// A consumer of keys.
+  @FunctionalInterface
+  public interface KeyConsumer<E extends Exception> {
+    void accept(long msb, long lsb) throws E;
+  }
+}
@@ -0,0 +1,525 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.BalanceRanking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/// An ordered index of all non-zero balances of a [BalanceMap], sorted from the
+/// highest to the lowest balance. Equal balances are ordered by UUID.
+///
+/// The index is an order-statistic treap: every node knows the size of its subtree,
+/// so both the rank of a player and the entry at a given rank are found in O(log n).
+/// Listing `k` consecutive entries costs O(log n + k), independent of the amount of
+/// players. The same holds for range queries by balance, such as all players with a
+/// balance of at least `X`. Nodes are stored in flat primitive arrays and reused when
+/// a balance changes, so updating the index does not allocate.
+///
+/// Changes of the map only mark the player as dirty in one of several [DirtySet]s, so
+/// writers never wait for the tree. The next query applies all pending changes before
+/// reading it. The index is therefore not updated atomically with the balances, which
+/// would take a lock shared by every writer of the map; instead, every query reflects
+/// all changes completed before it started. Since notifications about the same player
+/// may arrive out of order, the current balance is always read from the
+/// [source][BalanceMap#source()] of the map instead of trusting the notified value,
+/// which makes the index converge to the map's contents once all notifications have
+/// been delivered.
+public final class Leaderboard implements BalanceRanking, BalanceListener {
+  private static final int NIL = 0;
+  private static final int INITIAL_CAPACITY = 64;
+  /// Amount of dirty sets changes are spread across, to keep writers from contending.
+  private static final int DIRTY_STRIPES = 8;
+  /// Amount of entries a range iteration copies per lock.
+  private static final int VISIT_BATCH = 256;
+
+  private final BalanceMap balances;
+  /// The map the notifications come from, which is read without waiting for pending changes.
+  private final BalanceMap source;
+  private final DirtySet[] dirty = new DirtySet[DIRTY_STRIPES];
+  /// Node index of every indexed player, or `0` if not indexed.
+  private final UuidLongMap nodes = new UuidLongMap(1, INITIAL_CAPACITY);
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  /// Amount of range iterations in progress, which defer applying pending changes.
+  private final AtomicInteger iterations = new AtomicInteger();
+
+  // Guarded by lock; index 0 is the NIL sentinel with a size of 0
+  private long[] values = new long[INITIAL_CAPACITY];
+  private long[] mostSigBits = new long[INITIAL_CAPACITY];
+  private long[] leastSigBits = new long[INITIAL_CAPACITY];
+  private int[] left = new int[INITIAL_CAPACITY];
+  private int[] right = new int[INITIAL_CAPACITY];
+  private int[] sizes = new int[INITIAL_CAPACITY];
+  private int[] priorities = new int[INITIAL_CAPACITY];
+  private int root = NIL;
+  private int nodeCount;
+  private int freeNodes = NIL;
+  private int seed = 0x2545F491;
+
+  private Leaderboard(final BalanceMap balances) {
+    this.balances = balances;
+    this.source = balances.source();
+    for (int i = 0; i < DIRTY_STRIPES; i++) {
+      this.dirty[i] = new DirtySet(INITIAL_CAPACITY);
+    }
+  }
+
+  /// Creates the index of a map, containing all of its current non-zero balances.
+  ///
+  /// The index registers itself as a listener of the map to keep up with changes
+  /// until it is [detached][#detach()].
+  ///
+  /// @param balances map to index
+  /// @return the index of the map
+  public static Leaderboard attach(final BalanceMap balances) {
+    final Leaderboard leaderboard = new Leaderboard(balances);
+    // Registering first ensures no change is missed while the existing balances are indexed
+    balances.addListener(leaderboard);
+    leaderboard.lock.writeLock().lock();
+    try {
+      balances.forEach((msb, lsb, value) -> leaderboard.updateLocked(msb, lsb));
+    } finally {
+      leaderboard.lock.writeLock().unlock();
+    }
+    return leaderboard;
+  }
+
+  /// Stops updating this index.
+  public void detach() {
+    this.balances.removeListener(this);
+  }
+
+  @Override
+  public void balanceChanged(final long msb, final long lsb, final long oldValue, final long newValue) {
+    this.markDirty(msb, lsb);
+  }
+
+  @Override
+  public void balancesChanged(final long[] msb, final long[] lsb, final long[] oldValues, final long[] newValues, final int count) {
+    for (int i = 0; i < count; i++) {
+      this.markDirty(msb[i], lsb[i]);
+    }
+  }
+
+  private void markDirty(final long msb, final long lsb) {
+    final long mixed = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+    this.dirty[(int) (mixed >>> 32) & (DIRTY_STRIPES - 1)].add(msb, lsb);
+  }
+
+  /// Locks the index for reading, after applying all pending changes unless a range
+  /// iteration is in progress.
+  private void lockForReading() {
+    this.lockForReading(false);
+  }
+
+  private void lockForReading(final boolean force) {
+    boolean pending = false;
+    for (final DirtySet set : this.dirty) {
+      pending |= set.size() != 0;
+    }
+    if (!pending || !force && this.iterations.get() != 0) {
+      this.lock.readLock().lock();
+      return;
+    }
+    this.lock.writeLock().lock();
+    try {
+      // Checked again under the lock, so no iteration sees changes applied between its batches
+      if (force || this.iterations.get() == 0) {
+        for (final DirtySet set : this.dirty) {
+          final long[] drained = set.drain();
+          DirtySet.<RuntimeException>forEach(drained, this::updateLocked);
+          set.recycle(drained);
+        }
+      }
+      // Downgrading keeps other queries from waiting for the next one's changes
+      this.lock.readLock().lock();
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  /// The amount of indexed players.
+  ///
+  /// @return amount of players
+  @Override
+  public int size() {
+    this.lockForReading();
+    try {
+      return this.sizes[this.root];
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /// Consecutive entries of the leaderboard.
+  ///
+  /// @param offset amount of players to skip, starting from the highest balance
+  /// @param limit maximum amount of players to return
+  /// @return the entries of the players, from the highest to the lowest balance
+  @Override
+  public List<Entry> range(final long offset, final int limit) {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("Invalid range of " + limit + " entries starting at " + offset);
+    }
+    this.lockForReading();
+    try {
+      return this.entriesLocked(offset, Math.min(limit, this.sizes[this.root] - offset));
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long countBetween(final long min, final long max) {
+    this.lockForReading();
+    try {
+      return Math.max(this.countAtLeastLocked(min) - this.countAboveLocked(max), 0);
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Entry> pageBetween(final long min, final long max, final int page, final int pageSize) {
+    if (page < 0 || pageSize < 1) {
+      throw new IllegalArgumentException("Invalid page " + page + " of size " + pageSize);
+    }
+    this.lockForReading();
+    try {
+      final long first = this.countAboveLocked(max) + (long) page * pageSize;
+      return this.entriesLocked(first, Math.min(pageSize, this.countAtLeastLocked(min) - first));
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  /// Iterates over consecutive players with a balance between two bounds, from the
+  /// highest to the lowest balance.
+  ///
+  /// Up to [#VISIT_BATCH] players are copied at a time while the index is locked, and
+  /// passed to the consumer once the lock has been released. The next batch resumes
+  /// after the balance and UUID of the last visited player. Applying pending changes is
+  /// deferred until the outermost iteration finishes, so the tree does not change
+  /// between batches and a player whose balance is changed by the consumer is not
+  /// visited again.
+  @Override
+  public long forEachBetween(final long min, final long max, final long offset, final long limit, final EntryConsumer consumer) {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("Invalid range of " + limit + " entries starting at " + offset);
+    }
+    // Triples of (msb, lsb, balance)
+    final long[] batch = new long[VISIT_BATCH * 3];
+    // Only the outermost iteration applies the changes made before it started
+    boolean apply = this.iterations.getAndIncrement() == 0;
+    try {
+      long visited = 0;
+      while (visited < limit) {
+        final int count;
+        this.lockForReading(apply);
+        apply = false;
+        try {
+          final long first = visited == 0
+            ? this.countAboveLocked(max) + offset
+            : this.countUpToLocked(batch[VISIT_BATCH * 3 - 1], batch[VISIT_BATCH * 3 - 3], batch[VISIT_BATCH * 3 - 2]);
+          count = (int) Math.min(Math.min(limit - visited, VISIT_BATCH), Math.max(this.countAtLeastLocked(min) - first, 0));
+          this.visitLocked(first, count, (node, rank) -> {
+            final int i = (int) (rank - first - 1) * 3;
+            batch[i] = this.mostSigBits[node];
+            batch[i + 1] = this.leastSigBits[node];
+            batch[i + 2] = this.values[node];
+          });
+        } finally {
+          this.lock.readLock().unlock();
+        }
+        for (int i = 0; i < count * 3; i += 3) {
+          consumer.accept(batch[i], batch[i + 1], batch[i + 2]);
+        }
+        visited += count;
+        if (count < VISIT_BATCH) {
+          break;
+        }
+      }
+      return visited;
+    } finally {
+      this.iterations.decrementAndGet();
+    }
+  }
+
+  private List<Entry> entriesLocked(final long offset, final long count) {
+    if (count <= 0) {
+      return List.of();
+    }
+    final List<Entry> entries = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+    this.visitLocked(offset, count, (node, rank) ->
+      entries.add(new Entry(new UUID(this.mostSigBits[node], this.leastSigBits[node]), this.values[node], rank))
+    );
+    return entries;
+  }
+
+  /// Visits `count` consecutive nodes in order, starting at the given offset.
+  private long visitLocked(final long offset, final long count, final NodeVisitor visitor) {
+    if (offset >= this.sizes[this.root] || count <= 0) {
+      return 0;
+    }
+    // In-order traversal; the stack holds the nodes whose left subtree is being visited
+    int[] stack = new int[32];
+    int depth = 0;
+    int node = this.root;
+    long skip = offset;
+    while (node != NIL) {
+      final int leftSize = this.sizes[this.left[node]];
+      if (skip < leftSize) {
+        if (depth == stack.length) {
+          stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = node;
+        node = this.left[node];
+      } else if (skip == leftSize) {
+        break;
+      } else {
+        skip -= leftSize + 1;
+        node = this.right[node];
+      }
+    }
+    long visited = 0;
+    while (visited < count) {
+      visitor.visit(node, offset + ++visited);
+      node = this.right[node];
+      while (node != NIL) {
+        if (depth == stack.length) {
+          stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = node;
+        node = this.left[node];
+      }
+      if (depth == 0) {
+        break;
+      }
+      node = stack[--depth];
+    }
+    return visited;
+  }
+
+  /// The amount of nodes with a balance above the given one.
+  private long countAboveLocked(final long value) {
+    long count = 0;
+    int node = this.root;
+    while (node != NIL) {
+      if (this.values[node] > value) {
+        count += this.sizes[this.left[node]] + 1;
+        node = this.right[node];
+      } else {
+        node = this.left[node];
+      }
+    }
+    return count;
+  }
+
+  /// The amount of nodes ranked at or above the given entry.
+  private long countUpToLocked(final long value, final long msb, final long lsb) {
+    long count = 0;
+    int node = this.root;
+    while (node != NIL) {
+      if (this.compare(value, msb, lsb, node) < 0) {
+        node = this.left[node];
+      } else {
+        count += this.sizes[this.left[node]] + 1;
+        node = this.right[node];
+      }
+    }
+    return count;
+  }
+
+  /// The amount of nodes with a balance of at least the given one.
+  private long countAtLeastLocked(final long value) {
+    return value == Long.MIN_VALUE ? this.sizes[this.root] : this.countAboveLocked(value - 1);
+  }
+
+  /// The rank of a player, which is `1` for the highest balance.
+  ///
+  /// @param uuid UUID of the player
+  /// @return the rank of the player, or `-1` if the player's balance is `0`
+  @Override
+  public long rankOf(final UUID uuid) {
+    final long msb = uuid.getMostSignificantBits();
+    final long lsb = uuid.getLeastSignificantBits();
+    this.lockForReading();
+    try {
+      final int target = (int) this.nodes.get(msb, lsb);
+      if (target == NIL) {
+        return -1;
+      }
+      final long value = this.values[target];
+      long rank = 0;
+      int node = this.root;
+      while (node != NIL) {
+        final int comparison = this.compare(value, msb, lsb, node);
+        if (comparison < 0) {
+          node = this.left[node];
+        } else {
+          rank += this.sizes[this.left[node]] + 1;
+          if (comparison == 0) {
+            return rank;
+          }
+          node = this.right[node];
+        }
+      }
+      throw new IllegalStateException("Indexed player is missing in the tree");
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  private void updateLocked(final long msb, final long lsb) {
+    final long value = this.source.get(msb, lsb);
+    int node = (int) this.nodes.get(msb, lsb);
+    if (node != NIL) {
+      if (this.values[node] == value) {
+        return;
+      }
+      this.root = this.remove(this.root, node);
+      if (value == 0) {
+        this.nodes.getAndSet(msb, lsb, NIL);
+        this.left[node] = this.freeNodes;
+        this.freeNodes = node;
+        return;
+      }
+    } else if (value == 0) {
+      return;
+    } else {
+      node = this.allocate(msb, lsb);
+      this.nodes.getAndSet(msb, lsb, node);
+    }
+    this.values[node] = value;
+    this.left[node] = NIL;
+    this.right[node] = NIL;
+    this.sizes[node] = 1;
+    this.root = this.insert(this.root, node);
+  }
+
+  private int allocate(final long msb, final long lsb) {
+    final int node;
+    if (this.freeNodes != NIL) {
+      node = this.freeNodes;
+      this.freeNodes = this.left[node];
+    } else {
+      node = ++this.nodeCount;
+    }
+    if (node == this.values.length) {
+      final int capacity = node * 2;
+      this.values = Arrays.copyOf(this.values, capacity);
+      this.mostSigBits = Arrays.copyOf(this.mostSigBits, capacity);
+      this.leastSigBits = Arrays.copyOf(this.leastSigBits, capacity);
+      this.left = Arrays.copyOf(this.left, capacity);
+      this.right = Arrays.copyOf(this.right, capacity);
+      this.sizes = Arrays.copyOf(this.sizes, capacity);
+      this.priorities = Arrays.copyOf(this.priorities, capacity);
+    }
+    this.mostSigBits[node] = msb;
+    this.leastSigBits[node] = lsb;
+    // xorshift, good enough to keep the treap balanced in expectation
+    this.seed ^= this.seed << 13;
+    this.seed ^= this.seed >>> 17;
+    this.seed ^= this.seed << 5;
+    this.priorities[node] = this.seed;
+    return node;
+  }
+
+  /// Compares an entry with a node; negative if the entry ranks higher.
+  private int compare(final long value, final long msb, final long lsb, final int node) {
+    int comparison = Long.compare(this.values[node], value);
+    if (comparison == 0) {
+      comparison = Long.compare(msb, this.mostSigBits[node]);
+    }
+    if (comparison == 0) {
+      comparison = Long.compare(lsb, this.leastSigBits[node]);
+    }
+    return comparison;
+  }
+
+  private int insert(final int tree, final int node) {
+    if (tree == NIL) {
+      return node;
+    }
+    int result = tree;
+    if (this.compare(this.values[node], this.mostSigBits[node], this.leastSigBits[node], tree) < 0) {
+      this.left[tree] = this.insert(this.left[tree], node);
+      if (this.priorities[this.left[tree]] > this.priorities[tree]) {
+        result = this.rotateRight(tree);
+      }
+    } else {
+      this.right[tree] = this.insert(this.right[tree], node);
+      if (this.priorities[this.right[tree]] > this.priorities[tree]) {
+        result = this.rotateLeft(tree);
+      }
+    }
+    this.updateSize(tree);
+    this.updateSize(result);
+    return result;
+  }
+
+  private int remove(final int tree, final int node) {
+    if (tree == NIL) {
+      throw new IllegalStateException("Indexed player is missing in the tree");
+    }
+    if (tree == node) {
+      if (this.left[tree] == NIL) {
+        return this.right[tree];
+      }
+      if (this.right[tree] == NIL) {
+        return this.left[tree];
+      }
+      // Rotate the node down until it has at most one child
+      final int result;
+      if (this.priorities[this.left[tree]] > this.priorities[this.right[tree]]) {
+        result = this.rotateRight(tree);
+        this.right[result] = this.remove(tree, node);
+      } else {
+        result = this.rotateLeft(tree);
+        this.left[result] = this.remove(tree, node);
+      }
+      this.updateSize(result);
+      return result;
+    }
+    if (this.compare(this.values[node], this.mostSigBits[node], this.leastSigBits[node], tree) < 0) {
+      this.left[tree] = this.remove(this.left[tree], node);
+    } else {
+      this.right[tree] = this.remove(this.right[tree], node);
+    }
+    this.updateSize(tree);
+    return tree;
+  }
+
+  private int rotateRight(final int tree) {
+    final int pivot = this.left[tree];
+    this.left[tree] = this.right[pivot];
+    this.right[pivot] = tree;
+    this.updateSize(tree);
+    this.updateSize(pivot);
+    return pivot;
+  }
+
+  private int rotateLeft(final int tree) {
+    final int pivot = this.right[tree];
+    this.right[tree] = this.left[pivot];
+    this.left[pivot] = tree;
+    this.updateSize(tree);
+    this.updateSize(pivot);
+    return pivot;
+  }
+
+  private void updateSize(final int node) {
+    if (node != NIL) {
+      this.sizes[node] = this.sizes[this.left[node]] + this.sizes[this.right[node]] + 1;
+    }
+  }
+
+  /// A visitor of tree nodes.
+  @FunctionalInterface
+  private interface NodeVisitor {
+    void visit(int node, long rank);
+  }
+}
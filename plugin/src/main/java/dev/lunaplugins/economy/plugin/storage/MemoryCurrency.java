@@ -0,0 +1,108 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.BalanceRanking;
+import dev.lunaplugins.economy.api.BalanceSnapshot;
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.api.metrics.BalanceStatistics;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjLongConsumer;
+
+/// Shared base of the in-memory currency backends.
+///
+/// Balances are kept inside a [BalanceMap]; all subclasses only differ in the
+/// bounds they clamp the stored values to.
+abstract class MemoryCurrency implements LunaCurrency {
+  protected final BalanceMap balances;
+  private final BalanceAggregates aggregates;
+  private final @Nullable Leaderboard leaderboard;
+  private final Key key;
+  private final Function<String, @Nullable UUID> nameResolver;
+
+  protected MemoryCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances, final boolean ranked) {
+    this.key = key;
+    this.nameResolver = nameResolver;
+    this.balances = balances;
+    this.aggregates = BalanceAggregates.attach(balances);
+    // The index holds every non-zero balance on the heap, so it is only built when asked for
+    this.leaderboard = ranked ? Leaderboard.attach(balances) : null;
+  }
+
+  @Override
+  public Key key() {
+    return this.key;
+  }
+
+  @Override
+  public @Nullable UUID uuidForName(final String name) {
+    return this.nameResolver.apply(name);
+  }
+
+  @Override
+  public void longValues(final Collection<UUID> uuids, final ObjLongConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.balances.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+    }
+  }
+
+  @Override
+  public long[] longValues(final List<UUID> uuids) {
+    final long[] values = new long[uuids.size()];
+    for (int i = 0; i < values.length; i++) {
+      final UUID uuid = uuids.get(i);
+      values[i] = this.balances.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+    return values;
+  }
+
+  @Override
+  public void doubleValues(final Collection<UUID> uuids, final ObjDoubleConsumer<UUID> sink) {
+    for (final UUID uuid : uuids) {
+      sink.accept(uuid, this.balances.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+    }
+  }
+
+  @Override
+  public double[] doubleValues(final List<UUID> uuids) {
+    final double[] values = new double[uuids.size()];
+    for (int i = 0; i < values.length; i++) {
+      final UUID uuid = uuids.get(i);
+      values[i] = this.balances.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+    return values;
+  }
+
+  @Override
+  public BalanceSnapshot snapshot() {
+    return this.balances.snapshot();
+  }
+
+  @Override
+  public BalanceStatistics statistics() {
+    return this.aggregates.statistics(this.key);
+  }
+
+  @Override
+  public BalanceRanking ranking() {
+    final @Nullable Leaderboard leaderboard = this.leaderboard;
+    return leaderboard != null ? leaderboard : LunaCurrency.super.ranking();
+  }
+
+  /// The map holding the balances of this currency.
+  ///
+  /// @return backing map
+  public BalanceMap balances() {
+    return this.balances;
+  }
+
+  @Override
+  public String toString() {
+    return this.getClass().getSimpleName() + "[key=" + this.key.asString() + ", accounts=" + this.balances.size() + "]";
+  }
+}
@@ -0,0 +1,145 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.WriteBatch;
+import dev.lunaplugins.economy.api.currencies.ConversionUtils;
+import dev.lunaplugins.economy.api.currencies.FixedPointCurrency;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjLongConsumer;
+
+/// An in-memory [FixedPointCurrency] backed by a [BalanceMap].
+///
+/// The map stores units, so every getter is lock-free and every setter or
+/// adder is a single compare-and-set on the stored value, just like
+/// [MemoryLongCurrency].
+public final class MemoryFixedPointCurrency extends MemoryCurrency implements FixedPointCurrency {
+  private final int scale;
+  private final long unitsPerWhole;
+
+  public MemoryFixedPointCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver, final int scale) {
+    this(key, nameResolver, new UuidLongMap(), scale);
+  }
+
+  public MemoryFixedPointCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances, final int scale) {
+    this(key, nameResolver, balances, scale, false);
+  }
+
+  /// Creates a currency.
+  ///
+  /// @param key key of the currency
+  /// @param nameResolver resolver used for [#uuidForName(String)]
+  /// @param balances map holding the balances
+  /// @param scale amount of fractional digits
+  /// @param ranked whether to maintain a [ranking][#ranking()] of all balances
+  public MemoryFixedPointCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances, final int scale, final boolean ranked) {
+    super(key, nameResolver, balances, ranked);
+    this.unitsPerWhole = ConversionUtils.powerOfTen(scale);
+    this.scale = scale;
+  }
+
+  @Override
+  public int scale() {
+    return this.scale;
+  }
+
+  @Override
+  public long unitsPerWhole() {
+    return this.unitsPerWhole;
+  }
+
+  @Override
+  public long unitValue(final UUID uuid) {
+    return this.unitValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  @Override
+  public long unitValue(final long mostSigBits, final long leastSigBits) {
+    return this.balances.get(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  public long unitValue(final UUID uuid, final long value) {
+    return this.unitValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public long unitValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.balances.getAndSet(mostSigBits, leastSigBits, value);
+  }
+
+  @Override
+  public long addUnitValue(final UUID uuid, final long value) {
+    return this.addUnitValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public long addUnitValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.balances.getAndAdd(mostSigBits, leastSigBits, value, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Override
+  public void increment(final UUID uuid, final long value) {
+    this.increment(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public void increment(final long mostSigBits, final long leastSigBits, final long value) {
+    this.balances.increment(mostSigBits, leastSigBits, ConversionUtils.saturatedMultiply(value, this.unitsPerWhole), Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Override
+  public boolean compareAndSetUnits(final UUID uuid, final long expected, final long value) {
+    return this.balances.compareAndSet(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), expected, value);
+  }
+
+  @Override
+  public boolean transfer(final UUID from, final UUID to, final long amount) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Cannot transfer a negative amount: " + amount);
+    }
+    return this.balances.transfer(
+      from.getMostSignificantBits(), from.getLeastSignificantBits(),
+      to.getMostSignificantBits(), to.getLeastSignificantBits(),
+      ConversionUtils.saturatedMultiply(amount, this.unitsPerWhole), Long.MIN_VALUE, Long.MAX_VALUE
+    );
+  }
+
+  @Override
+  public void apply(final WriteBatch batch) {
+    this.balances.apply(batch, this.unitsPerWhole, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Override
+  public void longValues(final Collection<UUID> uuids, final ObjLongConsumer<UUID> sink) {
+    FixedPointCurrency.super.longValues(uuids, sink);
+  }
+
+  @Override
+  public long[] longValues(final List<UUID> uuids) {
+    final long[] values = super.longValues(uuids);
+    for (int i = 0; i < values.length; i++) {
+      values[i] /= this.unitsPerWhole;
+    }
+    return values;
+  }
+
+  @Override
+  public void doubleValues(final Collection<UUID> uuids, final ObjDoubleConsumer<UUID> sink) {
+    FixedPointCurrency.super.doubleValues(uuids, sink);
+  }
+
+  @Override
+  public double[] doubleValues(final List<UUID> uuids) {
+    final double[] values = super.doubleValues(uuids);
+    for (int i = 0; i < values.length; i++) {
+      values[i] /= this.unitsPerWhole;
+    }
+    return values;
+  }
+}
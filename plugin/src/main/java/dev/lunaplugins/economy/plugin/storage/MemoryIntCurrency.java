@@ -0,0 +1,128 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.WriteBatch;
+import dev.lunaplugins.economy.api.currencies.IntCurrency;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+
+/// An in-memory [IntCurrency] backed by a [BalanceMap].
+///
+/// Values are stored as `long`s but always clamped to the `int` range, so
+/// every getter is lock-free and every setter or adder is a single
+/// compare-and-set on the stored value.
+public final class MemoryIntCurrency extends MemoryCurrency implements IntCurrency {
+
+  public MemoryIntCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver) {
+    this(key, nameResolver, new UuidLongMap());
+  }
+
+  public MemoryIntCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances) {
+    this(key, nameResolver, balances, false);
+  }
+
+  /// Creates a currency.
+  ///
+  /// @param key key of the currency
+  /// @param nameResolver resolver used for [#uuidForName(String)]
+  /// @param balances map holding the balances
+  /// @param ranked whether to maintain a [ranking][#ranking()] of all balances
+  public MemoryIntCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances, final boolean ranked) {
+    super(key, nameResolver, balances, ranked);
+  }
+
+  @Override
+  public int intValue(final UUID uuid) {
+    return this.intValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  @Override
+  public int intValue(final long mostSigBits, final long leastSigBits) {
+    return (int) this.balances.get(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  public int intValue(final UUID uuid, final int value) {
+    return this.intValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public int intValue(final long mostSigBits, final long leastSigBits, final int value) {
+    return (int) this.balances.getAndSet(mostSigBits, leastSigBits, value);
+  }
+
+  @Override
+  public long longValue(final UUID uuid, final long value) {
+    return this.longValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public long longValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.balances.getAndSet(mostSigBits, leastSigBits, Math.clamp(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+  }
+
+  @Override
+  public int addIntValue(final UUID uuid, final int value) {
+    return (int) this.addLongValue(uuid, value);
+  }
+
+  @Override
+  public long addLongValue(final UUID uuid, final long value) {
+    return this.addLongValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public long addLongValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.balances.getAndAdd(mostSigBits, leastSigBits, value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public void increment(final UUID uuid, final long value) {
+    this.increment(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public void increment(final long mostSigBits, final long leastSigBits, final long value) {
+    this.balances.increment(mostSigBits, leastSigBits, value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean compareAndSetInt(final UUID uuid, final int expected, final int value) {
+    return this.balances.compareAndSet(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), expected, value);
+  }
+
+  @Override
+  public boolean compareAndSetLong(final UUID uuid, final long expected, final long value) {
+    return this.compareAndSetLong(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), expected, value);
+  }
+
+  @Override
+  public boolean compareAndSetLong(final long mostSigBits, final long leastSigBits, final long expected, final long value) {
+    return this.balances.compareAndSet(mostSigBits, leastSigBits, expected, Math.clamp(value, Integer.MIN_VALUE, Integer.MAX_VALUE));
+  }
+
+  @Override
+  public long updateLong(final UUID uuid, final LongUnaryOperator operator) {
+    return this.balances.getAndUpdate(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), operator, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public boolean transfer(final UUID from, final UUID to, final long amount) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Cannot transfer a negative amount: " + amount);
+    }
+    return this.balances.transfer(
+      from.getMostSignificantBits(), from.getLeastSignificantBits(),
+      to.getMostSignificantBits(), to.getLeastSignificantBits(),
+      amount, Integer.MIN_VALUE, Integer.MAX_VALUE
+    );
+  }
+
+  @Override
+  public void apply(final WriteBatch batch) {
+    this.balances.apply(batch, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+}
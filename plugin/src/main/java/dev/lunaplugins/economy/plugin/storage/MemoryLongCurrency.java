@@ -0,0 +1,112 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.WriteBatch;
+import dev.lunaplugins.economy.api.currencies.LongCurrency;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+
+/// An in-memory [LongCurrency] backed by a [BalanceMap].
+///
+/// Every getter is lock-free and every setter or adder is a single
+/// compare-and-set on the stored value.
+public final class MemoryLongCurrency extends MemoryCurrency implements LongCurrency {
+
+  public MemoryLongCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver) {
+    this(key, nameResolver, new UuidLongMap());
+  }
+
+  public MemoryLongCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances) {
+    this(key, nameResolver, balances, false);
+  }
+
+  /// Creates a currency.
+  ///
+  /// @param key key of the currency
+  /// @param nameResolver resolver used for [#uuidForName(String)]
+  /// @param balances map holding the balances
+  /// @param ranked whether to maintain a [ranking][#ranking()] of all balances
+  public MemoryLongCurrency(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances, final boolean ranked) {
+    super(key, nameResolver, balances, ranked);
+  }
+
+  @Override
+  public long longValue(final UUID uuid) {
+    return this.longValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+  }
+
+  @Override
+  public long longValue(final long mostSigBits, final long leastSigBits) {
+    return this.balances.get(mostSigBits, leastSigBits);
+  }
+
+  @Override
+  public long longValue(final UUID uuid, final long value) {
+    return this.longValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public long longValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.balances.getAndSet(mostSigBits, leastSigBits, value);
+  }
+
+  @Override
+  public int addIntValue(final UUID uuid, final int value) {
+    return Math.clamp(this.addLongValue(uuid, value), Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public long addLongValue(final UUID uuid, final long value) {
+    return this.addLongValue(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public long addLongValue(final long mostSigBits, final long leastSigBits, final long value) {
+    return this.balances.getAndAdd(mostSigBits, leastSigBits, value, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Override
+  public void increment(final UUID uuid, final long value) {
+    this.increment(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+  }
+
+  @Override
+  public void increment(final long mostSigBits, final long leastSigBits, final long value) {
+    this.balances.increment(mostSigBits, leastSigBits, value, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Override
+  public boolean compareAndSetLong(final UUID uuid, final long expected, final long value) {
+    return this.compareAndSetLong(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), expected, value);
+  }
+
+  @Override
+  public boolean compareAndSetLong(final long mostSigBits, final long leastSigBits, final long expected, final long value) {
+    return this.balances.compareAndSet(mostSigBits, leastSigBits, expected, value);
+  }
+
+  @Override
+  public long updateLong(final UUID uuid, final LongUnaryOperator operator) {
+    return this.balances.getAndUpdate(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), operator, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Override
+  public boolean transfer(final UUID from, final UUID to, final long amount) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Cannot transfer a negative amount: " + amount);
+    }
+    return this.balances.transfer(
+      from.getMostSignificantBits(), from.getLeastSignificantBits(),
+      to.getMostSignificantBits(), to.getLeastSignificantBits(),
+      amount, Long.MIN_VALUE, Long.MAX_VALUE
+    );
+  }
+
+  @Override
+  public void apply(final WriteBatch batch) {
+    this.balances.apply(batch, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+}
@@ -0,0 +1,267 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/// An open-addressing hash map from a [java.util.UUID] (given as its two `long` halves)
+/// to a non-zero `long`, stored outside the Java heap.
+///
+/// The map is the cold tier of a [UuidLongMap]: it holds the balances of accounts which
+/// have not been used recently, so they neither take up heap space nor have to be traced
+/// by the garbage collector. Every slot occupies 24 bytes of a direct [ByteBuffer]: the
+/// most significant bits, the least significant bits and the value, where a value of `0`
+/// marks an empty slot. Absent keys have a value of `0` anyway, so they are never stored.
+///
+/// The map is split into independent segments, each guarded by its own monitor. Removing
+/// a key shifts the following entries of its probe sequence back, so no tombstones are
+/// left behind. Growing a segment copies it into a buffer of twice the size; the memory
+/// of the previous buffer is released once it has been garbage collected.
+public final class OffHeapLongMap {
+  private static final int SLOT_SIZE = 3 * Long.BYTES;
+  private static final int MSB = 0;
+  private static final int LSB = Long.BYTES;
+  private static final int VALUE = 2 * Long.BYTES;
+  private static final int SEGMENT_SHIFT = 4;
+  private static final int SEGMENTS = 1 << SEGMENT_SHIFT;
+  private static final int MIN_CAPACITY = 64;
+  /// The largest power of two amount of slots fitting into a single buffer.
+  private static final int MAX_CAPACITY = 1 << 26;
+
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  /// Creates a map which can hold the provided amount of keys without having to grow.
+  ///
+  /// @param expectedSize expected amount of keys
+  public OffHeapLongMap(final long expectedSize) {
+    // Segments grow once they are three quarters full
+    final long perSegment = expectedSize / SEGMENTS * 4 / 3 + 1;
+    final int capacity = ceilPowerOfTwo(Math.clamp(perSegment, MIN_CAPACITY, MAX_CAPACITY));
+    for (int i = 0; i < SEGMENTS; i++) {
+      this.segments[i] = new Segment(capacity);
+    }
+  }
+
+  private Segment segment(final long hash) {
+    return this.segments[(int) (hash >>> (64 - SEGMENT_SHIFT))];
+  }
+
+  /// Retrieves the value stored for a key.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @return the stored value, or `0` if absent
+  public long get(final long msb, final long lsb) {
+    final long hash = UuidLongMap.hash(msb, lsb);
+    final Segment segment = this.segment(hash);
+    synchronized (segment) {
+      final int slot = segment.find(hash, msb, lsb);
+      return slot < 0 ? 0 : segment.buffer.getLong(slot + VALUE);
+    }
+  }
+
+  /// Checks whether a key is stored in this map.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @return whether the key is present
+  public boolean contains(final long msb, final long lsb) {
+    final long hash = UuidLongMap.hash(msb, lsb);
+    final Segment segment = this.segment(hash);
+    synchronized (segment) {
+      return segment.find(hash, msb, lsb) >= 0;
+    }
+  }
+
+  /// Stores the value of a key. Storing a value of `0` removes the key.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param value new value
+  public void put(final long msb, final long lsb, final long value) {
+    final long hash = UuidLongMap.hash(msb, lsb);
+    final Segment segment = this.segment(hash);
+    synchronized (segment) {
+      if (value == 0) {
+        segment.remove(hash, msb, lsb);
+      } else {
+        segment.put(hash, msb, lsb, value);
+      }
+    }
+  }
+
+  /// Removes a key.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @return the removed value, or `0` if absent
+  public long remove(final long msb, final long lsb) {
+    final long hash = UuidLongMap.hash(msb, lsb);
+    final Segment segment = this.segment(hash);
+    synchronized (segment) {
+      return segment.remove(hash, msb, lsb);
+    }
+  }
+
+  /// The amount of keys stored in this map.
+  ///
+  /// @return amount of keys
+  public int size() {
+    int size = 0;
+    for (final Segment segment : this.segments) {
+      synchronized (segment) {
+        size += segment.size;
+      }
+    }
+    return size;
+  }
+
+  /// The amount of off-heap memory currently allocated by this map.
+  ///
+  /// @return allocated bytes
+  public long allocatedBytes() {
+    long bytes = 0;
+    for (final Segment segment : this.segments) {
+      synchronized (segment) {
+        bytes += segment.buffer.capacity();
+      }
+    }
+    return bytes;
+  }
+
+  /// Iterates over all entries of this map. Every segment is copied onto the heap under
+  /// its lock and passed to the consumer afterward, so the consumer may access this map
+  /// and concurrent changes to a segment already copied are not observed.
+  ///
+  /// @param consumer consumer receiving every entry
+  public void forEach(final BalanceMap.EntryConsumer consumer) {
+    for (final Segment segment : this.segments) {
+      final long[] entries;
+      synchronized (segment) {
+        final ByteBuffer buffer = segment.buffer;
+        entries = new long[segment.size * 3];
+        int entry = 0;
+        for (int slot = 0; slot < buffer.capacity(); slot += SLOT_SIZE) {
+          final long value = buffer.getLong(slot + VALUE);
+          if (value != 0) {
+            entries[entry++] = buffer.getLong(slot + MSB);
+            entries[entry++] = buffer.getLong(slot + LSB);
+            entries[entry++] = value;
+          }
+        }
+      }
+      for (int entry = 0; entry < entries.length; entry += 3) {
+        consumer.accept(entries[entry], entries[entry + 1], entries[entry + 2]);
+      }
+    }
+  }
+
+  private static int ceilPowerOfTwo(final long value) {
+    return value <= 1 ? 1 : Integer.highestOneBit((int) value - 1) << 1;
+  }
+
+  private static final class Segment {
+    // Guarded by this
+    private ByteBuffer buffer;
+    private int mask;
+    private int size;
+
+    private Segment(final int capacity) {
+      this.buffer = allocate(capacity);
+      this.mask = capacity - 1;
+    }
+
+    private static ByteBuffer allocate(final int capacity) {
+      return ByteBuffer.allocateDirect(capacity * SLOT_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    /// Locates the slot of a key.
+    ///
+    /// @return the byte offset of the slot, or `-1` if absent
+    private int find(final long hash, final long msb, final long lsb) {
+      int index = (int) hash & this.mask;
+      while (true) {
+        final int slot = index * SLOT_SIZE;
+        if (this.buffer.getLong(slot + VALUE) == 0) {
+          return -1;
+        } else if (this.buffer.getLong(slot + MSB) == msb && this.buffer.getLong(slot + LSB) == lsb) {
+          return slot;
+        }
+        index = (index + 1) & this.mask;
+      }
+    }
+
+    private void put(final long hash, final long msb, final long lsb, final long value) {
+      final int existing = this.find(hash, msb, lsb);
+      if (existing >= 0) {
+        this.buffer.putLong(existing + VALUE, value);
+        return;
+      }
+      if ((this.size + 1) * 4L > (this.mask + 1) * 3L) {
+        this.grow();
+      }
+      place(this.buffer, this.mask, hash, msb, lsb, value);
+      this.size++;
+    }
+
+    private long remove(final long hash, final long msb, final long lsb) {
+      int slot = this.find(hash, msb, lsb);
+      if (slot < 0) {
+        return 0;
+      }
+      final long value = this.buffer.getLong(slot + VALUE);
+      // Shift every following entry whose home slot does not lie between the gap and itself into the gap
+      int gap = slot / SLOT_SIZE;
+      int index = gap;
+      while (true) {
+        index = (index + 1) & this.mask;
+        slot = index * SLOT_SIZE;
+        if (this.buffer.getLong(slot + VALUE) == 0) {
+          break;
+        }
+        final long entryMsb = this.buffer.getLong(slot + MSB);
+        final long entryLsb = this.buffer.getLong(slot + LSB);
+        final int home = (int) UuidLongMap.hash(entryMsb, entryLsb) & this.mask;
+        if (((index - home) & this.mask) >= ((index - gap) & this.mask)) {
+          final int target = gap * SLOT_SIZE;
+          this.buffer.putLong(target + MSB, entryMsb);
+          this.buffer.putLong(target + LSB, entryLsb);
+          this.buffer.putLong(target + VALUE, this.buffer.getLong(slot + VALUE));
+          gap = index;
+        }
+      }
+      this.buffer.putLong(gap * SLOT_SIZE + VALUE, 0);
+      this.size--;
+      return value;
+    }
+
+    private void grow() {
+      final int capacity = this.mask + 1;
+      if (capacity == MAX_CAPACITY) {
+        throw new IllegalStateException("Off-heap segment is full");
+      }
+      final ByteBuffer grown = allocate(capacity * 2);
+      final int mask = capacity * 2 - 1;
+      for (int slot = 0; slot < this.buffer.capacity(); slot += SLOT_SIZE) {
+        final long value = this.buffer.getLong(slot + VALUE);
+        if (value != 0) {
+          final long msb = this.buffer.getLong(slot + MSB);
+          final long lsb = this.buffer.getLong(slot + LSB);
+          place(grown, mask, UuidLongMap.hash(msb, lsb), msb, lsb, value);
+        }
+      }
+      this.buffer = grown;
+      this.mask = mask;
+    }
+
+    private static void place(final ByteBuffer buffer, final int mask, final long hash, final long msb, final long lsb, final long value) {
+      int index = (int) hash & mask;
+      while (buffer.getLong(index * SLOT_SIZE + VALUE) != 0) {
+        index = (index + 1) & mask;
+      }
+      final int slot = index * SLOT_SIZE;
+      buffer.putLong(slot + MSB, msb);
+      buffer.putLong(slot + LSB, lsb);
+      buffer.putLong(slot + VALUE, value);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.api.currencies.FixedPointCurrencyAdapter;
+import dev.lunaplugins.economy.api.currencies.IntCurrencyAdapter;
+import dev.lunaplugins.economy.api.currencies.LongCurrencyAdapter;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Function;
+
+/// The precisions a stored currency can have.
+public enum StoragePrecision {
+  INT(Integer.MIN_VALUE, Integer.MAX_VALUE) {
+    @Override
+    public LunaCurrency create(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances, final int scale, final boolean ranked) {
+      return new IntCurrencyAdapter(new MemoryIntCurrency(key, nameResolver, balances, ranked));
+    }
+  },
+  LONG(Long.MIN_VALUE, Long.MAX_VALUE) {
+    @Override
+    public LunaCurrency create(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances, final int scale, final boolean ranked) {
+      return new LongCurrencyAdapter(new MemoryLongCurrency(key, nameResolver, balances, ranked));
+    }
+  },
+  FIXED_POINT(Long.MIN_VALUE, Long.MAX_VALUE) {
+    @Override
+    public LunaCurrency create(final Key key, final Function<String, @Nullable UUID> nameResolver, final BalanceMap balances, final int scale, final boolean ranked) {
+      return new FixedPointCurrencyAdapter(new MemoryFixedPointCurrency(key, nameResolver, balances, scale, ranked));
+    }
+  };
+
+  private final long minValue;
+  private final long maxValue;
+
+  StoragePrecision(final long minValue, final long maxValue) {
+    this.minValue = minValue;
+    this.maxValue = maxValue;
+  }
+
+  /// The lowest raw value a balance of this precision can have.
+  ///
+  /// @return lower bound of balances
+  public long minValue() {
+    return this.minValue;
+  }
+
+  /// The highest raw value a balance of this precision can have.
+  ///
+  /// @return upper bound of balances
+  public long maxValue() {
+    return this.maxValue;
+  }
+
+  /// The amount of fractional digits of the raw values of this precision. Balances
+  /// stored with one scale must not be loaded with another, since every value would
+  /// silently be scaled by a power of ten.
+  ///
+  /// @param scale configured amount of fractional digits
+  /// @return `scale` for [#FIXED_POINT], `0` otherwise
+  public int unitScale(final int scale) {
+    return this == FIXED_POINT ? scale : 0;
+  }
+
+  /// Creates a currency of this precision backed by a map.
+  ///
+  /// The backend is wrapped in the generated adapter of its precision interface, so the
+  /// default methods it does not override are flattened into a single final class.
+  ///
+  /// @param key key of the currency
+  /// @param nameResolver resolver used for [LunaCurrency#uuidForName(String)]
+  /// @param balances map holding the balances
+  /// @param scale amount of fractional digits, only used by [#FIXED_POINT]
+  /// @param ranked whether to maintain a [ranking][LunaCurrency#ranking()] of all balances
+  /// @return the created currency
+  public abstract LunaCurrency create(Key key, Function<String, @Nullable UUID> nameResolver, BalanceMap balances, int scale, boolean ranked);
+
+  /// Parses a precision from its case-insensitive name, where dashes may be used
+  /// instead of underscores.
+  ///
+  /// @param name name of the precision
+  /// @return the parsed precision
+  /// @throws IllegalArgumentException if there is no precision with this name
+  public static StoragePrecision parse(final String name) {
+    return valueOf(name.toUpperCase(Locale.ROOT).replace('-', '_'));
+  }
+}
@@ -0,0 +1,1005 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.BalanceSnapshot;
+import dev.lunaplugins.economy.api.WriteBatch;
+import dev.lunaplugins.economy.api.currencies.ConversionUtils;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongUnaryOperator;
+
+/// A concurrent, open-addressing hash map from a [java.util.UUID] (given as its
+/// two `long` halves) to a primitive `long`.
+///
+/// The map is split into independent stripes, each backed by a single flat `long[]`
+/// where every slot occupies four consecutive words: the mixed hash (which doubles as the
+/// occupancy marker), the most significant bits, the least significant bits and the value.
+/// No boxed keys, values or entry objects are ever allocated.
+///
+/// Reads are lock-free: they use the optimistic mode of the stripe's [StampedLock] and
+/// only fall back to a read lock if a structural change (insertion, resize) happened
+/// concurrently. Value updates of existing keys are done with a compare-and-set on the
+/// value word while holding the stripe's shared lock, so any number of threads can
+/// update the same stripe at once. Only inserting a new key and operations spanning
+/// multiple keys take the exclusive lock.
+///
+/// Absent keys are treated as having the value `0`. Every change of a value is
+/// reported to the registered [BalanceListener]s after the change has been made.
+///
+/// A [tiered][#tiered(long)] map additionally has a cold tier: keys can be
+/// [demoted][#demote(long, long)] into an [OffHeapLongMap], which removes them from the
+/// heap. Reading a cold key does not move it, while writing to it transparently promotes
+/// it back into its stripe. Both moves happen while holding the stripe's exclusive lock,
+/// so they are invisible to concurrent readers and writers.
+///
+/// [Snapshots][#snapshot()] are copy-on-write per stripe: taking one only locks every
+/// stripe exclusively once to advance the map's epoch. Afterwards, the first change of
+/// each stripe copies its table for all open snapshots which have not got a copy yet,
+/// so stripes which are not changed while a snapshot is open are never copied. While a
+/// snapshot is open, no keys are demoted, and keys promoted from the cold tier stay
+/// there until the last snapshot has been closed, so the cold tier never changes.
+public final class UuidLongMap implements BalanceMap {
+  private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  private static final int STRIDE = 4;
+  private static final int HASH = 0;
+  private static final int MSB = 1;
+  private static final int LSB = 2;
+  private static final int VALUE = 3;
+
+  private static final int DEFAULT_CAPACITY = 64;
+  /// The maximum amount of slots [#demoteIf(KeyPredicate)] visits per lock acquisition.
+  private static final int DEMOTE_BATCH = 256;
+
+  private final Stripe[] stripes;
+  private final int stripeShift;
+  private final @Nullable OffHeapLongMap cold;
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder saturations = new LongAdder();
+  private volatile BalanceListener[] listeners = new BalanceListener[0];
+  /// Advanced for every snapshot, while holding the exclusive lock of every stripe.
+  private volatile long epoch;
+  private volatile Snapshot[] snapshots = new Snapshot[0];
+  /// Keys promoted from the cold tier while a snapshot was open, mapped to the epoch of
+  /// their promotion. They are only removed from the cold tier after the last snapshot.
+  private volatile @Nullable UuidLongMap promotions;
+
+  /// Creates a new map sized for the amount of available processors.
+  public UuidLongMap() {
+    this(Runtime.getRuntime().availableProcessors() * 4, DEFAULT_CAPACITY);
+  }
+
+  /// Creates a new map.
+  ///
+  /// @param concurrency expected amount of concurrently writing threads, rounded up to a power of two
+  /// @param initialCapacity initial capacity of each stripe, rounded up to a power of two
+  public UuidLongMap(final int concurrency, final int initialCapacity) {
+    this(concurrency, initialCapacity, null);
+  }
+
+  /// Creates a new map.
+  ///
+  /// @param concurrency expected amount of concurrently writing threads, rounded up to a power of two
+  /// @param initialCapacity initial capacity of each stripe, rounded up to a power of two
+  /// @param cold cold tier to demote keys into, or `null` to keep all keys on the heap
+  public UuidLongMap(final int concurrency, final int initialCapacity, final @Nullable OffHeapLongMap cold) {
+    this.cold = cold;
+    this.promotions = cold == null ? null : new UuidLongMap(1, DEFAULT_CAPACITY);
+    final int stripeCount = ceilPowerOfTwo(Math.clamp(concurrency, 1, 1 << 16));
+    final int capacity = ceilPowerOfTwo(Math.max(initialCapacity, 4));
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      this.stripes[i] = new Stripe(i, capacity);
+    }
+    this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+  }
+
+  /// Creates a new map sized for the amount of available processors, which can hold
+  /// the provided amount of keys without having to grow.
+  ///
+  /// @param expectedSize expected amount of keys
+  /// @return the new map
+  public static UuidLongMap withExpectedSize(final long expectedSize) {
+    final int concurrency = Runtime.getRuntime().availableProcessors() * 4;
+    final int stripeCount = ceilPowerOfTwo(Math.clamp(concurrency, 1, 1 << 16));
+    // Keys are not spread perfectly evenly, so leave some headroom on top of the load factor
+    final long perStripe = expectedSize / stripeCount * 5 / 2 + 1;
+    return new UuidLongMap(stripeCount, Math.clamp(perStripe, DEFAULT_CAPACITY, 1 << 28));
+  }
+
+  /// Creates a new map sized for the amount of available processors, with a cold tier
+  /// which can hold the provided amount of keys without having to grow.
+  ///
+  /// @param expectedSize expected amount of keys
+  /// @return the new map
+  public static UuidLongMap tiered(final long expectedSize) {
+    return new UuidLongMap(Runtime.getRuntime().availableProcessors() * 4, DEFAULT_CAPACITY, new OffHeapLongMap(expectedSize));
+  }
+
+  /// Registers a listener which gets notified after every change of a value.
+  ///
+  /// @param listener listener to register
+  @Override
+  public synchronized void addListener(final BalanceListener listener) {
+    final BalanceListener[] listeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+    listeners[listeners.length - 1] = listener;
+    this.listeners = listeners;
+  }
+
+  /// Unregisters a previously registered listener.
+  ///
+  /// @param listener listener to unregister
+  @Override
+  public synchronized void removeListener(final BalanceListener listener) {
+    final List<BalanceListener> listeners = new ArrayList<>(Arrays.asList(this.listeners));
+    listeners.remove(listener);
+    this.listeners = listeners.toArray(BalanceListener[]::new);
+  }
+
+  private void notifyListeners(final long msb, final long lsb, final long oldValue, final long newValue) {
+    if (oldValue == newValue) {
+      return;
+    }
+    for (final BalanceListener listener : this.listeners) {
+      listener.balanceChanged(msb, lsb, oldValue, newValue);
+    }
+  }
+
+  private void notifyListeners(final Changes changes) {
+    for (final BalanceListener listener : this.listeners) {
+      listener.balancesChanged(changes.mostSigBits(), changes.leastSigBits(), changes.oldValues(), changes.newValues(), changes.size());
+    }
+  }
+
+  /// Mixes both UUID halves into a non-zero hash.
+  static long hash(final long msb, final long lsb) {
+    long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+    h ^= h >>> 32;
+    h *= 0xD6E8FEB86659FD93L;
+    h ^= h >>> 32;
+    return h == 0 ? 1 : h;
+  }
+
+  private Stripe stripe(final long hash) {
+    return this.stripes[this.stripeIndex(hash)];
+  }
+
+  private int stripeIndex(final long hash) {
+    return this.stripeShift == 64 ? 0 : (int) (hash >>> this.stripeShift);
+  }
+
+  /// Retrieves the value stored for a key.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @return the stored value, or `0` if absent
+  @Override
+  public long get(final long msb, final long lsb) {
+    final long hash = hash(msb, lsb);
+    final Stripe stripe = this.stripe(hash);
+    final long stamp = stripe.lock.tryOptimisticRead();
+    if (stamp != 0) {
+      final long[] table = stripe.table;
+      final int slot = find(table, hash, msb, lsb);
+      final long value = slot < 0 ? 0 : (long) WORDS.getVolatile(table, slot + VALUE);
+      if (stripe.lock.validate(stamp) && (slot >= 0 || this.cold == null)) {
+        return value;
+      }
+    }
+    // Holding the lock keeps the key from being promoted while the cold tier is read
+    final long readStamp = stripe.lock.readLock();
+    try {
+      final long[] table = stripe.table;
+      final int slot = find(table, hash, msb, lsb);
+      if (slot >= 0) {
+        return (long) WORDS.getVolatile(table, slot + VALUE);
+      }
+      return this.cold == null ? 0 : this.cold.get(msb, lsb);
+    } finally {
+      stripe.lock.unlockRead(readStamp);
+    }
+  }
+
+  /// Checks whether a key has ever been written to this map.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @return whether the key is present
+  @Override
+  public boolean contains(final long msb, final long lsb) {
+    final long hash = hash(msb, lsb);
+    final Stripe stripe = this.stripe(hash);
+    final long stamp = stripe.lock.readLock();
+    try {
+      return find(stripe.table, hash, msb, lsb) >= 0 || this.cold != null && this.cold.contains(msb, lsb);
+    } finally {
+      stripe.lock.unlockRead(stamp);
+    }
+  }
+
+  /// Atomically replaces the value of a key.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param value new value
+  /// @return the previous value
+  @Override
+  public long getAndSet(final long msb, final long lsb, final long value) {
+    final long hash = hash(msb, lsb);
+    final Stripe stripe = this.stripe(hash);
+    long prev;
+    while (true) {
+      final long stamp = stripe.lock.readLock();
+      try {
+        final long[] table = stripe.table;
+        final int slot = find(table, hash, msb, lsb);
+        if (slot >= 0 && stripe.isCurrent()) {
+          prev = (long) WORDS.getAndSet(table, slot + VALUE, value);
+          break;
+        }
+      } finally {
+        stripe.lock.unlockRead(stamp);
+      }
+      stripe.insert(hash, msb, lsb);
+    }
+    this.notifyListeners(msb, lsb, prev, value);
+    return prev;
+  }
+
+  /// Atomically sets the value of a key if it currently equals the expected value.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param expected expected current value
+  /// @param value new value
+  /// @return whether the value was replaced
+  @Override
+  public boolean compareAndSet(final long msb, final long lsb, final long expected, final long value) {
+    final long hash = hash(msb, lsb);
+    final Stripe stripe = this.stripe(hash);
+    boolean success;
+    while (true) {
+      final long stamp = stripe.lock.readLock();
+      try {
+        final long[] table = stripe.table;
+        final int slot = find(table, hash, msb, lsb);
+        if (slot >= 0 && stripe.isCurrent()) {
+          success = WORDS.compareAndSet(table, slot + VALUE, expected, value);
+          break;
+        } else if (slot < 0 && expected != 0 && (this.cold == null || this.cold.get(msb, lsb) != expected)) {
+          return false;
+        }
+      } finally {
+        stripe.lock.unlockRead(stamp);
+      }
+      stripe.insert(hash, msb, lsb);
+    }
+    if (success) {
+      this.notifyListeners(msb, lsb, expected, value);
+    }
+    return success;
+  }
+
+  /// Atomically adds a delta to the value of a key. The result saturates at
+  /// the provided bounds instead of overflowing.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param delta value to add (or subtract if negative)
+  /// @param min lower bound of the result
+  /// @param max upper bound of the result
+  /// @return the previous value
+  @Override
+  public long getAndAdd(final long msb, final long lsb, final long delta, final long min, final long max) {
+    final long hash = hash(msb, lsb);
+    final Stripe stripe = this.stripe(hash);
+    long prev;
+    long next;
+    while (true) {
+      final long stamp = stripe.lock.readLock();
+      try {
+        final long[] table = stripe.table;
+        final int slot = find(table, hash, msb, lsb);
+        if (slot >= 0 && stripe.isCurrent()) {
+          while (true) {
+            prev = (long) WORDS.getVolatile(table, slot + VALUE);
+            next = saturatedAdd(prev, delta, min, max);
+            if (WORDS.compareAndSet(table, slot + VALUE, prev, next)) {
+              break;
+            }
+            this.retries.increment();
+          }
+          if (isSaturated(prev, delta, next)) {
+            this.saturations.increment();
+          }
+          break;
+        }
+      } finally {
+        stripe.lock.unlockRead(stamp);
+      }
+      stripe.insert(hash, msb, lsb);
+    }
+    this.notifyListeners(msb, lsb, prev, next);
+    return prev;
+  }
+
+  /// Atomically updates the value of a key using the provided function. The function
+  /// may be called multiple times under contention and should therefore be side effect free.
+  /// Its result is clamped to the provided bounds.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @param operator function computing the new value from the current one
+  /// @param min lower bound of the result
+  /// @param max upper bound of the result
+  /// @return the previous value
+  @Override
+  public long getAndUpdate(final long msb, final long lsb, final LongUnaryOperator operator, final long min, final long max) {
+    final long hash = hash(msb, lsb);
+    final Stripe stripe = this.stripe(hash);
+    long prev;
+    long unclamped;
+    long next;
+    while (true) {
+      final long stamp = stripe.lock.readLock();
+      try {
+        final long[] table = stripe.table;
+        final int slot = find(table, hash, msb, lsb);
+        if (slot >= 0 && stripe.isCurrent()) {
+          while (true) {
+            prev = (long) WORDS.getVolatile(table, slot + VALUE);
+            unclamped = operator.applyAsLong(prev);
+            next = Math.clamp(unclamped, min, max);
+            if (WORDS.compareAndSet(table, slot + VALUE, prev, next)) {
+              break;
+            }
+            this.retries.increment();
+          }
+          if (next != unclamped) {
+            this.saturations.increment();
+          }
+          break;
+        }
+      } finally {
+        stripe.lock.unlockRead(stamp);
+      }
+      stripe.insert(hash, msb, lsb);
+    }
+    this.notifyListeners(msb, lsb, prev, next);
+    return prev;
+  }
+
+  /// Atomically moves an amount from one key to another. The transfer fails without
+  /// any modification if the value of the source key is lower than the amount, or if
+  /// the value of the target key would exceed the upper bound, so no amount is lost.
+  ///
+  /// Both stripes are locked exclusively in ascending order, so concurrent
+  /// transfers and batches can never deadlock.
+  ///
+  /// @param fromMsb most significant bits of the source key
+  /// @param fromLsb least significant bits of the source key
+  /// @param toMsb most significant bits of the target key
+  /// @param toLsb least significant bits of the target key
+  /// @param amount non-negative amount to move
+  /// @param min lower bound of the result
+  /// @param max upper bound of the result
+  /// @return whether the amount has been moved
+  @Override
+  public boolean transfer(final long fromMsb, final long fromLsb, final long toMsb, final long toLsb,
+                          final long amount, final long min, final long max) {
+    final long fromHash = hash(fromMsb, fromLsb);
+    final long toHash = hash(toMsb, toLsb);
+    final int fromIndex = this.stripeIndex(fromHash);
+    final int toIndex = this.stripeIndex(toHash);
+    final Stripe first = this.stripes[Math.min(fromIndex, toIndex)];
+    final Stripe second = this.stripes[Math.max(fromIndex, toIndex)];
+    final Changes changes;
+    final long firstStamp = first.lock.writeLock();
+    final long secondStamp = first == second ? 0 : second.lock.writeLock();
+    try {
+      final Stripe from = this.stripes[fromIndex];
+      final Stripe to = this.stripes[toIndex];
+      final long fromValue = from.getLocked(fromHash, fromMsb, fromLsb);
+      if (fromValue < amount) {
+        return false;
+      }
+      final boolean self = fromMsb == toMsb && fromLsb == toLsb;
+      final long toValue = self ? fromValue - amount : to.getLocked(toHash, toMsb, toLsb);
+      if (toValue > max - amount) {
+        return false;
+      }
+      final long toResult = toValue + amount;
+      from.setLocked(fromHash, fromMsb, fromLsb, fromValue - amount);
+      to.setLocked(toHash, toMsb, toLsb, toResult);
+      changes = this.listeners.length == 0 ? null : new Changes(
+        new long[]{fromMsb, toMsb}, new long[]{fromLsb, toLsb},
+        new long[]{fromValue, toValue}, new long[]{fromValue - amount, toResult}, 2
+      );
+    } finally {
+      if (first != second) {
+        second.lock.unlockWrite(secondStamp);
+      }
+      first.lock.unlockWrite(firstStamp);
+    }
+    if (changes != null) {
+      this.notifyListeners(changes);
+    }
+    return true;
+  }
+
+  /// Atomically applies all operations of a batch, multiplying every value of the
+  /// batch with a factor first. Results saturate at the provided bounds instead of overflowing.
+  ///
+  /// All affected stripes are locked exclusively in ascending order, so concurrent
+  /// transfers and batches can never deadlock.
+  ///
+  /// @param batch batch to apply
+  /// @param factor factor to multiply the values of the batch with
+  /// @param min lower bound of the results
+  /// @param max upper bound of the results
+  @Override
+  public void apply(final WriteBatch batch, final long factor, final long min, final long max) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    final long[] affected = new long[(this.stripes.length + 63) >>> 6];
+    for (int i = 0; i < batch.size(); i++) {
+      final int index = this.stripeIndex(hash(batch.mostSignificantBits(i), batch.leastSignificantBits(i)));
+      affected[index >>> 6] |= 1L << index;
+    }
+    final int size = batch.size();
+    final Changes changes = this.listeners.length == 0 ? null : new Changes(
+      new long[size], new long[size], new long[size], new long[size], size
+    );
+    final long[] stamps = this.lockAll(affected);
+    try {
+      for (int i = 0; i < size; i++) {
+        final long msb = batch.mostSignificantBits(i);
+        final long lsb = batch.leastSignificantBits(i);
+        final long hash = hash(msb, lsb);
+        final Stripe stripe = this.stripe(hash);
+        final long prev = stripe.getLocked(hash, msb, lsb);
+        final long operand = ConversionUtils.saturatedMultiply(batch.value(i), factor);
+        final long value = batch.isSet(i)
+          ? Math.clamp(operand, min, max)
+          : saturatedAdd(prev, operand, min, max);
+        if (isSaturated(batch, i, factor, prev, value)) {
+          this.saturations.increment();
+        }
+        stripe.setLocked(hash, msb, lsb, value);
+        if (changes != null) {
+          changes.mostSigBits()[i] = msb;
+          changes.leastSigBits()[i] = lsb;
+          changes.oldValues()[i] = prev;
+          changes.newValues()[i] = value;
+        }
+      }
+    } finally {
+      this.unlockAll(affected, stamps);
+    }
+    if (changes != null) {
+      this.notifyListeners(changes);
+    }
+  }
+
+  private long[] lockAll(final long[] affected) {
+    int count = 0;
+    for (final long word : affected) {
+      count += Long.bitCount(word);
+    }
+    final long[] stamps = new long[count];
+    int lock = 0;
+    for (int word = 0; word < affected.length; word++) {
+      for (long bits = affected[word]; bits != 0; bits &= bits - 1) {
+        stamps[lock++] = this.stripes[(word << 6) + Long.numberOfTrailingZeros(bits)].lock.writeLock();
+      }
+    }
+    return stamps;
+  }
+
+  private void unlockAll(final long[] affected, final long[] stamps) {
+    int lock = 0;
+    for (int word = 0; word < affected.length; word++) {
+      for (long bits = affected[word]; bits != 0; bits &= bits - 1) {
+        this.stripes[(word << 6) + Long.numberOfTrailingZeros(bits)].lock.unlockWrite(stamps[lock++]);
+      }
+    }
+  }
+
+  /// The amount of compare-and-set loops which had to be retried because another
+  /// thread changed the same value concurrently.
+  ///
+  /// @return amount of retries since this map was created
+  @Override
+  public long retries() {
+    return this.retries.sum();
+  }
+
+  /// The amount of updates whose result had to be clamped to the provided bounds
+  /// instead of overflowing them.
+  ///
+  /// @return amount of clamped updates since this map was created
+  @Override
+  public long saturations() {
+    return this.saturations.sum();
+  }
+
+  /// The amount of keys stored in this map.
+  ///
+  /// @return amount of keys
+  @Override
+  public int size() {
+    int size = this.coldSize();
+    for (final Stripe stripe : this.stripes) {
+      size += stripe.size;
+    }
+    return size;
+  }
+
+  /// Iterates over all entries of this map. The iteration is weakly consistent
+  /// per stripe: concurrent value updates may or may not be observed. Keys moved
+  /// between the tiers during the iteration may be observed twice or not at all.
+  ///
+  /// @param consumer consumer receiving every entry
+  @Override
+  public void forEach(final EntryConsumer consumer) {
+    for (final Stripe stripe : this.stripes) {
+      final long stamp = stripe.lock.readLock();
+      try {
+        final long[] table = stripe.table;
+        for (int slot = 0; slot < table.length; slot += STRIDE) {
+          if (table[slot + HASH] != 0) {
+            consumer.accept(table[slot + MSB], table[slot + LSB], (long) WORDS.getVolatile(table, slot + VALUE));
+          }
+        }
+      } finally {
+        stripe.lock.unlockRead(stamp);
+      }
+    }
+    final UuidLongMap promotions = this.promotions;
+    if (this.cold != null && promotions != null) {
+      // Promoted keys still left in the cold tier have already been visited
+      this.cold.forEach((msb, lsb, value) -> {
+        if (promotions.size() == 0 || promotions.get(msb, lsb) == 0) {
+          consumer.accept(msb, lsb, value);
+        }
+      });
+    }
+  }
+
+  /// Takes a consistent snapshot of all non-zero values. Every stripe is locked
+  /// exclusively at the same time, but only for as long as it takes to advance the epoch.
+  ///
+  /// @return the snapshot, which has to be closed after use
+  @Override
+  public synchronized BalanceSnapshot snapshot() {
+    final long[] stamps = this.lockAll(this.allStripes());
+    try {
+      final Snapshot snapshot = new Snapshot(this.epoch + 1);
+      final Snapshot[] snapshots = Arrays.copyOf(this.snapshots, this.snapshots.length + 1);
+      snapshots[snapshots.length - 1] = snapshot;
+      this.snapshots = snapshots;
+      this.epoch = snapshot.epoch;
+      return snapshot;
+    } finally {
+      this.unlockAll(this.allStripes(), stamps);
+    }
+  }
+
+  private synchronized void close(final Snapshot snapshot) {
+    if (snapshot.closed) {
+      return;
+    }
+    final long[] stamps = this.lockAll(this.allStripes());
+    try {
+      snapshot.closed = true;
+      final List<Snapshot> snapshots = new ArrayList<>(Arrays.asList(this.snapshots));
+      snapshots.remove(snapshot);
+      this.snapshots = snapshots.toArray(Snapshot[]::new);
+      Arrays.fill(snapshot.tables, null);
+      final UuidLongMap promotions = this.promotions;
+      if (snapshots.isEmpty() && this.cold != null && promotions != null && promotions.size() != 0) {
+        final OffHeapLongMap cold = this.cold;
+        promotions.forEach((msb, lsb, epoch) -> cold.remove(msb, lsb));
+        this.promotions = new UuidLongMap(1, DEFAULT_CAPACITY);
+      }
+    } finally {
+      this.unlockAll(this.allStripes(), stamps);
+    }
+  }
+
+  private long[] allStripes() {
+    final long[] affected = new long[(this.stripes.length + 63) >>> 6];
+    Arrays.fill(affected, -1L);
+    if ((this.stripes.length & 63) != 0) {
+      affected[affected.length - 1] = (1L << this.stripes.length) - 1;
+    }
+    return affected;
+  }
+
+  /// Takes a value out of the cold tier while promoting its key. The caller has to hold
+  /// the exclusive lock of the key's stripe.
+  private long takeCold(final long msb, final long lsb) {
+    final OffHeapLongMap cold = this.cold;
+    final UuidLongMap promotions = this.promotions;
+    if (cold == null || promotions == null) {
+      return 0;
+    } else if (this.snapshots.length == 0) {
+      return cold.remove(msb, lsb);
+    }
+    // Open snapshots still read the value from the cold tier
+    final long value = cold.get(msb, lsb);
+    if (value != 0) {
+      promotions.getAndSet(msb, lsb, this.epoch);
+    }
+    return value;
+  }
+
+  /// Moves a key into the cold tier, removing it from the heap. Keys with a value of
+  /// `0` are simply removed, since absent keys have that value anyway. Nothing is moved
+  /// while a snapshot is open.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  /// @return whether the key has been moved
+  @Override
+  public boolean demote(final long msb, final long lsb) {
+    if (this.cold == null) {
+      return false;
+    }
+    final long hash = hash(msb, lsb);
+    final Stripe stripe = this.stripe(hash);
+    final long stamp = stripe.lock.writeLock();
+    try {
+      final int slot = find(stripe.table, hash, msb, lsb);
+      if (slot < 0 || this.snapshots.length != 0) {
+        return false;
+      }
+      stripe.demoteLocked(slot);
+      return true;
+    } finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+  }
+
+  /// Moves all keys matching a predicate into the cold tier. Stripes are locked
+  /// exclusively for at most [#DEMOTE_BATCH] keys at a time, so writers only wait for a
+  /// short scan. Keys moved by a concurrent resize of their stripe may be missed until
+  /// the next call. The predicate should be cheap and must not access this map.
+  ///
+  /// @param predicate predicate selecting the keys to move
+  /// @return amount of moved keys
+  @Override
+  public int demoteIf(final KeyPredicate predicate) {
+    if (this.cold == null) {
+      return 0;
+    }
+    int demoted = 0;
+    for (final Stripe stripe : this.stripes) {
+      int slot = 0;
+      boolean remaining = true;
+      while (remaining) {
+        final long stamp = stripe.lock.writeLock();
+        try {
+          if (this.snapshots.length != 0) {
+            return demoted;
+          }
+          // Removing a key shifts later keys back, so the slots are revisited until nothing moves anymore
+          int visited = 0;
+          while (slot < stripe.table.length && visited < DEMOTE_BATCH) {
+            final long[] table = stripe.table;
+            if (table[slot + HASH] != 0 && predicate.test(table[slot + MSB], table[slot + LSB])) {
+              stripe.demoteLocked(slot);
+              demoted++;
+            } else {
+              slot += STRIDE;
+            }
+            visited++;
+          }
+          remaining = slot < stripe.table.length;
+        } finally {
+          stripe.lock.unlockWrite(stamp);
+        }
+      }
+    }
+    return demoted;
+  }
+
+  /// Moves a key from the cold tier back onto the heap, so the next access does not
+  /// have to wait for it.
+  ///
+  /// @param msb most significant bits of the key
+  /// @param lsb least significant bits of the key
+  @Override
+  public void promote(final long msb, final long lsb) {
+    if (this.cold == null) {
+      return;
+    }
+    final long hash = hash(msb, lsb);
+    final Stripe stripe = this.stripe(hash);
+    final long stamp = stripe.lock.readLock();
+    try {
+      if (find(stripe.table, hash, msb, lsb) >= 0 || !this.cold.contains(msb, lsb)) {
+        return;
+      }
+    } finally {
+      stripe.lock.unlockRead(stamp);
+    }
+    stripe.insert(hash, msb, lsb);
+  }
+
+  /// The amount of keys in the cold tier.
+  ///
+  /// @return amount of cold keys
+  public int coldSize() {
+    final UuidLongMap promotions = this.promotions;
+    return this.cold == null || promotions == null ? 0 : this.cold.size() - promotions.size();
+  }
+
+  /// Locates the slot of a key.
+  ///
+  /// @return the index of the slot's first word, or `-1` if absent
+  private static int find(final long[] table, final long hash, final long msb, final long lsb) {
+    final int mask = table.length / STRIDE - 1;
+    int index = (int) hash & mask;
+    for (int probes = 0; probes <= mask; probes++) {
+      final int slot = index * STRIDE;
+      final long slotHash = (long) WORDS.getAcquire(table, slot + HASH);
+      if (slotHash == 0) {
+        return -1;
+      } else if (slotHash == hash && table[slot + MSB] == msb && table[slot + LSB] == lsb) {
+        return slot;
+      }
+      index = (index + 1) & mask;
+    }
+    return -1;
+  }
+
+  static long saturatedAdd(final long value, final long delta, final long min, final long max) {
+    final long result = value + delta;
+    if (((value ^ result) & (delta ^ result)) < 0) {
+      return delta < 0 ? min : max;
+    }
+    return Math.clamp(result, min, max);
+  }
+
+  /// Whether [#saturatedAdd(long, long, long, long)] had to clamp its result.
+  ///
+  /// @param value value the delta was added to
+  /// @param delta added delta
+  /// @param result result of the saturated addition
+  /// @return `true` if the result differs from the exact sum
+  static boolean isSaturated(final long value, final long delta, final long result) {
+    final long sum = value + delta;
+    return sum != result || ((value ^ sum) & (delta ^ sum)) < 0;
+  }
+
+  /// Whether applying an operation of a batch had to clamp its result, either while
+  /// multiplying its value with the factor of the batch or while adding it.
+  ///
+  /// @param batch applied batch
+  /// @param index index of the operation
+  /// @param factor factor the value of the operation was multiplied with
+  /// @param prev value before applying the operation
+  /// @param result value after applying the operation
+  /// @return `true` if the result differs from the exact one
+  static boolean isSaturated(final WriteBatch batch, final int index, final long factor, final long prev, final long result) {
+    final long value = batch.value(index);
+    final long operand = value * factor;
+    if (Math.multiplyHigh(value, factor) != operand >> 63) {
+      return true;
+    }
+    return batch.isSet(index) ? operand != result : isSaturated(prev, operand, result);
+  }
+
+  private static int ceilPowerOfTwo(final int value) {
+    return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+  }
+
+  private record Changes(long[] mostSigBits, long[] leastSigBits, long[] oldValues, long[] newValues, int size) {
+  }
+
+  private final class Stripe {
+    final StampedLock lock = new StampedLock();
+    final int index;
+    volatile long[] table;
+    volatile int size;
+    // Guarded by lock
+    long epoch;
+
+    Stripe(final int index, final int capacity) {
+      this.index = index;
+      this.table = new long[capacity * STRIDE];
+    }
+
+    /// Whether the table can be changed in place, since every open snapshot either has a
+    /// copy of it or has been taken after its last change. The caller has to hold the lock.
+    boolean isCurrent() {
+      return this.epoch == UuidLongMap.this.epoch;
+    }
+
+    /// Copies the table for all open snapshots taken since its last change. The caller
+    /// has to hold the write lock.
+    void copyLocked() {
+      final long epoch = UuidLongMap.this.epoch;
+      if (this.epoch == epoch) {
+        return;
+      }
+      long @Nullable [] copy = null;
+      for (final Snapshot snapshot : UuidLongMap.this.snapshots) {
+        if (snapshot.epoch > this.epoch) {
+          if (copy == null) {
+            copy = this.table.clone();
+          }
+          snapshot.tables[this.index] = copy;
+        }
+      }
+      this.epoch = epoch;
+    }
+
+    void insert(final long hash, final long msb, final long lsb) {
+      final long stamp = this.lock.writeLock();
+      try {
+        this.slotLocked(hash, msb, lsb);
+      } finally {
+        this.lock.unlockWrite(stamp);
+      }
+    }
+
+    /// Locates the slot of a key, inserting it if absent. The caller has to hold the write lock.
+    int slotLocked(final long hash, final long msb, final long lsb) {
+      this.copyLocked();
+      final int slot = find(this.table, hash, msb, lsb);
+      if (slot >= 0) {
+        return slot;
+      }
+      if ((this.size + 1) * 2 > this.table.length / STRIDE) {
+        this.table = grow(this.table);
+      }
+      this.size++;
+      // Inserting a key promotes it from the cold tier
+      return place(this.table, hash, msb, lsb, UuidLongMap.this.takeCold(msb, lsb));
+    }
+
+    long getLocked(final long hash, final long msb, final long lsb) {
+      final int slot = find(this.table, hash, msb, lsb);
+      if (slot >= 0) {
+        return this.table[slot + VALUE];
+      }
+      return UuidLongMap.this.cold == null ? 0 : UuidLongMap.this.cold.get(msb, lsb);
+    }
+
+    /// Moves the key of a slot into the cold tier. The caller has to hold the write lock.
+    void demoteLocked(final int slot) {
+      final long[] table = this.table;
+      if (UuidLongMap.this.cold != null) {
+        UuidLongMap.this.cold.put(table[slot + MSB], table[slot + LSB], table[slot + VALUE]);
+      }
+      // Shift every following entry whose home slot does not lie between the gap and itself into the gap
+      final int mask = table.length / STRIDE - 1;
+      int gap = slot / STRIDE;
+      int index = gap;
+      while (true) {
+        index = (index + 1) & mask;
+        final int next = index * STRIDE;
+        final long hash = table[next + HASH];
+        if (hash == 0) {
+          break;
+        }
+        if (((index - (int) hash) & mask) >= ((index - gap) & mask)) {
+          final int target = gap * STRIDE;
+          table[target + MSB] = table[next + MSB];
+          table[target + LSB] = table[next + LSB];
+          table[target + VALUE] = table[next + VALUE];
+          WORDS.setRelease(table, target + HASH, hash);
+          gap = index;
+        }
+      }
+      WORDS.setRelease(table, gap * STRIDE + HASH, 0L);
+      this.size--;
+    }
+
+    void setLocked(final long hash, final long msb, final long lsb, final long value) {
+      final int slot = this.slotLocked(hash, msb, lsb);
+      WORDS.setVolatile(this.table, slot + VALUE, value);
+    }
+
+    private static long[] grow(final long[] table) {
+      final long[] grown = new long[table.length * 2];
+      for (int slot = 0; slot < table.length; slot += STRIDE) {
+        final long hash = table[slot + HASH];
+        if (hash != 0) {
+          place(grown, hash, table[slot + MSB], table[slot + LSB], table[slot + VALUE]);
+        }
+      }
+      return grown;
+    }
+
+    private static int place(final long[] table, final long hash, final long msb, final long lsb, final long value) {
+      final int mask = table.length / STRIDE - 1;
+      int index = (int) hash & mask;
+      while (table[index * STRIDE + HASH] != 0) {
+        index = (index + 1) & mask;
+      }
+      final int slot = index * STRIDE;
+      table[slot + MSB] = msb;
+      table[slot + LSB] = lsb;
+      table[slot + VALUE] = value;
+      WORDS.setRelease(table, slot + HASH, hash);
+      return slot;
+    }
+  }
+
+  private final class Snapshot implements BalanceSnapshot {
+    final long epoch;
+    /// Copies of the stripes changed since this snapshot has been taken, guarded by the stripe's lock.
+    final long[] @Nullable [] tables = new long[UuidLongMap.this.stripes.length][];
+    // Written while holding the write lock of every stripe
+    boolean closed;
+
+    Snapshot(final long epoch) {
+      this.epoch = epoch;
+    }
+
+    @Override
+    public long epoch() {
+      return this.epoch;
+    }
+
+    @Override
+    public void forEach(final EntryConsumer consumer) {
+      long[] scratch = new long[0];
+      for (final Stripe stripe : UuidLongMap.this.stripes) {
+        final long[] table;
+        final int length;
+        final long stamp = stripe.lock.readLock();
+        try {
+          if (this.closed) {
+            throw new IllegalStateException("Snapshot has been closed");
+          }
+          final long @Nullable [] copy = this.tables[stripe.index];
+          if (copy != null) {
+            table = copy;
+            length = copy.length;
+          } else {
+            // The stripe has not changed since, but the consumer must not run while holding its lock
+            length = stripe.table.length;
+            if (scratch.length < length) {
+              scratch = new long[length];
+            }
+            System.arraycopy(stripe.table, 0, scratch, 0, length);
+            table = scratch;
+          }
+        } finally {
+          stripe.lock.unlockRead(stamp);
+        }
+        for (int slot = 0; slot < length; slot += STRIDE) {
+          if (table[slot + HASH] != 0 && table[slot + VALUE] != 0) {
+            consumer.accept(table[slot + MSB], table[slot + LSB], table[slot + VALUE]);
+          }
+        }
+      }
+      final UuidLongMap promotions = UuidLongMap.this.promotions;
+      if (UuidLongMap.this.cold != null && promotions != null) {
+        // Keys promoted before this snapshot are contained in their stripe
+        UuidLongMap.this.cold.forEach((msb, lsb, value) -> {
+          final long promoted = promotions.size() == 0 ? 0 : promotions.get(msb, lsb);
+          if (promoted == 0 || promoted >= this.epoch) {
+            consumer.accept(msb, lsb, value);
+          }
+        });
+      }
+    }
+
+    @Override
+    public void close() {
+      UuidLongMap.this.close(this);
+    }
+  }
+}
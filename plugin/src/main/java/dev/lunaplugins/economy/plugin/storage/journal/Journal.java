@@ -0,0 +1,537 @@
+package dev.lunaplugins.economy.plugin.storage.journal;
+
+import dev.lunaplugins.economy.plugin.storage.BalanceListener;
+import dev.lunaplugins.economy.plugin.storage.BalanceMap;
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/// An append-only write-ahead log of balance changes.
+///
+/// Every change is recorded as the difference between the new and the old balance
+/// of a player. Since differences are commutative (using wrapping arithmetic), replaying
+/// them yields the exact final balances no matter in which order concurrent changes
+/// have been recorded.
+///
+/// Changes are collected in an in-memory buffer and written by a dedicated flusher thread
+/// using group commit: everything that has been appended within one commit interval is
+/// written as a single frame followed by a single `fsync`. Appending never waits for the
+/// disk; the buffer grows instead. A frame which could not be written is kept and retried
+/// along with the next one; changes only count as durable once their frame has been written.
+///
+/// The memory used by changes which have not been written yet is limited by
+/// [JournalSettings#maxBacklog()]. A change exceeding it is rejected with an
+/// [IllegalStateException], and so is every later one. Records are differences, so
+/// skipping a single one would corrupt every later replay; rejecting all of them keeps
+/// the journal at the consistent state from before the first rejected change.
+///
+/// The journal is split into segment files, which contain a sequence of frames. Each frame
+/// consists of the payload length, a CRC32C checksum of the payload and the payload itself,
+/// which is a list of records (most significant bits, least significant bits, difference).
+/// All changes of a multi-user operation are always written to the same frame, so they are
+/// either replayed completely or not at all.
+public final class Journal implements BalanceListener, Closeable {
+  static final int RECORD_SIZE = 3 * Long.BYTES;
+  static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+  private static final String SEGMENT_SUFFIX = ".wal";
+
+  private final long commitIntervalNanos;
+  private final int bufferSize;
+  private final int maxBacklog;
+  private final Consumer<IOException> errorHandler;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition flushRequested = this.lock.newCondition();
+  private final Condition flushed = this.lock.newCondition();
+  private final ByteBuffer header = ByteBuffer.allocateDirect(FRAME_HEADER_SIZE);
+  private final CRC32C checksum = new CRC32C();
+  private final Path directory;
+  private final String name;
+  private final Thread flusher;
+  // Only accessed by the flusher thread, or after it has terminated
+  private FileChannel channel;
+  /// Payload of a frame which could not be written, retried along with the next frame.
+  /// Later frames are appended to it as long as its capacity allows.
+  private @Nullable ByteBuffer unwritten;
+
+  // Guarded by lock
+  private ByteBuffer pending;
+  private ByteBuffer spare;
+  private long appended;
+  /// Bytes taken over by the flusher which have not been written yet.
+  private long backlog;
+  private boolean overflowed;
+  private long durable;
+  private long flushes;
+  private @Nullable IOException writeFailure;
+  private boolean syncRequested;
+  private boolean rotationRequested;
+  private @Nullable IOException rotationFailure;
+  private long segment;
+  private boolean closed;
+
+  private Journal(
+    final Path directory,
+    final String name,
+    final long segment,
+    final FileChannel channel,
+    final JournalSettings settings,
+    final Consumer<IOException> errorHandler
+  ) {
+    this.directory = directory;
+    this.name = name;
+    this.segment = segment;
+    this.channel = channel;
+    this.commitIntervalNanos = settings.commitInterval().toNanos();
+    this.bufferSize = settings.bufferSize();
+    this.maxBacklog = settings.maxBacklog();
+    this.errorHandler = errorHandler;
+    this.pending = ByteBuffer.allocateDirect(this.bufferSize);
+    this.spare = ByteBuffer.allocateDirect(this.bufferSize);
+    this.flusher = Thread.ofPlatform().name("LunaEconomy Journal - " + directory).daemon().start(this::run);
+  }
+
+  /// Opens a journal inside a directory, starting a new segment after all existing ones.
+  ///
+  /// Existing segments should be [replayed][#replay(Path,long,BalanceMap.EntryConsumer)] beforehand.
+  ///
+  /// @param directory directory containing the segment files
+  /// @param name name of the journal, such as the key of its currency, used for diagnostics
+  /// @param firstSegment lowest index the new segment may have
+  /// @param settings settings of the journal
+  /// @param errorHandler handler of errors happening while writing to disk
+  /// @return the opened journal
+  /// @throws IOException if the segment could not be created
+  public static Journal open(
+    final Path directory,
+    final String name,
+    final long firstSegment,
+    final JournalSettings settings,
+    final Consumer<IOException> errorHandler
+  ) throws IOException {
+    Files.createDirectories(directory);
+    final List<Path> segments = segments(directory);
+    final long next = Math.max(firstSegment, segments.isEmpty() ? 0 : segmentIndex(segments.getLast()) + 1);
+    return new Journal(directory, name, next, openSegment(directory, next), settings, errorHandler);
+  }
+
+  private static FileChannel openSegment(final Path directory, final long index) throws IOException {
+    return FileChannel.open(directory.resolve(segmentName(index)), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+  }
+
+  /// Replays all segments of a journal starting at the provided segment, in order.
+  ///
+  /// The consumer receives the player's UUID halves and the recorded difference of their
+  /// balance. A torn frame at the end of the last segment, as left behind by a crash,
+  /// is discarded and truncated.
+  ///
+  /// @param directory directory containing the segment files
+  /// @param firstSegment index of the first segment to replay
+  /// @param consumer consumer receiving every recorded difference
+  /// @return amount of replayed records
+  /// @throws IOException if a segment could not be read or is corrupted
+  public static long replay(final Path directory, final long firstSegment, final BalanceMap.EntryConsumer consumer) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return 0;
+    }
+    final List<Path> segments = segments(directory).stream()
+      .filter(segment -> Long.compareUnsigned(segmentIndex(segment), firstSegment) >= 0)
+      .toList();
+    long records = 0;
+    for (int i = 0; i < segments.size(); i++) {
+      records += replaySegment(segments.get(i), consumer, i == segments.size() - 1);
+    }
+    return records;
+  }
+
+  static long replaySegment(final Path segment, final BalanceMap.EntryConsumer consumer, final boolean last) throws IOException {
+    try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      final long size = channel.size();
+      final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+      final CRC32C checksum = new CRC32C();
+      ByteBuffer payload = ByteBuffer.allocate(0);
+      long valid = 0;
+      long records = 0;
+      while (valid + FRAME_HEADER_SIZE <= size) {
+        header.clear();
+        readFully(channel, header, valid);
+        final int length = header.getInt(0);
+        if (length <= 0 || length % RECORD_SIZE != 0 || valid + FRAME_HEADER_SIZE + length > size) {
+          break;
+        }
+        if (payload.capacity() < length) {
+          payload = ByteBuffer.allocate(length);
+        }
+        payload.clear().limit(length);
+        readFully(channel, payload, valid + FRAME_HEADER_SIZE);
+        checksum.reset();
+        checksum.update(payload.array(), 0, length);
+        if ((int) checksum.getValue() != header.getInt(Integer.BYTES)) {
+          break;
+        }
+        for (int offset = 0; offset < length; offset += RECORD_SIZE) {
+          consumer.accept(payload.getLong(offset), payload.getLong(offset + Long.BYTES), payload.getLong(offset + 2 * Long.BYTES));
+        }
+        records += length / RECORD_SIZE;
+        valid += FRAME_HEADER_SIZE + length;
+      }
+      if (valid < size) {
+        if (!last) {
+          throw new IOException("Corrupted journal segment " + segment + " at offset " + valid);
+        }
+        channel.truncate(valid);
+        channel.force(true);
+      }
+      return records;
+    }
+  }
+
+  private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      final int read = channel.read(buffer, offset);
+      if (read < 0) {
+        throw new EOFException();
+      }
+      offset += read;
+    }
+    buffer.flip();
+  }
+
+  static List<Path> segments(final Path directory) throws IOException {
+    try (final Stream<Path> files = Files.list(directory)) {
+      return files
+        .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+        .sorted((a, b) -> Long.compareUnsigned(segmentIndex(a), segmentIndex(b)))
+        .toList();
+    }
+  }
+
+  static long segmentIndex(final Path segment) {
+    final String name = segment.getFileName().toString();
+    return Long.parseUnsignedLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()), 16);
+  }
+
+  static String segmentName(final long index) {
+    return String.format("%016x%s", index, SEGMENT_SUFFIX);
+  }
+
+  @Override
+  public void balanceChanged(final long msb, final long lsb, final long oldValue, final long newValue) {
+    this.lock.lock();
+    try {
+      this.reserve(RECORD_SIZE);
+      this.pending.putLong(msb).putLong(lsb).putLong(newValue - oldValue);
+      this.appended++;
+      this.signalIfHalfFull();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public void balancesChanged(final long[] msb, final long[] lsb, final long[] oldValues, final long[] newValues, final int count) {
+    this.lock.lock();
+    try {
+      // Reserving the space for all records at once keeps them inside the same frame
+      this.reserve(count * RECORD_SIZE);
+      for (int i = 0; i < count; i++) {
+        if (oldValues[i] != newValues[i]) {
+          this.pending.putLong(msb[i]).putLong(lsb[i]).putLong(newValues[i] - oldValues[i]);
+          this.appended++;
+        }
+      }
+      this.signalIfHalfFull();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /// Seals the current segment and continues in a new one.
+  ///
+  /// Every change that has been appended before this call is contained in a
+  /// segment with a lower index than the returned one; every later change
+  /// will be written to a segment with the returned index or higher.
+  ///
+  /// @return index of the new segment
+  /// @throws IOException if the new segment could not be created
+  public long rotate() throws IOException {
+    this.lock.lock();
+    try {
+      if (this.closed) {
+        throw new IllegalStateException("The journal has already been closed");
+      }
+      this.rotationRequested = true;
+      this.rotationFailure = null;
+      this.flushRequested.signal();
+      while (this.rotationRequested && this.flusher.isAlive()) {
+        this.flushed.awaitUninterruptibly();
+      }
+      if (this.rotationFailure != null) {
+        throw this.rotationFailure;
+      }
+      return this.segment;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /// Blocks until every change that has been appended before this call is durable.
+  ///
+  /// @throws IOException if the changes could not be written; they are retried with the next frame
+  public void sync() throws IOException {
+    this.lock.lock();
+    try {
+      final long target = this.appended;
+      while (this.durable < target && this.flusher.isAlive()) {
+        final long flushes = this.flushes;
+        this.syncRequested = true;
+        this.flushRequested.signal();
+        while (this.flushes == flushes && this.flusher.isAlive()) {
+          this.flushed.awaitUninterruptibly();
+        }
+        if (this.durable < target && this.writeFailure != null) {
+          throw new IOException("Could not write the journal of " + this.name, this.writeFailure);
+        }
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /// Writes all pending changes to disk and closes this journal.
+  ///
+  /// @throws IOException if the pending changes could not be written or the segment could not be closed
+  @Override
+  public void close() throws IOException {
+    this.lock.lock();
+    try {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      this.flushRequested.signal();
+    } finally {
+      this.lock.unlock();
+    }
+    boolean interrupted = false;
+    while (this.flusher.isAlive()) {
+      try {
+        this.flusher.join();
+      } catch (final InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    this.channel.close();
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (this.unwritten != null) {
+      throw new IOException("Could not write the journal of " + this.name, this.writeFailure);
+    }
+    if (this.overflowed) {
+      throw new IOException("The journal of " + this.name + " rejected changes after exceeding its backlog of " + this.maxBacklog + " bytes");
+    }
+  }
+
+  private void reserve(final int bytes) {
+    if (this.closed) {
+      throw new IllegalStateException("The journal has already been closed");
+    }
+    if (!this.overflowed && this.backlog + this.pending.position() + (long) bytes > this.maxBacklog) {
+      this.overflowed = true;
+      this.errorHandler.accept(new IOException(
+        "The journal of " + this.name + " exceeded its backlog of " + this.maxBacklog + " bytes, further changes are not recorded",
+        this.writeFailure
+      ));
+    }
+    if (this.overflowed) {
+      throw new IllegalStateException("The journal of " + this.name + " rejects changes after exceeding its backlog");
+    }
+    if (this.pending.remaining() < bytes) {
+      // Growing instead of waiting for the flusher keeps a slow disk from blocking the writing thread
+      final int capacity = (int) Math.min(this.maxBacklog, Math.max(2L * this.pending.capacity(), this.pending.position() + (long) bytes));
+      this.pending = ByteBuffer.allocateDirect(capacity).put(this.pending.flip());
+    }
+  }
+
+  private void signalIfHalfFull() {
+    if (this.pending.position() >= this.bufferSize / 2) {
+      this.flushRequested.signal();
+    }
+  }
+
+  private void run() {
+    while (true) {
+      final ByteBuffer frame;
+      final long target;
+      final boolean rotate;
+      final long segment;
+      this.lock.lock();
+      try {
+        long remaining = this.commitIntervalNanos;
+        while (!this.closed && !this.syncRequested && !this.rotationRequested
+          && this.pending.position() < this.bufferSize / 2 && remaining > 0) {
+          try {
+            remaining = this.flushRequested.awaitNanos(remaining);
+          } catch (final InterruptedException e) {
+            remaining = 0;
+          }
+        }
+        this.syncRequested = false;
+        rotate = this.rotationRequested;
+        if (this.pending.position() == 0 && !rotate && this.unwritten == null) {
+          this.flushed.signalAll();
+          if (this.closed) {
+            return;
+          }
+          continue;
+        }
+        frame = this.pending;
+        target = this.appended;
+        segment = this.segment;
+        this.pending = this.spare;
+        this.backlog += frame.position();
+      } finally {
+        this.lock.unlock();
+      }
+
+      @Nullable IOException failure = null;
+      final ByteBuffer unwritten = this.unwritten;
+      if (unwritten != null || frame.position() > 0) {
+        final ByteBuffer payload;
+        if (unwritten == null) {
+          payload = frame.flip();
+        } else {
+          // Earlier changes could not be written, so they are retried within the same frame
+          payload = this.append(unwritten, frame.flip());
+        }
+        failure = this.write(payload, segment);
+        // Records are differences, so dropping a frame would corrupt every later replay
+        this.unwritten = failure == null ? null : payload.rewind();
+      }
+      boolean rotated = false;
+      @Nullable IOException rotationFailure = failure;
+      if (rotate && failure == null) {
+        try {
+          final FileChannel previous = this.channel;
+          this.channel = openSegment(this.directory, this.segment + 1);
+          rotated = true;
+          previous.close();
+        } catch (final IOException e) {
+          rotationFailure = e;
+        }
+      }
+
+      final boolean closed;
+      this.lock.lock();
+      try {
+        if (failure == null) {
+          this.durable = target;
+        }
+        this.writeFailure = failure;
+        this.flushes++;
+        this.backlog = this.unwritten == null ? 0 : this.unwritten.remaining();
+        // Buffers grown for a burst of changes are not kept around
+        this.spare = this.unwritten == frame || frame.capacity() > this.bufferSize
+          ? ByteBuffer.allocateDirect(this.bufferSize)
+          : frame.clear();
+        closed = this.closed;
+        if (rotate) {
+          if (rotated) {
+            this.segment++;
+          }
+          this.rotationFailure = rotationFailure;
+          this.rotationRequested = false;
+        }
+        this.flushed.signalAll();
+      } finally {
+        this.lock.unlock();
+      }
+      if (closed && failure != null) {
+        return;
+      }
+    }
+  }
+
+  /// Appends a frame to the payload of earlier frames which could not be written. The
+  /// buffer is reused while it has enough capacity and grows geometrically otherwise, so
+  /// repeated failures do not copy the whole backlog into a new buffer every time.
+  private ByteBuffer append(final ByteBuffer unwritten, final ByteBuffer frame) {
+    final int size = unwritten.remaining() + frame.remaining();
+    if (size <= unwritten.capacity()) {
+      return unwritten.position(unwritten.limit()).limit(unwritten.capacity()).put(frame).flip();
+    }
+    final int capacity = (int) Math.max(size, Math.min(2L * unwritten.capacity(), this.maxBacklog));
+    return ByteBuffer.allocateDirect(capacity).put(unwritten).put(frame).flip();
+  }
+
+  private @Nullable IOException write(final ByteBuffer payload, final long segment) {
+    @Nullable IOException failure = null;
+    final JournalFlushEvent event = new JournalFlushEvent();
+    event.begin();
+    final int bytes = payload.remaining();
+    long start = -1;
+    try {
+      start = this.channel.position();
+      this.checksum.reset();
+      this.checksum.update(payload.duplicate());
+      this.header.clear().putInt(payload.remaining()).putInt((int) this.checksum.getValue()).flip();
+      final ByteBuffer[] buffers = {this.header, payload};
+      while (payload.hasRemaining()) {
+        this.channel.write(buffers);
+      }
+      this.channel.force(false);
+      event.succeeded = true;
+    } catch (final IOException e) {
+      // Drop the partially written frame, so later frames stay readable
+      if (start >= 0) {
+        try {
+          this.channel.truncate(start);
+          this.channel.position(start);
+        } catch (final IOException suppressed) {
+          e.addSuppressed(suppressed);
+        }
+      }
+      this.errorHandler.accept(e);
+      failure = e;
+    }
+    if (event.shouldCommit()) {
+      event.currency = this.name;
+      event.segment = segment;
+      event.records = bytes / RECORD_SIZE;
+      event.bytes = bytes;
+      event.commit();
+    }
+    return failure;
+  }
+
+  /// The amount of records which have been appended, but are not durable yet.
+  ///
+  /// @return amount of pending records
+  public long pendingRecords() {
+    this.lock.lock();
+    try {
+      return this.appended - this.durable;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Journal[" + this.flusher.getName() + "]";
+  }
+}
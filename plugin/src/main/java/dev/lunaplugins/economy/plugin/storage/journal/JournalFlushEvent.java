@@ -0,0 +1,37 @@
+package dev.lunaplugins.economy.plugin.storage.journal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/// A Java Flight Recorder event for a frame written and synced by the [Journal] flusher.
+@Name("dev.lunaplugins.economy.JournalFlush")
+@Label("Journal Flush")
+@Description("A frame of balance changes has been written to the journal and synced to disk")
+@Category({"LunaEconomy", "Storage"})
+@Enabled(false)
+@Threshold("10 ms")
+@StackTrace(false)
+final class JournalFlushEvent extends Event {
+  @Label("Currency")
+  String currency = "";
+
+  @Label("Segment")
+  long segment;
+
+  @Label("Records")
+  int records;
+
+  @Label("Size")
+  @DataAmount
+  int bytes;
+
+  @Label("Succeeded")
+  boolean succeeded;
+}
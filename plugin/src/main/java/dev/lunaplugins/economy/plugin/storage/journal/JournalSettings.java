@@ -0,0 +1,25 @@
+package dev.lunaplugins.economy.plugin.storage.journal;
+
+import java.time.Duration;
+
+/// Settings of a [Journal].
+///
+/// @param commitInterval maximum time a change may stay in memory before it is written and synced to disk
+/// @param bufferSize size in bytes of the in-memory buffer; once half of it is filled, a commit is started early
+/// @param maxBacklog maximum size in bytes of the changes kept in memory while the disk is behind or failing
+public record JournalSettings(Duration commitInterval, int bufferSize, int maxBacklog) {
+  /// Default settings, committing at least every 50 milliseconds.
+  public static final JournalSettings DEFAULT = new JournalSettings(Duration.ofMillis(50), 1 << 20, 64 << 20);
+
+  public JournalSettings {
+    if (commitInterval.isNegative() || commitInterval.isZero()) {
+      throw new IllegalArgumentException("Commit interval has to be positive: " + commitInterval);
+    }
+    if (bufferSize < Journal.FRAME_HEADER_SIZE + Journal.RECORD_SIZE) {
+      throw new IllegalArgumentException("Buffer size is too small: " + bufferSize);
+    }
+    if (maxBacklog < bufferSize) {
+      throw new IllegalArgumentException("Maximum backlog is smaller than the buffer size: " + maxBacklog);
+    }
+  }
+}
@@ -0,0 +1,376 @@
+package dev.lunaplugins.economy.plugin.storage.journal;
+
+import dev.lunaplugins.economy.plugin.storage.BalanceMap;
+import dev.lunaplugins.economy.plugin.storage.UuidLongMap;
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/// Compact binary snapshots of all balances of a currency.
+///
+/// A snapshot is named after the first journal segment it does *not* contain, so
+/// restoring a currency means loading its latest snapshot and replaying all segments
+/// starting at that index. Startup time is therefore bounded by the snapshot size and
+/// the journal written since the last compaction, rather than the whole history.
+///
+/// The file consists of a header (magic, version, base segment, amount of records),
+/// all non-zero balances as (most significant bits, least significant bits, value)
+/// records sorted by their UUID, and a CRC32C checksum of all records. Sorting allows
+/// merging a snapshot with newer journal segments by streaming through both.
+public final class Snapshots {
+  private static final int MAGIC = 0x4C554E53; // LUNS
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES + 2 * Long.BYTES;
+  private static final int RECORD_SIZE = 3 * Long.BYTES;
+  private static final long MAX_MAPPING = RECORD_SIZE * (1L << 25);
+  private static final String SUFFIX = ".snap";
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  /// Finds the most recent snapshot inside a directory.
+  ///
+  /// @param directory directory containing the snapshots
+  /// @return path of the latest snapshot, or `null` if there is none
+  /// @throws IOException if the directory could not be listed
+  public static @Nullable Path latest(final Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return null;
+    }
+    try (final Stream<Path> files = Files.list(directory)) {
+      return files
+        .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+        .max((a, b) -> Long.compareUnsigned(baseSegment(a), baseSegment(b)))
+        .orElse(null);
+    }
+  }
+
+  /// The index of the first journal segment not contained in a snapshot.
+  ///
+  /// @param snapshot path of the snapshot
+  /// @return index of the first segment to replay after loading the snapshot
+  public static long baseSegment(final Path snapshot) {
+    final String name = snapshot.getFileName().toString();
+    return Long.parseUnsignedLong(name.substring(0, name.length() - SUFFIX.length()), 16);
+  }
+
+  /// Opens a snapshot for reading. The file is mapped into memory.
+  ///
+  /// @param snapshot path of the snapshot
+  /// @return a reader of the snapshot
+  /// @throws IOException if the snapshot could not be read or is corrupted
+  public static Reader open(final Path snapshot) throws IOException {
+    return new Reader(snapshot);
+  }
+
+  /// Compacts all sealed journal segments into a new snapshot.
+  ///
+  /// All segments with an index lower than `firstLiveSegment` are merged with the latest
+  /// snapshot. Afterward, these segments and all older snapshots are deleted. The live
+  /// journal is neither read nor locked, so writers are never paused.
+  ///
+  /// @param snapshotDirectory directory containing the snapshots
+  /// @param journalDirectory directory containing the journal segments
+  /// @param firstLiveSegment index of the first segment which is still written to, as returned by [Journal#rotate()]
+  /// @return path of the new snapshot, or the latest one if there was nothing to compact
+  /// @throws IOException if the snapshot could not be written
+  public static @Nullable Path compact(final Path snapshotDirectory, final Path journalDirectory, final long firstLiveSegment) throws IOException {
+    final Path previous = latest(snapshotDirectory);
+    final long base = previous == null ? 0 : baseSegment(previous);
+    if (Long.compareUnsigned(base, firstLiveSegment) >= 0) {
+      return previous;
+    }
+
+    final UuidLongMap deltas = new UuidLongMap(1, 1024);
+    final List<Path> segments = Files.isDirectory(journalDirectory) ? Journal.segments(journalDirectory) : List.of();
+    for (final Path segment : segments) {
+      final long index = Journal.segmentIndex(segment);
+      if (Long.compareUnsigned(index, base) >= 0 && Long.compareUnsigned(index, firstLiveSegment) < 0) {
+        Journal.replaySegment(segment, (msb, lsb, delta) -> deltas.getAndUpdate(msb, lsb, value -> value + delta, Long.MIN_VALUE, Long.MAX_VALUE), false);
+      }
+    }
+    final long[] records = new long[deltas.size() * 3];
+    final int[] count = {0};
+    deltas.forEach((msb, lsb, delta) -> {
+      records[count[0]++] = msb;
+      records[count[0]++] = lsb;
+      records[count[0]++] = delta;
+    });
+    sort(records, 0, deltas.size() - 1);
+
+    Files.createDirectories(snapshotDirectory);
+    final Path target = snapshotDirectory.resolve(String.format("%016x%s", firstLiveSegment, SUFFIX));
+    final Path temporary = snapshotDirectory.resolve(target.getFileName() + TEMPORARY_SUFFIX);
+    try (final Writer writer = new Writer(temporary, firstLiveSegment)) {
+      if (previous == null) {
+        for (int i = 0; i < records.length; i += 3) {
+          writer.write(records[i], records[i + 1], records[i + 2]);
+        }
+      } else {
+        try (final Reader reader = open(previous)) {
+          merge(reader, records, writer);
+        }
+      }
+    }
+    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+    for (final Path segment : segments) {
+      if (Long.compareUnsigned(Journal.segmentIndex(segment), firstLiveSegment) < 0) {
+        Files.deleteIfExists(segment);
+      }
+    }
+    try (final Stream<Path> files = Files.list(snapshotDirectory)) {
+      for (final Path file : files.toList()) {
+        if (!file.equals(target) && file.getFileName().toString().endsWith(SUFFIX)) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+    return target;
+  }
+
+  private static void merge(final Reader reader, final long[] deltas, final Writer writer) throws IOException {
+    int index = 0;
+    boolean hasSnapshot = reader.next();
+    while (hasSnapshot || index < deltas.length) {
+      final int comparison;
+      if (!hasSnapshot) {
+        comparison = 1;
+      } else if (index >= deltas.length) {
+        comparison = -1;
+      } else {
+        comparison = compare(reader.mostSignificantBits(), reader.leastSignificantBits(), deltas[index], deltas[index + 1]);
+      }
+      if (comparison < 0) {
+        writer.write(reader.mostSignificantBits(), reader.leastSignificantBits(), reader.value());
+        hasSnapshot = reader.next();
+      } else if (comparison > 0) {
+        writer.write(deltas[index], deltas[index + 1], deltas[index + 2]);
+        index += 3;
+      } else {
+        writer.write(reader.mostSignificantBits(), reader.leastSignificantBits(), reader.value() + deltas[index + 2]);
+        hasSnapshot = reader.next();
+        index += 3;
+      }
+    }
+  }
+
+  private static int compare(final long msbA, final long lsbA, final long msbB, final long lsbB) {
+    final int comparison = Long.compare(msbA, msbB);
+    return comparison != 0 ? comparison : Long.compare(lsbA, lsbB);
+  }
+
+  /// Sorts the (msb, lsb, value) triples of an array by their UUID.
+  private static void sort(final long[] records, final int from, final int to) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      final int pivot = low + (high - low) / 2;
+      final long pivotMsb = records[pivot * 3];
+      final long pivotLsb = records[pivot * 3 + 1];
+      int i = low;
+      int j = high;
+      while (i <= j) {
+        while (compare(records[i * 3], records[i * 3 + 1], pivotMsb, pivotLsb) < 0) {
+          i++;
+        }
+        while (compare(records[j * 3], records[j * 3 + 1], pivotMsb, pivotLsb) > 0) {
+          j--;
+        }
+        if (i <= j) {
+          swap(records, i++, j--);
+        }
+      }
+      // Recurse into the smaller half to bound the stack depth
+      if (j - low < high - i) {
+        sort(records, low, j);
+        low = i;
+      } else {
+        sort(records, i, high);
+        high = j;
+      }
+    }
+  }
+
+  private static void swap(final long[] records, final int a, final int b) {
+    for (int offset = 0; offset < 3; offset++) {
+      final long value = records[a * 3 + offset];
+      records[a * 3 + offset] = records[b * 3 + offset];
+      records[b * 3 + offset] = value;
+    }
+  }
+
+  /// A sequential reader of a memory-mapped snapshot.
+  public static final class Reader implements Closeable {
+    private final FileChannel channel;
+    private final long count;
+    private final long baseSegment;
+    private @Nullable MappedByteBuffer mapping;
+    private long mappingEnd;
+    private long read;
+    private long msb;
+    private long lsb;
+    private long value;
+
+    private Reader(final Path snapshot) throws IOException {
+      this.channel = FileChannel.open(snapshot, StandardOpenOption.READ);
+      try {
+        final ByteBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+          throw new IOException("Not a snapshot: " + snapshot);
+        }
+        this.baseSegment = header.getLong();
+        this.count = header.getLong();
+        if (this.channel.size() != HEADER_SIZE + this.count * RECORD_SIZE + Integer.BYTES) {
+          throw new IOException("Truncated snapshot: " + snapshot);
+        }
+        this.verify(snapshot);
+      } catch (final IOException e) {
+        this.channel.close();
+        throw e;
+      }
+      this.mappingEnd = HEADER_SIZE;
+    }
+
+    private void verify(final Path snapshot) throws IOException {
+      final CRC32C checksum = new CRC32C();
+      final long end = HEADER_SIZE + this.count * RECORD_SIZE;
+      for (long position = HEADER_SIZE; position < end; position += MAX_MAPPING) {
+        checksum.update(this.channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAPPING, end - position)));
+      }
+      final ByteBuffer trailer = this.channel.map(FileChannel.MapMode.READ_ONLY, end, Integer.BYTES);
+      if (trailer.getInt() != (int) checksum.getValue()) {
+        throw new IOException("Corrupted snapshot: " + snapshot);
+      }
+    }
+
+    /// The amount of balances stored in the snapshot.
+    ///
+    /// @return amount of balances
+    public long count() {
+      return this.count;
+    }
+
+    /// The index of the first journal segment not contained in the snapshot.
+    ///
+    /// @return index of the first segment to replay
+    public long baseSegment() {
+      return this.baseSegment;
+    }
+
+    /// Advances to the next balance.
+    ///
+    /// @return whether there was another balance
+    public boolean next() throws IOException {
+      if (this.read >= this.count) {
+        return false;
+      }
+      if (this.mapping == null || !this.mapping.hasRemaining()) {
+        final long remaining = HEADER_SIZE + this.count * RECORD_SIZE - this.mappingEnd;
+        this.mapping = this.channel.map(FileChannel.MapMode.READ_ONLY, this.mappingEnd, Math.min(MAX_MAPPING, remaining));
+        this.mappingEnd += this.mapping.capacity();
+      }
+      this.msb = this.mapping.getLong();
+      this.lsb = this.mapping.getLong();
+      this.value = this.mapping.getLong();
+      this.read++;
+      return true;
+    }
+
+    /// Reads all remaining balances.
+    ///
+    /// @param consumer consumer receiving every balance
+    public void forEach(final BalanceMap.EntryConsumer consumer) throws IOException {
+      while (this.next()) {
+        consumer.accept(this.msb, this.lsb, this.value);
+      }
+    }
+
+    public long mostSignificantBits() {
+      return this.msb;
+    }
+
+    public long leastSignificantBits() {
+      return this.lsb;
+    }
+
+    public long value() {
+      return this.value;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.mapping = null;
+      this.channel.close();
+    }
+  }
+
+  private static final class Writer implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 4096);
+    private final CRC32C checksum = new CRC32C();
+    private final long baseSegment;
+    private long count;
+
+    Writer(final Path path, final long baseSegment) throws IOException {
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+      this.baseSegment = baseSegment;
+      this.channel.position(HEADER_SIZE);
+    }
+
+    void write(final long msb, final long lsb, final long value) throws IOException {
+      // Absent balances are zero, so there is no need to store them
+      if (value == 0) {
+        return;
+      }
+      if (!this.buffer.hasRemaining()) {
+        this.flush();
+      }
+      this.buffer.putLong(msb).putLong(lsb).putLong(value);
+      this.count++;
+    }
+
+    private void flush() throws IOException {
+      this.buffer.flip();
+      this.checksum.update(this.buffer.duplicate());
+      while (this.buffer.hasRemaining()) {
+        this.channel.write(this.buffer);
+      }
+      this.buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try (this.channel) {
+        this.flush();
+        this.buffer.putInt((int) this.checksum.getValue()).flip();
+        while (this.buffer.hasRemaining()) {
+          this.channel.write(this.buffer);
+        }
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+          .putInt(MAGIC)
+          .putInt(VERSION)
+          .putLong(this.baseSegment)
+          .putLong(this.count)
+          .flip();
+        while (header.hasRemaining()) {
+          this.channel.write(header, HEADER_SIZE - header.remaining());
+        }
+        this.channel.force(true);
+      }
+    }
+  }
+
+  private Snapshots() {
+    // Utility class
+  }
+}
@@ -0,0 +1,102 @@
+package dev.lunaplugins.economy.plugin.storage.sql;
+
+import java.util.Locale;
+
+/// The SQL dialects supported by [SqlStorage].
+///
+/// All dialects share the same schema: one table holding the balances of all
+/// currencies, keyed by the currency and both halves of the player's UUID, and a
+/// second table with the suffix `_scales` holding the scale of each currency.
+public enum SqlDialect {
+  H2 {
+    @Override
+    String upsert(final String table) {
+      return "MERGE INTO " + table + " (currency, uuid_msb, uuid_lsb, balance) KEY (currency, uuid_msb, uuid_lsb) VALUES (?, ?, ?, ?)";
+    }
+  },
+  SQLITE {
+    @Override
+    String upsert(final String table) {
+      return onConflict(table);
+    }
+  },
+  POSTGRESQL {
+    @Override
+    String upsert(final String table) {
+      return onConflict(table);
+    }
+  },
+  MYSQL {
+    @Override
+    String upsert(final String table) {
+      return "INSERT INTO " + table + " (currency, uuid_msb, uuid_lsb, balance) VALUES (?, ?, ?, ?)"
+        + " ON DUPLICATE KEY UPDATE balance = VALUES(balance)";
+    }
+  };
+
+  /// Determines the dialect of a JDBC URL.
+  ///
+  /// @param url JDBC URL of the database
+  /// @return dialect of the database
+  /// @throws IllegalArgumentException if the database is not supported
+  public static SqlDialect forUrl(final String url) {
+    final String lowerCase = url.toLowerCase(Locale.ROOT);
+    if (lowerCase.startsWith("jdbc:mariadb:")) {
+      return MYSQL;
+    }
+    for (final SqlDialect dialect : values()) {
+      if (lowerCase.startsWith("jdbc:" + dialect.name().toLowerCase(Locale.ROOT) + ":")) {
+        return dialect;
+      }
+    }
+    throw new IllegalArgumentException("Unsupported database: " + url);
+  }
+
+  /// Statement creating the balance table if it does not exist yet.
+  String createTable(final String table) {
+    return "CREATE TABLE IF NOT EXISTS " + table + " ("
+      + "currency VARCHAR(255) NOT NULL, "
+      + "uuid_msb BIGINT NOT NULL, "
+      + "uuid_lsb BIGINT NOT NULL, "
+      + "balance BIGINT NOT NULL, "
+      + "PRIMARY KEY (currency, uuid_msb, uuid_lsb))";
+  }
+
+  /// Statement selecting all balances of a currency.
+  String select(final String table) {
+    return "SELECT uuid_msb, uuid_lsb, balance FROM " + table + " WHERE currency = ?";
+  }
+
+  /// Statement creating the scale table if it does not exist yet.
+  String createScaleTable(final String table) {
+    return "CREATE TABLE IF NOT EXISTS " + table + "_scales ("
+      + "currency VARCHAR(255) NOT NULL PRIMARY KEY, "
+      + "scale INT NOT NULL)";
+  }
+
+  /// Statement selecting the scale of a currency.
+  String selectScale(final String table) {
+    return "SELECT scale FROM " + table + "_scales WHERE currency = ?";
+  }
+
+  /// Statement inserting the scale of a currency, taking the scale and the currency
+  /// as parameters.
+  String insertScale(final String table) {
+    return "INSERT INTO " + table + "_scales (scale, currency) VALUES (?, ?)";
+  }
+
+  /// Statement updating the scale of a currency, taking the scale and the currency
+  /// as parameters.
+  String updateScale(final String table) {
+    return "UPDATE " + table + "_scales SET scale = ? WHERE currency = ?";
+  }
+
+  /// Statement inserting or replacing the balance of a player, taking the
+  /// currency, both UUID halves and the balance as parameters.
+  abstract String upsert(String table);
+
+  private static String onConflict(final String table) {
+    return "INSERT INTO " + table + " (currency, uuid_msb, uuid_lsb, balance) VALUES (?, ?, ?, ?)"
+      + " ON CONFLICT (currency, uuid_msb, uuid_lsb) DO UPDATE SET balance = excluded.balance";
+  }
+}
@@ -0,0 +1,29 @@
+package dev.lunaplugins.economy.plugin.storage.sql;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/// A Java Flight Recorder event for a transaction of batched upserts committed by the [SqlStorage] writer.
+@Name("dev.lunaplugins.economy.SqlFlush")
+@Label("SQL Flush")
+@Description("Changed balances have been written to the database in a single transaction")
+@Category({"LunaEconomy", "Storage"})
+@Enabled(false)
+@Threshold("20 ms")
+@StackTrace(false)
+final class SqlFlushEvent extends Event {
+  @Label("Currency")
+  String currency = "";
+
+  @Label("Rows")
+  int rows;
+
+  @Label("Succeeded")
+  boolean succeeded;
+}
@@ -0,0 +1,35 @@
+package dev.lunaplugins.economy.plugin.storage.sql;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/// Settings of a [SqlStorage].
+///
+/// @param url JDBC URL of the database
+/// @param username user to authenticate as, or an empty string
+/// @param password password of the user, or an empty string
+/// @param table name of the table holding the balances
+/// @param flushInterval maximum time a change may stay in memory before it is written to the database
+/// @param batchSize maximum amount of rows written by a single batch
+public record SqlSettings(String url, String username, String password, String table, Duration flushInterval, int batchSize) {
+  private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+  public SqlSettings {
+    if (!IDENTIFIER.matcher(table).matches()) {
+      throw new IllegalArgumentException("Invalid table name: " + table);
+    }
+    if (flushInterval.isNegative() || flushInterval.isZero()) {
+      throw new IllegalArgumentException("Flush interval has to be positive: " + flushInterval);
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size has to be positive: " + batchSize);
+    }
+  }
+
+  /// The dialect of the database.
+  ///
+  /// @return dialect
+  public SqlDialect dialect() {
+    return SqlDialect.forUrl(this.url);
+  }
+}
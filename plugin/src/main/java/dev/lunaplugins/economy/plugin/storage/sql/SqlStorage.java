@@ -0,0 +1,369 @@
+package dev.lunaplugins.economy.plugin.storage.sql;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.plugin.storage.BalanceMap;
+import dev.lunaplugins.economy.plugin.storage.BalanceStorage;
+import dev.lunaplugins.economy.plugin.storage.DirtySet;
+import dev.lunaplugins.economy.plugin.storage.StoragePrecision;
+import dev.lunaplugins.economy.plugin.storage.UuidLongMap;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/// A currency stored in a SQL database using write-behind.
+///
+/// All balances are loaded into memory when opening the storage, and every operation
+/// is served from memory. Changes only mark the player as dirty; a dedicated writer
+/// thread periodically drains the dirty set and writes the *current* balance of each
+/// dirty player using batched upserts in a single transaction. Repeated changes to the
+/// same balance within one flush interval therefore result in a single row write.
+///
+/// Changes made within the last flush interval are lost if the server crashes. If a
+/// flush fails, the affected players are marked as dirty again and retried with the
+/// next flush.
+public final class SqlStorage implements BalanceStorage {
+  private final LunaCurrency currency;
+  private final BalanceMap balances;
+  private final DirtySet dirty = new DirtySet();
+  private final SqlSettings settings;
+  private final String currencyKey;
+  private final Consumer<SQLException> errorHandler;
+  private final long flushIntervalNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition flushRequested = this.lock.newCondition();
+  private final Condition flushed = this.lock.newCondition();
+  private final Thread writer;
+  // Only accessed by the writer thread
+  private @Nullable Connection connection;
+
+  // Guarded by lock
+  private long requestedFlushes;
+  private long completedFlushes;
+  private boolean closed;
+
+  private SqlStorage(
+    final Key key,
+    final StoragePrecision precision,
+    final int scale,
+    final boolean ranked,
+    final Function<String, @Nullable UUID> nameResolver,
+    final BalanceMap balances,
+    final Connection connection,
+    final SqlSettings settings,
+    final Consumer<SQLException> errorHandler
+  ) {
+    this.currency = precision.create(key, nameResolver, balances, scale, ranked);
+    this.balances = balances;
+    this.connection = connection;
+    this.settings = settings;
+    this.currencyKey = key.asString();
+    this.errorHandler = errorHandler;
+    this.flushIntervalNanos = settings.flushInterval().toNanos();
+    this.balances.addListener(this.dirty);
+    this.writer = Thread.ofPlatform().name("LunaEconomy SQL Writer - " + this.currencyKey).daemon().start(this::run);
+  }
+
+  /// Opens the storage of a currency, loading all of its balances into a [UuidLongMap].
+  ///
+  /// @param settings settings of the database connection
+  /// @param key key of the currency
+  /// @param precision precision of the currency
+  /// @param scale amount of fractional digits of a fixed-point currency
+  /// @param nameResolver resolver used for [LunaCurrency#uuidForName(String)]
+  /// @param errorHandler handler of errors happening while writing to the database
+  /// @return the opened storage
+  /// @throws SQLException if the database could not be accessed
+  public static SqlStorage open(
+    final SqlSettings settings,
+    final Key key,
+    final StoragePrecision precision,
+    final int scale,
+    final Function<String, @Nullable UUID> nameResolver,
+    final Consumer<SQLException> errorHandler
+  ) throws SQLException {
+    return open(settings, key, precision, scale, false, nameResolver, UuidLongMap::withExpectedSize, errorHandler);
+  }
+
+  /// Opens the storage of a currency, loading all of its balances.
+  ///
+  /// @param settings settings of the database connection
+  /// @param key key of the currency
+  /// @param precision precision of the currency
+  /// @param scale amount of fractional digits of a fixed-point currency
+  /// @param ranked whether to maintain a [ranking][LunaCurrency#ranking()] of all balances
+  /// @param nameResolver resolver used for [LunaCurrency#uuidForName(String)]
+  /// @param maps creates the empty map holding the balances, given the expected amount of accounts
+  /// @param errorHandler handler of errors happening while writing to the database
+  /// @return the opened storage
+  /// @throws SQLException if the database could not be accessed, or if the stored balances
+  ///   have a different scale than the configured one
+  public static SqlStorage open(
+    final SqlSettings settings,
+    final Key key,
+    final StoragePrecision precision,
+    final int scale,
+    final boolean ranked,
+    final Function<String, @Nullable UUID> nameResolver,
+    final LongFunction<? extends BalanceMap> maps,
+    final Consumer<SQLException> errorHandler
+  ) throws SQLException {
+    final SqlDialect dialect = settings.dialect();
+    final Connection connection = connect(settings);
+    try {
+      try (final Statement statement = connection.createStatement()) {
+        statement.execute(dialect.createTable(settings.table()));
+        statement.execute(dialect.createScaleTable(settings.table()));
+      }
+      final BalanceMap balances = maps.apply(0);
+      try (final PreparedStatement statement = connection.prepareStatement(dialect.select(settings.table()))) {
+        statement.setFetchSize(settings.batchSize());
+        statement.setString(1, key.asString());
+        try (final ResultSet result = statement.executeQuery()) {
+          while (result.next()) {
+            balances.getAndSet(result.getLong(1), result.getLong(2), result.getLong(3));
+          }
+        }
+      }
+      checkScale(connection, dialect, settings.table(), key, precision.unitScale(scale), balances.size() > 0);
+      connection.commit();
+      return new SqlStorage(key, precision, scale, ranked, nameResolver, balances, connection, settings, errorHandler);
+    } catch (final SQLException | RuntimeException e) {
+      try {
+        connection.close();
+      } catch (final SQLException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+  }
+
+  /// Records the scale of the raw values, refusing to load existing balances with a
+  /// different scale. The scale may only be changed while there are no balances yet.
+  private static void checkScale(
+    final Connection connection,
+    final SqlDialect dialect,
+    final String table,
+    final Key key,
+    final int scale,
+    final boolean hasBalances
+  ) throws SQLException {
+    final String statement;
+    try (final PreparedStatement select = connection.prepareStatement(dialect.selectScale(table))) {
+      select.setString(1, key.asString());
+      try (final ResultSet result = select.executeQuery()) {
+        if (!result.next()) {
+          statement = dialect.insertScale(table);
+        } else {
+          final int stored = result.getInt(1);
+          if (stored == scale) {
+            return;
+          } else if (hasBalances) {
+            throw new SQLException("Balances of currency " + key.asString() + " are stored with scale " + stored + ", but scale " + scale + " is configured");
+          }
+          statement = dialect.updateScale(table);
+        }
+      }
+    }
+    try (final PreparedStatement update = connection.prepareStatement(statement)) {
+      update.setInt(1, scale);
+      update.setString(2, key.asString());
+      update.executeUpdate();
+    }
+  }
+
+  private static Connection connect(final SqlSettings settings) throws SQLException {
+    final Connection connection = settings.username().isEmpty()
+      ? DriverManager.getConnection(settings.url())
+      : DriverManager.getConnection(settings.url(), settings.username(), settings.password());
+    connection.setAutoCommit(false);
+    return connection;
+  }
+
+  @Override
+  public LunaCurrency currency() {
+    return this.currency;
+  }
+
+  @Override
+  public BalanceMap balances() {
+    return this.balances;
+  }
+
+  /// The amount of players whose balance has changed since the last flush.
+  ///
+  /// @return amount of dirty players
+  public int dirtyCount() {
+    return this.dirty.size();
+  }
+
+  /// Blocks until every change that has been made before this call has been written
+  /// to the database, or a flush attempt has failed.
+  public void flush() {
+    this.lock.lock();
+    try {
+      final long target = ++this.requestedFlushes;
+      this.flushRequested.signal();
+      while (this.completedFlushes < target && this.writer.isAlive()) {
+        this.flushed.awaitUninterruptibly();
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /// Writes all pending changes to the database and closes the connection.
+  @Override
+  public void close() throws IOException {
+    this.lock.lock();
+    try {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      this.flushRequested.signal();
+    } finally {
+      this.lock.unlock();
+    }
+    boolean interrupted = false;
+    while (this.writer.isAlive()) {
+      try {
+        this.writer.join();
+      } catch (final InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    this.balances.removeListener(this.dirty);
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    while (true) {
+      final long target;
+      final boolean closing;
+      this.lock.lock();
+      try {
+        long remaining = this.flushIntervalNanos;
+        while (!this.closed && this.completedFlushes >= this.requestedFlushes && remaining > 0) {
+          try {
+            remaining = this.flushRequested.awaitNanos(remaining);
+          } catch (final InterruptedException e) {
+            remaining = 0;
+          }
+        }
+        target = this.requestedFlushes;
+        closing = this.closed;
+      } finally {
+        this.lock.unlock();
+      }
+
+      this.write();
+      if (closing) {
+        this.disconnect();
+      }
+
+      this.lock.lock();
+      try {
+        this.completedFlushes = target;
+        this.flushed.signalAll();
+      } finally {
+        this.lock.unlock();
+      }
+      if (closing) {
+        return;
+      }
+    }
+  }
+
+  private void write() {
+    if (this.dirty.size() == 0) {
+      return;
+    }
+    final SqlFlushEvent event = new SqlFlushEvent();
+    event.begin();
+    final long[] drained = this.dirty.drain();
+    final int[] rows = {0};
+    try {
+      if (this.connection == null || this.connection.isClosed()) {
+        this.connection = connect(this.settings);
+      }
+      final Connection connection = this.connection;
+      try (final PreparedStatement statement = connection.prepareStatement(this.settings.dialect().upsert(this.settings.table()))) {
+        final int[] batched = {0};
+        DirtySet.<SQLException>forEach(drained, (msb, lsb) -> {
+          statement.setString(1, this.currencyKey);
+          statement.setLong(2, msb);
+          statement.setLong(3, lsb);
+          // The current balance supersedes every change made since the last flush
+          statement.setLong(4, this.balances.source().get(msb, lsb));
+          statement.addBatch();
+          rows[0]++;
+          if (++batched[0] == this.settings.batchSize()) {
+            statement.executeBatch();
+            batched[0] = 0;
+          }
+        });
+        if (batched[0] > 0) {
+          statement.executeBatch();
+        }
+      }
+      connection.commit();
+      event.succeeded = true;
+    } catch (final SQLException e) {
+      this.rollback(e);
+      // Nothing has been written, so every drained player is still dirty
+      DirtySet.<RuntimeException>forEach(drained, this.dirty::add);
+      this.errorHandler.accept(e);
+    }
+    this.dirty.recycle(drained);
+    if (event.shouldCommit()) {
+      event.currency = this.currencyKey;
+      event.rows = rows[0];
+      event.commit();
+    }
+  }
+
+  private void rollback(final SQLException cause) {
+    if (this.connection == null) {
+      return;
+    }
+    try {
+      this.connection.rollback();
+    } catch (final SQLException e) {
+      cause.addSuppressed(e);
+      // The connection is most likely broken, so reconnect with the next flush
+      this.disconnect();
+    }
+  }
+
+  private void disconnect() {
+    if (this.connection == null) {
+      return;
+    }
+    try {
+      this.connection.close();
+    } catch (final SQLException e) {
+      this.errorHandler.accept(e);
+    }
+    this.connection = null;
+  }
+
+  @Override
+  public String toString() {
+    return "SqlStorage[" + this.currencyKey + "]";
+  }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package dev.lunaplugins.economy.plugin.storage.sql;
+
+import org.jspecify.annotations.NullMarked;
\ No newline at end of file
@@ -0,0 +1,40 @@
+package dev.lunaplugins.economy.plugin;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.plugin.storage.MemoryLongCurrency;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@NullMarked
+class LunaCurrencyRegistryTest {
+
+  @Test
+  void testRegistration() {
+    final LunaCurrencyRegistry registry = new LunaCurrencyRegistry();
+    final LunaCurrency coins = new MemoryLongCurrency(Key.key("dummy:coins"), name -> null);
+    final LunaCurrency gems = new MemoryLongCurrency(Key.key("dummy:gems"), name -> null);
+
+    registry.register(coins);
+    registry.register(gems);
+    assertSame(coins, registry.get(Key.key("dummy", "coins")));
+    assertSame(gems, registry.require(Key.key("dummy:gems")));
+    assertNull(registry.get(Key.key("dummy:tokens")));
+    assertThrows(IllegalArgumentException.class, () -> registry.require(Key.key("dummy:tokens")));
+    assertThrows(IllegalStateException.class, () -> registry.register(new MemoryLongCurrency(Key.key("dummy:coins"), name -> null)));
+
+    final List<LunaCurrency> before = List.copyOf(registry.currencies());
+    assertSame(coins, registry.unregister(Key.key("dummy:coins")));
+    assertNull(registry.unregister(Key.key("dummy:coins")));
+    assertNull(registry.get(Key.key("dummy:coins")));
+    assertEquals(List.of(gems), List.copyOf(registry.currencies()));
+    assertEquals(2, before.size());
+  }
+}
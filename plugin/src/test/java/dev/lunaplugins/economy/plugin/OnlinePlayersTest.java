@@ -0,0 +1,39 @@
+package dev.lunaplugins.economy.plugin;
+
+import dev.lunaplugins.economy.plugin.storage.BalanceMap;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class OnlinePlayersTest {
+
+  @Test
+  void testLookup() {
+    final List<UUID> online = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      online.add(UUID.randomUUID());
+    }
+    // Halves with the sign bit set have to be found as well
+    online.add(new UUID(-1, -1));
+    online.add(new UUID(-1, 1));
+    online.add(new UUID(Long.MIN_VALUE, 0));
+    final OnlinePlayers players = OnlinePlayers.of(online);
+    final BalanceMap.KeyPredicate offline = players.offline();
+
+    for (final UUID uuid : online) {
+      assertTrue(players.contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+      assertFalse(offline.test(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+    }
+    assertFalse(players.contains(-1, 0));
+    assertFalse(players.contains(0, 0));
+    assertTrue(offline.test(Long.MAX_VALUE, Long.MAX_VALUE));
+    assertFalse(OnlinePlayers.of(List.of()).contains(0, 0));
+  }
+}
@@ -0,0 +1,188 @@
+package dev.lunaplugins.economy.plugin.events;
+
+import dev.lunaplugins.economy.api.events.BalanceChangeStream;
+import dev.lunaplugins.economy.api.events.BalanceChanges;
+import dev.lunaplugins.economy.api.events.OverflowPolicy;
+import dev.lunaplugins.economy.plugin.storage.MemoryLongCurrency;
+import dev.lunaplugins.economy.plugin.storage.UuidLongMap;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@NullMarked
+class ChangePipelineTest {
+  private static final Key COINS = Key.key("dummy:coins");
+  private static final Key GEMS = Key.key("dummy:gems");
+
+  private record Change(Key currency, UUID uuid, long oldValue, long newValue) {
+  }
+
+  private static void copy(final BalanceChanges changes, final List<Change> sink) {
+    for (int i = 0; i < changes.size(); i++) {
+      sink.add(new Change(changes.currency(i), changes.uuid(i), changes.oldValue(i), changes.newValue(i)));
+    }
+  }
+
+  @Test
+  void testDelivery() {
+    final UuidLongMap coinBalances = new UuidLongMap();
+    final UuidLongMap gemBalances = new UuidLongMap();
+    final MemoryLongCurrency coins = new MemoryLongCurrency(COINS, name -> null, coinBalances);
+    final MemoryLongCurrency gems = new MemoryLongCurrency(GEMS, name -> null, gemBalances);
+    final UUID first = UUID.randomUUID();
+    final UUID second = UUID.randomUUID();
+    final List<Change> received = new ArrayList<>();
+
+    final ChangePipeline pipeline = new ChangePipeline(e -> {
+      throw new AssertionError(e);
+    });
+    pipeline.attach(COINS, coinBalances);
+    pipeline.attach(GEMS, gemBalances);
+    assertThrows(IllegalStateException.class, () -> pipeline.attach(COINS, coinBalances));
+    final BalanceChangeStream.Subscription subscription = pipeline.subscribe("test", 4, OverflowPolicy.BLOCK, changes -> copy(changes, received));
+
+    coins.longValue(first, 10);
+    gems.addLongValue(second, 3);
+    // Unchanged balances are not published
+    coins.addLongValue(first, 0);
+    for (int i = 0; i < 100; i++) {
+      coins.addLongValue(second, 1);
+    }
+    coins.transfer(first, second, 4);
+    pipeline.detach(GEMS);
+    gems.addLongValue(second, 3);
+    pipeline.close();
+
+    assertEquals(0, subscription.dropped());
+    assertEquals(104, received.size());
+    assertEquals(new Change(COINS, first, 0, 10), received.get(0));
+    assertEquals(new Change(GEMS, second, 0, 3), received.get(1));
+    for (int i = 0; i < 100; i++) {
+      assertEquals(new Change(COINS, second, i, i + 1), received.get(2 + i));
+    }
+    assertEquals(new Change(COINS, first, 10, 6), received.get(102));
+    assertEquals(new Change(COINS, second, 100, 104), received.get(103));
+  }
+
+  @Test
+  void testDropPolicy() throws InterruptedException {
+    final UuidLongMap balances = new UuidLongMap();
+    final MemoryLongCurrency coins = new MemoryLongCurrency(COINS, name -> null, balances);
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<Change> received = new ArrayList<>();
+
+    final ChangePipeline pipeline = new ChangePipeline(e -> {
+      throw new AssertionError(e);
+    });
+    pipeline.attach(COINS, balances);
+    final BalanceChangeStream.Subscription subscription = pipeline.subscribe("test", 8, OverflowPolicy.DROP, changes -> {
+      entered.countDown();
+      try {
+        release.await();
+      } catch (final InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      copy(changes, received);
+    });
+
+    final UUID uuid = UUID.randomUUID();
+    coins.addLongValue(uuid, 1);
+    entered.await();
+    // The consumer is stuck on the first change, which still occupies its slot until it returns
+    for (int i = 0; i < 20; i++) {
+      coins.addLongValue(uuid, 1);
+    }
+    assertEquals(13, subscription.dropped());
+    assertEquals(8, subscription.pending());
+    release.countDown();
+    subscription.close();
+
+    assertEquals(8, received.size());
+    assertEquals(new Change(COINS, uuid, 7, 8), received.getLast());
+    assertThrows(IllegalArgumentException.class, () -> pipeline.subscribe("test", 3, OverflowPolicy.DROP, changes -> { }));
+    pipeline.close();
+  }
+
+  @Test
+  void testReentrantConsumer() throws InterruptedException {
+    final UuidLongMap balances = new UuidLongMap();
+    final MemoryLongCurrency coins = new MemoryLongCurrency(COINS, name -> null, balances);
+    final UUID trigger = UUID.randomUUID();
+    final UUID other = UUID.randomUUID();
+    final List<Change> received = new ArrayList<>();
+    final CountDownLatch published = new CountDownLatch(1);
+
+    final ChangePipeline pipeline = new ChangePipeline(e -> {
+      throw new AssertionError(e);
+    });
+    pipeline.attach(COINS, balances);
+    final BalanceChangeStream.Subscription subscription = pipeline.subscribe("test", 2, OverflowPolicy.BLOCK, changes -> {
+      copy(changes, received);
+      for (int i = 0; i < changes.size(); i++) {
+        if (changes.uuid(i).equals(trigger)) {
+          // The buffer fills up while the consumer is still holding the current batch
+          for (int j = 0; j < 5; j++) {
+            coins.addLongValue(other, 1);
+          }
+          published.countDown();
+        }
+      }
+    });
+
+    coins.addLongValue(trigger, 1);
+    // Closing detaches the subscription, so it must not happen before the consumer has made its changes
+    published.await();
+    subscription.close();
+
+    assertEquals(4, subscription.dropped());
+    assertEquals(List.of(new Change(COINS, trigger, 0, 1), new Change(COINS, other, 0, 1)), received);
+    assertEquals(5, coins.longValue(other));
+    pipeline.close();
+  }
+
+  @Test
+  void testConcurrentProducers() throws InterruptedException {
+    final UuidLongMap balances = new UuidLongMap();
+    final MemoryLongCurrency coins = new MemoryLongCurrency(COINS, name -> null, balances);
+    final long[] sum = {0};
+    final ChangePipeline pipeline = new ChangePipeline(e -> {
+      throw new AssertionError(e);
+    });
+    pipeline.attach(COINS, balances);
+    final BalanceChangeStream.Subscription subscription = pipeline.subscribe("test", 64, OverflowPolicy.BLOCK, changes -> {
+      for (int i = 0; i < changes.size(); i++) {
+        sum[0] += changes.newValue(i) - changes.oldValue(i);
+      }
+    });
+
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final Thread thread = new Thread(() -> {
+        final UUID uuid = UUID.randomUUID();
+        for (int i = 0; i < 10_000; i++) {
+          coins.addLongValue(uuid, 1);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    subscription.close();
+
+    assertEquals(0, subscription.dropped());
+    assertEquals(40_000, sum[0]);
+    assertEquals(0, subscription.pending());
+    pipeline.close();
+  }
+}
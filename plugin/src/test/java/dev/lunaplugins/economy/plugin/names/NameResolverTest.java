@@ -0,0 +1,101 @@
+package dev.lunaplugins.economy.plugin.names;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@NullMarked
+class NameResolverTest {
+  private static final UUID FIRST = UUID.randomUUID();
+  private static final UUID SECOND = UUID.randomUUID();
+
+  private final Map<String, UUID> known = new HashMap<>();
+  private final AtomicInteger lookups = new AtomicInteger();
+  private final AtomicLong clock = new AtomicLong();
+  private final Function<String, @Nullable UUID> lookup = name -> {
+    this.lookups.incrementAndGet();
+    return this.known.get(name.toLowerCase());
+  };
+
+  @Test
+  void testCaching() {
+    final NameResolver resolver = new NameResolver(this.lookup, 16, Duration.ofSeconds(10), this.clock::get);
+    this.known.put("first", FIRST);
+
+    assertEquals(FIRST, resolver.apply("First"));
+    assertEquals(FIRST, resolver.apply("FIRST"));
+    assertEquals(FIRST, resolver.apply("first"));
+    assertEquals(1, this.lookups.get());
+
+    assertNull(resolver.apply("second"));
+    this.known.put("second", SECOND);
+    assertNull(resolver.apply("Second"));
+    assertEquals(2, this.lookups.get());
+    // Unknown names are only remembered for a limited time
+    this.clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertEquals(SECOND, resolver.apply("Second"));
+    assertEquals(3, this.lookups.get());
+
+    resolver.invalidate("FIRST");
+    assertEquals(FIRST, resolver.apply("first"));
+    assertEquals(4, this.lookups.get());
+  }
+
+  @Test
+  void testNameChange() {
+    final NameResolver resolver = new NameResolver(this.lookup, 16, Duration.ofSeconds(10), this.clock::get);
+    this.known.put("old", FIRST);
+    assertEquals(FIRST, resolver.apply("old"));
+    assertNull(resolver.apply("new"));
+
+    resolver.update(FIRST, "New");
+    this.known.remove("old");
+    assertEquals(FIRST, resolver.apply("NEW"));
+    assertNull(resolver.apply("old"));
+    assertEquals(3, this.lookups.get());
+
+    // Leaving keeps the name cached
+    resolver.remove(FIRST);
+    assertEquals(FIRST, resolver.apply("new"));
+    assertEquals(3, this.lookups.get());
+  }
+
+  @Test
+  void testFrequentNamesStayCached() {
+    final NameResolver resolver = new NameResolver(this.lookup, 16, Duration.ofSeconds(10), this.clock::get);
+    for (int i = 0; i < 16; i++) {
+      this.known.put("popular" + i, UUID.randomUUID());
+    }
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 16; i++) {
+        resolver.apply("popular" + i);
+      }
+    }
+    assertEquals(16, this.lookups.get());
+
+    // A scan of one-off names is not admitted over the popular ones
+    for (int i = 0; i < 100; i++) {
+      resolver.apply("unknown" + i);
+    }
+    assertEquals(16, resolver.cachedCount());
+    this.lookups.set(0);
+    for (int i = 0; i < 16; i++) {
+      resolver.apply("popular" + i);
+    }
+    assertEquals(0, this.lookups.get());
+
+    resolver.invalidateAll();
+    assertEquals(0, resolver.cachedCount());
+  }
+}
@@ -0,0 +1,136 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.WriteBatch;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class AccountTableTest {
+
+  @Test
+  void testColumns() {
+    final AccountTable table = new AccountTable(2);
+    final BalanceMap coins = table.addColumn();
+    final BalanceMap gems = table.addColumn();
+    assertThrows(IllegalStateException.class, table::addColumn);
+
+    assertFalse(coins.compareAndSet(1, 2, 5, 6));
+    assertEquals(-1, table.id(1, 2));
+    assertEquals(0, coins.getAndSet(1, 2, 10));
+    assertEquals(0, gems.getAndAdd(1, 2, -3, Long.MIN_VALUE, Long.MAX_VALUE));
+    assertEquals(10, coins.get(1, 2));
+    assertEquals(-3, gems.get(1, 2));
+    assertEquals(-3, gems.getAndUpdate(1, 2, value -> value * 2, -5, 0));
+    assertEquals(-5, gems.get(1, 2));
+    assertEquals(1, gems.saturations());
+    assertEquals(0, coins.saturations());
+    assertTrue(gems.contains(1, 2));
+    assertEquals(0, table.id(1, 2));
+    assertEquals(1, table.mostSignificantBits(0));
+    assertEquals(2, table.leastSignificantBits(0));
+
+    coins.getAndSet(3, 4, 0);
+    final List<Long> values = new ArrayList<>();
+    coins.forEach((msb, lsb, value) -> values.add(value));
+    assertEquals(List.of(10L), values);
+    assertEquals(1, coins.size());
+    assertEquals(1, gems.size());
+    assertEquals(2, table.size());
+  }
+
+  @Test
+  void testGrowth() {
+    final AccountTable table = new AccountTable(3);
+    final BalanceMap first = table.addColumn();
+    table.addColumn();
+    final BalanceMap third = table.addColumn();
+    final List<UUID> uuids = new ArrayList<>();
+    for (int i = 0; i < 10 * AccountTable.CHUNK_SIZE; i++) {
+      final UUID uuid = UUID.randomUUID();
+      uuids.add(uuid);
+      first.getAndSet(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), i);
+      third.getAndSet(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), -i);
+    }
+
+    assertEquals(uuids.size(), table.size());
+    for (int i = 0; i < uuids.size(); i++) {
+      final UUID uuid = uuids.get(i);
+      assertEquals(i, table.id(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+      assertEquals(i, first.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+      assertEquals(-i, third.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+    }
+  }
+
+  @Test
+  void testBatchAndListeners() {
+    final AccountTable table = new AccountTable(1);
+    final MemoryLongCurrency currency = new MemoryLongCurrency(Key.key("dummy:long"), name -> null, table.addColumn());
+    final Leaderboard leaderboard = Leaderboard.attach(currency.balances());
+    final UUID first = new UUID(1, 1);
+    final UUID second = new UUID(2, 2);
+    currency.longValue(first, 10);
+
+    currency.apply(new WriteBatch().add(first, 5).set(second, 20));
+    assertFalse(currency.transfer(first, second, 16));
+    assertTrue(currency.transfer(first, second, 15));
+
+    assertEquals(0, currency.longValue(first));
+    assertEquals(35, currency.longValue(second));
+    assertEquals(1, leaderboard.size());
+    assertEquals(second, leaderboard.top(1).getFirst().uuid());
+  }
+
+  @Test
+  void testConcurrentUpdates() throws InterruptedException {
+    final AccountTable table = new AccountTable(2);
+    final BalanceMap coins = table.addColumn();
+    final BalanceMap gems = table.addColumn();
+    final int threadCount = 8;
+    final int accounts = 4 * AccountTable.CHUNK_SIZE;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      final int seed = t;
+      final Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (final InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        final Random random = new Random(seed);
+        for (int i = 0; i < accounts; i++) {
+          coins.getAndAdd(i, 1, 1, Long.MIN_VALUE, Long.MAX_VALUE);
+          gems.getAndAdd(i, 2, 2, Long.MIN_VALUE, Long.MAX_VALUE);
+          coins.transfer(random.nextInt(accounts), 1, random.nextInt(accounts), 1, 1, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(2L * accounts, table.size());
+    long coinTotal = 0;
+    for (int i = 0; i < accounts; i++) {
+      assertTrue(coins.get(i, 1) >= 0);
+      coinTotal += coins.get(i, 1);
+      assertEquals(2L * threadCount, gems.get(i, 2));
+    }
+    assertEquals((long) threadCount * accounts, coinTotal);
+  }
+}
@@ -0,0 +1,111 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.api.metrics.BalanceHistogram;
+import dev.lunaplugins.economy.api.metrics.BalanceStatistics;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class BalanceAggregatesTest {
+
+  @Test
+  void testHistogramBuckets() {
+    final long[] values = {Long.MIN_VALUE + 1, -1_000_000, -17, -16, -1, 0, 1, 15, 16, 17, 31, 32, 1_000_000, Long.MAX_VALUE};
+    int previous = -1;
+    for (final long value : values) {
+      final int bucket = BalanceHistogram.bucketOf(value);
+      assertTrue(bucket > previous);
+      assertTrue(BalanceHistogram.lowerBound(bucket) <= value && value <= BalanceHistogram.upperBound(bucket));
+      previous = bucket;
+    }
+    assertEquals(0, BalanceHistogram.bucketOf(Long.MIN_VALUE));
+    assertEquals(BalanceHistogram.BUCKETS - 1, BalanceHistogram.bucketOf(Long.MAX_VALUE));
+    for (int bucket = 1; bucket < BalanceHistogram.BUCKETS; bucket++) {
+      assertEquals(BalanceHistogram.upperBound(bucket - 1) + 1, BalanceHistogram.lowerBound(bucket));
+    }
+  }
+
+  @Test
+  void testAggregates() {
+    final UuidLongMap map = new UuidLongMap(4, 4);
+    map.getAndSet(1, 1, 5);
+    final BalanceAggregates aggregates = BalanceAggregates.attach(map);
+    assertEquals(BigInteger.valueOf(5), aggregates.total());
+    assertEquals(1, aggregates.accounts());
+
+    map.getAndSet(2, 2, Long.MAX_VALUE);
+    map.getAndSet(3, 3, Long.MAX_VALUE);
+    map.getAndSet(4, 4, -7);
+    assertEquals(BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(1).add(BigInteger.valueOf(-2)), aggregates.total());
+    assertEquals(4, aggregates.accounts());
+    assertTrue(map.transfer(1, 1, 4, 4, 5, Long.MIN_VALUE, Long.MAX_VALUE));
+    map.getAndSet(2, 2, 0);
+    assertEquals(BigInteger.valueOf(Long.MAX_VALUE - 2), aggregates.total());
+    assertEquals(2, aggregates.accounts());
+
+    aggregates.detach();
+    map.getAndSet(5, 5, 1);
+    assertEquals(2, aggregates.accounts());
+  }
+
+  @Test
+  void testStatistics() {
+    final LunaCurrency currency = new MemoryLongCurrency(Key.key("test", "money"), name -> null);
+    for (int i = 1; i <= 1000; i++) {
+      currency.longValue(new UUID(i, i), i * 10L);
+    }
+    final BalanceStatistics statistics = currency.statistics();
+    assertEquals(Key.key("test", "money"), statistics.currency());
+    assertEquals(1000, statistics.accounts());
+    assertEquals(BigInteger.valueOf(5_005_000), statistics.total());
+    assertEquals(5005.0, statistics.mean());
+    assertTrue(Math.abs(statistics.median() - 5000) <= 5000 / 32);
+    assertTrue(Math.abs(statistics.quantile(0.99) - 9900) <= 9900 / 32);
+    assertEquals(10, statistics.quantile(0));
+  }
+
+  @Test
+  void testConcurrentTransfers() throws InterruptedException {
+    final UuidLongMap map = UuidLongMap.tiered(0);
+    final int accounts = 1000;
+    for (int i = 0; i < accounts; i++) {
+      map.getAndSet(i, i, 100);
+    }
+    final BalanceAggregates aggregates = BalanceAggregates.attach(map);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final Random random = new Random(t);
+      threads.add(Thread.ofPlatform().start(() -> {
+        for (int i = 0; i < 20_000; i++) {
+          final int from = random.nextInt(accounts);
+          final int to = random.nextInt(accounts);
+          map.transfer(from, from, to, to, random.nextInt(150), 0, Long.MAX_VALUE);
+        }
+      }));
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    final long[] nonZero = {0};
+    map.forEach((msb, lsb, value) -> nonZero[0] += value != 0 ? 1 : 0);
+    assertEquals(BigInteger.valueOf(100L * accounts), aggregates.total());
+    assertEquals(nonZero[0], aggregates.accounts());
+    final long[] distribution = aggregates.statistics(Key.key("test", "money")).distribution();
+    long counted = 0;
+    for (final long count : distribution) {
+      counted += count;
+    }
+    assertEquals(nonZero[0], counted);
+  }
+}
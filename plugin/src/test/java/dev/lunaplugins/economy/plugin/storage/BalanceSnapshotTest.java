@@ -0,0 +1,168 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.BalanceSnapshot;
+import dev.lunaplugins.economy.api.WriteBatch;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class BalanceSnapshotTest {
+
+  @Test
+  void testUuidLongMap() {
+    testIsolation(() -> new UuidLongMap(4, 4));
+  }
+
+  @Test
+  void testAccountTable() {
+    final AccountTable table = new AccountTable(2);
+    final BalanceMap gems = table.addColumn();
+    testIsolation(() -> {
+      gems.getAndSet(42, 42, 7);
+      return table.addColumn();
+    });
+    assertEquals(7, gems.get(42, 42));
+  }
+
+  @Test
+  void testTiered() {
+    final UuidLongMap map = UuidLongMap.tiered(0);
+    map.getAndSet(1, 1, 10);
+    map.getAndSet(2, 2, 20);
+    map.getAndSet(3, 3, 30);
+    assertEquals(2, map.demoteIf((msb, lsb) -> msb != 3));
+
+    final BalanceSnapshot snapshot = map.snapshot();
+    // Writing promotes the keys, but the snapshot still reads their old values from the cold tier
+    map.getAndAdd(1, 1, 5, Long.MIN_VALUE, Long.MAX_VALUE);
+    map.promote(2, 2);
+    assertEquals(0, map.coldSize());
+    assertFalse(map.demote(3, 3));
+    assertEquals(0, map.demoteIf((msb, lsb) -> true));
+    assertEquals(Map.of(new UUID(1, 1), 10L, new UUID(2, 2), 20L, new UUID(3, 3), 30L), entries(snapshot));
+    assertEquals(Map.of(new UUID(1, 1), 15L, new UUID(2, 2), 20L, new UUID(3, 3), 30L), entries(map));
+    assertEquals(3, map.size());
+
+    // A later snapshot finds the promoted keys in their stripes only
+    try (final BalanceSnapshot later = map.snapshot()) {
+      snapshot.close();
+      assertEquals(entries(map), entries(later));
+      assertEquals(0, map.demoteIf((msb, lsb) -> true));
+    }
+    assertEquals(3, map.demoteIf((msb, lsb) -> true));
+    assertEquals(3, map.coldSize());
+    assertEquals(Map.of(new UUID(1, 1), 15L, new UUID(2, 2), 20L, new UUID(3, 3), 30L), entries(map));
+  }
+
+  @Test
+  void testConcurrentTransfers() throws InterruptedException {
+    testConservation(UuidLongMap.tiered(0));
+    testConservation(new AccountTable(1).addColumn());
+  }
+
+  private static void testIsolation(final Supplier<BalanceMap> maps) {
+    final BalanceMap map = maps.get();
+    for (int i = 1; i <= 100; i++) {
+      map.getAndSet(i, i, i);
+    }
+    final Map<UUID, Long> before = entries(map);
+
+    final BalanceSnapshot first = map.snapshot();
+    map.getAndSet(1, 1, 1000);
+    map.getAndAdd(2, 2, 5, Long.MIN_VALUE, Long.MAX_VALUE);
+    assertTrue(map.compareAndSet(3, 3, 3, 0));
+    assertTrue(map.transfer(4, 4, 5, 5, 4, Long.MIN_VALUE, Long.MAX_VALUE));
+    map.getAndSet(1000, 1000, 1);
+    final BalanceSnapshot second = map.snapshot();
+    final WriteBatch batch = new WriteBatch();
+    for (int i = 1; i <= 100; i++) {
+      batch.add(new UUID(i, i), 1);
+    }
+    map.apply(batch, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    assertEquals(before, entries(first));
+    final Map<UUID, Long> expected = new HashMap<>(before);
+    expected.put(new UUID(1, 1), 1000L);
+    expected.put(new UUID(2, 2), 7L);
+    expected.remove(new UUID(3, 3));
+    expected.remove(new UUID(4, 4));
+    expected.put(new UUID(5, 5), 9L);
+    expected.put(new UUID(1000, 1000), 1L);
+    assertEquals(expected, entries(second));
+    assertTrue(second.epoch() > first.epoch());
+
+    first.close();
+    first.close();
+    assertThrows(IllegalStateException.class, () -> first.forEach((msb, lsb, value) -> { }));
+    assertEquals(expected, entries(second));
+    second.close();
+    try (final BalanceSnapshot current = map.snapshot()) {
+      assertEquals(entries(map), entries(current));
+    }
+  }
+
+  private static void testConservation(final BalanceMap map) throws InterruptedException {
+    final int accounts = 5000;
+    for (int i = 0; i < accounts; i++) {
+      map.getAndSet(i, i, 100);
+    }
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final Random random = new Random(t);
+      final Thread thread = new Thread(() -> {
+        while (running.get()) {
+          final int from = random.nextInt(accounts);
+          final int to = random.nextInt(accounts);
+          map.transfer(from, from, to, to, random.nextInt(50), Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    try {
+      for (int i = 0; i < 100; i++) {
+        try (final BalanceSnapshot snapshot = map.snapshot()) {
+          final long[] sum = {0};
+          snapshot.forEach((msb, lsb, value) -> sum[0] += value);
+          assertEquals(100L * accounts, sum[0]);
+        }
+      }
+    } finally {
+      running.set(false);
+      for (final Thread thread : threads) {
+        thread.join();
+      }
+    }
+  }
+
+  private static Map<UUID, Long> entries(final BalanceSnapshot snapshot) {
+    final Map<UUID, Long> entries = new HashMap<>();
+    snapshot.forEach((msb, lsb, value) -> assertEquals(null, entries.put(new UUID(msb, lsb), value)));
+    return entries;
+  }
+
+  private static Map<UUID, Long> entries(final BalanceMap map) {
+    final Map<UUID, Long> entries = new HashMap<>();
+    map.forEach((msb, lsb, value) -> {
+      if (value != 0) {
+        assertEquals(null, entries.put(new UUID(msb, lsb), value));
+      }
+    });
+    return entries;
+  }
+}
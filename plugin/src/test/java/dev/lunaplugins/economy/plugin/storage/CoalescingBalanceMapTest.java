@@ -0,0 +1,133 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class CoalescingBalanceMapTest {
+
+  @Test
+  void testExactReads() {
+    final CoalescingBalanceMap map = new CoalescingBalanceMap(new UuidLongMap(), Long.MIN_VALUE, Long.MAX_VALUE);
+    final List<Long> changes = new ArrayList<>();
+    map.addListener((msb, lsb, oldValue, newValue) -> changes.add(newValue));
+    for (int i = 0; i < 10; i++) {
+      map.increment(1, 1, 3, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+    assertTrue(changes.isEmpty());
+
+    assertEquals(30, map.get(1, 1));
+    assertEquals(List.of(30L), changes);
+    map.increment(1, 1, 5, Long.MIN_VALUE, Long.MAX_VALUE);
+    assertEquals(35, map.getAndSet(1, 1, 0));
+    map.increment(1, 1, -2, Long.MIN_VALUE, Long.MAX_VALUE);
+    map.fold();
+    assertEquals(List.of(30L, 35L, 0L, -2L), changes);
+    assertEquals(-2, map.delegate().get(1, 1));
+  }
+
+  @Test
+  void testListenerLockOrder() throws InterruptedException {
+    final CoalescingBalanceMap map = new CoalescingBalanceMap(new UuidLongMap(), Long.MIN_VALUE, Long.MAX_VALUE);
+    final ReentrantLock lock = new ReentrantLock();
+    final CountDownLatch notified = new CountDownLatch(1);
+    // Like a listener waiting for its own lock, while a holder of that lock reads the map
+    map.addListener((msb, lsb, oldValue, newValue) -> {
+      notified.countDown();
+      lock.lock();
+      lock.unlock();
+    });
+    map.increment(1, 1, 5, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    lock.lock();
+    final Thread folder = Thread.ofPlatform().daemon().start(map::fold);
+    try {
+      notified.await();
+      assertEquals(5, map.get(1, 1));
+      assertEquals(5, map.source().get(1, 1));
+    } finally {
+      lock.unlock();
+    }
+    folder.join(10_000);
+    assertFalse(folder.isAlive());
+    assertSame(map.delegate(), map.source());
+  }
+
+  @Test
+  void testOverflowAndBounds() {
+    final CoalescingBalanceMap map = new CoalescingBalanceMap(new UuidLongMap(), 0, Integer.MAX_VALUE);
+    map.increment(1, 1, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+    map.increment(1, 1, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+    assertEquals(Integer.MAX_VALUE, map.get(1, 1));
+    map.increment(2, 2, -5, Long.MIN_VALUE, Long.MAX_VALUE);
+    assertEquals(0, map.get(2, 2));
+  }
+
+  @Test
+  void testCurrency() {
+    final MemoryLongCurrency currency = new MemoryLongCurrency(
+      Key.key("dummy:long"),
+      name -> null,
+      new CoalescingBalanceMap(new UuidLongMap(), Long.MIN_VALUE, Long.MAX_VALUE)
+    );
+    final Leaderboard leaderboard = Leaderboard.attach(currency.balances());
+    final UUID first = new UUID(1, 1);
+    final UUID second = new UUID(2, 2);
+    currency.increment(first, 10);
+    currency.increment(second, 20);
+    currency.increment(first, 15);
+
+    assertTrue(currency.transfer(second, first, 5));
+    assertEquals(30, currency.longValue(first));
+    assertEquals(15, currency.longValue(second));
+    assertEquals(first, leaderboard.top(1).getFirst().uuid());
+  }
+
+  @Test
+  void testConcurrentIncrements() throws InterruptedException {
+    final CoalescingBalanceMap map = new CoalescingBalanceMap(new UuidLongMap(), Long.MIN_VALUE, Long.MAX_VALUE);
+    // Reading from a listener while a fold notifies it must not deadlock
+    Leaderboard.attach(map);
+    final int threadCount = 8;
+    final int accounts = 1000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      final Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (final InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        for (int round = 0; round < 100; round++) {
+          for (int i = 0; i < accounts; i++) {
+            map.increment(i, i, 1, Long.MIN_VALUE, Long.MAX_VALUE);
+          }
+          map.get(round, round);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    for (int i = 0; i < accounts; i++) {
+      assertEquals(100L * threadCount, map.get(i, i));
+    }
+  }
+}
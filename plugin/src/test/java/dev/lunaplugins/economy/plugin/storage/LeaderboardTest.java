@@ -0,0 +1,205 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.BalanceRanking;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class LeaderboardTest {
+  private static final Comparator<UUID> ORDER = Comparator
+    .comparingLong(UUID::getMostSignificantBits)
+    .thenComparingLong(UUID::getLeastSignificantBits);
+
+  private static void assertMatches(final MemoryLongCurrency currency, final List<UUID> uuids, final Leaderboard leaderboard) {
+    final List<UUID> expected = new ArrayList<>(uuids.stream().distinct().filter(uuid -> currency.longValue(uuid) != 0).toList());
+    expected.sort(Comparator.comparingLong((UUID uuid) -> -currency.longValue(uuid)).thenComparing(ORDER));
+
+    assertEquals(expected.size(), leaderboard.size());
+    final List<Leaderboard.Entry> entries = leaderboard.top(Integer.MAX_VALUE);
+    assertEquals(expected.size(), entries.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(new Leaderboard.Entry(expected.get(i), currency.longValue(expected.get(i)), i + 1), entries.get(i));
+      assertEquals(i + 1, leaderboard.rankOf(expected.get(i)));
+    }
+  }
+
+  @Test
+  void testOrdering() {
+    final UuidLongMap balances = new UuidLongMap();
+    final MemoryLongCurrency currency = new MemoryLongCurrency(Key.key("dummy:long"), name -> null, balances);
+    final Random random = new Random(42);
+    final List<UUID> uuids = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      uuids.add(new UUID(random.nextLong(), random.nextLong()));
+      currency.longValue(uuids.getLast(), random.nextInt(100));
+    }
+    final Leaderboard leaderboard = Leaderboard.attach(balances);
+    assertMatches(currency, uuids, leaderboard);
+
+    for (int i = 0; i < 5_000; i++) {
+      final UUID uuid = uuids.get(random.nextInt(uuids.size()));
+      switch (random.nextInt(3)) {
+        case 0 -> currency.addLongValue(uuid, random.nextInt(200) - 100);
+        case 1 -> currency.transfer(uuid, uuids.get(random.nextInt(uuids.size())), random.nextInt(50));
+        default -> {
+          uuids.add(UUID.randomUUID());
+          currency.longValue(uuids.getLast(), random.nextInt(100));
+        }
+      }
+    }
+    assertMatches(currency, uuids, leaderboard);
+    assertEquals(-1, leaderboard.rankOf(new UUID(0, 0)));
+    currency.longValue(uuids.getFirst(), 0);
+    assertEquals(-1, leaderboard.rankOf(uuids.getFirst()));
+    assertMatches(currency, uuids, leaderboard);
+
+    final List<Leaderboard.Entry> all = leaderboard.top(uuids.size());
+    assertEquals(all.subList(0, 10), leaderboard.top(10));
+    assertEquals(all.subList(30, 40), leaderboard.page(3, 10));
+    assertEquals(all.subList(all.size() - 3, all.size()), leaderboard.range(all.size() - 3, 10));
+    assertEquals(List.of(), leaderboard.range(all.size(), 10));
+
+    leaderboard.detach();
+    currency.longValue(uuids.getFirst(), Long.MAX_VALUE);
+    assertEquals(all, leaderboard.top(uuids.size()));
+  }
+
+  @Test
+  void testCurrencyRanking() {
+    // The index is only built for currencies asking for it
+    assertThrows(UnsupportedOperationException.class, () -> new MemoryLongCurrency(Key.key("dummy:long"), name -> null).ranking());
+
+    final MemoryLongCurrency currency = new MemoryLongCurrency(Key.key("dummy:long"), name -> null, new UuidLongMap(), true);
+    final UUID first = new UUID(1, 1);
+    final UUID second = new UUID(2, 2);
+    currency.longValue(first, 5);
+    final BalanceRanking ranking = currency.ranking();
+    assertEquals(1, ranking.size());
+
+    // Changes are only marked as dirty and applied by the next query
+    currency.longValue(second, 10);
+    currency.transfer(second, first, 3);
+    assertEquals(List.of(new BalanceRanking.Entry(first, 8, 1), new BalanceRanking.Entry(second, 7, 2)), ranking.top(10));
+    assertEquals(2, ranking.countBetween(7, 8));
+    assertEquals(1, ranking.countBetween(8, Long.MAX_VALUE));
+    assertEquals(List.of(new BalanceRanking.Entry(second, 7, 2)), ranking.pageBetween(0, 7, 0, 10));
+    final List<UUID> visited = new ArrayList<>();
+    assertEquals(2, ranking.forEachBetween(1, 10, (msb, lsb, balance) -> visited.add(new UUID(msb, lsb))));
+    assertEquals(List.of(first, second), visited);
+    currency.longValue(first, 0);
+    assertEquals(-1, ranking.rankOf(first));
+    assertEquals(1, ranking.rankOf(second));
+    assertEquals(0, ranking.countBetween(8, 8));
+  }
+
+  @Test
+  void testRangeQueries() {
+    final UuidLongMap balances = new UuidLongMap();
+    final MemoryLongCurrency currency = new MemoryLongCurrency(Key.key("dummy:long"), name -> null, balances);
+    final Leaderboard leaderboard = Leaderboard.attach(balances);
+    final Random random = new Random(7);
+    for (int i = 0; i < 1_000; i++) {
+      currency.longValue(new UUID(random.nextLong(), random.nextLong()), random.nextInt(200) - 100);
+    }
+    currency.longValue(new UUID(1, 1), Long.MAX_VALUE);
+    currency.longValue(new UUID(2, 2), Long.MIN_VALUE);
+    final List<Leaderboard.Entry> all = leaderboard.top(Integer.MAX_VALUE);
+
+    final long[][] bounds = {{10, 50}, {-100, -1}, {50, 50}, {Long.MIN_VALUE, Long.MAX_VALUE}, {1, Long.MAX_VALUE}, {Long.MIN_VALUE, 0}, {50, 10}};
+    for (final long[] bound : bounds) {
+      final List<Leaderboard.Entry> expected = all.stream().filter(entry -> entry.balance() >= bound[0] && entry.balance() <= bound[1]).toList();
+      assertEquals(expected.size(), leaderboard.countBetween(bound[0], bound[1]));
+
+      final List<Leaderboard.Entry> visited = new ArrayList<>();
+      assertEquals(expected.size(), leaderboard.forEachBetween(bound[0], bound[1], (msb, lsb, value) ->
+        visited.add(new Leaderboard.Entry(new UUID(msb, lsb), value, expected.get(visited.size()).rank()))
+      ));
+      assertEquals(expected, visited);
+
+      final List<Leaderboard.Entry> pages = new ArrayList<>();
+      for (int page = 0; ; page++) {
+        final List<Leaderboard.Entry> entries = leaderboard.pageBetween(bound[0], bound[1], page, 7);
+        if (entries.isEmpty()) {
+          break;
+        }
+        pages.addAll(entries);
+      }
+      assertEquals(expected, pages);
+
+      final int offset = Math.min(5, expected.size());
+      final List<UUID> window = new ArrayList<>();
+      final long count = leaderboard.forEachBetween(bound[0], bound[1], offset, 3, (msb, lsb, value) -> window.add(new UUID(msb, lsb)));
+      assertEquals(window.size(), count);
+      assertEquals(expected.subList(offset, Math.min(offset + 3, expected.size())).stream().map(Leaderboard.Entry::uuid).toList(), window);
+    }
+  }
+
+  @Test
+  void testMutatingConsumer() {
+    final MemoryLongCurrency currency = new MemoryLongCurrency(Key.key("dummy:long"), name -> null, new UuidLongMap(), true);
+    final BalanceRanking ranking = currency.ranking();
+    final List<UUID> uuids = new ArrayList<>();
+    for (int i = 1; i <= 1_000; i++) {
+      final UUID uuid = new UUID(i, i);
+      uuids.add(uuid);
+      currency.longValue(uuid, i * 10L);
+    }
+
+    // Tax everyone with at least 500 by 10% across several batches, querying the ranking from within the consumer
+    final long[] previous = {Long.MAX_VALUE};
+    final long taxed = ranking.forEachBetween(500, Long.MAX_VALUE, (msb, lsb, balance) -> {
+      assertTrue(balance < previous[0]);
+      previous[0] = balance;
+      final UUID uuid = new UUID(msb, lsb);
+      currency.addLongValue(uuid, -balance / 10);
+      assertEquals(1_001 - msb, ranking.rankOf(uuid));
+    });
+    assertEquals(951, taxed);
+    for (int i = 1; i <= 1_000; i++) {
+      final long balance = i * 10L;
+      assertEquals(balance >= 500 ? balance - balance / 10 : balance, currency.longValue(uuids.get(i - 1)));
+    }
+    assertEquals(1_000, ranking.countBetween(Long.MIN_VALUE, Long.MAX_VALUE));
+    // 450 to 490 untaxed, 450 to 900 taxed from 500 to 1000
+    assertEquals(5 + 51, ranking.countBetween(450, 900));
+  }
+
+  @Test
+  void testConcurrentUpdates() throws InterruptedException {
+    final UuidLongMap balances = new UuidLongMap();
+    final MemoryLongCurrency currency = new MemoryLongCurrency(Key.key("dummy:long"), name -> null, balances);
+    final Leaderboard leaderboard = Leaderboard.attach(balances);
+    final List<UUID> uuids = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      uuids.add(UUID.randomUUID());
+    }
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      final int seed = t;
+      final Thread thread = new Thread(() -> {
+        final Random random = new Random(seed);
+        for (int i = 0; i < 20_000; i++) {
+          currency.addLongValue(uuids.get(random.nextInt(uuids.size())), random.nextInt(11) - 5);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertMatches(currency, uuids, leaderboard);
+  }
+}
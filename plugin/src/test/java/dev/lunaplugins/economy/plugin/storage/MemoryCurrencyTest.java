@@ -0,0 +1,195 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import dev.lunaplugins.economy.api.WriteBatch;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class MemoryCurrencyTest {
+  private static final UUID DUMMY = UUID.fromString("c0ffee00-0000-4000-8000-000000000001");
+
+  @Test
+  void testLongOperations() {
+    final MemoryLongCurrency currency = new MemoryLongCurrency(Key.key("dummy:long"), name -> DUMMY);
+
+    assertEquals(0, currency.longValue("dummy", 24));
+    assertEquals(24, currency.addLongValue("dummy", 5));
+    assertEquals(29, currency.longValue("dummy"));
+    assertEquals(29, currency.longValue("dummy", Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, currency.addLongValue("dummy", 1));
+    assertEquals(Long.MAX_VALUE, currency.longValue("dummy"));
+    assertEquals(Integer.MAX_VALUE, currency.intValue("dummy"));
+    assertEquals(1, currency.balances().saturations());
+  }
+
+  @Test
+  void testIntClamping() {
+    final MemoryIntCurrency currency = new MemoryIntCurrency(Key.key("dummy:int"), name -> DUMMY);
+
+    assertEquals(0, currency.longValue("dummy", Long.MAX_VALUE));
+    assertEquals(Integer.MAX_VALUE, currency.longValue("dummy"));
+    assertEquals(Integer.MAX_VALUE, currency.addLongValue("dummy", Long.MIN_VALUE));
+    assertEquals(Integer.MIN_VALUE, currency.intValue("dummy"));
+  }
+
+  @Test
+  void testUuidHalves() {
+    final long msb = DUMMY.getMostSignificantBits();
+    final long lsb = DUMMY.getLeastSignificantBits();
+    final MemoryIntCurrency ints = new MemoryIntCurrency(Key.key("dummy:int"), name -> DUMMY);
+    final MemoryFixedPointCurrency fixed = new MemoryFixedPointCurrency(Key.key("dummy:fixed"), name -> DUMMY, 2);
+
+    assertEquals(0, ints.longValue(msb, lsb, Long.MAX_VALUE));
+    assertEquals(Integer.MAX_VALUE, ints.longValue(DUMMY));
+    assertEquals(Integer.MAX_VALUE, ints.addIntValue(msb, lsb, Integer.MIN_VALUE));
+    assertEquals(-1, ints.intValue(msb, lsb));
+    assertTrue(ints.compareAndSetLong(msb, lsb, -1, 7));
+    assertFalse(ints.compareAndSetLong(msb, lsb, -1, 8));
+    assertEquals(7.0, ints.doubleValue(msb, lsb));
+
+    assertEquals(0.0, fixed.addDoubleValue(msb, lsb, 1.5));
+    assertEquals(150, fixed.unitValue(DUMMY));
+    assertEquals(1, fixed.longValue(msb, lsb, 3));
+    assertEquals(300, fixed.unitValue(msb, lsb));
+    assertEquals(3.0f, fixed.floatValue(msb, lsb));
+    assertEquals(fixed.bigDecimalValue(DUMMY), fixed.bigDecimalValue(msb, lsb));
+  }
+
+  @Test
+  void testFixedPoint() {
+    final MemoryFixedPointCurrency currency = new MemoryFixedPointCurrency(Key.key("dummy:fixed"), name -> DUMMY, 2);
+    final UUID other = UUID.randomUUID();
+
+    assertEquals(0.0, currency.doubleValue("dummy", 10.25));
+    currency.apply(new WriteBatch().add(DUMMY, 1).set(other, 3));
+    assertEquals(1_125, currency.unitValue(DUMMY));
+    assertTrue(currency.transfer(DUMMY, other, 11));
+    assertFalse(currency.transfer(DUMMY, other, 1));
+    assertEquals(0.25, currency.doubleValue(DUMMY));
+    assertArrayEquals(new long[]{0, 14}, currency.longValues(List.of(DUMMY, other)));
+    assertArrayEquals(new double[]{0.25, 14.0}, currency.doubleValues(List.of(DUMMY, other)));
+  }
+
+  @Test
+  void testGrowth() {
+    final UuidLongMap map = new UuidLongMap(2, 4);
+    final List<UUID> uuids = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      final UUID uuid = UUID.randomUUID();
+      uuids.add(uuid);
+      map.getAndSet(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), i);
+    }
+
+    assertEquals(10_000, map.size());
+    for (int i = 0; i < uuids.size(); i++) {
+      assertEquals(i, map.get(uuids.get(i).getMostSignificantBits(), uuids.get(i).getLeastSignificantBits()));
+    }
+    assertFalse(map.contains(1, 2));
+    assertTrue(map.compareAndSet(1, 2, 0, 5));
+    assertFalse(map.compareAndSet(1, 2, 0, 6));
+    assertEquals(5, map.get(1, 2));
+  }
+
+  @Test
+  void testConcurrentAdds() throws InterruptedException {
+    final MemoryLongCurrency currency = new MemoryLongCurrency(Key.key("dummy:long"), name -> null);
+    final int threadCount = 8;
+    final int iterations = 20_000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      final Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (final InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        for (int i = 0; i < iterations; i++) {
+          currency.addLongValue(DUMMY, 1);
+          currency.addLongValue(new UUID(i, i), 1);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals((long) threadCount * iterations, currency.longValue(DUMMY));
+    for (int i = 0; i < iterations; i++) {
+      assertEquals(threadCount, currency.longValue(new UUID(i, i)));
+    }
+  }
+
+  @Test
+  void testBatch() {
+    final MemoryIntCurrency currency = new MemoryIntCurrency(Key.key("dummy:int"), name -> null);
+    final UUID other = UUID.randomUUID();
+    currency.intValue(DUMMY, 10);
+
+    currency.apply(new WriteBatch()
+      .add(DUMMY, 5)
+      .set(other, Long.MAX_VALUE)
+      .add(other, -1));
+
+    assertEquals(15, currency.intValue(DUMMY));
+    assertEquals(Integer.MAX_VALUE - 1, currency.intValue(other));
+    assertEquals(1, currency.balances().saturations());
+    assertFalse(currency.transfer(DUMMY, other, 16));
+    // The receiver cannot hold the amount, so nothing is moved
+    assertFalse(currency.transfer(DUMMY, other, 15));
+    assertEquals(15, currency.intValue(DUMMY));
+    assertEquals(Integer.MAX_VALUE - 1, currency.intValue(other));
+    assertTrue(currency.transfer(DUMMY, other, 1));
+    assertEquals(14, currency.intValue(DUMMY));
+    assertEquals(Integer.MAX_VALUE, currency.intValue(other));
+    assertTrue(currency.transfer(other, other, 100));
+    assertEquals(Integer.MAX_VALUE, currency.intValue(other));
+  }
+
+  @Test
+  void testConcurrentTransfers() throws InterruptedException {
+    final MemoryLongCurrency currency = new MemoryLongCurrency(Key.key("dummy:long"), name -> null);
+    final UUID[] accounts = new UUID[64];
+    for (int i = 0; i < accounts.length; i++) {
+      accounts[i] = UUID.randomUUID();
+      currency.longValue(accounts[i], 1_000);
+    }
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      final int seed = t;
+      final Thread thread = new Thread(() -> {
+        final Random random = new Random(seed);
+        for (int i = 0; i < 20_000; i++) {
+          currency.transfer(accounts[random.nextInt(accounts.length)], accounts[random.nextInt(accounts.length)], random.nextInt(100));
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    long total = 0;
+    for (final UUID account : accounts) {
+      assertTrue(currency.longValue(account) >= 0);
+      total += currency.longValue(account);
+    }
+    assertEquals(1_000L * accounts.length, total);
+  }
+}
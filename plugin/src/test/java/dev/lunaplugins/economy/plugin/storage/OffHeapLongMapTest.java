@@ -0,0 +1,116 @@
+package dev.lunaplugins.economy.plugin.storage;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@NullMarked
+class OffHeapLongMapTest {
+
+  @Test
+  void testAgainstHashMap() {
+    final OffHeapLongMap map = new OffHeapLongMap(0);
+    final Map<UUID, Long> expected = new HashMap<>();
+    final Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      // Few distinct keys, so removals frequently have to shift colliding entries
+      final UUID uuid = new UUID(random.nextInt(4096), random.nextInt(4));
+      final long value = random.nextInt(3) == 0 ? 0 : random.nextLong();
+      assertEquals((long) expected.getOrDefault(uuid, 0L), map.get(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+      map.put(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), value);
+      if (value == 0) {
+        expected.remove(uuid);
+      } else {
+        expected.put(uuid, value);
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    final Map<UUID, Long> actual = new HashMap<>();
+    map.forEach((msb, lsb, value) -> actual.put(new UUID(msb, lsb), value));
+    assertEquals(expected, actual);
+    assertTrue(map.allocatedBytes() > 0);
+  }
+
+  @Test
+  void testTiering() {
+    final UuidLongMap map = UuidLongMap.tiered(0);
+    final List<Long> changes = new ArrayList<>();
+    map.addListener((msb, lsb, oldValue, newValue) -> changes.add(newValue));
+    map.getAndSet(1, 1, 10);
+    map.getAndSet(2, 2, 20);
+    map.getAndSet(3, 3, 0);
+
+    // Keys without a balance are dropped instead of being moved
+    assertEquals(2, map.demoteIf((msb, lsb) -> msb != 2));
+    assertFalse(map.demote(4, 4));
+    assertEquals(1, map.coldSize());
+    assertEquals(2, map.size());
+    assertEquals(10, map.get(1, 1));
+    assertTrue(map.contains(1, 1));
+    assertFalse(map.contains(3, 3));
+
+    // Writing promotes a key, keeping its value
+    assertEquals(10, map.getAndAdd(1, 1, 5, Long.MIN_VALUE, Long.MAX_VALUE));
+    assertEquals(15, map.get(1, 1));
+    assertEquals(0, map.coldSize());
+    assertFalse(map.compareAndSet(3, 3, 1, 2));
+
+    assertTrue(map.demote(2, 2));
+    assertTrue(map.compareAndSet(2, 2, 20, 21));
+    assertTrue(map.demote(2, 2));
+    map.promote(2, 2);
+    assertEquals(0, map.coldSize());
+    assertEquals(21, map.get(2, 2));
+    assertEquals(2, map.size());
+    assertEquals(List.of(10L, 20L, 15L, 21L), changes);
+  }
+
+  @Test
+  void testConcurrentDemotion() throws InterruptedException {
+    final UuidLongMap map = UuidLongMap.tiered(0);
+    final int threadCount = 4;
+    final int accounts = 4096;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      final Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (final InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        for (int round = 0; round < 10; round++) {
+          for (int i = 0; i < accounts; i++) {
+            map.getAndAdd(i, i, 1, Long.MIN_VALUE, Long.MAX_VALUE);
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    while (threads.stream().anyMatch(Thread::isAlive)) {
+      map.demoteIf((msb, lsb) -> (msb & 1) == 0);
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(accounts, map.size());
+    for (int i = 0; i < accounts; i++) {
+      assertEquals(10L * threadCount, map.get(i, i));
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package dev.lunaplugins.economy.plugin.storage.journal;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.api.WriteBatch;
+import dev.lunaplugins.economy.plugin.storage.AccountTable;
+import dev.lunaplugins.economy.plugin.storage.BalanceMap;
+import dev.lunaplugins.economy.plugin.storage.CurrencyStorage;
+import dev.lunaplugins.economy.plugin.storage.StoragePrecision;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@NullMarked
+class JournalTest {
+  private static final Key KEY = Key.key("dummy:coins");
+  private static final UUID FIRST = UUID.randomUUID();
+  private static final UUID SECOND = UUID.randomUUID();
+
+  private static CurrencyStorage open(final Path directory) throws IOException {
+    return open(directory, StoragePrecision.LONG, 0);
+  }
+
+  private static CurrencyStorage open(final Path directory, final StoragePrecision precision, final int scale) throws IOException {
+    return CurrencyStorage.open(directory, KEY, precision, scale, name -> null, JournalSettings.DEFAULT, e -> {
+      throw new AssertionError(e);
+    });
+  }
+
+  private static CurrencyStorage open(final Path directory, final int scale, final BalanceMap balances) throws IOException {
+    return CurrencyStorage.open(directory, KEY, StoragePrecision.FIXED_POINT, scale, false, name -> null, count -> balances, JournalSettings.DEFAULT, e -> {
+      throw new AssertionError(e);
+    });
+  }
+
+  @Test
+  void testReplay(@TempDir final Path directory) throws IOException {
+    try (final CurrencyStorage storage = open(directory)) {
+      final LunaCurrency currency = storage.currency();
+      currency.longValue(FIRST, 100);
+      currency.addLongValue(FIRST, Long.MAX_VALUE);
+      currency.longValue(SECOND, Long.MIN_VALUE);
+      currency.addLongValue(SECOND, 5);
+      currency.transfer(FIRST, SECOND, 7);
+      currency.apply(new WriteBatch().set(FIRST, 42).add(FIRST, 1));
+    }
+
+    try (final CurrencyStorage storage = open(directory)) {
+      assertEquals(43, storage.currency().longValue(FIRST));
+      assertEquals(Long.MIN_VALUE + 12, storage.currency().longValue(SECOND));
+      storage.currency().addLongValue(FIRST, 1);
+    }
+
+    try (final CurrencyStorage storage = open(directory)) {
+      assertEquals(44, storage.currency().longValue(FIRST));
+    }
+  }
+
+  @Test
+  void testTornFrame(@TempDir final Path directory) throws IOException {
+    try (final CurrencyStorage storage = open(directory)) {
+      storage.currency().longValue(FIRST, 10);
+      storage.journal().sync();
+      storage.currency().longValue(FIRST, 20);
+    }
+    final Path journal = directory.resolve("dummy").resolve("coins").resolve("journal");
+    final List<Path> segments = Journal.segments(journal);
+    final long intact = Files.size(segments.getLast());
+    // Simulate a crash in the middle of writing the last frame
+    Files.write(segments.getLast(), new byte[]{0, 0, 0, 24, 1, 2, 3}, StandardOpenOption.APPEND);
+
+    try (final CurrencyStorage storage = open(directory)) {
+      assertEquals(20, storage.currency().longValue(FIRST));
+      assertEquals(intact, Files.size(segments.getLast()));
+    }
+  }
+
+  @Test
+  void testScaleChange(@TempDir final Path directory) throws IOException {
+    // The scale may change as long as there are no balances
+    open(directory, StoragePrecision.FIXED_POINT, 2).close();
+    try (final CurrencyStorage storage = open(directory, StoragePrecision.FIXED_POINT, 3)) {
+      storage.currency().longValue(FIRST, 5);
+    }
+
+    assertThrows(IOException.class, () -> open(directory, StoragePrecision.FIXED_POINT, 2));
+    assertThrows(IOException.class, () -> open(directory, StoragePrecision.LONG, 0));
+    try (final CurrencyStorage storage = open(directory, StoragePrecision.FIXED_POINT, 3)) {
+      assertEquals(5, storage.currency().longValue(FIRST));
+    }
+  }
+
+  @Test
+  void testScaleChangeOfSharedTable(@TempDir final Path directory) throws IOException {
+    final AccountTable table = new AccountTable(2);
+    final BalanceMap coins = table.addColumn();
+    final BalanceMap gems = table.addColumn();
+    gems.getAndSet(1, 2, 10);
+    // Accounts of other currencies sharing the table are no balances of this one
+    open(directory, 2, coins).close();
+    try (final CurrencyStorage storage = open(directory, 3, coins)) {
+      storage.currency().longValue(FIRST, 5);
+    }
+    assertEquals(1, coins.size());
+
+    assertThrows(IOException.class, () -> open(directory, 2, new AccountTable(1).addColumn()));
+  }
+
+  @Test
+  void testBacklogLimit(@TempDir final Path directory) throws IOException {
+    final List<IOException> errors = new ArrayList<>();
+    final Journal journal = Journal.open(directory, "dummy:coins", 0, new JournalSettings(Duration.ofHours(1), 64, 512), errors::add);
+    final long[] msb = new long[32];
+    final long[] lsb = new long[32];
+    final long[] oldValues = new long[32];
+    final long[] newValues = new long[32];
+    for (int i = 0; i < msb.length; i++) {
+      msb[i] = i;
+      newValues[i] = 1;
+    }
+
+    // Larger than the buffer, so it grows instead of waiting for the disk
+    journal.balancesChanged(msb, lsb, oldValues, newValues, 16);
+    journal.sync();
+    assertThrows(IllegalStateException.class, () -> journal.balancesChanged(msb, lsb, oldValues, newValues, 32));
+    assertEquals(1, errors.size());
+    // Every later change is rejected as well, so the journal stays consistent
+    assertThrows(IllegalStateException.class, () -> journal.balanceChanged(1, 1, 0, 5));
+    assertThrows(IOException.class, journal::close);
+    assertEquals(1, errors.size());
+
+    final long[] sum = new long[1];
+    assertEquals(16, Journal.replay(directory, 0, (mostSigBits, leastSigBits, delta) -> sum[0] += delta));
+    assertEquals(16, sum[0]);
+  }
+}
@@ -0,0 +1,102 @@
+package dev.lunaplugins.economy.plugin.storage.journal;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.plugin.storage.CurrencyStorage;
+import dev.lunaplugins.economy.plugin.storage.StoragePrecision;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@NullMarked
+class SnapshotsTest {
+  private static final Key KEY = Key.key("dummy:coins");
+
+  private static CurrencyStorage open(final Path directory) throws IOException {
+    return CurrencyStorage.open(directory, KEY, StoragePrecision.LONG, 0, name -> null, JournalSettings.DEFAULT, e -> {
+      throw new AssertionError(e);
+    });
+  }
+
+  @Test
+  void testCompaction(@TempDir final Path directory) throws IOException {
+    final List<UUID> uuids = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      uuids.add(UUID.randomUUID());
+    }
+    try (final CurrencyStorage storage = open(directory)) {
+      final LunaCurrency currency = storage.currency();
+      for (int i = 0; i < uuids.size(); i++) {
+        currency.longValue(uuids.get(i), i);
+      }
+      storage.compact();
+      for (int i = 0; i < uuids.size(); i += 2) {
+        currency.addLongValue(uuids.get(i), 1);
+      }
+      storage.compact();
+      currency.longValue(uuids.getFirst(), 0);
+    }
+
+    final Path journal = directory.resolve("dummy").resolve("coins").resolve("journal");
+    final Path snapshot = Snapshots.latest(directory.resolve("dummy").resolve("coins").resolve("snapshots"));
+    assertNotNull(snapshot);
+    // Only the segments written after the last compaction are kept
+    assertEquals(Snapshots.baseSegment(snapshot), Journal.segmentIndex(Journal.segments(journal).getFirst()));
+    try (final Snapshots.Reader reader = Snapshots.open(snapshot)) {
+      assertEquals(uuids.size(), reader.count());
+    }
+
+    try (final CurrencyStorage storage = open(directory)) {
+      assertEquals(0, storage.currency().longValue(uuids.getFirst()));
+      for (int i = 1; i < uuids.size(); i++) {
+        assertEquals(i % 2 == 0 ? i + 1 : i, storage.currency().longValue(uuids.get(i)));
+      }
+    }
+  }
+
+  @Test
+  void testConcurrentCompaction(@TempDir final Path directory) throws IOException, InterruptedException {
+    final UUID[] accounts = new UUID[32];
+    for (int i = 0; i < accounts.length; i++) {
+      accounts[i] = UUID.randomUUID();
+    }
+    final long[] expected;
+    try (final CurrencyStorage storage = open(directory)) {
+      final AtomicBoolean running = new AtomicBoolean(true);
+      final List<Thread> threads = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        final Thread thread = new Thread(() -> {
+          int i = 0;
+          while (running.get()) {
+            storage.currency().addLongValue(accounts[i++ % accounts.length], 1);
+          }
+        });
+        thread.start();
+        threads.add(thread);
+      }
+      for (int i = 0; i < 10; i++) {
+        storage.compact();
+      }
+      running.set(false);
+      for (final Thread thread : threads) {
+        thread.join();
+      }
+      expected = storage.currency().longValues(List.of(accounts));
+    }
+
+    try (final CurrencyStorage storage = open(directory)) {
+      assertArrayEquals(expected, storage.currency().longValues(List.of(accounts)));
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package dev.lunaplugins.economy.plugin.storage.sql;
+
+import dev.lunaplugins.economy.api.LunaCurrency;
+import dev.lunaplugins.economy.api.WriteBatch;
+import dev.lunaplugins.economy.plugin.storage.StoragePrecision;
+import net.kyori.adventure.key.Key;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@NullMarked
+class SqlStorageTest {
+  private static final Key KEY = Key.key("dummy:coins");
+  private static final UUID FIRST = UUID.randomUUID();
+  private static final UUID SECOND = UUID.randomUUID();
+
+  private static SqlSettings settings(final Path directory) {
+    return new SqlSettings("jdbc:h2:file:" + directory.resolve("balances").toAbsolutePath(), "", "", "balances", Duration.ofMinutes(1), 2);
+  }
+
+  private static SqlStorage open(final Path directory) throws SQLException {
+    return open(directory, StoragePrecision.LONG, 0);
+  }
+
+  private static SqlStorage open(final Path directory, final StoragePrecision precision, final int scale) throws SQLException {
+    return SqlStorage.open(settings(directory), KEY, precision, scale, name -> null, e -> {
+      throw new AssertionError(e);
+    });
+  }
+
+  private static long rowCount(final Path directory) throws SQLException {
+    try (final Connection connection = DriverManager.getConnection(settings(directory).url());
+         final Statement statement = connection.createStatement();
+         final ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM balances")) {
+      result.next();
+      return result.getLong(1);
+    }
+  }
+
+  @Test
+  void testWriteBehind(@TempDir final Path directory) throws SQLException, IOException {
+    try (final SqlStorage storage = open(directory)) {
+      final LunaCurrency currency = storage.currency();
+      for (int i = 0; i < 10_000; i++) {
+        currency.addLongValue(FIRST, 1);
+      }
+      currency.longValue(SECOND, Long.MIN_VALUE);
+      currency.apply(new WriteBatch().add(SECOND, 5).add(new UUID(1, 2), 3));
+      assertEquals(3, storage.dirtyCount());
+
+      storage.flush();
+      assertEquals(0, storage.dirtyCount());
+      // Repeated changes of the same balance are coalesced into a single row
+      assertEquals(3, rowCount(directory));
+      currency.transfer(FIRST, SECOND, 7);
+    }
+
+    try (final SqlStorage storage = open(directory)) {
+      assertEquals(10_000 - 7, storage.currency().longValue(FIRST));
+      assertEquals(Long.MIN_VALUE + 12, storage.currency().longValue(SECOND));
+      assertEquals(3, storage.currency().longValue(new UUID(1, 2)));
+    }
+  }
+
+  @Test
+  void testScaleChange(@TempDir final Path directory) throws SQLException, IOException {
+    // The scale may change as long as there are no balances
+    open(directory, StoragePrecision.FIXED_POINT, 2).close();
+    try (final SqlStorage storage = open(directory, StoragePrecision.FIXED_POINT, 3)) {
+      storage.currency().longValue(FIRST, 5);
+    }
+
+    assertThrows(SQLException.class, () -> open(directory, StoragePrecision.FIXED_POINT, 2));
+    try (final SqlStorage storage = open(directory, StoragePrecision.FIXED_POINT, 3)) {
+      assertEquals(5, storage.currency().longValue(FIRST));
+    }
+  }
+}
@@ -0,0 +1,7 @@
+plugins {
+  id("luna.java-conventions")
+}
+
+dependencies {
+  compileOnly("org.jspecify:jspecify:1.0.0")
+}
@@ -0,0 +1,299 @@
+package dev.lunaplugins.economy.processor;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.tree.SynchronizedTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
+import com.sun.source.util.Trees;
+import org.jspecify.annotations.Nullable;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/// Generates a final, flattened adapter class for every interface annotated with
+/// `dev.lunaplugins.economy.api.currencies.GenerateAdapter`.
+///
+/// The adapter of an interface `Foo` is called `FooAdapter` and wraps an instance of
+/// `Foo`, its backend. Every method of the interface, including the inherited ones, becomes
+/// a final method of the adapter:
+///
+/// - Abstract methods are forwarded to the backend.
+/// - Default methods synchronizing on `this` are forwarded to the backend as well, since
+///   they are only atomic in regard to other callers locking the same monitor.
+/// - Default methods which only throw an exception are optional operations the backend
+///   may support, so they are forwarded too.
+/// - All other default methods are copied into the adapter. Their calls to other methods
+///   of the interface then bind to final methods of a final class, which the JIT can
+///   always inline, instead of going through a chain of interface calls.
+///
+/// A backend may override some of the copied default methods, e.g. with a faster or
+/// atomic implementation. The constructor of the adapter looks up which of them the
+/// class of its backend overrides, and every copied method starts by forwarding to the
+/// backend if it does. The adapter therefore behaves exactly like its backend, and only
+/// replaces the default methods the backend inherits unchanged.
+///
+/// Copying a method needs its source, so every default method has to be declared in a
+/// source file of the same compilation. Default methods only available as class files are
+/// forwarded to the backend.
+@SupportedAnnotationTypes(AdapterProcessor.ANNOTATION)
+public final class AdapterProcessor extends AbstractProcessor {
+  static final String ANNOTATION = "dev.lunaplugins.economy.api.currencies.GenerateAdapter";
+  private static final String INDENT = "  ";
+
+  private @Nullable Trees trees;
+
+  @Override
+  public synchronized void init(final ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    this.trees = Trees.instance(processingEnv);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+    for (final TypeElement annotation : annotations) {
+      for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        if (element.getKind() != ElementKind.INTERFACE) {
+          this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Only interfaces can have a generated adapter", element);
+          continue;
+        }
+        try {
+          this.generate((TypeElement) element);
+        } catch (final IOException e) {
+          this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write adapter: " + e.getMessage(), element);
+        }
+      }
+    }
+    return true;
+  }
+
+  private void generate(final TypeElement type) throws IOException {
+    final PackageElement pkg = this.processingEnv.getElementUtils().getPackageOf(type);
+    final String name = type.getSimpleName() + "Adapter";
+    final Set<String> imports = new TreeSet<>();
+    final StringBuilder fields = new StringBuilder();
+    final StringBuilder lookups = new StringBuilder();
+    final StringBuilder methods = new StringBuilder();
+    int copied = 0;
+
+    for (final Element member : this.processingEnv.getElementUtils().getAllMembers(type)) {
+      if (member.getKind() != ElementKind.METHOD
+        || member.getEnclosingElement().getKind() != ElementKind.INTERFACE
+        || member.getModifiers().contains(Modifier.STATIC)
+        || member.getModifiers().contains(Modifier.PRIVATE)) {
+        continue;
+      }
+      final ExecutableElement method = (ExecutableElement) member;
+      final @Nullable MethodTree tree = method.isDefault() ? this.tree(method) : null;
+      methods.append('\n');
+      this.appendSignature(methods, method);
+      if (tree == null || tree.getBody() == null || synchronizesOnThis(tree) || onlyThrows(tree)) {
+        methods.append(" {\n").append(INDENT).append(INDENT).append(forward(method)).append('\n').append(INDENT).append("}\n");
+        continue;
+      }
+      this.collectImports(method, imports);
+      final String flag = "forward" + copied++;
+      fields.append(INDENT).append("/// Whether the backend overrides `").append(method.getSimpleName()).append('(')
+        .append(method.getParameters().stream().map(parameter -> this.erasedName(parameter.asType())).collect(Collectors.joining(", ")))
+        .append(")`.\n").append(INDENT).append("private final boolean ").append(flag).append(";\n");
+      lookups.append(INDENT).append(INDENT).append("this.").append(flag).append(" = overrides(backend, ")
+        .append(((TypeElement) method.getEnclosingElement()).getQualifiedName()).append(".class, \"").append(method.getSimpleName()).append('"');
+      for (final VariableElement parameter : method.getParameters()) {
+        lookups.append(", ").append(this.erasedName(parameter.asType())).append(".class");
+      }
+      lookups.append(");\n");
+
+      // Printed with four spaces per level, like the compiler prints the statements
+      final StringBuilder body = new StringBuilder("{\n    if (this.").append(flag).append(") {\n        ").append(forward(method));
+      if (method.getReturnType().getKind() == TypeKind.VOID) {
+        body.append("\n        return;");
+      }
+      // Statements printed on their own lack the semicolons of declarations, so the block is unwrapped
+      final String block = tree.getBody().toString().strip();
+      body.append("\n    }").append(block, 1, block.length());
+      methods.append(' ').append(reindent(body.toString())).append('\n');
+    }
+
+    imports.removeIf(imported -> imported.equals(pkg.getQualifiedName() + ".*"));
+    try (final Writer writer = this.processingEnv.getFiler().createSourceFile(pkg.getQualifiedName() + "." + name, type).openWriter()) {
+      writer.write("package " + pkg.getQualifiedName() + ";\n\n");
+      for (final String imported : imports) {
+        writer.write("import " + imported + ";\n");
+      }
+      writer.write("\n/// A final, flattened implementation of [" + type.getSimpleName() + "] forwarding its primitives to a backend.\n");
+      writer.write("///\n/// Generated from the default methods of [" + type.getSimpleName() + "] and the interfaces it extends.\n");
+      writer.write("/// Default methods overridden by the class of the backend are forwarded to it.\n");
+      writer.write("@javax.annotation.processing.Generated(\"" + AdapterProcessor.class.getName() + "\")\n");
+      writer.write("public final class " + name + " implements " + type.getSimpleName() + " {\n");
+      writer.write(INDENT + "private final " + type.getSimpleName() + " backend;\n");
+      writer.write(fields.toString());
+      writer.write("\n" + INDENT + "/// Creates an adapter.\n" + INDENT + "///\n" + INDENT + "/// @param backend implementation of the primitives\n");
+      writer.write(INDENT + "public " + name + "(final " + type.getSimpleName() + " backend) {\n");
+      writer.write(INDENT + INDENT + "this.backend = backend;\n");
+      writer.write(lookups.toString());
+      writer.write(INDENT + "}\n\n");
+      writer.write(INDENT + "/// Whether the class of a backend overrides a default method.\n");
+      writer.write(INDENT + "private static boolean overrides(final Object backend, final Class<?> declaring, final String name, final Class<?>... parameters) {\n");
+      writer.write(INDENT + INDENT + "try {\n");
+      writer.write(INDENT + INDENT + INDENT + "return backend.getClass().getMethod(name, parameters).getDeclaringClass() != declaring;\n");
+      writer.write(INDENT + INDENT + "} catch (final NoSuchMethodException e) {\n");
+      writer.write(INDENT + INDENT + INDENT + "throw new IllegalStateException(\"Backend does not implement \" + name, e);\n");
+      writer.write(INDENT + INDENT + "}\n" + INDENT + "}\n\n");
+      writer.write(INDENT + "/// The implementation of the primitives.\n" + INDENT + "///\n" + INDENT + "/// @return backend\n");
+      writer.write(INDENT + "public " + type.getSimpleName() + " backend() {\n" + INDENT + INDENT + "return this.backend;\n" + INDENT + "}\n");
+      writer.write(methods.toString());
+      writer.write("\n" + INDENT + "@Override\n" + INDENT + "public String toString() {\n");
+      writer.write(INDENT + INDENT + "return \"" + name + "[\" + this.backend + \"]\";\n" + INDENT + "}\n");
+      writer.write("}\n");
+    }
+  }
+
+  /// The statement forwarding a call of a method to the backend.
+  private static String forward(final ExecutableElement method) {
+    return (method.getReturnType().getKind() == TypeKind.VOID ? "" : "return ")
+      + "this.backend." + method.getSimpleName() + '('
+      + method.getParameters().stream().map(parameter -> parameter.getSimpleName().toString()).collect(Collectors.joining(", "))
+      + ");";
+  }
+
+  /// The name of the erasure of a type, as used in a class literal.
+  private String erasedName(final TypeMirror type) {
+    final TypeMirror erased = this.processingEnv.getTypeUtils().erasure(type);
+    if (erased.getKind().isPrimitive()) {
+      return erased.getKind().name().toLowerCase(Locale.ROOT);
+    }
+    if (erased.getKind() == TypeKind.ARRAY) {
+      return this.erasedName(((ArrayType) erased).getComponentType()) + "[]";
+    }
+    return ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+  }
+
+  private @Nullable MethodTree tree(final ExecutableElement method) {
+    final Trees trees = this.trees;
+    return trees == null ? null : trees.getTree(method);
+  }
+
+  /// Copies the imports of the file declaring a method, so its body compiles in the adapter.
+  private void collectImports(final ExecutableElement method, final Set<String> imports) {
+    final Trees trees = this.trees;
+    final @Nullable TreePath path = trees == null ? null : trees.getPath(method);
+    if (path == null) {
+      return;
+    }
+    final CompilationUnitTree unit = path.getCompilationUnit();
+    for (final ImportTree imported : unit.getImports()) {
+      if (!imported.isStatic()) {
+        imports.add(imported.getQualifiedIdentifier().toString());
+      }
+    }
+    // Types of the declaring package are referenced without an import
+    if (unit.getPackageName() != null) {
+      imports.add(unit.getPackageName() + ".*");
+    }
+  }
+
+  private void appendSignature(final StringBuilder builder, final ExecutableElement method) {
+    builder.append(INDENT).append("@Override\n").append(INDENT).append("public final ");
+    if (!method.getTypeParameters().isEmpty()) {
+      builder.append('<');
+      final List<String> parameters = new ArrayList<>();
+      for (final TypeParameterElement parameter : method.getTypeParameters()) {
+        final String bounds = parameter.getBounds().stream()
+          .map(TypeMirror::toString)
+          .filter(bound -> !bound.equals("java.lang.Object"))
+          .collect(Collectors.joining(" & "));
+        parameters.add(bounds.isEmpty() ? parameter.getSimpleName().toString() : parameter.getSimpleName() + " extends " + bounds);
+      }
+      builder.append(String.join(", ", parameters)).append("> ");
+    }
+    builder.append(method.getReturnType()).append(' ').append(method.getSimpleName()).append('(');
+    final List<? extends VariableElement> parameters = method.getParameters();
+    for (int i = 0; i < parameters.size(); i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      final TypeMirror parameterType = parameters.get(i).asType();
+      builder.append("final ");
+      if (method.isVarArgs() && i == parameters.size() - 1) {
+        builder.append(((ArrayType) parameterType).getComponentType()).append("...");
+      } else {
+        builder.append(parameterType);
+      }
+      builder.append(' ').append(parameters.get(i).getSimpleName());
+    }
+    builder.append(')');
+    if (!method.getThrownTypes().isEmpty()) {
+      builder.append(" throws ").append(method.getThrownTypes().stream().map(TypeMirror::toString).collect(Collectors.joining(", ")));
+    }
+  }
+
+  private static boolean onlyThrows(final MethodTree tree) {
+    final List<? extends StatementTree> statements = tree.getBody().getStatements();
+    return statements.size() == 1 && statements.getFirst().getKind() == Tree.Kind.THROW;
+  }
+
+  private static boolean synchronizesOnThis(final MethodTree tree) {
+    final Boolean found = new TreeScanner<Boolean, @Nullable Void>() {
+      @Override
+      public Boolean visitSynchronized(final SynchronizedTree node, final @Nullable Void unused) {
+        return node.getExpression().toString().replace("(", "").replace(")", "").equals("this") || Boolean.TRUE.equals(super.visitSynchronized(node, unused));
+      }
+
+      @Override
+      public Boolean reduce(final @Nullable Boolean first, final @Nullable Boolean second) {
+        return Boolean.TRUE.equals(first) || Boolean.TRUE.equals(second);
+      }
+    }.scan(tree.getBody(), null);
+    return Boolean.TRUE.equals(found);
+  }
+
+  /// Indents a block printed by the compiler with four spaces per level like the rest of the adapter.
+  private static String reindent(final String block) {
+    final StringBuilder builder = new StringBuilder();
+    final String[] lines = block.strip().split("\n");
+    for (int i = 0; i < lines.length; i++) {
+      final String line = lines[i];
+      int spaces = 0;
+      while (spaces < line.length() && line.charAt(spaces) == ' ') {
+        spaces++;
+      }
+      if (i > 0) {
+        builder.append('\n').append(INDENT);
+      }
+      builder.append(INDENT.repeat(spaces / 4)).append(line.substring(spaces));
+    }
+    return builder.toString();
+  }
+}
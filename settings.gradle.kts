@@ -1,5 +1,5 @@
 rootProject.name = "LunaEconomy"
 
-sequenceOf("api", "plugin").forEach {
+sequenceOf("processor", "api", "plugin", "benchmarks").forEach {
   include(it)
 }